@@ -0,0 +1,78 @@
+package com.astro;
+
+import jfxtras.scene.control.agenda.Agenda.Appointment;
+import jfxtras.scene.control.agenda.Agenda.AppointmentImplLocal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of putting hearings on the calendar: the summary and description strings of each
+ * appointment, and turning a list of hearings into Agenda appointments.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AgendaBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int size;
+
+    private List<Hearing> hearings;
+
+    @Setup
+    public void setUp() {
+        hearings = BenchmarkData.hearings(size);
+    }
+
+    @Benchmark
+    public void agendaSummary(Blackhole blackhole) {
+        for (Hearing hearing : hearings) {
+            blackhole.consume(hearing.getAgendaSummary());
+        }
+    }
+
+    @Benchmark
+    public void agendaDescription(Blackhole blackhole) {
+        for (Hearing hearing : hearings) {
+            blackhole.consume(hearing.getAgendaDescription());
+        }
+    }
+
+    /**
+     * The work of {@code CourtScheduling.createAppointmentsFromHearings}, which cannot be called
+     * without building the view: one appointment per hearing, registered in both lookup maps.
+     */
+    @Benchmark
+    public List<Appointment> createAppointments() {
+        Map<Appointment, Hearing> hearingsByAppointment = new IdentityHashMap<>();
+        Map<Hearing, Appointment> visibleAppointments = new IdentityHashMap<>();
+        List<Appointment> appointments = new ArrayList<>();
+        for (Hearing hearing : hearings) {
+            AppointmentImplLocal appointment = new AppointmentImplLocal();
+            CourtScheduling.copyToAppointment(hearing, appointment);
+            appointments.add(appointment);
+            hearingsByAppointment.put(appointment, hearing);
+            visibleAppointments.put(hearing, appointment);
+        }
+        return appointments;
+    }
+}
@@ -0,0 +1,72 @@
+package com.astro;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generates the cases and hearings the benchmarks run on. The same size and seed always give the
+ * same data, so runs can be compared. Field values are drawn from small vocabularies like the
+ * registry's, so strings repeat across rows as they do in production.
+ */
+final class BenchmarkData {
+
+    static final long SEED = 20_240_601L;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2020, 1, 1);
+    private static final int DAYS = 6 * 365;
+
+    private static final String[] SURNAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller",
+        "Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore",
+        "Jackson", "Martin", "Lee", "Perez", "Thompson", "White", "Harris", "Sanchez", "Clark", "Ramirez", "Lewis"};
+    private static final String[] ENTITIES = {"Holdings", "Logistics", "Estates", "Bank", "Insurance", "Properties",
+        "Foods", "Motors", "Trust", "Council"};
+    private static final String[] TYPES = {"Civil", "Criminal", "Family", "Commercial", "Land", "Labour", "Appeal"};
+    private static final String[] STATUSES = {"Filed", "In Progress", "In Progress", "Adjourned", "Closed", "Closed"};
+    private static final String[] JUDGES = {"Judge Evans", "Judge Patel", "Judge Chen", "Judge Smith", "Judge Jones",
+        "Judge Brown", "Judge Green", Case.UNASSIGNED};
+    private static final String[] HEARING_TYPES = {"Trial", "Motion", "Status Conference", "Mention"};
+    private static final String[] HEARING_STATUSES = {"Scheduled", "Scheduled", "Adjourned", "Completed"};
+    private static final String[] ROOMS = {"Courtroom 1", "Courtroom 2", "Courtroom 3", "Courtroom 4", "Courtroom 5",
+        "Courtroom 6", "Courtroom 7", "Courtroom 8"};
+
+    private BenchmarkData() {
+    }
+
+    static List<Case> cases(int count) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<Case> cases = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            cases.add(nextCase(random, i));
+        }
+        return cases;
+    }
+
+    static Case nextCase(SplittableRandom random, int i) {
+        String title = pick(random, SURNAMES) + " v. " + pick(random, SURNAMES) + " " + pick(random, ENTITIES);
+        return new Case(caseNumber(i), title, pick(random, TYPES), pick(random, STATUSES),
+            FIRST_DAY.plusDays(random.nextInt(DAYS)), pick(random, JUDGES));
+    }
+
+    static List<Hearing> hearings(int count) {
+        SplittableRandom random = new SplittableRandom(SEED + 1);
+        List<Hearing> hearings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String type = pick(random, HEARING_TYPES);
+            LocalTime start = LocalTime.of(9 + random.nextInt(8), 30 * random.nextInt(2));
+            hearings.add(new Hearing(caseNumber(i), pick(random, SURNAMES) + " vs " + pick(random, SURNAMES),
+                pick(random, JUDGES), FIRST_DAY.plusDays(random.nextInt(DAYS)), start, start.plusMinutes(30 + 30 * random.nextInt(4)),
+                pick(random, ROOMS), type, pick(random, HEARING_STATUSES), CourtScheduling.groupFor(type)));
+        }
+        return hearings;
+    }
+
+    static String caseNumber(int i) {
+        return "CASE-" + String.format("%08d", i);
+    }
+
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,41 @@
+package com.astro;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with JMH's usual command line, always adding the GC profiler so every
+ * result comes with its allocation rate and bytes allocated per operation.
+ * <p>
+ * For example, the search benchmarks up to a million cases:
+ * {@code java -jar target/benchmarks.jar CaseSearch -p size=1000,100000,1000000}.
+ * <p>
+ * Forks get the JVM's default heap unless {@code -Dbench.heap=<size>} is given, which fixes
+ * both the initial and the maximum heap so resizing does not skew the results. A
+ * {@code -jvmArgsAppend} on the command line takes precedence. The ten-million-row size is not
+ * run by default; it needs about 12 GB:
+ * {@code java -Dbench.heap=12g -jar target/benchmarks.jar CaseScan -p size=10000000}.
+ */
+public class Benchmarks {
+
+    static final String HEAP_PROPERTY = "bench.heap";
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListProfilers()
+            || commandLine.shouldListResultFormats() || commandLine.shouldListWithParams()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(commandLine).addProfiler(GCProfiler.class);
+        String heap = System.getProperty(HEAP_PROPERTY);
+        if (heap != null && !heap.isBlank() && !commandLine.getJvmArgsAppend().hasValue()) {
+            options.jvmArgsAppend("-Xms" + heap, "-Xmx" + heap);
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,85 @@
+package com.astro;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building {@link Case} objects and of the full scans the dashboard and staff views make
+ * over them, next to the same counts answered by {@link ColumnarCaseStore}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CaseScanBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int size;
+
+    private List<Case> cases;
+    private ColumnarCaseStore store;
+
+    @Setup
+    public void setUp() {
+        cases = BenchmarkData.cases(size);
+        store = new ColumnarCaseStore();
+        for (Case c : cases) {
+            store.add(c);
+        }
+    }
+
+    @Benchmark
+    public List<Case> construct() {
+        // Field values come from the generated cases, so only the objects themselves are new
+        List<Case> built = new ArrayList<>(size);
+        for (Case c : cases) {
+            built.add(new Case(c.getCaseNumber(), c.getCaseTitle(), c.getCaseType(), c.getCurrentStatus(),
+                c.getFilingDate(), c.getAssignedJudge()));
+        }
+        return built;
+    }
+
+    @Benchmark
+    public int scanOpenCases() {
+        int open = 0;
+        for (Case c : cases) {
+            if (!c.isClosed()) {
+                open++;
+            }
+        }
+        return open;
+    }
+
+    @Benchmark
+    public Map<String, Integer> scanCountByJudge() {
+        Map<String, Integer> counts = new HashMap<>();
+        for (Case c : cases) {
+            if (!c.isUnassigned()) {
+                counts.merge(c.getAssignedJudge(), 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    @Benchmark
+    public Map<String, Long> columnarCountByStatus() {
+        return store.countBy(ColumnarCaseStore.Column.STATUS);
+    }
+}
@@ -0,0 +1,102 @@
+package com.astro;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Cost of answering one search-box query: the substring predicate the case table used to run on
+ * every row, that predicate driving a {@link FilteredList} refilter, and the inverted index that
+ * replaced both.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CaseSearchBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int size;
+
+    @Param({"smith", "0012"}) // A title word, and a fragment of case numbers
+    String query;
+
+    private List<Case> cases;
+    private FilteredList<Case> filtered;
+    private CaseSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        cases = BenchmarkData.cases(size);
+        ObservableList<Case> master = FXCollections.observableArrayList(cases);
+        filtered = new FilteredList<>(master, c -> true);
+        index = new CaseSearchIndex();
+        for (int rowId = 0; rowId < size; rowId++) {
+            index.add(rowId, cases.get(rowId));
+        }
+    }
+
+    /**
+     * The search predicate of the original case table, as it was bound to the search field.
+     *
+     * @param newValue The search text.
+     * @return The predicate.
+     */
+    static Predicate<Case> legacyPredicate(String newValue) {
+        return caseItem -> {
+            if (newValue == null || newValue.isEmpty()) {
+                return true;
+            }
+            String lowerCaseFilter = newValue.toLowerCase();
+            if (caseItem.getCaseNumber().toLowerCase().contains(lowerCaseFilter)) {
+                return true;
+            } else if (caseItem.getCaseTitle().toLowerCase().contains(lowerCaseFilter)) {
+                return true;
+            } else if (caseItem.getCaseType().toLowerCase().contains(lowerCaseFilter)) {
+                return true;
+            }
+            return false;
+        };
+    }
+
+    @Benchmark
+    public int predicateScan() {
+        Predicate<Case> predicate = legacyPredicate(query);
+        int matches = 0;
+        for (Case c : cases) {
+            if (predicate.test(c)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public int filteredListRefilter() {
+        // A new predicate instance makes the list refilter every row, as each keystroke did
+        filtered.setPredicate(legacyPredicate(query));
+        return filtered.size();
+    }
+
+    @Benchmark
+    public int indexSearch() {
+        return index.search(query).length;
+    }
+}
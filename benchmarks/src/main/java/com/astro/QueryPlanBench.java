@@ -0,0 +1,205 @@
+package com.astro;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Loads a large generated dataset into the configured database, migrates it, and runs the
+ * application's query shapes against it, printing each query's plan and its median time, to
+ * check that every shape is answered from an index rather than a scan.
+ * Intended for an empty scratch database: it registers cases numbered {@code BENCH-*}.
+ * <p>
+ * Not a JMH benchmark; run it from the benchmarks jar, e.g. on H2 in MySQL mode:
+ * {@code java -Djms.db.url="jdbc:h2:mem:jms;MODE=MySQL;DB_CLOSE_DELAY=-1" -cp target/benchmarks.jar com.astro.QueryPlanBench}.
+ */
+public class QueryPlanBench {
+
+    static final int DEFAULT_CASES = 200_000;
+    static final int HEARINGS_PER_CASE = 3;
+    static final int AUDIT_ENTRIES_PER_CASE = 5;
+    static final int RUNS = 21; // Timed runs per query; the median is reported
+    private static final long SEED = 42;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2023, 1, 1);
+    private static final int DAYS = 5 * 365; // Spread of the generated dates
+    private static final String[] JUDGES = {"Judge Evans", "Judge Patel", "Judge Chen", "Judge Smith", "Judge Jones",
+        "Judge Brown", "Judge Green"};
+    private static final String[] CASE_STATUSES = {"Filed", "In Progress", "In Progress", "Closed", "Closed"};
+    private static final String[] HEARING_STATUSES = {"Scheduled", "Scheduled", "Completed", "Adjourned"};
+    private static final String[] FILING_STATUSES = {"Pending", "Accepted", "Accepted", "Accepted", "Rejected"};
+
+    private static final String INSERT_FILING = "INSERT INTO Efiling (case_id, submitted_by, submission_date, status) "
+        + "VALUES ((SELECT case_id FROM Cases WHERE case_number = ?), ?, ?, ?)";
+    private static final String INSERT_AUDIT = "INSERT INTO AuditLogs (user_id, action, timestamp) VALUES (?, ?, ?)";
+    static final String SELECT_FILING_QUEUE = "SELECT efiling_id, case_id, submitted_by, submission_date FROM Efiling "
+        + "WHERE status = ? ORDER BY submission_date LIMIT ?";
+    static final String SELECT_AUDIT_RANGE = "SELECT log_id, user_id, action, timestamp FROM AuditLogs "
+        + "WHERE timestamp >= ? AND timestamp < ? ORDER BY timestamp LIMIT ?";
+    static final String SELECT_AUDIT_USER = "SELECT log_id, action, timestamp FROM AuditLogs "
+        + "WHERE user_id = ? AND timestamp >= ? ORDER BY timestamp LIMIT ?";
+
+    /**
+     * A query shape and the parameters to run it with.
+     */
+    private static final class Shape {
+        final String name;
+        final String sql;
+        final Object[] parameters;
+
+        Shape(String name, String sql, Object... parameters) {
+            this.name = name;
+            this.sql = sql;
+            this.parameters = parameters;
+        }
+    }
+
+    /**
+     * Runs the bench against the database named by the {@code jms.db.*} system properties.
+     *
+     * @param args Optionally the number of cases to generate.
+     * @throws Exception If the database cannot be loaded or queried.
+     */
+    public static void main(String[] args) throws Exception {
+        int cases = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CASES;
+        try (Database database = Database.openDefault()) {
+            System.out.println("Migrated: " + new MigrationRunner(database).migrate());
+            load(database, cases);
+            analyze(database);
+            for (Shape shape : shapes(cases)) {
+                run(database, shape);
+            }
+        }
+    }
+
+    private static void load(Database database, int count) throws SQLException {
+        UserDirectory users = UserDirectory.openDefault();
+        new UserDao(database).saveAll(users.profiles());
+        int submitter = new UserDao(database).idOf(users.profiles().get(0).getUserName()); // Any account will do
+        Random random = new Random(SEED);
+
+        long started = System.nanoTime();
+        List<Case> cases = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            cases.add(new Case(caseNumber(i), "Generated case " + i, "", CASE_STATUSES[random.nextInt(CASE_STATUSES.length)],
+                FIRST_DAY.plusDays(random.nextInt(DAYS)), JUDGES[random.nextInt(JUDGES.length)]));
+        }
+        new CaseDao(database, users).insertAll(cases);
+
+        List<Hearing> hearings = new ArrayList<>(count * HEARINGS_PER_CASE);
+        for (Case c : cases) {
+            for (int h = 0; h < HEARINGS_PER_CASE; h++) {
+                LocalTime start = LocalTime.of(9 + random.nextInt(8), 0);
+                hearings.add(new Hearing(c.getCaseNumber(), c.getCaseTitle(), c.getAssignedJudge(),
+                    FIRST_DAY.plusDays(random.nextInt(DAYS)), start, start.plusHours(1), "Courtroom " + (1 + random.nextInt(12)),
+                    "Trial", HEARING_STATUSES[random.nextInt(HEARING_STATUSES.length)], null));
+            }
+        }
+        new HearingDao(database).insertAll(hearings);
+
+        database.batch(INSERT_FILING, range(count), (statement, i) -> {
+            statement.setString(1, caseNumber(i));
+            statement.setInt(2, submitter);
+            statement.setTimestamp(3, timestamp(random));
+            statement.setString(4, FILING_STATUSES[random.nextInt(FILING_STATUSES.length)]);
+        });
+        database.batch(INSERT_AUDIT, range(count * AUDIT_ENTRIES_PER_CASE), (statement, i) -> {
+            statement.setInt(1, submitter);
+            statement.setString(2, "case.view " + caseNumber(i / AUDIT_ENTRIES_PER_CASE));
+            statement.setTimestamp(3, timestamp(random));
+        });
+        System.out.printf("Loaded %,d cases, %,d hearings, %,d filings and %,d audit entries in %.1f s%n", count,
+            count * HEARINGS_PER_CASE, count, count * AUDIT_ENTRIES_PER_CASE, (System.nanoTime() - started) / 1e9);
+    }
+
+    private static void analyze(Database database) throws SQLException {
+        database.inTransaction(session -> {
+            String product = session.connection().getMetaData().getDatabaseProductName();
+            try (Statement statement = session.connection().createStatement()) {
+                statement.execute(product.equalsIgnoreCase("MySQL")
+                    ? "ANALYZE TABLE Users, Cases, Hearings, Efiling, AuditLogs" : "ANALYZE");
+            }
+            return null;
+        });
+    }
+
+    private static List<Shape> shapes(int cases) {
+        LocalDateTime week = FIRST_DAY.plusDays(DAYS / 2).atStartOfDay();
+        return List.of(
+            new Shape("Current Status Cases", CaseDao.SELECT_STATUS_PAGE, "Ongoing", "", 500),
+            new Shape("Case registry page, deep", CaseDao.SELECT_PAGE, caseNumber(cases * 9 / 10), 100),
+            new Shape("Calendar week", HearingDao.SELECT_RANGE, Timestamp.valueOf(week), Timestamp.valueOf(week.plusDays(7))),
+            new Shape("Hearings of a case", HearingDao.SELECT_FOR_CASE, caseNumber(cases / 2)),
+            new Shape("Hearings page, deep", HearingDao.SELECT_PAGE, Timestamp.valueOf(week), Timestamp.valueOf(week), 0, 100),
+            new Shape("E-filing queue", SELECT_FILING_QUEUE, "Pending", 100),
+            new Shape("Audit log, one day", SELECT_AUDIT_RANGE, Timestamp.valueOf(week), Timestamp.valueOf(week.plusDays(1)), 1000),
+            new Shape("Audit log of a user", SELECT_AUDIT_USER, 1, Timestamp.valueOf(week), 100));
+    }
+
+    private static void run(Database database, Shape shape) throws SQLException {
+        database.inTransaction(session -> {
+            System.out.println();
+            System.out.println("== " + shape.name);
+            PreparedStatement explain = session.prepare("EXPLAIN " + shape.sql);
+            bind(explain, shape.parameters);
+            try (ResultSet rows = explain.executeQuery()) {
+                ResultSetMetaData columns = rows.getMetaData();
+                while (rows.next()) {
+                    StringBuilder line = new StringBuilder("   ");
+                    for (int c = 1; c <= columns.getColumnCount(); c++) {
+                        String value = rows.getString(c);
+                        if (value != null) {
+                            line.append(columns.getColumnCount() > 1 ? " " + columns.getColumnLabel(c) + "=" : " ").append(value);
+                        }
+                    }
+                    System.out.println(line.toString().replace('\n', ' '));
+                }
+            }
+            PreparedStatement query = session.prepare(shape.sql);
+            bind(query, shape.parameters);
+            long[] nanos = new long[RUNS];
+            int count = 0;
+            for (int r = 0; r < RUNS; r++) {
+                long start = System.nanoTime();
+                count = 0;
+                try (ResultSet rows = query.executeQuery()) {
+                    while (rows.next()) {
+                        count++;
+                    }
+                }
+                nanos[r] = System.nanoTime() - start;
+            }
+            Arrays.sort(nanos);
+            System.out.printf("   %,d rows, median %.2f ms%n", count, nanos[RUNS / 2] / 1e6);
+            return null;
+        });
+    }
+
+    private static void bind(PreparedStatement statement, Object[] parameters) throws SQLException {
+        for (int i = 0; i < parameters.length; i++) {
+            statement.setObject(i + 1, parameters[i]);
+        }
+    }
+
+    private static Iterable<Integer> range(int count) {
+        return () -> IntStream.range(0, count).iterator();
+    }
+
+    private static String caseNumber(int i) {
+        return String.format("BENCH-%08d", i);
+    }
+
+    private static Timestamp timestamp(Random random) {
+        return Timestamp.valueOf(FIRST_DAY.atStartOfDay().plusMinutes(random.nextInt(DAYS * 24 * 60)));
+    }
+}
@@ -0,0 +1,127 @@
+package com.astro;
+
+import java.util.function.Predicate;
+
+/**
+ * Decides what the signed-in user may do.
+ * The permissions of the user's roles are folded into one bit set when the session starts, so
+ * a check is a single AND. Row-level checks are resolved per permission up front as well: each
+ * permission gets a predicate over the row's owner that is either constant (granted on every
+ * row, or on none) or one name comparison (granted on own rows), so filtering a large table
+ * costs a few nanoseconds per row.
+ */
+public final class AccessPolicy {
+
+    private static volatile AccessPolicy current = new AccessPolicy(Profile.guest(System.getProperty("user.name")));
+
+    private final Profile profile;
+    private final long granted; // Bit set of the permissions of every role held
+    private final Predicate<String>[] rowChecks; // By permission ordinal, over the row owner's name
+
+    @SuppressWarnings("unchecked")
+    private AccessPolicy(Profile profile) {
+        this.profile = profile;
+        long bits = 0;
+        for (Role role : profile.getRoles()) {
+            bits |= role.permissions();
+        }
+        this.granted = bits;
+        Permission[] permissions = Permission.values();
+        rowChecks = (Predicate<String>[]) new Predicate<?>[permissions.length];
+        String owner = profile.getDisplayName();
+        for (Permission permission : permissions) {
+            if ((bits & permission.bit()) != 0) {
+                rowChecks[permission.ordinal()] = row -> true;
+            } else if (permission.getOwn() != null && (bits & permission.getOwn().bit()) != 0) {
+                rowChecks[permission.ordinal()] = owner::equals;
+            } else {
+                rowChecks[permission.ordinal()] = row -> false;
+            }
+        }
+    }
+
+    /**
+     * Compiles the permissions of a user for a session.
+     *
+     * @param profile The user.
+     * @return The user's policy.
+     */
+    public static AccessPolicy of(Profile profile) {
+        return new AccessPolicy(profile);
+    }
+
+    /**
+     * Starts a session for a user. Every view built afterwards checks against their permissions.
+     *
+     * @param profile The user signing in.
+     * @return The user's policy.
+     */
+    public static AccessPolicy signIn(Profile profile) {
+        AccessPolicy policy = of(profile);
+        current = policy;
+        return policy;
+    }
+
+    /**
+     * Returns the policy of the signed-in user, or of a public guest before anyone signs in.
+     *
+     * @return The current policy.
+     */
+    public static AccessPolicy current() {
+        return current;
+    }
+
+    public Profile getProfile() { return profile; }
+
+    /**
+     * Checks a permission that is not tied to a row.
+     *
+     * @param permission The permission.
+     * @return True if one of the user's roles grants it outright.
+     */
+    public boolean can(Permission permission) {
+        return (granted & permission.bit()) != 0;
+    }
+
+    /**
+     * Checks whether the user holds a permission on at least some rows, e.g. to decide whether
+     * to show a view that the user may only see filtered.
+     *
+     * @param permission The permission.
+     * @return True if it is granted outright or on own rows.
+     */
+    public boolean canOnSome(Permission permission) {
+        return can(permission) || (permission.getOwn() != null && can(permission.getOwn()));
+    }
+
+    /**
+     * Checks a permission on one row.
+     *
+     * @param permission The permission.
+     * @param rowOwner   The name the row is assigned to, e.g. a case's judge.
+     * @return True if the permission is granted outright, or on own rows and the user owns it.
+     */
+    public boolean can(Permission permission, String rowOwner) {
+        return rowChecks[permission.ordinal()].test(rowOwner);
+    }
+
+    /**
+     * Returns the row check for a permission, for filtering many rows.
+     *
+     * @param permission The permission.
+     * @return A predicate over the row owner's name.
+     */
+    public Predicate<String> rowCheck(Permission permission) {
+        return rowChecks[permission.ordinal()];
+    }
+
+    /**
+     * Tells whether the user is limited to their own rows for a permission.
+     *
+     * @param permission A row-level permission.
+     * @return True if only the "own" counterpart is granted.
+     */
+    public boolean isOwnOnly(Permission permission) {
+        return !can(permission) && canOnSome(permission);
+    }
+}
@@ -0,0 +1,591 @@
+package com.astro;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Tamper-evident audit and session log.
+ * Callers claim a slot in a pre-allocated ring buffer and fill it in place, so recording an
+ * action allocates nothing and never touches the disk. A single writer thread drains whatever
+ * is published, appends it to the current binary segment, and forces the batch with one fsync
+ * (group commit). Every record carries the SHA-256 of the previous record's hash and its own
+ * bytes, so editing or removing a record breaks the chain that {@link #verify()} checks.
+ * Segments roll over at {@link #SEGMENT_BYTES}; each has an index of fixed-width entries (time,
+ * user hash, offset) so records can be paged by sequence number, time or user without reading
+ * whole segments.
+ */
+public class AuditLog implements Closeable {
+
+    static final int RING_SIZE = 8_192; // Slots between callers and the writer; a power of two
+    static final long SEGMENT_BYTES = 16L << 20; // Segment size before rolling over
+    static final int MAX_DETAIL_CHARS = 4_000; // Longer details are truncated
+    private static final int HASH_BYTES = 32;
+    private static final int INDEX_ENTRY_BYTES = Long.BYTES + Integer.BYTES + Integer.BYTES; // Time, user hash, offset
+    private static final int BATCH_BUFFER_BYTES = 1 << 20;
+    private static final long IDLE_PARK_NANOS = 100_000_000L; // Writer sleep when nothing is published
+    private static final long FULL_PARK_NANOS = 50_000L; // Caller back-off while the ring is full
+
+    /**
+     * One recorded action.
+     */
+    public static final class Entry {
+        private final long sequence;
+        private final Instant time;
+        private final String user;
+        private final String action;
+        private final String detail;
+
+        Entry(long sequence, Instant time, String user, String action, String detail) {
+            this.sequence = sequence;
+            this.time = time;
+            this.user = user;
+            this.action = action;
+            this.detail = detail;
+        }
+
+        public long getSequence() { return sequence; }
+        public Instant getTime() { return time; }
+        public String getUser() { return user; }
+        public String getAction() { return action; }
+        public String getDetail() { return detail; }
+    }
+
+    private static volatile AuditLog global; // Shared log in the default data directory
+
+    private final Path directory;
+    private final Slot[] ring = new Slot[RING_SIZE];
+    private final AtomicLongArray published = new AtomicLongArray(RING_SIZE); // Sequence last published per slot
+    private final AtomicLong claimed = new AtomicLong(); // Next sequence to hand to a caller
+    private volatile long consumed; // Next sequence the writer will take; slots below it are free
+    private volatile long committed = -1; // Last sequence forced to disk and indexed
+    private volatile boolean writerSleeping;
+    private volatile boolean closing;
+    private volatile String currentUser = System.getProperty("user.name"); // Recorded when no user is given
+    private final NavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>(); // First sequence -> segment
+    private final Thread writer;
+
+    // Writer-thread state
+    private final ByteBuffer batch = ByteBuffer.allocateDirect(BATCH_BUFFER_BYTES);
+    private final ByteBuffer indexBatch = ByteBuffer.allocateDirect(BATCH_BUFFER_BYTES);
+    private final MessageDigest digest;
+    private byte[] chainHash = new byte[HASH_BYTES]; // Hash of the last record written
+    private long lastIndexedTime; // Index times never go backwards, so they can be binary searched
+    private Segment active;
+
+    /**
+     * Opens (or creates) the log in the given directory and starts its writer.
+     *
+     * @param directory The directory for the segment and index files.
+     * @throws IOException If existing segments cannot be read.
+     */
+    public AuditLog(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.digest = sha256();
+        for (int i = 0; i < RING_SIZE; i++) {
+            ring[i] = new Slot();
+            published.set(i, -1);
+        }
+        recover();
+        writer = new Thread(this::writeLoop, "audit-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Returns the log shared by the application, opening it in the default data directory on
+     * first use.
+     *
+     * @return The shared log.
+     */
+    public static AuditLog global() {
+        AuditLog log = global;
+        if (log == null) {
+            synchronized (AuditLog.class) {
+                log = global;
+                if (log == null) {
+                    try {
+                        global = log = new AuditLog(DataDirectory.resolve("audit"));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Cannot open audit log", e);
+                    }
+                }
+            }
+        }
+        return log;
+    }
+
+    /**
+     * Sets the user recorded by {@link #record(String, String)}, e.g. after login.
+     *
+     * @param user The signed-in user.
+     */
+    public void setCurrentUser(String user) {
+        this.currentUser = user;
+    }
+
+    /**
+     * Records an action by the current user.
+     *
+     * @param action A short dotted action name, e.g. "case.view".
+     * @param detail Free-text detail.
+     */
+    public void record(String action, String detail) {
+        record(currentUser, action, detail);
+    }
+
+    /**
+     * Records an action. Returns as soon as the entry is in the ring buffer; it waits only while
+     * the ring is full, i.e. while the writer is behind by {@link #RING_SIZE} entries.
+     *
+     * @param user   The acting user.
+     * @param action A short dotted action name.
+     * @param detail Free-text detail.
+     */
+    public void record(String user, String action, String detail) {
+        if (closing) {
+            return; // Shutting down; the writer has stopped taking entries
+        }
+        long sequence = claimed.getAndIncrement();
+        while (sequence - consumed >= RING_SIZE) {
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+        int index = (int) (sequence & (RING_SIZE - 1));
+        Slot slot = ring[index];
+        slot.time = System.currentTimeMillis();
+        slot.user = user;
+        slot.action = action;
+        slot.detail = detail;
+        published.set(index, sequence); // Volatile write publishes the slot fields
+        if (writerSleeping) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * Waits until everything recorded so far is on disk.
+     */
+    public void sync() {
+        long target = claimed.get() - 1;
+        while (committed < target && writer.isAlive()) {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+    }
+
+    /**
+     * Returns the sequence number of the newest record on disk.
+     *
+     * @return The last committed sequence, or -1 if the log is empty.
+     */
+    public long lastSequence() {
+        return committed;
+    }
+
+    /**
+     * Reads records newest first, starting at a sequence number and skipping those that do not
+     * match the filters. Only index entries are scanned; records are read for matches only.
+     *
+     * @param fromSequence The newest sequence to consider.
+     * @param limit        The maximum number of entries to return.
+     * @param user         Only entries by this user; null for all.
+     * @param notBefore    Stop at entries older than this; null for no limit.
+     * @return Matching entries, newest first.
+     */
+    public List<Entry> readBackward(long fromSequence, int limit, String user, Instant notBefore) {
+        List<Entry> entries = new ArrayList<>();
+        long sequence = Math.min(fromSequence, committed);
+        long oldest = notBefore == null ? Long.MIN_VALUE : notBefore.toEpochMilli();
+        ByteBuffer index = ByteBuffer.allocate(INDEX_ENTRY_BYTES * 256);
+        try {
+            while (sequence >= 0 && entries.size() < limit) {
+                Map.Entry<Long, Segment> floor = segments.floorEntry(sequence);
+                if (floor == null) {
+                    break;
+                }
+                Segment segment = floor.getValue();
+                int count = (int) Math.min(256, sequence - segment.firstSequence + 1);
+                long first = sequence - count + 1;
+                index.clear().limit(count * INDEX_ENTRY_BYTES);
+                readFully(segment.index, index, (first - segment.firstSequence) * INDEX_ENTRY_BYTES);
+                for (int i = count - 1; i >= 0 && entries.size() < limit; i--) {
+                    int at = i * INDEX_ENTRY_BYTES;
+                    if (index.getLong(at) < oldest) {
+                        return entries; // Index times only grow, so everything older fails too
+                    }
+                    if (user == null || index.getInt(at + Long.BYTES) == user.hashCode()) {
+                        Entry entry = readRecord(segment, index.getInt(at + Long.BYTES + Integer.BYTES));
+                        if (user == null || user.equals(entry.user)) {
+                            entries.add(entry);
+                        }
+                    }
+                }
+                sequence = first - 1;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read audit log", e);
+        }
+        return entries;
+    }
+
+    /**
+     * Finds the newest record written at or before a point in time, by binary search over the
+     * segment indexes.
+     *
+     * @param time The point in time.
+     * @return The sequence number, or -1 if every record is newer.
+     */
+    public long sequenceAt(Instant time) {
+        long target = time.toEpochMilli();
+        long low = 0;
+        long high = committed;
+        long found = -1;
+        try {
+            while (low <= high) {
+                long middle = (low + high) >>> 1;
+                if (indexTime(middle) <= target) {
+                    found = middle;
+                    low = middle + 1;
+                } else {
+                    high = middle - 1;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read audit log", e);
+        }
+        return found;
+    }
+
+    /**
+     * Recomputes the hash chain over every segment.
+     *
+     * @return The sequence of the first record whose hash does not match, or -1 if the log is intact.
+     * @throws IOException If a segment cannot be read.
+     */
+    public long verify() throws IOException {
+        MessageDigest check = sha256();
+        byte[] previous = new byte[HASH_BYTES];
+        long last = committed;
+        for (Segment segment : segments.values()) {
+            long size = segment.data.size();
+            ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+            for (long position = 0; position < size; ) {
+                header.clear();
+                readFully(segment.data, header, position);
+                ByteBuffer record = ByteBuffer.allocate(header.getInt(0));
+                readFully(segment.data, record, position + Integer.BYTES);
+                long sequence = record.getLong(0);
+                if (sequence > last) {
+                    return -1;
+                }
+                check.update(previous);
+                check.update(record.array(), 0, record.capacity() - HASH_BYTES);
+                byte[] expected = check.digest();
+                if (!Arrays.equals(expected, 0, HASH_BYTES, record.array(), record.capacity() - HASH_BYTES, record.capacity())) {
+                    return sequence;
+                }
+                previous = expected;
+                position += Integer.BYTES + record.capacity();
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Writes everything already recorded, stops the writer and closes the files.
+     *
+     * @throws IOException If the files cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        closing = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Segment segment : segments.values()) {
+            segment.data.close();
+            segment.index.close();
+        }
+    }
+
+    // --- Writer ---
+
+    private void writeLoop() {
+        try {
+            while (true) {
+                long next = consumed;
+                long end = next;
+                while (end - next < RING_SIZE && published.get((int) (end & (RING_SIZE - 1))) == end) {
+                    end++;
+                }
+                if (end == next) {
+                    if (closing && claimed.get() == next) {
+                        return;
+                    }
+                    writerSleeping = true;
+                    if (published.get((int) (next & (RING_SIZE - 1))) != next && !closing) {
+                        LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    }
+                    writerSleeping = false;
+                    continue;
+                }
+                for (long sequence = next; sequence < end; sequence++) {
+                    Slot slot = ring[(int) (sequence & (RING_SIZE - 1))];
+                    append(sequence, slot.time, slot.user, slot.action, slot.detail);
+                    slot.user = slot.action = slot.detail = null;
+                }
+                consumed = end; // Slots are free again as soon as they are encoded
+                flushBatch();
+                committed = end - 1;
+            }
+        } catch (IOException e) {
+            closing = true; // Audit failures must be loud; stop accepting entries
+            throw new UncheckedIOException("Audit log writer failed", e);
+        }
+    }
+
+    private void append(long sequence, long time, String user, String action, String detail) throws IOException {
+        byte[] userBytes = bytes(user, 256);
+        byte[] actionBytes = bytes(action, 256);
+        byte[] detailBytes = bytes(detail, MAX_DETAIL_CHARS);
+        int length = Long.BYTES * 2 + Short.BYTES * 2 + Integer.BYTES
+            + userBytes.length + actionBytes.length + detailBytes.length + HASH_BYTES;
+        if (batch.remaining() < Integer.BYTES + length || indexBatch.remaining() < INDEX_ENTRY_BYTES) {
+            flushBatch();
+        }
+        if (active == null || active.size + batch.position() + Integer.BYTES + length > SEGMENT_BYTES) {
+            flushBatch();
+            roll(sequence);
+        }
+
+        int start = batch.position();
+        batch.putInt(length);
+        batch.putLong(sequence);
+        batch.putLong(time);
+        batch.putShort((short) userBytes.length).put(userBytes);
+        batch.putShort((short) actionBytes.length).put(actionBytes);
+        batch.putInt(detailBytes.length).put(detailBytes);
+        digest.update(chainHash);
+        ByteBuffer hashed = batch.duplicate();
+        hashed.position(start + Integer.BYTES).limit(batch.position());
+        digest.update(hashed);
+        chainHash = digest.digest();
+        batch.put(chainHash);
+
+        lastIndexedTime = Math.max(lastIndexedTime, time);
+        indexBatch.putLong(lastIndexedTime);
+        indexBatch.putInt(user == null ? 0 : user.hashCode());
+        indexBatch.putInt((int) (active.size + start));
+    }
+
+    /**
+     * Appends the encoded batch to the active segment and its index, then forces both once.
+     */
+    private void flushBatch() throws IOException {
+        if (batch.position() == 0) {
+            return;
+        }
+        batch.flip();
+        indexBatch.flip();
+        while (batch.hasRemaining()) {
+            active.size += active.data.write(batch, active.size);
+        }
+        long indexSize = active.index.size();
+        while (indexBatch.hasRemaining()) {
+            indexSize += active.index.write(indexBatch, indexSize);
+        }
+        active.data.force(false);
+        active.index.force(false);
+        batch.clear();
+        indexBatch.clear();
+    }
+
+    private void roll(long firstSequence) throws IOException {
+        active = Segment.open(directory, firstSequence);
+        segments.put(firstSequence, active);
+    }
+
+    // --- Recovery ---
+
+    /**
+     * Opens existing segments and rescans the newest one, rebuilding its index and dropping a
+     * record torn by a crash, so the hash chain and sequence numbers continue where they ended.
+     */
+    private void recover() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "audit-*.seg")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                long first = Long.parseLong(name.substring("audit-".length(), name.length() - ".seg".length()));
+                segments.put(first, Segment.open(directory, first));
+            }
+        }
+        if (segments.isEmpty()) {
+            return;
+        }
+        active = segments.lastEntry().getValue();
+        long size = active.data.size();
+        long position = 0;
+        long sequence = active.firstSequence;
+        ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+        active.index.truncate(0);
+        while (position + Integer.BYTES <= size) {
+            header.clear();
+            readFully(active.data, header, position);
+            int length = header.getInt(0);
+            if (length <= HASH_BYTES || position + Integer.BYTES + length > size) {
+                break;
+            }
+            ByteBuffer record = ByteBuffer.allocate(length);
+            readFully(active.data, record, position + Integer.BYTES);
+            sequence = record.getLong(0) + 1;
+            long time = record.getLong(Long.BYTES);
+            String user = readString(record, Long.BYTES * 2);
+            lastIndexedTime = Math.max(lastIndexedTime, time);
+            indexBatch.putLong(lastIndexedTime).putInt(user.isEmpty() ? 0 : user.hashCode()).putInt((int) position);
+            if (!indexBatch.hasRemaining()) {
+                indexBatch.flip();
+                active.index.write(indexBatch, active.index.size());
+                indexBatch.clear();
+            }
+            record.position(length - HASH_BYTES);
+            record.get(chainHash);
+            position += Integer.BYTES + length;
+        }
+        indexBatch.flip();
+        active.index.write(indexBatch, active.index.size());
+        indexBatch.clear();
+        active.data.truncate(position);
+        active.size = position;
+        if (position == 0 && segments.size() > 1) {
+            chainHash = lastHashOf(segments.lowerEntry(active.firstSequence).getValue());
+        }
+        claimed.set(sequence);
+        consumed = sequence;
+        committed = sequence - 1;
+        for (int i = 0; i < RING_SIZE; i++) {
+            published.set(i, -1);
+        }
+    }
+
+    private static byte[] lastHashOf(Segment segment) throws IOException {
+        long entries = segment.index.size() / INDEX_ENTRY_BYTES;
+        byte[] hash = new byte[HASH_BYTES];
+        if (entries > 0) {
+            ByteBuffer buffer = ByteBuffer.wrap(hash);
+            readFully(segment.data, buffer, segment.data.size() - HASH_BYTES);
+        }
+        return hash;
+    }
+
+    // --- Reading ---
+
+    private long indexTime(long sequence) throws IOException {
+        Segment segment = segments.floorEntry(sequence).getValue();
+        ByteBuffer time = ByteBuffer.allocate(Long.BYTES);
+        readFully(segment.index, time, (sequence - segment.firstSequence) * INDEX_ENTRY_BYTES);
+        return time.getLong(0);
+    }
+
+    private static Entry readRecord(Segment segment, long offset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+        readFully(segment.data, header, offset);
+        ByteBuffer record = ByteBuffer.allocate(header.getInt(0));
+        readFully(segment.data, record, offset + Integer.BYTES);
+        long sequence = record.getLong(0);
+        long time = record.getLong(Long.BYTES);
+        int at = Long.BYTES * 2;
+        String user = readString(record, at);
+        at += Short.BYTES + (record.getShort(at) & 0xFFFF);
+        String action = readString(record, at);
+        at += Short.BYTES + (record.getShort(at) & 0xFFFF);
+        String detail = new String(record.array(), at + Integer.BYTES, record.getInt(at), StandardCharsets.UTF_8);
+        return new Entry(sequence, Instant.ofEpochMilli(time), user, action, detail);
+    }
+
+    private static String readString(ByteBuffer record, int at) {
+        return new String(record.array(), at + Short.BYTES, record.getShort(at) & 0xFFFF, StandardCharsets.UTF_8);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of audit segment at " + position);
+            }
+        }
+    }
+
+    private static byte[] bytes(String value, int maxChars) {
+        if (value == null) {
+            return new byte[0];
+        }
+        String bounded = value.length() > maxChars ? value.substring(0, maxChars) : value;
+        byte[] encoded = bounded.getBytes(StandardCharsets.UTF_8);
+        return encoded.length > 0xFFFF ? Arrays.copyOf(encoded, 0xFFFF) : encoded;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required on every Java platform", e);
+        }
+    }
+
+    /**
+     * A ring buffer slot, reused for every entry that passes through it.
+     */
+    private static final class Slot {
+        long time;
+        String user;
+        String action;
+        String detail;
+    }
+
+    /**
+     * One segment file and its index.
+     */
+    private static final class Segment {
+        final long firstSequence;
+        final FileChannel data;
+        final FileChannel index;
+        long size; // Bytes written to the data file; only used by the writer
+
+        private Segment(long firstSequence, FileChannel data, FileChannel index) throws IOException {
+            this.firstSequence = firstSequence;
+            this.data = data;
+            this.index = index;
+            this.size = data.size();
+        }
+
+        static Segment open(Path directory, long firstSequence) throws IOException {
+            String name = String.format("audit-%020d", firstSequence);
+            return new Segment(firstSequence,
+                FileChannel.open(directory.resolve(name + ".seg"),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE),
+                FileChannel.open(directory.resolve(name + ".idx"),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE));
+        }
+    }
+}
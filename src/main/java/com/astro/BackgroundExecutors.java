@@ -0,0 +1,35 @@
+package com.astro;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates executors for loading data off the FX thread.
+ * The build targets Java 17, so virtual threads are looked up at runtime: on Java 21 or later
+ * every task gets its own virtual thread, otherwise tasks run on a cached pool of daemon threads.
+ */
+public final class BackgroundExecutors {
+
+    private BackgroundExecutors() {
+    }
+
+    /**
+     * Creates an executor for blocking load tasks such as opening files.
+     *
+     * @param name The thread name prefix, used only for platform threads.
+     * @return A new executor; its threads never keep the application alive.
+     */
+    public static ExecutorService newLoader(String name) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -0,0 +1,899 @@
+package com.astro;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Online, incremental backups of the data stores, with restore to any backup.
+ * Each store hands out a consistent {@link Snapshot} without stopping: append-only files are
+ * captured by their length at the snapshot point, files that are replaced by atomic moves are
+ * pinned by an open channel, and pages overwritten in place are preserved by a
+ * {@link CopyOnWrite} image until the backup has read them.
+ * <p>
+ * Files are cut into {@link #BLOCK_SIZE} blocks stored once under their SHA-256 hash, so a
+ * backup only writes blocks no earlier backup has written. Blocks of append-only files below the
+ * previous backup's length and unchanged immutable files are not even read again. Blocks are
+ * hashed and compressed on all cores; blocks that do not compress are stored as-is. Each backup
+ * is a manifest listing every file's blocks, so any backup restores on its own, and restore
+ * decompresses blocks in parallel straight into their file positions.
+ */
+public class BackupManager implements Closeable {
+
+    static final int BLOCK_SIZE = 1 << 20; // Bytes per backup block
+    static final String PENDING_RESTORE = "restore.pending"; // Marker in the data directory
+    static final String STAGING = "restore-staging"; // Restored stores waiting for the next start
+    private static final int MANIFEST_MAGIC = 0x4A424B31; // "JBK1"
+    private static final int HASH_BYTES = 32;
+    private static final byte STORED = 0;
+    private static final byte DEFLATED = 1;
+    private static final DateTimeFormatter BACKUP_ID =
+        DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneOffset.UTC);
+    private static final HexFormat HEX = HexFormat.of();
+
+    /**
+     * A data store that can be backed up.
+     */
+    public interface Source {
+        /**
+         * Returns the store's directory name under the data directory.
+         *
+         * @return The name, e.g. "cases".
+         */
+        String getBackupName();
+
+        /**
+         * Captures the store's files as of now. Writes may continue while the snapshot is open
+         * and do not change what it reads.
+         *
+         * @return The snapshot; close it when the backup has read it.
+         * @throws IOException If the files cannot be opened.
+         */
+        Snapshot openSnapshot() throws IOException;
+    }
+
+    /**
+     * A store's files frozen at one point.
+     */
+    public interface Snapshot extends Closeable {
+        List<FileImage> getFiles();
+    }
+
+    /**
+     * Reads a file image's bytes.
+     */
+    public interface Reader {
+        /**
+         * Fills a buffer from a position; the range lies within the image length.
+         *
+         * @param position The position in the file.
+         * @param target   The buffer to fill completely.
+         * @throws IOException If the file cannot be read.
+         */
+        void read(long position, ByteBuffer target) throws IOException;
+    }
+
+    /**
+     * How a file changes, which decides what an incremental backup has to read again.
+     */
+    public enum Kind {
+        IMMUTABLE, // Never changes once written
+        APPEND_ONLY, // Only grows; existing bytes never change
+        MUTABLE // May change anywhere
+    }
+
+    /**
+     * One file of a snapshot.
+     */
+    public static final class FileImage {
+        private final String path; // Relative to the store directory, '/'-separated
+        private final long length;
+        private final Kind kind;
+        private final Reader reader;
+
+        public FileImage(String path, long length, Kind kind, Reader reader) {
+            this.path = path;
+            this.length = length;
+            this.kind = kind;
+            this.reader = reader;
+        }
+
+        /**
+         * Creates an image read through an open channel.
+         *
+         * @param path    The path relative to the store directory.
+         * @param length  The length as of the snapshot.
+         * @param kind    How the file changes.
+         * @param channel The channel to read through.
+         * @return The image.
+         */
+        public static FileImage of(String path, long length, Kind kind, FileChannel channel) {
+            return new FileImage(path, length, kind, (position, target) -> readFully(channel, target, position));
+        }
+
+        /**
+         * Creates an image of an immutable file, opened for each read.
+         *
+         * @param path   The path relative to the store directory.
+         * @param file   The file.
+         * @param length The file's length.
+         * @return The image.
+         */
+        public static FileImage ofImmutable(String path, Path file, long length) {
+            return new FileImage(path, length, Kind.IMMUTABLE, (position, target) -> {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    readFully(channel, target, position);
+                }
+            });
+        }
+
+        public String getPath() { return path; }
+        public long getLength() { return length; }
+        public Kind getKind() { return kind; }
+    }
+
+    /**
+     * Keeps the bytes of a file that is overwritten in place as they were when a snapshot was
+     * taken. The store calls {@link #beforeWrite} under its write lock before each in-place
+     * write, and the page's old content is copied aside the first time it is overwritten.
+     */
+    public static final class CopyOnWrite implements Reader {
+        private static final int PAGE_SIZE = 4096;
+
+        private final FileChannel channel;
+        private final long length; // File length at the snapshot
+        private final Map<Long, byte[]> preserved = new ConcurrentHashMap<>(); // Page number -> old content
+
+        public CopyOnWrite(FileChannel channel, long length) {
+            this.channel = channel;
+            this.length = length;
+        }
+
+        /**
+         * Preserves the pages a write is about to change.
+         *
+         * @param position The write position.
+         * @param count    The number of bytes to be written.
+         * @throws IOException If the old content cannot be read.
+         */
+        public void beforeWrite(long position, int count) throws IOException {
+            for (long page = position / PAGE_SIZE; page * PAGE_SIZE < Math.min(position + count, length); page++) {
+                if (!preserved.containsKey(page)) {
+                    ByteBuffer old = ByteBuffer.allocate((int) Math.min(PAGE_SIZE, length - page * PAGE_SIZE));
+                    readFully(channel, old, page * PAGE_SIZE);
+                    preserved.put(page, old.array()); // Published before the write it protects
+                }
+            }
+        }
+
+        @Override
+        public void read(long position, ByteBuffer target) throws IOException {
+            int start = target.position();
+            int count = target.remaining();
+            readFully(channel, target, position);
+            // Checked after reading: a page overwritten during the read was preserved before it changed
+            for (long page = position / PAGE_SIZE; page * PAGE_SIZE < position + count; page++) {
+                byte[] old = preserved.get(page);
+                if (old != null) {
+                    long from = Math.max(position, page * PAGE_SIZE);
+                    long to = Math.min(position + count, page * PAGE_SIZE + old.length);
+                    target.put(start + (int) (from - position), old, (int) (from - page * PAGE_SIZE), (int) (to - from));
+                }
+            }
+        }
+    }
+
+    /**
+     * One backup, identified by when it was taken.
+     */
+    public static final class BackupInfo {
+        private final String id;
+        private final Instant createdAt;
+        private final long logicalBytes; // Total size of the files it restores
+
+        BackupInfo(String id, Instant createdAt, long logicalBytes) {
+            this.id = id;
+            this.createdAt = createdAt;
+            this.logicalBytes = logicalBytes;
+        }
+
+        public String getId() { return id; }
+        public Instant getCreatedAt() { return createdAt; }
+        public long getLogicalBytes() { return logicalBytes; }
+    }
+
+    /**
+     * What a backup read and wrote.
+     */
+    public static final class Result {
+        private final BackupInfo backup;
+        private final long bytesRead;
+        private final int blocksWritten;
+        private final long bytesWritten;
+        private final long millis;
+
+        Result(BackupInfo backup, long bytesRead, int blocksWritten, long bytesWritten, long millis) {
+            this.backup = backup;
+            this.bytesRead = bytesRead;
+            this.blocksWritten = blocksWritten;
+            this.bytesWritten = bytesWritten;
+            this.millis = millis;
+        }
+
+        public BackupInfo getBackup() { return backup; }
+        public long getBytesRead() { return bytesRead; }
+        public int getBlocksWritten() { return blocksWritten; }
+        public long getBytesWritten() { return bytesWritten; }
+        public long getMillis() { return millis; }
+    }
+
+    /**
+     * Receives progress as bytes are processed.
+     */
+    public interface Progress {
+        void update(long done, long total);
+    }
+
+    private final Path directory;
+    private final Path blocks; // Compressed blocks by hash
+    private final Path backups; // One manifest per backup
+    private final Set<Path> unsyncedDirectories = ConcurrentHashMap.newKeySet(); // Gained blocks since the last manifest
+    private final List<Source> sources;
+    private final int threads = Runtime.getRuntime().availableProcessors();
+    private final ExecutorService workers;
+    private final ScheduledExecutorService scheduler;
+    private final ThreadLocal<byte[]> blockBuffers = ThreadLocal.withInitial(() -> new byte[BLOCK_SIZE]);
+    private final ThreadLocal<byte[]> codecBuffers = ThreadLocal.withInitial(() -> new byte[BLOCK_SIZE + 1024]);
+    private final ThreadLocal<Deflater> deflaters = ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED, true));
+    private final ThreadLocal<Inflater> inflaters = ThreadLocal.withInitial(() -> new Inflater(true));
+    private final ThreadLocal<MessageDigest> digests = ThreadLocal.withInitial(BackupManager::sha256);
+    private final AtomicLong bytesRead = new AtomicLong(); // Progress of the running backup or restore
+    private final AtomicInteger blocksWritten = new AtomicInteger();
+    private final AtomicLong bytesWritten = new AtomicLong();
+    private final Object scheduleLock = new Object(); // Separate from the backup lock, so rescheduling never waits for a backup
+    private ScheduledFuture<?> automatic;
+
+    /**
+     * Opens (or creates) a backup location.
+     *
+     * @param directory The directory holding the backups.
+     * @param sources   The stores to back up.
+     * @throws IOException If the directory cannot be created.
+     */
+    public BackupManager(Path directory, List<Source> sources) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.blocks = Files.createDirectories(directory.resolve("blocks"));
+        this.backups = Files.createDirectories(directory.resolve("backups"));
+        this.sources = List.copyOf(sources);
+        AtomicInteger counter = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "backup-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "backup-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Opens the default backup location for the given stores.
+     *
+     * @param sources The stores to back up.
+     * @return The backup manager.
+     */
+    public static BackupManager openDefault(List<Source> sources) {
+        try {
+            return new BackupManager(defaultDirectory(), sources);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open backup location", e);
+        }
+    }
+
+    /**
+     * Returns the default backup location: the {@code jms.backup.dir} system property, or
+     * {@code ~/.jms-backups}.
+     *
+     * @return The directory.
+     */
+    public static Path defaultDirectory() {
+        String configured = System.getProperty("jms.backup.dir");
+        return configured != null ? Paths.get(configured) : Paths.get(System.getProperty("user.home"), ".jms-backups");
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Takes a backup now. Only one backup runs at a time.
+     *
+     * @param progress Receives the bytes read so far out of the bytes to read.
+     * @return What the backup read and wrote.
+     * @throws IOException If a store cannot be read or the backup written.
+     */
+    public synchronized Result backup(Progress progress) throws IOException {
+        long started = System.nanoTime();
+        Instant createdAt = Instant.now();
+        Map<String, FileEntry> previous = new HashMap<>();
+        List<BackupInfo> existing = list();
+        if (!existing.isEmpty()) {
+            for (SourceEntry source : readManifest(existing.get(existing.size() - 1).getId())) {
+                for (FileEntry file : source.files) {
+                    previous.put(source.name + "/" + file.path, file);
+                }
+            }
+        }
+
+        List<Snapshot> snapshots = new ArrayList<>();
+        try {
+            for (Source source : sources) {
+                snapshots.add(source.openSnapshot());
+            }
+            List<SourceEntry> entries = new ArrayList<>();
+            List<Runnable> reads = new ArrayList<>();
+            long toRead = 0;
+            for (int s = 0; s < sources.size(); s++) {
+                String name = sources.get(s).getBackupName();
+                List<FileEntry> files = new ArrayList<>();
+                for (FileImage image : snapshots.get(s).getFiles()) {
+                    FileEntry file = new FileEntry(image.path, image.kind, image.length);
+                    int reused = reusableBlocks(previous.get(name + "/" + image.path), file);
+                    for (int b = 0; b < file.hashes.length; b++) {
+                        int block = b;
+                        if (b < reused) {
+                            byte[] hash = previous.get(name + "/" + image.path).hashes[b];
+                            if (isComplete(blockPath(hash), blockLength(file.length, b))) {
+                                file.hashes[b] = hash;
+                                continue;
+                            }
+                        }
+                        toRead += blockLength(file.length, block);
+                        reads.add(() -> file.hashes[block] = storeBlock(image, block));
+                    }
+                    files.add(file);
+                }
+                entries.add(new SourceEntry(name, files));
+            }
+
+            blocksWritten.set(0);
+            bytesWritten.set(0);
+            runParallel(reads, toRead, progress);
+            for (Path directory : unsyncedDirectories) {
+                syncDirectory(directory); // The new blocks' names are durable before a manifest names them
+                unsyncedDirectories.remove(directory);
+            }
+            String id = BACKUP_ID.format(createdAt);
+            writeManifest(id, createdAt, entries);
+            BackupInfo info = new BackupInfo(id, createdAt, logicalBytes(entries));
+            return new Result(info, bytesRead.get(), blocksWritten.get(), bytesWritten.get(),
+                (System.nanoTime() - started) / 1_000_000);
+        } finally {
+            for (Snapshot snapshot : snapshots) {
+                snapshot.close();
+            }
+        }
+    }
+
+    /**
+     * Lists the backups, oldest first.
+     *
+     * @return The backups.
+     * @throws IOException If the backup directory cannot be read.
+     */
+    public List<BackupInfo> list() throws IOException {
+        List<BackupInfo> result = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(backups, "*.bak")) {
+            for (Path file : files) {
+                try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                    if (in.readInt() != MANIFEST_MAGIC) {
+                        continue;
+                    }
+                    Instant createdAt = Instant.ofEpochMilli(in.readLong());
+                    long logicalBytes = in.readLong();
+                    String name = file.getFileName().toString();
+                    result.add(new BackupInfo(name.substring(0, name.length() - 4), createdAt, logicalBytes));
+                }
+            }
+        }
+        result.sort(Comparator.comparing(BackupInfo::getCreatedAt));
+        return result;
+    }
+
+    /**
+     * Finds the backup to restore for a point in time: the latest one taken at or before it.
+     *
+     * @param pointInTime The time to restore to.
+     * @return The backup, or null if none is that old.
+     * @throws IOException If the backup directory cannot be read.
+     */
+    public BackupInfo backupAt(Instant pointInTime) throws IOException {
+        BackupInfo found = null;
+        for (BackupInfo backup : list()) {
+            if (!backup.getCreatedAt().isAfter(pointInTime)) {
+                found = backup;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Restores a backup's stores into a directory, one sub-directory per store.
+     *
+     * @param backup   The backup.
+     * @param target   The directory to restore into; existing files are replaced.
+     * @param progress Receives the bytes restored so far out of the total.
+     * @throws IOException If a block is missing or damaged, or a file cannot be written.
+     */
+    public void restore(BackupInfo backup, Path target, Progress progress) throws IOException {
+        List<SourceEntry> entries = readManifest(backup.getId());
+        List<Runnable> writes = new ArrayList<>();
+        for (SourceEntry source : entries) {
+            for (FileEntry file : source.files) {
+                Path path = target.resolve(source.name).resolve(file.path);
+                Files.createDirectories(path.getParent());
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING)) {
+                    if (file.length > 0) {
+                        channel.write(ByteBuffer.allocate(1), file.length - 1); // Sized up front for positional writes
+                    }
+                }
+                RestoreFile restoring = new RestoreFile(path, file.hashes.length);
+                for (int b = 0; b < file.hashes.length; b++) {
+                    int block = b;
+                    writes.add(() -> restoreBlock(restoring, file, block));
+                }
+            }
+        }
+        runParallel(writes, logicalBytes(entries), progress);
+    }
+
+    /**
+     * Restores a backup into the staging area of the data directory. The restored stores
+     * replace the live ones the next time the application starts, before any store is opened.
+     *
+     * @param backup   The backup.
+     * @param progress Receives the bytes restored so far out of the total.
+     * @throws IOException If the backup cannot be restored.
+     */
+    public void stageRestore(BackupInfo backup, Progress progress) throws IOException {
+        Path root = DataDirectory.root();
+        Path staging = root.resolve(STAGING);
+        Files.deleteIfExists(root.resolve(PENDING_RESTORE));
+        deleteRecursively(staging);
+        restore(backup, staging, progress);
+        Files.write(root.resolve(PENDING_RESTORE), backup.getId().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Swaps in stores staged by {@link #stageRestore}. Must run before any store is opened. The
+     * replaced stores are kept in a {@code replaced-<time>} directory.
+     *
+     * @param root The data directory.
+     * @return The id of the backup restored, or null if none was pending.
+     * @throws IOException If the stores cannot be moved.
+     */
+    public static String applyPendingRestore(Path root) throws IOException {
+        Path marker = root.resolve(PENDING_RESTORE);
+        Path staging = root.resolve(STAGING);
+        if (!Files.exists(marker) || !Files.isDirectory(staging)) {
+            return null;
+        }
+        String id = new String(Files.readAllBytes(marker), StandardCharsets.UTF_8);
+        Path replaced = root.resolve("replaced-" + BACKUP_ID.format(Instant.now()));
+        try (DirectoryStream<Path> stores = Files.newDirectoryStream(staging)) {
+            for (Path store : stores) {
+                Path live = root.resolve(store.getFileName());
+                if (Files.exists(live)) {
+                    Files.createDirectories(replaced);
+                    Files.move(live, replaced.resolve(store.getFileName()), StandardCopyOption.ATOMIC_MOVE);
+                }
+                Files.move(store, live, StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+        Files.delete(staging);
+        Files.delete(marker);
+        return id;
+    }
+
+    /**
+     * Takes a backup at a fixed interval, replacing any earlier schedule.
+     *
+     * @param interval The interval, or null to stop automatic backups.
+     */
+    public void scheduleEvery(Duration interval) {
+        synchronized (scheduleLock) {
+            if (automatic != null) {
+                automatic.cancel(false);
+                automatic = null;
+            }
+            if (interval != null) {
+                automatic = scheduler.scheduleWithFixedDelay(() -> {
+                    try {
+                        Result result = backup((done, total) -> { });
+                        AuditLog.global().record("backup.automatic", result.getBackup().getId());
+                    } catch (IOException | RuntimeException e) {
+                        AuditLog.global().record("backup.failed", String.valueOf(e));
+                    }
+                }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        workers.shutdown();
+    }
+
+    // --- Blocks ---
+
+    private static int reusableBlocks(FileEntry previous, FileEntry file) {
+        if (previous == null || previous.kind != file.kind) {
+            return 0;
+        }
+        if (file.kind == Kind.IMMUTABLE && previous.length == file.length) {
+            return file.hashes.length;
+        }
+        if (file.kind == Kind.APPEND_ONLY && previous.length <= file.length) {
+            return (int) (previous.length / BLOCK_SIZE); // Only whole blocks; the last one may have grown
+        }
+        return 0;
+    }
+
+    /**
+     * Reads, hashes and, if no backup has it yet, compresses and writes one block.
+     */
+    private byte[] storeBlock(FileImage image, int block) {
+        int length = blockLength(image.length, block);
+        byte[] raw = blockBuffers.get();
+        try {
+            image.reader.read((long) block * BLOCK_SIZE, ByteBuffer.wrap(raw, 0, length));
+            MessageDigest digest = digests.get();
+            digest.update(raw, 0, length);
+            byte[] hash = digest.digest();
+            bytesRead.addAndGet(length);
+            Path file = blockPath(hash);
+            if (isComplete(file, length)) {
+                return hash; // A block cut short by a crash is written again below
+            }
+            Deflater deflater = deflaters.get();
+            deflater.reset();
+            deflater.setInput(raw, 0, length);
+            deflater.finish();
+            byte[] packed = codecBuffers.get();
+            int packedLength = 0;
+            while (!deflater.finished() && packedLength < length) {
+                packedLength += deflater.deflate(packed, packedLength, Math.min(packed.length, length) - packedLength);
+            }
+            boolean deflated = deflater.finished() && packedLength < length;
+            if (!Files.isDirectory(file.getParent())) {
+                Files.createDirectories(file.getParent());
+                unsyncedDirectories.add(blocks);
+            }
+            Path staged = Files.createTempFile(file.getParent(), "block", null);
+            try (FileChannel out = FileChannel.open(staged, StandardOpenOption.WRITE)) {
+                ByteBuffer content = deflated ? ByteBuffer.wrap(packed, 0, packedLength) : ByteBuffer.wrap(raw, 0, length);
+                out.write(ByteBuffer.wrap(new byte[] {deflated ? DEFLATED : STORED}));
+                while (content.hasRemaining()) {
+                    out.write(content);
+                }
+                out.force(true); // On disk before the name is, so a crash cannot leave the name on an empty file
+            }
+            try {
+                Files.move(staged, file, StandardCopyOption.ATOMIC_MOVE);
+                unsyncedDirectories.add(file.getParent());
+                blocksWritten.incrementAndGet();
+                bytesWritten.addAndGet(1 + (deflated ? packedLength : length));
+            } catch (FileAlreadyExistsException e) {
+                Files.deleteIfExists(staged); // Same block written by another worker
+            }
+            return hash;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot back up " + image.path + " block " + block, e);
+        }
+    }
+
+    /**
+     * Decompresses one block, checks its hash and writes it at its position.
+     */
+    private void restoreBlock(RestoreFile restoring, FileEntry file, int block) {
+        int length = blockLength(file.length, block);
+        Path source = blockPath(file.hashes[block]);
+        try {
+            byte[] packed = Files.readAllBytes(source);
+            byte[] raw = blockBuffers.get();
+            if (packed.length > 0 && packed[0] == DEFLATED) {
+                Inflater inflater = inflaters.get();
+                inflater.reset();
+                inflater.setInput(packed, 1, packed.length - 1);
+                int inflated = 0;
+                while (inflated < length && !inflater.finished()) {
+                    int n = inflater.inflate(raw, inflated, length - inflated);
+                    if (n == 0 && inflater.needsInput()) {
+                        break;
+                    }
+                    inflated += n;
+                }
+                if (inflated != length) {
+                    throw new IOException("Damaged backup block " + source);
+                }
+            } else if (packed.length == length + 1) {
+                System.arraycopy(packed, 1, raw, 0, length);
+            } else {
+                throw new IOException("Damaged backup block " + source);
+            }
+            MessageDigest digest = digests.get();
+            digest.update(raw, 0, length);
+            if (!Arrays.equals(digest.digest(), file.hashes[block])) {
+                throw new IOException("Backup block fails its checksum: " + source);
+            }
+            try (FileChannel channel = FileChannel.open(restoring.path, StandardOpenOption.WRITE)) {
+                ByteBuffer content = ByteBuffer.wrap(raw, 0, length);
+                long position = (long) block * BLOCK_SIZE;
+                while (content.hasRemaining()) {
+                    position += channel.write(content, position);
+                }
+                if (restoring.remaining.decrementAndGet() == 0) {
+                    channel.force(true);
+                }
+            }
+            bytesRead.addAndGet(length);
+        } catch (IOException | DataFormatException e) {
+            throw new UncheckedIOException("Cannot restore " + restoring.path + " block " + block,
+                e instanceof IOException ? (IOException) e : new IOException(e));
+        }
+    }
+
+    /**
+     * Runs block tasks on all cores with a bounded number in flight, so memory stays at a few
+     * blocks per core however large the stores are.
+     */
+    private void runParallel(List<Runnable> tasks, long total, Progress progress) throws IOException {
+        bytesRead.set(0);
+        Semaphore inFlight = new Semaphore(threads * 2);
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        for (Runnable task : tasks) {
+            if (failure.get() != null) {
+                break;
+            }
+            inFlight.acquireUninterruptibly();
+            workers.execute(() -> {
+                try {
+                    if (failure.get() == null) {
+                        task.run();
+                        progress.update(bytesRead.get(), total);
+                    }
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+        inFlight.acquireUninterruptibly(threads * 2); // Wait for the last tasks
+        inFlight.release(threads * 2);
+        RuntimeException e = failure.get();
+        if (e instanceof UncheckedIOException) {
+            throw ((UncheckedIOException) e).getCause();
+        } else if (e != null) {
+            throw e;
+        }
+    }
+
+    private Path blockPath(byte[] hash) {
+        String name = HEX.formatHex(hash);
+        return blocks.resolve(name.substring(0, 2)).resolve(name);
+    }
+
+    /**
+     * Checks that a stored block exists and has the size its header implies: one byte more than
+     * the block when stored as-is, and no more than the block when deflated.
+     */
+    private static boolean isComplete(Path file, int length) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(1);
+            if (channel.read(header, 0) < 1) {
+                return false;
+            }
+            long size = channel.size();
+            return header.get(0) == STORED ? size == 1L + length : header.get(0) == DEFLATED && size >= 2 && size <= length;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    private static void syncDirectory(Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (AccessDeniedException e) {
+            // Windows cannot open a directory as a channel; there the move itself is journaled
+        }
+    }
+
+    private static int blockLength(long fileLength, int block) {
+        return (int) Math.min(BLOCK_SIZE, fileLength - (long) block * BLOCK_SIZE);
+    }
+
+    // --- Manifests ---
+
+    private void writeManifest(String id, Instant createdAt, List<SourceEntry> entries) throws IOException {
+        Path temp = backups.resolve(id + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16))) {
+            out.writeInt(MANIFEST_MAGIC);
+            out.writeLong(createdAt.toEpochMilli());
+            out.writeLong(logicalBytes(entries));
+            out.writeInt(entries.size());
+            for (SourceEntry source : entries) {
+                out.writeUTF(source.name);
+                out.writeInt(source.files.size());
+                for (FileEntry file : source.files) {
+                    out.writeUTF(file.path);
+                    out.writeByte(file.kind.ordinal());
+                    out.writeLong(file.length);
+                    for (byte[] hash : file.hashes) {
+                        out.write(hash);
+                    }
+                }
+            }
+            out.flush();
+            channel.force(false); // Blocks were written first, so a manifest never names a missing block
+        }
+        Files.move(temp, backups.resolve(id + ".bak"), StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(backups);
+    }
+
+    private List<SourceEntry> readManifest(String id) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(backups.resolve(id + ".bak")), 1 << 16))) {
+            if (in.readInt() != MANIFEST_MAGIC) {
+                throw new IOException("Not a backup manifest: " + id);
+            }
+            in.readLong(); // Created at
+            in.readLong(); // Logical bytes
+            List<SourceEntry> entries = new ArrayList<>();
+            for (int s = in.readInt(); s > 0; s--) {
+                String name = in.readUTF();
+                List<FileEntry> files = new ArrayList<>();
+                for (int f = in.readInt(); f > 0; f--) {
+                    FileEntry file = new FileEntry(in.readUTF(), Kind.values()[in.readByte()], in.readLong());
+                    for (int b = 0; b < file.hashes.length; b++) {
+                        file.hashes[b] = new byte[HASH_BYTES];
+                        in.readFully(file.hashes[b]);
+                    }
+                    files.add(file);
+                }
+                entries.add(new SourceEntry(name, files));
+            }
+            return entries;
+        }
+    }
+
+    private static long logicalBytes(List<SourceEntry> entries) {
+        long total = 0;
+        for (SourceEntry source : entries) {
+            for (FileEntry file : source.files) {
+                total += file.length;
+            }
+        }
+        return total;
+    }
+
+    // --- Helpers ---
+
+    static void readFully(FileChannel channel, ByteBuffer target, long position) throws IOException {
+        while (target.hasRemaining()) {
+            int read = channel.read(target, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of file at " + position);
+            }
+            position += read;
+        }
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            List<Path> all = new ArrayList<>();
+            paths.forEach(all::add);
+            Collections.reverse(all); // Children before their directories
+            for (Path path : all) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static final class SourceEntry {
+        private final String name;
+        private final List<FileEntry> files;
+
+        SourceEntry(String name, List<FileEntry> files) {
+            this.name = name;
+            this.files = files;
+        }
+    }
+
+    private static final class FileEntry {
+        private final String path;
+        private final Kind kind;
+        private final long length;
+        private final byte[][] hashes; // One per block
+
+        FileEntry(String path, Kind kind, long length) {
+            this.path = path;
+            this.kind = kind;
+            this.length = length;
+            this.hashes = new byte[(int) ((length + BLOCK_SIZE - 1) / BLOCK_SIZE)][];
+        }
+    }
+
+    private static final class RestoreFile {
+        private final Path path;
+        private final AtomicInteger remaining; // Blocks still to write
+
+        RestoreFile(Path path, int blocks) {
+            this.path = path;
+            this.remaining = new AtomicInteger(blocks);
+        }
+    }
+}
@@ -1,7 +1,12 @@
 package com.astro;
 import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Set;
 
 public class Case {
+    static final String UNASSIGNED = "Unassigned"; // Judge placeholder on new cases
+    private static final Set<String> CLOSED_STATUSES = Set.of("closed", "disposed", "dismissed", "withdrawn");
+
     private final String caseNumber;
     private final String caseTitle;
     private final String caseType;
@@ -18,6 +23,11 @@ public class Case {
         this.assignedJudge = assignedJudge;
     }
 
+    // For flyweight views (see ColumnarCaseStore) that override the getters
+    protected Case() {
+        this(null, null, null, null, null, null);
+    }
+
     // Getters for TableView PropertyValueFactory
     public String getCaseNumber() { return caseNumber; }
     public String getCaseTitle() { return caseTitle; }
@@ -25,5 +35,19 @@ public class Case {
     public String getCurrentStatus() { return currentStatus; }
     public LocalDate getFilingDate() { return filingDate; }
     public String getAssignedJudge() { return assignedJudge; }
+
+    // Closed cases no longer count toward a judge's caseload
+    public boolean isClosed() {
+        return getCurrentStatus() != null && CLOSED_STATUSES.contains(getCurrentStatus().toLowerCase(Locale.ROOT));
+    }
+
+    public boolean isUnassigned() {
+        String judge = getAssignedJudge();
+        return judge == null || judge.isBlank() || judge.equals(UNASSIGNED);
+    }
+
+    public Case withAssignedJudge(String judge) {
+        return new Case(getCaseNumber(), getCaseTitle(), getCaseType(), getCurrentStatus(), getFilingDate(), judge);
+    }
 }
 // -----------------------------------------------------------------------------
@@ -0,0 +1,203 @@
+package com.astro;
+
+import javafx.application.Platform;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Maintains live case counters for the Dashboard.
+ * Every insert or update reported by the {@link CaseRepository} adjusts a handful of
+ * {@link LongAdder}s (total, per filing day, per type, per status), so each event costs O(1)
+ * and writers never contend on a lock. Subscribers receive immutable {@link Snapshot}s on the
+ * FX thread at most every {@link #PUBLISH_INTERVAL_MILLIS}, and only when something changed or
+ * the day rolled over, so a burst of filings never floods the UI or triggers a rescan of the
+ * case set.
+ */
+public class CaseAggregationService implements CaseRepository.Listener {
+
+    static final long PUBLISH_INTERVAL_MILLIS = 250; // Upper bound on Dashboard refresh rate
+    private static final int SCAN_CHUNK = 1024; // Rows read per lock hold in the initial scan
+
+    /**
+     * An immutable view of the counters at one point in time.
+     */
+    public static final class Snapshot {
+        private final long total;
+        private final long newToday;
+        private final Map<String, Long> byType;
+        private final Map<String, Long> byStatus;
+
+        Snapshot(long total, long newToday, Map<String, Long> byType, Map<String, Long> byStatus) {
+            this.total = total;
+            this.newToday = newToday;
+            this.byType = Collections.unmodifiableMap(byType);
+            this.byStatus = Collections.unmodifiableMap(byStatus);
+        }
+
+        public long getTotal() { return total; }
+        public long getNewToday() { return newToday; }
+        public Map<String, Long> getByType() { return byType; }
+        public Map<String, Long> getByStatus() { return byStatus; }
+    }
+
+    private final LongAdder total = new LongAdder();
+    private final Map<LocalDate, LongAdder> filedPerDay = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> byType = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> byStatus = new ConcurrentHashMap<>();
+    private final List<Consumer<Snapshot>> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean dirty = new AtomicBoolean(true); // Set by events, cleared by publishing
+    private final ScheduledExecutorService publisher;
+    private final Object scanLock = new Object(); // Orders the initial scan against updates of the rows it covers
+    private volatile int seededRows; // Rows below this id are counted by the initial scan
+    private int scannedRows; // Progress of the initial scan, in row id order; guarded by scanLock
+    private LocalDate publishedDay; // Day of the last published "new today"; publisher thread only
+
+    private CaseAggregationService() {
+        publisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "case-aggregates");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Creates a service that follows a repository. The existing cases are counted once on a
+     * background thread; after that only events are applied.
+     *
+     * @param repository The repository to follow.
+     * @return The running service.
+     */
+    public static CaseAggregationService attach(CaseRepository repository) {
+        CaseAggregationService service = new CaseAggregationService();
+        // Repositories write and notify under their own monitor, so no insert can slip between
+        // reading the size and registering the listener
+        synchronized (repository) {
+            service.seededRows = repository.size();
+            repository.addListener(service);
+        }
+        service.publisher.execute(() -> {
+            for (int from = 0; from < service.seededRows; from += SCAN_CHUNK) {
+                // Writers notify under the repository's monitor, so an update is either stored and
+                // counted before this chunk is read or arrives after the scan has moved past it.
+                // The listener takes scanLock under that monitor, so the two are taken in that order
+                synchronized (repository) {
+                    synchronized (service.scanLock) {
+                        for (int rowId = from; rowId < Math.min(service.seededRows, from + SCAN_CHUNK); rowId++) {
+                            service.count(repository.get(rowId), 1);
+                            service.scannedRows = rowId + 1;
+                        }
+                    }
+                }
+            }
+            service.dirty.set(true);
+        });
+        service.publisher.scheduleWithFixedDelay(service::publish,
+            PUBLISH_INTERVAL_MILLIS, PUBLISH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        return service;
+    }
+
+    @Override
+    public void caseAdded(int rowId, Case added) {
+        if (rowId >= seededRows) {
+            count(added, 1);
+            dirty.set(true);
+        }
+    }
+
+    @Override
+    public void caseUpdated(int rowId, Case previous, Case updated) {
+        if (rowId < seededRows) {
+            synchronized (scanLock) {
+                if (rowId >= scannedRows) {
+                    return; // The initial scan has not reached this row and will read the new version
+                }
+                count(previous, -1);
+                count(updated, 1);
+            }
+        } else {
+            count(previous, -1);
+            count(updated, 1);
+        }
+        dirty.set(true);
+    }
+
+    /**
+     * Registers a consumer for throttled snapshots. It is called on the FX thread, first with the
+     * current counters and then whenever they change.
+     *
+     * @param subscriber The consumer to add.
+     */
+    public void subscribe(Consumer<Snapshot> subscriber) {
+        subscribers.add(subscriber);
+        Snapshot current = snapshot();
+        Platform.runLater(() -> subscriber.accept(current));
+    }
+
+    /**
+     * Reads the counters into a snapshot.
+     *
+     * @return The current counters.
+     */
+    public Snapshot snapshot() {
+        return snapshot(LocalDate.now());
+    }
+
+    private Snapshot snapshot(LocalDate day) {
+        LongAdder today = filedPerDay.get(day);
+        return new Snapshot(total.sum(), today == null ? 0 : today.sum(), sums(byType), sums(byStatus));
+    }
+
+    /**
+     * Stops publishing snapshots.
+     */
+    public void shutdown() {
+        publisher.shutdownNow();
+    }
+
+    private void count(Case c, int delta) {
+        total.add(delta);
+        if (c.getFilingDate() != null) {
+            filedPerDay.computeIfAbsent(c.getFilingDate(), d -> new LongAdder()).add(delta);
+        }
+        byType.computeIfAbsent(String.valueOf(c.getCaseType()), t -> new LongAdder()).add(delta);
+        byStatus.computeIfAbsent(String.valueOf(c.getCurrentStatus()), s -> new LongAdder()).add(delta);
+    }
+
+    private void publish() {
+        LocalDate today = LocalDate.now();
+        boolean dayChanged = !today.equals(publishedDay); // "New today" restarts at midnight with no event
+        if (!dirty.getAndSet(false) && !dayChanged || subscribers.isEmpty()) {
+            return;
+        }
+        publishedDay = today;
+        Snapshot current = snapshot(today);
+        Platform.runLater(() -> {
+            for (Consumer<Snapshot> subscriber : subscribers) {
+                subscriber.accept(current);
+            }
+        });
+    }
+
+    private static Map<String, Long> sums(Map<String, LongAdder> counters) {
+        Map<String, Long> sums = new TreeMap<>();
+        counters.forEach((key, counter) -> {
+            long sum = counter.sum();
+            if (sum > 0) {
+                sums.put(key, sum);
+            }
+        });
+        return sums;
+    }
+}
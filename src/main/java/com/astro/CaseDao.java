@@ -0,0 +1,228 @@
+package com.astro;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Reads and writes the {@code Cases} table.
+ * Cases name their judge as displayed ("Judge Evans"), while the table refers to the judge's
+ * {@code Users} row, so judges are resolved through the {@link UserDirectory} to their login name
+ * and from there, inside the statement, to the row's key. A judge with no account is stored as
+ * unassigned. The table has no case type column, and only three statuses, so the registry's
+ * statuses are folded into Pending, Ongoing and Closed and read back as Filed, In Progress and
+ * Closed; the filing date is kept as the creation time.
+ */
+public class CaseDao {
+
+    private static final String INSERT = "INSERT INTO Cases (case_number, title, status, judge_id, created_at) "
+        + "VALUES (?, ?, ?, (SELECT user_id FROM Users WHERE username = ?), ?)";
+    private static final String UPDATE_STATUS = "UPDATE Cases SET status = ? WHERE case_number = ?";
+    private static final String UPDATE_JUDGE = "UPDATE Cases SET judge_id = (SELECT user_id FROM Users WHERE username = ?) "
+        + "WHERE case_number = ?";
+    private static final String SELECT = "SELECT c.case_number, c.title, c.status, u.username, c.created_at "
+        + "FROM Cases c LEFT JOIN Users u ON u.user_id = c.judge_id ";
+    private static final String SELECT_ONE = SELECT + "WHERE c.case_number = ?";
+    static final String SELECT_PAGE = SELECT + "WHERE c.case_number > ? ORDER BY c.case_number LIMIT ?";
+    static final String SELECT_STATUS_PAGE = SELECT + "WHERE c.status = ? AND c.case_number > ? "
+        + "ORDER BY c.case_number LIMIT ?";
+
+    private final Database database;
+    private final UserDirectory users;
+
+    public CaseDao(Database database, UserDirectory users) {
+        this.database = database;
+        this.users = users;
+    }
+
+    /**
+     * Registers cases in one transaction, sent as JDBC batches.
+     *
+     * @param cases The cases; their numbers must not be registered yet.
+     * @return The number of cases written.
+     * @throws SQLException If a case cannot be written; none is then.
+     */
+    public int insertAll(Collection<Case> cases) throws SQLException {
+        Map<String, String> logins = loginsByDisplayName();
+        return database.batch(INSERT, cases, (statement, c) -> {
+            statement.setString(1, c.getCaseNumber());
+            statement.setString(2, c.getCaseTitle());
+            statement.setString(3, statusColumn(c));
+            statement.setString(4, c.isUnassigned() ? null : logins.get(c.getAssignedJudge()));
+            LocalDate filed = c.getFilingDate() != null ? c.getFilingDate() : LocalDate.now();
+            statement.setTimestamp(5, Timestamp.valueOf(filed.atStartOfDay()));
+        });
+    }
+
+    /**
+     * Updates the status of cases in one transaction.
+     *
+     * @param cases The cases, carrying their new status.
+     * @return The number of rows changed.
+     * @throws SQLException If the update fails; nothing is changed then.
+     */
+    public int updateStatuses(Collection<Case> cases) throws SQLException {
+        return database.batch(UPDATE_STATUS, cases, (statement, c) -> {
+            statement.setString(1, statusColumn(c));
+            statement.setString(2, c.getCaseNumber());
+        });
+    }
+
+    /**
+     * Records the judge of cases in one transaction, e.g. after a bulk rebalance.
+     *
+     * @param cases The cases, carrying their new judge.
+     * @return The number of rows changed.
+     * @throws SQLException If the update fails; nothing is changed then.
+     */
+    public int updateJudges(Collection<Case> cases) throws SQLException {
+        Map<String, String> logins = loginsByDisplayName();
+        return database.batch(UPDATE_JUDGE, cases, (statement, c) -> {
+            statement.setString(1, c.isUnassigned() ? null : logins.get(c.getAssignedJudge()));
+            statement.setString(2, c.getCaseNumber());
+        });
+    }
+
+    /**
+     * Queues a status change for group commit with other writers' changes.
+     *
+     * @param updated The case, carrying its new status.
+     * @return Completes with the rows changed once committed.
+     */
+    public CompletableFuture<Integer> submitStatus(Case updated) {
+        return database.submit(UPDATE_STATUS, updated, (statement, c) -> {
+            statement.setString(1, statusColumn(c));
+            statement.setString(2, c.getCaseNumber());
+        });
+    }
+
+    /**
+     * Reads one case.
+     *
+     * @param caseNumber The case number.
+     * @return The case, or null if it is not registered.
+     * @throws SQLException If the query fails.
+     */
+    public Case get(String caseNumber) throws SQLException {
+        Map<String, String> names = displayNamesByLogin();
+        return database.inTransaction(session -> {
+            PreparedStatement statement = session.prepare(SELECT_ONE);
+            statement.setString(1, caseNumber);
+            try (ResultSet rows = statement.executeQuery()) {
+                return rows.next() ? read(rows, names) : null;
+            }
+        });
+    }
+
+    /**
+     * Reads a page of cases in case-number order. The next page starts after the last case
+     * number returned, so each page is one range read of the case-number index however deep
+     * it is, where an offset would read and discard every earlier row.
+     *
+     * @param afterCaseNumber The last case number of the previous page, or "" for the first page.
+     * @param limit           The most cases to return.
+     * @return The cases.
+     * @throws SQLException If the query fails.
+     */
+    public List<Case> page(String afterCaseNumber, int limit) throws SQLException {
+        Map<String, String> names = displayNamesByLogin();
+        return database.inTransaction(session -> {
+            PreparedStatement statement = session.prepare(SELECT_PAGE);
+            statement.setString(1, afterCaseNumber);
+            statement.setInt(2, limit);
+            List<Case> page = new ArrayList<>(limit);
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    page.add(read(rows, names));
+                }
+            }
+            return page;
+        });
+    }
+
+    /**
+     * Reads a page of the cases in one status, in case-number order, e.g. for the "Current
+     * Status Cases" table. Paged by key like {@link #page}, along the status index.
+     *
+     * @param status          The status, as the registry names it (e.g. "In Progress").
+     * @param afterCaseNumber The last case number of the previous page, or "" for the first page.
+     * @param limit           The most cases to return.
+     * @return The cases.
+     * @throws SQLException If the query fails.
+     */
+    public List<Case> pageByStatus(String status, String afterCaseNumber, int limit) throws SQLException {
+        Map<String, String> names = displayNamesByLogin();
+        String column = statusColumn(new Case(null, null, null, status, null, null));
+        return database.inTransaction(session -> {
+            PreparedStatement statement = session.prepare(SELECT_STATUS_PAGE);
+            statement.setString(1, column);
+            statement.setString(2, afterCaseNumber);
+            statement.setInt(3, limit);
+            List<Case> page = new ArrayList<>(limit);
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    page.add(read(rows, names));
+                }
+            }
+            return page;
+        });
+    }
+
+    private static Case read(ResultSet rows, Map<String, String> names) throws SQLException {
+        String login = rows.getString(4);
+        String judge = login == null ? Case.UNASSIGNED : names.getOrDefault(login, login);
+        Timestamp created = rows.getTimestamp(5);
+        return new Case(rows.getString(1), rows.getString(2), "", statusOf(rows.getString(3)),
+            created != null ? created.toLocalDateTime().toLocalDate() : null, judge);
+    }
+
+    /**
+     * Maps a case's status to the value of the {@code status} column.
+     *
+     * @param c The case.
+     * @return "Closed" for closed cases, "Pending" for cases not yet under way, else "Ongoing".
+     */
+    static String statusColumn(Case c) {
+        if (c.isClosed()) {
+            return "Closed";
+        }
+        String status = c.getCurrentStatus();
+        return status == null || status.equalsIgnoreCase("Filed") || status.equalsIgnoreCase("Pending")
+            ? "Pending" : "Ongoing";
+    }
+
+    static String statusOf(String columnValue) {
+        switch (columnValue) {
+            case "Pending":
+                return "Filed";
+            case "Closed":
+                return "Closed";
+            default:
+                return "In Progress";
+        }
+    }
+
+    private Map<String, String> loginsByDisplayName() {
+        Map<String, String> logins = new HashMap<>();
+        for (Profile profile : users.profiles()) {
+            logins.putIfAbsent(profile.getDisplayName(), profile.getUserName());
+        }
+        return logins;
+    }
+
+    private Map<String, String> displayNamesByLogin() {
+        Map<String, String> names = new HashMap<>();
+        for (Profile profile : users.profiles()) {
+            names.put(profile.getUserName(), profile.getDisplayName());
+        }
+        return names;
+    }
+}
@@ -0,0 +1,110 @@
+package com.astro;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * One entry in a case's history, as recorded in the {@link CaseEventLog}.
+ * A {@link Type#FILED} event carries the case as filed; every other event carries a single
+ * value, e.g. the new status, the assigned judge or the hearing date.
+ */
+public class CaseEvent {
+
+    /**
+     * What happened to the case.
+     */
+    public enum Type {
+        FILED, STATUS_CHANGED, JUDGE_ASSIGNED, HEARING_SCHEDULED, ADJOURNED
+    }
+
+    private final Type type;
+    private final String caseNumber;
+    private final Instant recordedAt;
+    private final String value; // New status, judge or hearing date; null for FILED
+    private final Case filed; // The case as filed; null for other events
+
+    CaseEvent(Type type, String caseNumber, Instant recordedAt, String value, Case filed) {
+        this.type = type;
+        this.caseNumber = caseNumber;
+        this.recordedAt = recordedAt;
+        this.value = value;
+        this.filed = filed;
+    }
+
+    public static CaseEvent filed(Case c) {
+        return new CaseEvent(Type.FILED, c.getCaseNumber(), Instant.now(), null, c);
+    }
+
+    public static CaseEvent statusChanged(String caseNumber, String status) {
+        return new CaseEvent(Type.STATUS_CHANGED, caseNumber, Instant.now(), status, null);
+    }
+
+    public static CaseEvent judgeAssigned(String caseNumber, String judge) {
+        return new CaseEvent(Type.JUDGE_ASSIGNED, caseNumber, Instant.now(), judge, null);
+    }
+
+    public static CaseEvent hearingScheduled(String caseNumber, LocalDate hearingDate) {
+        return new CaseEvent(Type.HEARING_SCHEDULED, caseNumber, Instant.now(), hearingDate.toString(), null);
+    }
+
+    public static CaseEvent adjourned(String caseNumber, LocalDate hearingDate) {
+        return new CaseEvent(Type.ADJOURNED, caseNumber, Instant.now(), hearingDate.toString(), null);
+    }
+
+    public Type getType() { return type; }
+    public String getCaseNumber() { return caseNumber; }
+    public Instant getRecordedAt() { return recordedAt; }
+    public String getValue() { return value; }
+    public Case getFiled() { return filed; }
+
+    /**
+     * Applies this event to the state it follows.
+     *
+     * @param current The case before the event; null before it was filed.
+     * @return The case after the event.
+     */
+    public Case applyTo(Case current) {
+        if (type == Type.FILED) {
+            return filed;
+        }
+        if (current == null) {
+            return null; // History of a case filed before the log existed
+        }
+        switch (type) {
+            case STATUS_CHANGED:
+                return withStatus(current, value);
+            case JUDGE_ASSIGNED:
+                return new Case(current.getCaseNumber(), current.getCaseTitle(), current.getCaseType(),
+                    current.getCurrentStatus(), current.getFilingDate(), value);
+            case HEARING_SCHEDULED:
+                return withStatus(current, "Hearing Scheduled");
+            case ADJOURNED:
+                return withStatus(current, "Adjourned");
+            default:
+                return current;
+        }
+    }
+
+    @Override
+    public String toString() {
+        switch (type) {
+            case FILED:
+                return "Filed as " + filed.getCaseType() + " (" + filed.getCurrentStatus() + ")";
+            case STATUS_CHANGED:
+                return "Status changed to " + value;
+            case JUDGE_ASSIGNED:
+                return "Assigned to " + value;
+            case HEARING_SCHEDULED:
+                return "Hearing scheduled for " + value;
+            case ADJOURNED:
+                return "Hearing of " + value + " adjourned";
+            default:
+                return type.name();
+        }
+    }
+
+    private static Case withStatus(Case current, String status) {
+        return new Case(current.getCaseNumber(), current.getCaseTitle(), current.getCaseType(),
+            status, current.getFilingDate(), current.getAssignedJudge());
+    }
+}
@@ -0,0 +1,605 @@
+package com.astro;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped history of case events.
+ * Records are written sequentially into a mapped window at the end of {@code events.log}. Each
+ * record stores the offset of the previous record for the same case and a CRC of that offset and
+ * its payload; replay stops at the first record that fails it. A compact in-memory
+ * index maps every case number to its latest record, so one case's history is read by following
+ * that chain without touching any other case's events. The index is written to
+ * {@code events.snap} every {@link #SNAPSHOT_INTERVAL} events by a background thread, which
+ * forces the log and replays the records since the previous snapshot file rather than copying
+ * the live index, so appends never wait for it. On startup the snapshot is loaded and only the
+ * log tail written after it is replayed.
+ */
+public class CaseEventLog implements CaseRepository.Listener, BackupManager.Source, Closeable {
+
+    static final int REGION_SIZE = 4 << 20; // Bytes mapped for appending at a time
+    static final int SNAPSHOT_INTERVAL = 10_000; // Events appended between snapshots
+    private static final int HEADER_BYTES = Integer.BYTES + Integer.BYTES + Long.BYTES; // Payload length, CRC, previous offset
+    private static final int PREVIOUS_AT = Integer.BYTES + Integer.BYTES; // Position of the previous offset in a header
+    private static final long NONE = -1; // Previous offset of a case's first event
+    private static final long NO_DATE = Long.MIN_VALUE; // Marker for a missing filing date
+    private static final int SNAPSHOT_MAGIC = 0x4A4D5333; // "JMS3": case numbers and offsets of checksummed records
+    private static final CaseEvent.Type[] TYPES = CaseEvent.Type.values(); // Event types by stored ordinal
+    private static final int SCAN_CHUNK_BYTES = 256 * 1024; // Log bytes read at a time by a full scan
+
+    private final Path directory; // Directory holding the log and snapshot
+    private final FileChannel log;
+    private final HeadIndex heads = new HeadIndex(); // Case number -> offset of its latest record
+    private final ExecutorService snapshotWriter; // Forces retired windows and writes snapshots, in order
+    private final List<Consumer<CaseEvent>> eventListeners = new CopyOnWriteArrayList<>(); // Told of each appended event
+    private MappedByteBuffer region; // Window the next records are written into
+    private long regionStart; // File position of the window's first byte
+    private long end; // File position just after the last record
+    private int sinceSnapshot; // Events appended since the last snapshot
+
+    /**
+     * Opens (or creates) the log in the given directory, restoring the case index from the latest
+     * snapshot and the records written after it.
+     *
+     * @param directory The directory for the log files.
+     * @throws IOException If the files cannot be opened or read.
+     */
+    public CaseEventLog(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.log = FileChannel.open(directory.resolve("events.log"),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.snapshotWriter = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "case-event-snapshots");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long snapshotEnd = loadSnapshot(heads);
+        end = replay(heads, snapshotEnd, log.size());
+        map(end, REGION_SIZE);
+    }
+
+    /**
+     * Opens the log in the default data directory.
+     *
+     * @return The default log.
+     */
+    public static CaseEventLog openDefault() {
+        try {
+            return new CaseEventLog(DataDirectory.resolve("history"));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open case history", e);
+        }
+    }
+
+    /**
+     * Starts recording the changes made to a repository. On first use every existing case is
+     * recorded as filed, so each case has a history to build on.
+     *
+     * @param repository The repository to follow.
+     */
+    public void follow(CaseRepository repository) {
+        synchronized (repository) { // No case can be added between seeding and listening
+            synchronized (this) {
+                if (heads.size() == 0) {
+                    for (int rowId = 0; rowId < repository.size(); rowId++) {
+                        append(CaseEvent.filed(repository.get(rowId)));
+                    }
+                }
+            }
+            repository.addListener(this);
+        }
+    }
+
+    @Override
+    public void caseAdded(int rowId, Case added) {
+        append(CaseEvent.filed(added));
+    }
+
+    @Override
+    public void caseUpdated(int rowId, Case previous, Case updated) {
+        if (!Objects.equals(previous.getCurrentStatus(), updated.getCurrentStatus())) {
+            append(CaseEvent.statusChanged(updated.getCaseNumber(), updated.getCurrentStatus()));
+        }
+        if (!Objects.equals(previous.getAssignedJudge(), updated.getAssignedJudge())) {
+            append(CaseEvent.judgeAssigned(updated.getCaseNumber(), updated.getAssignedJudge()));
+        }
+    }
+
+    /**
+     * Registers a listener that is told of every event appended from now on, on the appending
+     * thread once the event is in the log.
+     *
+     * @param listener The listener.
+     */
+    public void addEventListener(Consumer<CaseEvent> listener) {
+        eventListeners.add(listener);
+    }
+
+    /**
+     * Appends an event to the log.
+     *
+     * @param event The event to record.
+     */
+    public void append(CaseEvent event) {
+        write(event);
+        for (Consumer<CaseEvent> listener : eventListeners) {
+            listener.accept(event);
+        }
+    }
+
+    private synchronized void write(CaseEvent event) {
+        byte[] payload = encode(event);
+        int recordSize = HEADER_BYTES + payload.length;
+        try {
+            if (end + recordSize > regionStart + region.capacity()) {
+                MappedByteBuffer full = region;
+                snapshotWriter.execute(full::force); // Ahead of any snapshot that covers it
+                map(end, Math.max(REGION_SIZE, recordSize));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot extend case history", e);
+        }
+        int at = (int) (end - regionStart);
+        long previous = heads.put(event.getCaseNumber(), end);
+        region.putInt(at + Integer.BYTES, checksum(previous, payload, 0, payload.length));
+        region.putLong(at + PREVIOUS_AT, previous);
+        region.put(at + HEADER_BYTES, payload);
+        region.putInt(at, payload.length); // Written last: a zero length marks the end of the log
+        end += recordSize;
+
+        if (++sinceSnapshot >= SNAPSHOT_INTERVAL) {
+            sinceSnapshot = 0;
+            long position = end;
+            MappedByteBuffer current = region;
+            snapshotWriter.execute(() -> snapshotQuietly(position, current));
+        }
+    }
+
+    /**
+     * Returns the state of a case rebuilt from its events.
+     *
+     * @param caseNumber The case number.
+     * @return The current case, or null if the log has no filing for it.
+     */
+    public Case current(String caseNumber) {
+        Case[] state = new Case[1];
+        forEachEvent(caseNumber, event -> state[0] = event.applyTo(state[0]));
+        return state[0];
+    }
+
+    /**
+     * Streams one case's events, oldest first. Only that case's records are read.
+     *
+     * @param caseNumber The case number.
+     * @param action     Called once per event.
+     */
+    public void forEachEvent(String caseNumber, Consumer<CaseEvent> action) {
+        long last;
+        synchronized (this) {
+            last = heads.get(caseNumber); // Records before the end never change, so the chain can be read unlocked
+        }
+        if (last == NONE) {
+            return;
+        }
+        try {
+            long[] chain = new long[16];
+            int length = 0;
+            ByteBuffer previous = ByteBuffer.allocate(Long.BYTES);
+            for (long offset = last; offset != NONE; offset = previous.getLong(0)) {
+                if (length == chain.length) {
+                    chain = Arrays.copyOf(chain, length * 2);
+                }
+                chain[length++] = offset;
+                previous.clear();
+                readFully(previous, offset + PREVIOUS_AT);
+            }
+            for (int i = length - 1; i >= 0; i--) {
+                action.accept(readRecord(chain[i]));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read history of case " + caseNumber, e);
+        }
+    }
+
+    /**
+     * Streams every event in the log, in the order they were appended, up to the last event
+     * appended before the call. The log is read sequentially in large chunks.
+     *
+     * @param action Called once per event.
+     */
+    public void forEachEvent(Consumer<CaseEvent> action) {
+        long limit;
+        synchronized (this) {
+            limit = end; // Records before the end never change, so they can be read unlocked
+        }
+        try {
+            ByteBuffer chunk = ByteBuffer.allocate(SCAN_CHUNK_BYTES);
+            long position = 0;
+            while (position < limit) {
+                chunk.clear();
+                chunk.limit((int) Math.min(chunk.capacity(), limit - position));
+                readFully(chunk, position);
+                int at = 0;
+                while (at + HEADER_BYTES <= chunk.limit()) {
+                    int length = chunk.getInt(at);
+                    if (at + HEADER_BYTES + length > chunk.limit()) {
+                        break; // Continued in the next chunk
+                    }
+                    action.accept(decode(chunk.array(), at + HEADER_BYTES, length));
+                    at += HEADER_BYTES + length;
+                }
+                if (at == 0) {
+                    if (chunk.limit() < chunk.capacity()) {
+                        throw new IOException("Truncated case history record at " + position);
+                    }
+                    chunk = ByteBuffer.allocate(chunk.capacity() * 2); // One record is larger than a chunk
+                }
+                position += at;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read case history", e);
+        }
+    }
+
+    /**
+     * Returns one case's events, oldest first.
+     *
+     * @param caseNumber The case number.
+     * @return The case's history.
+     */
+    public List<CaseEvent> history(String caseNumber) {
+        List<CaseEvent> events = new ArrayList<>();
+        forEachEvent(caseNumber, events::add);
+        return events;
+    }
+
+    @Override
+    public String getBackupName() {
+        return directory.getFileName().toString();
+    }
+
+    /**
+     * Captures the log up to its last record, plus the latest snapshot file, which never covers
+     * more than that. The snapshot is only ever replaced, so an open channel pins it.
+     */
+    @Override
+    public synchronized BackupManager.Snapshot openSnapshot() throws IOException {
+        List<BackupManager.FileImage> files = new ArrayList<>();
+        files.add(BackupManager.FileImage.of("events.log", end, BackupManager.Kind.APPEND_ONLY, log));
+        Path snapshotFile = directory.resolve("events.snap");
+        FileChannel snapshot = Files.exists(snapshotFile) ? FileChannel.open(snapshotFile, StandardOpenOption.READ) : null;
+        if (snapshot != null) {
+            files.add(BackupManager.FileImage.of("events.snap", snapshot.size(), BackupManager.Kind.MUTABLE, snapshot));
+        }
+        return new BackupManager.Snapshot() {
+            @Override
+            public List<BackupManager.FileImage> getFiles() {
+                return files;
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (snapshot != null) {
+                    snapshot.close();
+                }
+            }
+        };
+    }
+
+    /**
+     * Forces appended records to disk, including windows still queued for the background thread.
+     */
+    public void flush() {
+        try {
+            snapshotWriter.submit(() -> { }).get(); // Retired windows are forced in order ahead of this
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        synchronized (this) {
+            region.force();
+        }
+    }
+
+    /**
+     * Writes a final snapshot and closes the log.
+     *
+     * @throws IOException If the snapshot cannot be written or the log closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        snapshotWriter.shutdown();
+        try {
+            snapshotWriter.awaitTermination(5, TimeUnit.SECONDS); // Let queued forces and snapshots finish first
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        region.force();
+        writeSnapshot(heads, end); // Appends are blocked, so the live index can be written as is
+        log.close();
+    }
+
+    private void map(long position, int size) throws IOException {
+        region = log.map(FileChannel.MapMode.READ_WRITE, position, size); // Grows the file as needed
+        regionStart = position;
+    }
+
+    // --- Replay ---
+
+    /**
+     * Points an index at the records between two log positions, stopping at the first record
+     * whose CRC does not match.
+     *
+     * @return The position after the last intact record replayed.
+     */
+    private long replay(HeadIndex index, long position, long limit) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (position + HEADER_BYTES <= limit) {
+            header.clear();
+            readFully(header, position);
+            int length = header.getInt(0);
+            if (length <= 0 || position + HEADER_BYTES + length > limit) {
+                break; // Unused mapped space, or a record cut short by a crash
+            }
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            readFully(payload, position + HEADER_BYTES);
+            if (checksum(header.getLong(PREVIOUS_AT), payload.array(), 0, length) != header.getInt(Integer.BYTES)) {
+                break; // Torn or damaged record: the log ends before it
+            }
+            index.put(decode(payload.array(), 0, length).getCaseNumber(), position);
+            position += HEADER_BYTES + length;
+        }
+        return position;
+    }
+
+    /**
+     * Returns the CRC stored with a record, covering its previous offset and its payload.
+     */
+    private static int checksum(long previous, byte[] payload, int offset, int length) {
+        CRC32 crc = new CRC32();
+        for (int shift = Long.SIZE - Byte.SIZE; shift >= 0; shift -= Byte.SIZE) {
+            crc.update((int) (previous >>> shift));
+        }
+        crc.update(payload, offset, length);
+        return (int) crc.getValue();
+    }
+
+    private CaseEvent readRecord(long offset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+        readFully(header, offset);
+        return readPayload(offset + HEADER_BYTES, header.getInt(0));
+    }
+
+    private CaseEvent readPayload(long position, int length) throws IOException {
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        readFully(payload, position);
+        return decode(payload.array(), 0, length);
+    }
+
+    private static CaseEvent decode(byte[] bytes, int offset, int length) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, offset, length));
+        int ordinal = in.readUnsignedByte();
+        if (ordinal >= TYPES.length) {
+            throw new IOException("Unknown case event type " + ordinal);
+        }
+        CaseEvent.Type type = TYPES[ordinal];
+        Instant recordedAt = Instant.ofEpochMilli(in.readLong());
+        String caseNumber = in.readUTF();
+        if (type == CaseEvent.Type.FILED) {
+            return new CaseEvent(type, caseNumber, recordedAt, null, readCase(in, caseNumber));
+        }
+        return new CaseEvent(type, caseNumber, recordedAt, in.readUTF(), null);
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = log.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of case history at " + position);
+            }
+        }
+    }
+
+    private static byte[] encode(CaseEvent event) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(event.getType().ordinal());
+            out.writeLong(event.getRecordedAt().toEpochMilli());
+            out.writeUTF(event.getCaseNumber());
+            if (event.getType() == CaseEvent.Type.FILED) {
+                writeCase(out, event.getFiled());
+            } else {
+                out.writeUTF(nullToEmpty(event.getValue()));
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Not thrown by in-memory streams
+        }
+    }
+
+    private static void writeCase(DataOutputStream out, Case c) throws IOException {
+        out.writeUTF(nullToEmpty(c.getCaseTitle()));
+        out.writeUTF(nullToEmpty(c.getCaseType()));
+        out.writeUTF(nullToEmpty(c.getCurrentStatus()));
+        out.writeLong(c.getFilingDate() == null ? NO_DATE : c.getFilingDate().toEpochDay());
+        out.writeUTF(nullToEmpty(c.getAssignedJudge()));
+    }
+
+    private static Case readCase(DataInputStream in, String caseNumber) throws IOException {
+        String title = in.readUTF();
+        String type = in.readUTF();
+        String status = in.readUTF();
+        long day = in.readLong();
+        String judge = in.readUTF();
+        return new Case(caseNumber, title, type, status, day == NO_DATE ? null : LocalDate.ofEpochDay(day), judge);
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    // --- Snapshots ---
+
+    /**
+     * Writes a snapshot covering the log up to a position, on the background thread. The index is
+     * rebuilt from the previous snapshot file and the records after it, which never change, so
+     * nothing is copied from the live index and the appending thread is not held up.
+     */
+    private void snapshotQuietly(long position, MappedByteBuffer window) {
+        try {
+            window.force(); // Earlier windows were forced by tasks queued ahead of this one
+            HeadIndex index = new HeadIndex();
+            long covered = loadSnapshot(index);
+            if (replay(index, covered, position) == position) {
+                writeSnapshot(index, position);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            // The next snapshot or a longer replay covers a failed write
+        }
+    }
+
+    private void writeSnapshot(HeadIndex index, long position) throws IOException {
+        Path file = directory.resolve("events.snap");
+        Path temp = directory.resolve("events.snap.tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(position);
+            out.writeInt(index.size());
+            for (int slot = 0; slot < index.keys.length; slot++) {
+                if (index.keys[slot] != null) {
+                    out.writeUTF(index.keys[slot]);
+                    out.writeLong(index.lasts[slot]);
+                }
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Restores an index from the snapshot file.
+     *
+     * @return The log position the snapshot covers, or 0 to replay the whole log.
+     */
+    private long loadSnapshot(HeadIndex index) throws IOException {
+        Path file = directory.resolve("events.snap");
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                return 0; // Older format; a full replay rebuilds it
+            }
+            long position = in.readLong();
+            if (position > log.size()) {
+                return 0; // Log was replaced or truncated; rebuild from scratch
+            }
+            for (int count = in.readInt(); count > 0; count--) {
+                index.put(in.readUTF(), in.readLong());
+            }
+            return position;
+        } catch (IOException e) {
+            index.clear();
+            return 0; // Damaged snapshot: fall back to a full replay
+        }
+    }
+
+    /**
+     * Open-addressing map from case number to the offset of its latest record, held in two
+     * parallel arrays: about 12 bytes a slot plus the case number itself, with no entry, head or
+     * case object per case. A case's current state is rebuilt from its chain when asked for.
+     */
+    private static final class HeadIndex {
+        private String[] keys = new String[1024];
+        private long[] lasts = new long[1024];
+        private int size;
+
+        long get(String caseNumber) {
+            int slot = slot(keys, caseNumber);
+            return keys[slot] == null ? NONE : lasts[slot];
+        }
+
+        /**
+         * Points a case at a new latest record.
+         *
+         * @return The offset of the case's previous latest record, or {@link #NONE}.
+         */
+        long put(String caseNumber, long last) {
+            int slot = slot(keys, caseNumber);
+            if (keys[slot] != null) {
+                long previous = lasts[slot];
+                lasts[slot] = last;
+                return previous;
+            }
+            if ((size + 1) * 3 > keys.length * 2) { // Kept under two thirds full so probes stay short
+                grow();
+                slot = slot(keys, caseNumber);
+            }
+            keys[slot] = caseNumber;
+            lasts[slot] = last;
+            size++;
+            return NONE;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            Arrays.fill(keys, null);
+            size = 0;
+        }
+
+        private void grow() {
+            String[] oldKeys = keys;
+            long[] oldLasts = lasts;
+            keys = new String[oldKeys.length * 2];
+            lasts = new long[oldKeys.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != null) {
+                    int slot = slot(keys, oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    lasts[slot] = oldLasts[i];
+                }
+            }
+        }
+
+        private static int slot(String[] keys, String key) {
+            int mask = keys.length - 1;
+            int hash = key.hashCode();
+            int slot = (hash ^ (hash >>> 16)) & mask;
+            while (keys[slot] != null && !keys[slot].equals(key)) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+    }
+}
@@ -7,12 +7,24 @@ import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.scene.layout.Region;
 import javafx.scene.layout.Priority;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.collections.transformation.FilteredList;
 import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.beans.property.ReadOnlyObjectWrapper;
  import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 
 public class CaseManagement {
@@ -20,23 +32,64 @@ public class CaseManagement {
     private VBox caseManagementPane;
     private TableView<Case> allCasesTable;
     private TableView<Case> currentStatusTable;
-    private ObservableList<Case> masterCaseList; // Holds all cases
-    private FilteredList<Case> filteredCaseList; // For the search/filters
+    private final CaseRepository caseRepository; // Source of all cases
+    private PagedCaseList pagedCaseList; // Pages cases into the table on demand
+    private CaseRepository.SortKey sortKey = CaseRepository.SortKey.CASE_NUMBER; // Current table order
+    private boolean sortDescending;
+    private int[] searchResults; // Row ids matching the search field, null when not searching
+    private final CompletableFuture<CaseSearchIndex> searchIndex; // Built in the background on startup
+    private final CompletableFuture<ColumnarCaseStore> caseColumns; // Encoded status and judge columns over caseRepository
+    private final ScheduledExecutorService backgroundExecutor; // Runs index builds and debounced queries off the FX thread
+    private ScheduledFuture<?> pendingSearch; // Query waiting for the user to stop typing
+    private long searchGeneration; // Discards results of superseded queries
+    private final CaseEventLog eventLog; // Case histories shown in the timeline
+    private final Label timelineLabel = new Label("Case Timeline");
+    private final ObservableList<String> timelineEntries = FXCollections.observableArrayList();
+    private long timelineGeneration; // Discards timelines of cases no longer selected
+    private final DocumentStore documentStore; // Versioned, deduplicated case documents
+    private final ObservableList<DocumentStore.Version> documentEntries = FXCollections.observableArrayList();
+    private Case selectedCase; // Case shown in the documents and timeline panels
+    private final AccessPolicy policy = AccessPolicy.current(); // Permissions of the signed-in user
+    private int[] ownRows; // Row ids of the user's own cases while "My Cases" is on, null otherwise
+
+    private static final int ACTIVE_CASES_LIMIT = 500; // Rows shown in the "Current Status Cases" table
+    private static final Set<String> ACTIVE_STATUSES = Set.of("In Progress", "Hearing Scheduled");
+    private static final long SEARCH_DEBOUNCE_MILLIS = 150; // Quiet time before a query runs
+    private static final LatencyHistogram SEARCH_LATENCY = Metrics.global().histogram("cases.search"); // Index lookup only
+    private static final LatencyHistogram TABLE_REFRESH = Metrics.global().histogram("cases.table.refresh"); // Until laid out
+    private static final DateTimeFormatter TIMELINE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")
+        .withZone(ZoneId.systemDefault());
 
     public CaseManagement() {
+        this(FileCaseRepository.openDefault());
+    }
+
+    public CaseManagement(CaseRepository caseRepository) {
+        this(caseRepository, CaseEventLog.openDefault(), DocumentStore.openDefault());
+        eventLog.follow(caseRepository);
+    }
+
+    /**
+     * @param caseRepository The cases to manage.
+     * @param eventLog       The case histories, already following {@code caseRepository}.
+     * @param documentStore  The case documents.
+     */
+    public CaseManagement(CaseRepository caseRepository, CaseEventLog eventLog, DocumentStore documentStore) {
+        this.caseRepository = caseRepository;
+        this.eventLog = eventLog;
+        this.documentStore = documentStore;
         caseManagementPane = new VBox(20); // Spacing between sections
         caseManagementPane.setPadding(new Insets(20));
         caseManagementPane.setStyle("-fx-background-color: #282c34;"); // Main content background
 
-        // Initialize master data (replace with actual data loading later)
-        masterCaseList = FXCollections.observableArrayList(
-            new Case("C001", "Smith vs. Jones", "Civil", "Hearing Scheduled", LocalDate.of(2025, 6, 1), "Judge Evans"),
-            new Case("C002", "State vs. Johnson", "Criminal", "In Progress", LocalDate.of(2025, 5, 10), "Judge Patel"),
-            new Case("C003", "Estate of Miller", "Family", "Awaiting Judgment", LocalDate.of(2025, 7, 5), "Judge Chen"),
-            new Case("C004", "Doe vs. Roe", "Civil", "Filed", LocalDate.of(2025, 7, 9), "Unassigned"),
-            new Case("C005", "State vs. Davis", "Criminal", "Closed", LocalDate.of(2025, 4, 15), "Judge Evans")
-        );
-        filteredCaseList = new FilteredList<>(masterCaseList, p -> true); // Initially show all
+        pagedCaseList = new PagedCaseList(PagedCaseList.sorted(caseRepository, sortKey, sortDescending)); // Initially show all
+        backgroundExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "case-management-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        searchIndex = CompletableFuture.supplyAsync(() -> CaseSearchIndex.build(caseRepository), backgroundExecutor);
+        caseColumns = CompletableFuture.supplyAsync(() -> ColumnarCaseStore.mirror(caseRepository), backgroundExecutor);
 
         // 1. Case Type Filters & Main Search
         HBox topFilterBar = createTopFilterBar();
@@ -45,7 +98,9 @@ public class CaseManagement {
         // 2. All Cases Table (Main Case List)
         Label allCasesLabel = new Label("All Cases");
         allCasesLabel.setStyle("-fx-text-fill: #e0e0e0; -fx-font-size: 16px; -fx-font-weight: bold;");
-        allCasesTable = createCaseTable(filteredCaseList); // Use filtered list here
+        allCasesTable = createCaseTable(pagedCaseList); // Rows are fetched as the user scrolls
+        allCasesTable.setSortPolicy(table -> applySort(table)); // Sort in the repository, not in memory
+        allCasesTable.getSelectionModel().selectedItemProperty().addListener((obs, old, selected) -> showCase(selected));
 
         // 3. Current Status & Related Documents Section
         HBox bottomSection = createBottomSection();
@@ -59,7 +114,8 @@ public class CaseManagement {
 
         Button registerCaseButton = new Button("Register New Case");
         registerCaseButton.setStyle("-fx-background-color: #007bff; -fx-text-fill: white; -fx-font-weight: bold; -fx-border-radius: 5; -fx-background-radius: 5;");
-        registerCaseButton.setOnAction(e -> System.out.println("Register New Case clicked!")); // Implement registration form later
+        registerCaseButton.setOnAction(e -> AuditLog.global().record("case.register.opened", "")); // Implement registration form later
+        registerCaseButton.setDisable(!policy.can(Permission.REGISTER_CASES));
 
         Region spacer = new Region();
         HBox.setHgrow(spacer, Priority.ALWAYS); // Push search to right
@@ -70,54 +126,55 @@ public class CaseManagement {
         searchField.setStyle("-fx-background-color: #4a5059; -fx-text-fill: #e0e0e0; -fx-prompt-text-fill: #b0b0b0; -fx-border-radius: 5; -fx-background-radius: 5;");
 
         // Implement search filtering
-        searchField.textProperty().addListener((observable, oldValue, newValue) -> {
-            filteredCaseList.setPredicate(caseItem -> {
-                if (newValue == null || newValue.isEmpty()) {
-                    return true; // Display all cases if search field is empty
-                }
-                String lowerCaseFilter = newValue.toLowerCase();
-                if (caseItem.getCaseNumber().toLowerCase().contains(lowerCaseFilter)) {
-                    return true; // Filter by case number
-                } else if (caseItem.getCaseTitle().toLowerCase().contains(lowerCaseFilter)) {
-                    return true; // Filter by case title
-                } else if (caseItem.getCaseType().toLowerCase().contains(lowerCaseFilter)) {
-                    return true; // Filter by case type
-                }
-                return false; // Does not match
-            });
-        });
-
-        filterBar.getChildren().addAll(registerCaseButton, spacer, searchField);
+        searchField.textProperty().addListener((observable, oldValue, newValue) -> scheduleSearch(newValue));
+
+        filterBar.getChildren().addAll(registerCaseButton, spacer);
+        if (policy.isOwnOnly(Permission.EDIT_CASES)) { // Judges can narrow the list to the cases they hear
+            CheckBox myCases = new CheckBox("My Cases");
+            myCases.setStyle("-fx-text-fill: #e0e0e0;");
+            myCases.setOnAction(e -> showOwnCases(myCases.isSelected()));
+            filterBar.getChildren().add(myCases);
+        }
+        filterBar.getChildren().add(searchField);
         return filterBar;
     }
 
+    /**
+     * Wraps a text column's value. Rows of a page that is still loading are null and show blank.
+     */
+    private static ReadOnlyStringWrapper text(Case c, Function<Case, String> value) {
+        return new ReadOnlyStringWrapper(c == null ? "" : value.apply(c));
+    }
+
     private TableView<Case> createCaseTable(ObservableList<Case> data) {
         TableView<Case> table = new TableView<>();
         table.setItems(data);
         table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY); // Make columns fill width
 
         TableColumn<Case, String> numberCol = new TableColumn<>("Case Number");
-        numberCol.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(cellData.getValue().getCaseNumber()));
+        numberCol.setCellValueFactory(cellData -> text(cellData.getValue(), Case::getCaseNumber));
         numberCol.setPrefWidth(100);
+        numberCol.setUserData(CaseRepository.SortKey.CASE_NUMBER);
 
         TableColumn<Case, String> titleCol = new TableColumn<>("Case Title");
-        titleCol.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(cellData.getValue().getCaseTitle()));
+        titleCol.setCellValueFactory(cellData -> text(cellData.getValue(), Case::getCaseTitle));
         titleCol.setPrefWidth(250);
 
         TableColumn<Case, String> typeCol = new TableColumn<>("Case Type");
-        typeCol.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(cellData.getValue().getCaseType()));
+        typeCol.setCellValueFactory(cellData -> text(cellData.getValue(), Case::getCaseType));
         typeCol.setPrefWidth(100);
 
         TableColumn<Case, String> statusCol = new TableColumn<>("Current Status");
-        statusCol.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(cellData.getValue().getCurrentStatus()));
+        statusCol.setCellValueFactory(cellData -> text(cellData.getValue(), Case::getCurrentStatus));
         statusCol.setPrefWidth(150);
 
         TableColumn<Case, LocalDate> filingDateCol = new TableColumn<>("Filing Date");
-        filingDateCol.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getFilingDate()));
+        filingDateCol.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue() == null ? null : cellData.getValue().getFilingDate()));
         filingDateCol.setPrefWidth(120);
+        filingDateCol.setUserData(CaseRepository.SortKey.FILING_DATE);
 
         TableColumn<Case, String> judgeCol = new TableColumn<>("Assigned Judge");
-        judgeCol.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(cellData.getValue().getAssignedJudge()));
+        judgeCol.setCellValueFactory(cellData -> text(cellData.getValue(), Case::getAssignedJudge));
         judgeCol.setPrefWidth(150);
 
         // Action Column (for Clerk/Judge)
@@ -128,18 +185,23 @@ public class CaseManagement {
             {
                 btn.setStyle("-fx-background-color: #6c757d; -fx-text-fill: white; -fx-padding: 3 8; -fx-font-size: 10px; -fx-border-radius: 3; -fx-background-radius: 3;");
                 btn.setOnAction(event -> {
-                    Case data = getTableView().getItems().get(getIndex());
-                    System.out.println("View/Edit: " + data.getCaseNumber());
-                    // Logic to open Case Details Page
+                    Case data = getTableRow().getItem();
+                    if (data == null) {
+                        return; // Its page is still loading
+                    }
+                    AuditLog.global().record("case.viewed", data.getCaseNumber());
+                    showCase(data); // Case Details Page to follow
                 });
             }
 
             @Override
             protected void updateItem(Void item, boolean empty) {
                 super.updateItem(item, empty);
-                if (empty) {
+                Case data = empty || getTableRow() == null ? null : getTableRow().getItem();
+                if (data == null) { // Empty, or a placeholder for a page still loading
                     setGraphic(null);
                 } else {
+                    btn.setText(policy.can(Permission.EDIT_CASES, data.getAssignedJudge()) ? "View/Edit" : "View");
                     setGraphic(btn);
                 }
             }
@@ -147,6 +209,9 @@ public class CaseManagement {
 
 
         table.getColumns().addAll(numberCol, titleCol, typeCol, statusCol, filingDateCol, judgeCol, actionsCol);
+        for (TableColumn<Case, ?> column : table.getColumns()) {
+            column.setSortable(column.getUserData() != null); // Only indexed columns can be sorted
+        }
 
         // Styling for the table itself
         table.setStyle("-fx-control-inner-background: #3e4450; " +
@@ -178,11 +243,17 @@ public class CaseManagement {
         currentStatusLabel.setStyle("-fx-text-fill: #e0e0e0; -fx-font-size: 16px; -fx-font-weight: bold;");
 
         // Example: Filtered to show only "In Progress" or "Hearing Scheduled"
-        ObservableList<Case> activeCases = FXCollections.observableArrayList(
-            masterCaseList.filtered(c -> c.getCurrentStatus().equals("In Progress") || c.getCurrentStatus().equals("Hearing Scheduled"))
-        );
+        ObservableList<Case> activeCases = FXCollections.observableArrayList();
+        caseColumns.thenAccept(columns -> {
+            List<Case> matches = new ArrayList<>();
+            for (int row : columns.rowsWhere(ColumnarCaseStore.Column.STATUS, ACTIVE_STATUSES, ACTIVE_CASES_LIMIT)) {
+                matches.add(columns.get(row));
+            }
+            Platform.runLater(() -> activeCases.setAll(matches));
+        });
         currentStatusTable = createCaseTable(activeCases); // Reuse table creation
         currentStatusTable.setPrefHeight(200); // Limit height for this section
+        currentStatusTable.getSelectionModel().selectedItemProperty().addListener((obs, old, selected) -> showCase(selected));
         currentStatusBox.getChildren().addAll(currentStatusLabel, currentStatusTable);
         HBox.setHgrow(currentStatusBox, Priority.ALWAYS);
 
@@ -195,23 +266,43 @@ public class CaseManagement {
         Label relatedDocsLabel = new Label("Related Documents");
         relatedDocsLabel.setStyle("-fx-text-fill: #e0e0e0; -fx-font-size: 16px; -fx-font-weight: bold;");
 
-        ListView<String> documentList = new ListView<>(FXCollections.observableArrayList("Complaint Document.pdf", "Evidence_1.jpg", "Court Order.docx"));
+        ListView<DocumentStore.Version> documentList = new ListView<>(documentEntries);
         documentList.setPrefHeight(120);
+        documentList.setPlaceholder(new Label("No documents attached"));
         documentList.setStyle("-fx-background-color: #4a5059; -fx-control-inner-background: #4a5059; -fx-text-fill: #e0e0e0;"); // Listview background
-        documentList.setCellFactory(param -> new ListCell<String>() {
+        documentList.setCellFactory(param -> new ListCell<DocumentStore.Version>() {
             @Override
-            protected void updateItem(String item, boolean empty) {
+            protected void updateItem(DocumentStore.Version item, boolean empty) {
                 super.updateItem(item, empty);
                 if (empty || item == null) {
                     setText(null);
                     setGraphic(null);
                 } else {
-                    setText(item);
+                    setText(item.toString());
                     setTextFill(javafx.scene.paint.Color.valueOf("#e0e0e0")); // Item text color
                 }
             }
         });
+        documentList.setOnMouseClicked(event -> {
+            DocumentStore.Version version = documentList.getSelectionModel().getSelectedItem();
+            if (event.getClickCount() == 2 && version != null) {
+                downloadDocument(version, documentList);
+            }
+        });
+
+        Button attachButton = new Button("Attach Document");
+        attachButton.setStyle("-fx-background-color: #6c757d; -fx-text-fill: white; -fx-border-radius: 3; -fx-background-radius: 3;");
+        attachButton.setOnAction(event -> attachDocument(attachButton));
+        attachButton.setDisable(!policy.can(Permission.UPLOAD_DOCUMENTS));
+
+
+        timelineLabel.setStyle("-fx-text-fill: #e0e0e0; -fx-font-size: 16px; -fx-font-weight: bold;");
+        VBox.setMargin(timelineLabel, new Insets(15, 0, 0, 0)); // Margin above timeline
 
+        ListView<String> timelineList = new ListView<>(timelineEntries);
+        timelineList.setPrefHeight(120);
+        timelineList.setPlaceholder(new Label("Select a case to see its history"));
+        timelineList.setStyle("-fx-background-color: #4a5059; -fx-control-inner-background: #4a5059; -fx-text-fill: #e0e0e0;");
 
         Label notesLabel = new Label("Internal Notes");
         notesLabel.setStyle("-fx-text-fill: #e0e0e0; -fx-font-size: 16px; -fx-font-weight: bold;");
@@ -223,13 +314,213 @@ public class CaseManagement {
         notesArea.setStyle("-fx-control-inner-background: #4a5059; -fx-text-fill: #e0e0e0; -fx-prompt-text-fill: #b0b0b0; -fx-border-radius: 5; -fx-background-radius: 5;");
 
 
-        relatedDocsNotesBox.getChildren().addAll(relatedDocsLabel, documentList, notesLabel, notesArea);
+        relatedDocsNotesBox.getChildren().addAll(relatedDocsLabel, documentList, attachButton, timelineLabel, timelineList, notesLabel, notesArea);
 
 
         bottomSection.getChildren().addAll(currentStatusBox, relatedDocsNotesBox);
         return bottomSection;
     }
 
+    /**
+     * Runs the query against the search index once the user pauses typing, then swaps the
+     * results into the table on the FX thread.
+     */
+    private void scheduleSearch(String query) {
+        if (pendingSearch != null) {
+            pendingSearch.cancel(false);
+        }
+        long generation = ++searchGeneration;
+        pendingSearch = backgroundExecutor.schedule(() -> {
+            CaseSearchIndex index = searchIndex.join();
+            long started = System.nanoTime();
+            int[] rows = index.search(query);
+            SEARCH_LATENCY.recordSince(started);
+            Platform.runLater(() -> {
+                if (generation == searchGeneration) {
+                    searchResults = rows;
+                    refreshTable();
+                }
+            });
+        }, SEARCH_DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Narrows the table to the cases the user may edit, or shows all cases again. The filter runs
+     * over the columnar mirror, checking the user's permission once per judge rather than per row.
+     */
+    private void showOwnCases(boolean on) {
+        if (!on) {
+            ownRows = null;
+            refreshTable();
+            return;
+        }
+        backgroundExecutor.execute(() -> {
+            int[] rows = caseColumns.join().rowsWhere(ColumnarCaseStore.Column.JUDGE,
+                policy.rowCheck(Permission.EDIT_CASES), Integer.MAX_VALUE);
+            Platform.runLater(() -> {
+                ownRows = rows;
+                refreshTable();
+            });
+        });
+    }
+
+    /**
+     * Shows a case's documents and history in the side panel.
+     */
+    private void showCase(Case selected) {
+        selectedCase = selected;
+        showTimeline(selected);
+        showDocuments(selected);
+    }
+
+    /**
+     * Lists the latest version of each of the case's documents.
+     */
+    private void showDocuments(Case selected) {
+        if (selected == null) {
+            documentEntries.clear();
+            return;
+        }
+        backgroundExecutor.execute(() -> {
+            List<DocumentStore.Version> documents = documentStore.documents(selected.getCaseNumber());
+            Platform.runLater(() -> {
+                if (selected == selectedCase) {
+                    documentEntries.setAll(documents);
+                }
+            });
+        });
+    }
+
+    /**
+     * Uploads a file chosen by the user as a new document version of the selected case. The
+     * store hashes and copies the file on the background worker.
+     */
+    private void attachDocument(Button trigger) {
+        Case target = selectedCase;
+        if (target == null) {
+            new Alert(Alert.AlertType.INFORMATION, "Select a case before attaching a document.").show();
+            return;
+        }
+        java.io.File file = new javafx.stage.FileChooser().showOpenDialog(trigger.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        trigger.setDisable(true);
+        backgroundExecutor.execute(() -> {
+            try {
+                documentStore.upload(target.getCaseNumber(), file.toPath(), policy.getProfile().getUserName());
+                Platform.runLater(() -> showDocuments(selectedCase));
+            } catch (java.io.IOException e) {
+                Platform.runLater(() -> new Alert(Alert.AlertType.ERROR, "Could not attach " + file.getName() + ": " + e.getMessage()).show());
+            } finally {
+                Platform.runLater(() -> trigger.setDisable(false));
+            }
+        });
+    }
+
+    /**
+     * Saves a document version to a file chosen by the user.
+     */
+    private void downloadDocument(DocumentStore.Version version, ListView<?> owner) {
+        javafx.stage.FileChooser chooser = new javafx.stage.FileChooser();
+        chooser.setInitialFileName(version.getName());
+        java.io.File file = chooser.showSaveDialog(owner.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        backgroundExecutor.execute(() -> {
+            try {
+                documentStore.download(version, file.toPath());
+            } catch (java.io.IOException e) {
+                Platform.runLater(() -> new Alert(Alert.AlertType.ERROR, "Could not save " + version.getName() + ": " + e.getMessage()).show());
+            }
+        });
+    }
+
+    /**
+     * Loads one case's events from the history log off the FX thread and shows them, oldest
+     * first, in the timeline panel.
+     */
+    private void showTimeline(Case selected) {
+        long generation = ++timelineGeneration;
+        if (selected == null) {
+            timelineLabel.setText("Case Timeline");
+            timelineEntries.clear();
+            return;
+        }
+        String caseNumber = selected.getCaseNumber();
+        backgroundExecutor.execute(() -> {
+            List<String> entries = new ArrayList<>();
+            eventLog.forEachEvent(caseNumber, event ->
+                entries.add(TIMELINE_TIME.format(event.getRecordedAt()) + "  " + event));
+            Case current = eventLog.current(caseNumber);
+            Platform.runLater(() -> {
+                if (generation == timelineGeneration) {
+                    timelineLabel.setText("Case Timeline - " + caseNumber
+                        + (current == null ? "" : " (" + current.getCurrentStatus() + ")"));
+                    timelineEntries.setAll(entries);
+                }
+            });
+        });
+    }
+
+    /**
+     * Points the table at the current page source and records how long until it is laid out
+     * again with the new rows.
+     */
+    private void refreshTable() {
+        long started = System.nanoTime();
+        pagedCaseList.setSource(currentSource());
+        FxPerformanceMonitor.recordNextPulse(allCasesTable, TABLE_REFRESH, started);
+    }
+
+    /**
+     * Returns the page source for the current sort order, search results and "My Cases" filter.
+     */
+    private PagedCaseList.PageSource currentSource() {
+        if (searchResults == null && ownRows == null) {
+            return PagedCaseList.sorted(caseRepository, sortKey, sortDescending);
+        }
+        int[] rows = searchResults == null ? ownRows : searchResults;
+        if (searchResults != null && ownRows != null) {
+            int[] own = ownRows; // Ascending, so search hits can be looked up by binary search
+            rows = Arrays.stream(searchResults).filter(row -> Arrays.binarySearch(own, row) >= 0).toArray();
+        }
+        int[] shown = rows;
+        return new PagedCaseList.PageSource() {
+            @Override
+            public int size() {
+                return shown.length;
+            }
+
+            @Override
+            public List<Case> load(int offset, int limit) {
+                List<Case> page = new ArrayList<>();
+                for (int i = offset; i < Math.min(offset + limit, shown.length); i++) {
+                    page.add(caseRepository.get(shown[i]));
+                }
+                return page;
+            }
+        };
+    }
+
+    /**
+     * Maps the table's sort order onto a repository sort key. Only columns backed by a
+     * repository index are sortable.
+     */
+    private boolean applySort(TableView<Case> table) {
+        if (!table.getSortOrder().isEmpty()) {
+            TableColumn<Case, ?> column = table.getSortOrder().get(0);
+            sortKey = (CaseRepository.SortKey) column.getUserData();
+            sortDescending = column.getSortType() == TableColumn.SortType.DESCENDING;
+        } else {
+            sortKey = CaseRepository.SortKey.CASE_NUMBER;
+            sortDescending = false;
+        }
+        refreshTable();
+        return true;
+    }
+
     public VBox getView() {
         return caseManagementPane;
     }
@@ -0,0 +1,118 @@
+package com.astro;
+
+import java.util.List;
+
+/**
+ * Storage abstraction for the case registry.
+ * Cases are addressed by a stable integer row id assigned on insert, and can be read back
+ * one at a time or as page-sized slices in a chosen sort order, so views never need to hold
+ * the whole registry in memory.
+ */
+public interface CaseRepository {
+
+    /**
+     * Orderings supported by {@link #page(SortKey, boolean, int, int)}.
+     */
+    enum SortKey {
+        CASE_NUMBER, // Ascending by case number
+        FILING_DATE  // Ascending by filing date, ties broken by case number
+    }
+
+    /**
+     * Receives notifications when cases are inserted or replaced.
+     * Implementations call listeners while still holding the repository's monitor, in the order
+     * the writes were made. A reader that takes the same monitor therefore sees each write and its
+     * notification as one step, so it can seed from the stored rows without losing or repeating
+     * an update. Listeners must be quick, and must not wait for a thread that may be blocked on
+     * the repository.
+     */
+    interface Listener {
+        /**
+         * Called after a new case has been stored.
+         *
+         * @param rowId The row id assigned to the case.
+         * @param added The stored case.
+         */
+        void caseAdded(int rowId, Case added);
+
+        /**
+         * Called after an existing case has been replaced.
+         *
+         * @param rowId    The row id of the case.
+         * @param previous The case as it was before the update.
+         * @param updated  The case as it is now.
+         */
+        void caseUpdated(int rowId, Case previous, Case updated);
+    }
+
+    /**
+     * Returns the number of cases in the registry.
+     *
+     * @return The case count.
+     */
+    int size();
+
+    /**
+     * Reads a single case by row id.
+     *
+     * @param rowId The row id returned by {@link #add(Case)}.
+     * @return The stored case.
+     */
+    Case get(int rowId);
+
+    /**
+     * Reads a slice of cases in the given sort order.
+     *
+     * @param key        The sort order to page through.
+     * @param descending True to page from the end of the order.
+     * @param offset     The position of the first case to return.
+     * @param limit      The maximum number of cases to return.
+     * @return Up to {@code limit} cases starting at {@code offset}.
+     */
+    List<Case> page(SortKey key, boolean descending, int offset, int limit);
+
+    /**
+     * Stores a new case.
+     *
+     * @param newCase The case to store.
+     * @return The row id assigned to the case.
+     */
+    int add(Case newCase);
+
+    /**
+     * Stores a batch of new cases, e.g. a docketing run. Implementations may commit the batch
+     * more cheaply than one {@link #add(Case)} per case.
+     *
+     * @param newCases The cases to store.
+     * @return The row ids assigned, in the order of {@code newCases}.
+     */
+    default int[] addAll(List<Case> newCases) {
+        int[] rowIds = new int[newCases.size()];
+        for (int i = 0; i < rowIds.length; i++) {
+            rowIds[i] = add(newCases.get(i));
+        }
+        return rowIds;
+    }
+
+    /**
+     * Replaces the case stored at a row id.
+     *
+     * @param rowId   The row id of the case to replace.
+     * @param updated The new version of the case.
+     */
+    void update(int rowId, Case updated);
+
+    /**
+     * Registers a listener for inserts and updates.
+     *
+     * @param listener The listener to add.
+     */
+    void addListener(Listener listener);
+
+    /**
+     * Removes a previously registered listener.
+     *
+     * @param listener The listener to remove.
+     */
+    void removeListener(Listener listener);
+}
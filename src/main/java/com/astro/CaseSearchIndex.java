@@ -0,0 +1,256 @@
+package com.astro;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over the case registry.
+ * Case numbers, title words (which carry the party names) and case types are tokenized into
+ * posting lists of row ids. Case numbers are also indexed as trigrams so a fragment such as
+ * "024-56" still finds "2024-5678". The index listens to its {@link CaseRepository} and updates
+ * only the postings of the case that changed. Queries take a read lock and can run on any thread.
+ */
+public class CaseSearchIndex implements CaseRepository.Listener {
+
+    static final char TRIGRAM_MARKER = '\u0001'; // Keeps case-number trigrams apart from words
+    static final int GRAM = 3;
+    private static final int SCAN_CHUNK = 1024; // Rows indexed per hold of the repository's monitor
+
+    private final TreeMap<String, Postings> terms = new TreeMap<>(); // Sorted for prefix lookups
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private int maxRowId = -1; // Highest row id indexed, sizes the result bitsets
+    private int seededRows; // Rows below this id are indexed by the initial scan; guarded by the repository's monitor
+    private int scannedRows; // Progress of the initial scan; guarded by the repository's monitor
+
+    /**
+     * Creates an index over every case in the repository and keeps it up to date.
+     *
+     * @param repository The repository to index.
+     * @return The populated index.
+     */
+    public static CaseSearchIndex build(CaseRepository repository) {
+        CaseSearchIndex index = new CaseSearchIndex();
+        synchronized (repository) { // No case can be added between reading the size and listening
+            index.seededRows = repository.size();
+            repository.addListener(index);
+        }
+        for (int from = 0; from < index.seededRows; from += SCAN_CHUNK) {
+            // Writers notify under the same monitor, so an update is either stored before this
+            // chunk reads it or notified after the scan has indexed the version it replaces
+            synchronized (repository) {
+                for (int rowId = from; rowId < Math.min(index.seededRows, from + SCAN_CHUNK); rowId++) {
+                    index.add(rowId, repository.get(rowId));
+                    index.scannedRows = rowId + 1;
+                }
+            }
+        }
+        return index;
+    }
+
+    @Override
+    public void caseAdded(int rowId, Case added) {
+        add(rowId, added);
+    }
+
+    @Override
+    public void caseUpdated(int rowId, Case previous, Case updated) {
+        if (rowId < seededRows && rowId >= scannedRows) {
+            return; // The initial scan has not reached this row and will index the new version
+        }
+        lock.writeLock().lock();
+        try {
+            Set<String> before = tokens(previous);
+            Set<String> after = tokens(updated);
+            for (String term : before) {
+                if (!after.contains(term)) {
+                    Postings postings = terms.get(term);
+                    if (postings != null && postings.remove(rowId) && postings.size == 0) {
+                        terms.remove(term);
+                    }
+                }
+            }
+            for (String term : after) {
+                if (!before.contains(term)) {
+                    terms.computeIfAbsent(term, t -> new Postings()).add(rowId);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes a case under the given row id.
+     *
+     * @param rowId The row id of the case.
+     * @param c     The case to index.
+     */
+    public void add(int rowId, Case c) {
+        lock.writeLock().lock();
+        try {
+            for (String term : tokens(c)) {
+                terms.computeIfAbsent(term, t -> new Postings()).add(rowId);
+            }
+            maxRowId = Math.max(maxRowId, rowId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the cases matching every word of the query. The last word is treated as a prefix,
+     * so results narrow as the user types.
+     *
+     * @param query The free-text query.
+     * @return Matching row ids in ascending order, or {@code null} if the query is blank.
+     */
+    public int[] search(String query) {
+        String[] words = normalize(query).trim().split("\\s+");
+        if (words.length == 0 || words[0].isEmpty()) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            BitSet result = null;
+            for (int i = 0; i < words.length; i++) {
+                BitSet matches = matchWord(words[i], i == words.length - 1);
+                if (result == null) {
+                    result = matches;
+                } else {
+                    result.and(matches);
+                }
+                if (result.isEmpty()) {
+                    break;
+                }
+            }
+            return result.stream().toArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet matchWord(String word, boolean prefix) {
+        BitSet matches = new BitSet(maxRowId + 1);
+        addTermMatches(matches, word, prefix); // Whole case numbers such as "c-2024/17"
+        String bare = word.replaceAll("[^\\p{L}\\p{N}]", "");
+        if (!bare.isEmpty() && !bare.equals(word)) {
+            addTermMatches(matches, bare, prefix); // Title words typed with punctuation, e.g. "vs."
+        }
+        if (word.length() >= GRAM) {
+            matches.or(matchCaseNumberFragment(word)); // Substring match on case numbers
+        }
+        return matches;
+    }
+
+    private void addTermMatches(BitSet matches, String term, boolean prefix) {
+        if (prefix) {
+            for (Postings postings : terms.subMap(term, true, term + Character.MAX_VALUE, false).values()) {
+                postings.addTo(matches);
+            }
+        } else {
+            Postings postings = terms.get(term);
+            if (postings != null) {
+                postings.addTo(matches);
+            }
+        }
+    }
+
+    private BitSet matchCaseNumberFragment(String fragment) {
+        BitSet matches = null;
+        for (int i = 0; i + GRAM <= fragment.length(); i++) {
+            Postings postings = terms.get(TRIGRAM_MARKER + fragment.substring(i, i + GRAM));
+            if (postings == null) {
+                return new BitSet();
+            }
+            BitSet gram = new BitSet(maxRowId + 1);
+            postings.addTo(gram);
+            if (matches == null) {
+                matches = gram;
+            } else {
+                matches.and(gram);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Splits a case into its index terms. Shared with {@link PublicSearchIndex} so both indexes
+     * match the same queries.
+     */
+    static Set<String> tokens(Case c) {
+        Set<String> tokens = new LinkedHashSet<>();
+        String caseNumber = normalize(c.getCaseNumber());
+        tokens.add(caseNumber);
+        for (int i = 0; i + GRAM <= caseNumber.length(); i++) {
+            tokens.add(TRIGRAM_MARKER + caseNumber.substring(i, i + GRAM));
+        }
+        addWords(tokens, c.getCaseTitle());
+        addWords(tokens, c.getCaseType());
+        return tokens;
+    }
+
+    private static void addWords(Set<String> tokens, String text) {
+        if (text == null) {
+            return;
+        }
+        for (String word : normalize(text).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                tokens.add(word);
+            }
+        }
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * A growable, sorted array of row ids.
+     */
+    private static final class Postings {
+        private int[] rows = new int[4];
+        private int size;
+
+        void add(int rowId) {
+            if (size > 0 && rows[size - 1] >= rowId) {
+                int at = Arrays.binarySearch(rows, 0, size, rowId);
+                if (at >= 0) {
+                    return; // Already present
+                }
+                insertAt(-at - 1, rowId);
+                return;
+            }
+            insertAt(size, rowId); // Common case: new rows arrive in ascending order
+        }
+
+        boolean remove(int rowId) {
+            int at = Arrays.binarySearch(rows, 0, size, rowId);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(rows, at + 1, rows, at, size - at - 1);
+            size--;
+            return true;
+        }
+
+        void addTo(BitSet target) {
+            for (int i = 0; i < size; i++) {
+                target.set(rows[i]);
+            }
+        }
+
+        private void insertAt(int at, int rowId) {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size + (size >> 1) + 1);
+            }
+            System.arraycopy(rows, at, rows, at + 1, size - at);
+            rows[at] = rowId;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,507 @@
+package com.astro;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+
+/**
+ * Compact, column-oriented {@link CaseRepository} held entirely in primitive arrays.
+ * Case type, status and assigned judge come from small vocabularies and are dictionary-encoded
+ * into {@code byte}/{@code short} columns, the filing date is an epoch-day {@code int}, and
+ * case numbers and titles share one UTF-8 byte arena. A stored case costs roughly 20 bytes of
+ * columns plus its text, against several hundred bytes for a {@link Case} object graph.
+ * Rows are handed out as flyweight {@link Case} views, and the scan methods work on the
+ * encoded columns directly, so dashboard counts and status filters never decode a row.
+ * <p>
+ * A {@link #mirror} over another repository keeps only the encoded columns, about 8 bytes a
+ * case, and reads rows, pages and text through that repository, so it adds scan columns
+ * without holding a second copy of the registry.
+ */
+public class ColumnarCaseStore implements CaseRepository {
+
+    /**
+     * Dictionary-encoded columns that can be counted and filtered without decoding rows.
+     */
+    public enum Column {
+        TYPE, STATUS, JUDGE
+    }
+
+    private static final int NO_DATE = Integer.MIN_VALUE; // Marker for a missing filing date
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int SCAN_CHUNK = 1024; // Rows a mirror copies per hold of its source's monitor
+
+    private final Dictionary types = new Dictionary(Byte.MAX_VALUE - Byte.MIN_VALUE + 1);
+    private final Dictionary statuses = new Dictionary(Byte.MAX_VALUE - Byte.MIN_VALUE + 1);
+    private final Dictionary judges = new Dictionary(Short.MAX_VALUE - Short.MIN_VALUE + 1);
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final CaseRepository source; // Holds the rows of a mirror; null when this store holds them
+
+    private byte[] typeCodes = new byte[INITIAL_CAPACITY];
+    private byte[] statusCodes = new byte[INITIAL_CAPACITY];
+    private short[] judgeCodes = new short[INITIAL_CAPACITY];
+    private int[] filingDays = new int[INITIAL_CAPACITY];
+    private int[] textStart; // Arena offset of the case number; text columns are null in a mirror
+    private short[] numberLength; // Case number bytes; the title follows
+    private int[] titleLength;
+    private byte[] arena; // Shared UTF-8 text storage
+    private int arenaSize;
+    private int rowCount;
+    private int seededRows; // A mirror's rows below this id are copied by its initial scan; guarded by the source's monitor
+    private int scannedRows; // Progress of that scan; guarded by the source's monitor
+
+    private final Map<SortKey, int[]> sortedRows = new HashMap<>(); // Lazily built orderings
+
+    /**
+     * Creates an empty store that holds its cases itself.
+     */
+    public ColumnarCaseStore() {
+        this(null);
+    }
+
+    private ColumnarCaseStore(CaseRepository source) {
+        this.source = source;
+        if (source == null) {
+            textStart = new int[INITIAL_CAPACITY];
+            numberLength = new short[INITIAL_CAPACITY];
+            titleLength = new int[INITIAL_CAPACITY];
+            arena = new byte[INITIAL_CAPACITY * 32];
+        }
+    }
+
+    /**
+     * Builds the scan columns of a repository and keeps them in sync with later inserts and
+     * updates, using the same row ids. Only the dictionary-encoded columns and filing dates are
+     * kept; reads, pages, inserts and updates go to {@code source}.
+     *
+     * @param source The repository to mirror.
+     * @return The populated mirror.
+     */
+    public static ColumnarCaseStore mirror(CaseRepository source) {
+        ColumnarCaseStore store = new ColumnarCaseStore(source);
+        synchronized (source) { // No case can be added between reading the size and listening
+            store.seededRows = source.size();
+            source.addListener(new Listener() {
+                @Override
+                public void caseAdded(int rowId, Case added) {
+                    store.put(rowId, added);
+                }
+
+                @Override
+                public void caseUpdated(int rowId, Case previous, Case updated) {
+                    if (rowId < store.seededRows && rowId >= store.scannedRows) {
+                        return; // The initial scan has not reached this row and will copy the new version
+                    }
+                    store.put(rowId, updated);
+                }
+            });
+        }
+        for (int from = 0; from < store.seededRows; from += SCAN_CHUNK) {
+            // Writers notify in write order under the same monitor, so the scan never copies a
+            // version older than one the listener has already stored
+            synchronized (source) {
+                for (int rowId = from; rowId < Math.min(store.seededRows, from + SCAN_CHUNK); rowId++) {
+                    store.put(rowId, source.get(rowId));
+                    store.scannedRows = rowId + 1;
+                }
+            }
+        }
+        return store;
+    }
+
+    @Override
+    public synchronized int size() {
+        return rowCount;
+    }
+
+    @Override
+    public Case get(int rowId) {
+        synchronized (this) {
+            checkRow(rowId);
+        }
+        return source != null ? source.get(rowId) : new Row(rowId);
+    }
+
+    @Override
+    public List<Case> page(SortKey key, boolean descending, int offset, int limit) {
+        if (source != null) {
+            return source.page(key, descending, offset, limit);
+        }
+        return ownPage(key, descending, offset, limit);
+    }
+
+    private synchronized List<Case> ownPage(SortKey key, boolean descending, int offset, int limit) {
+        int from = Math.max(0, offset);
+        int to = Math.min(rowCount, from + Math.max(0, limit));
+        if (from >= to) {
+            return Collections.emptyList();
+        }
+        int[] order = sortedRows.computeIfAbsent(key, this::sort);
+        List<Case> page = new ArrayList<>(to - from);
+        for (int position = from; position < to; position++) {
+            page.add(new Row(order[descending ? rowCount - 1 - position : position]));
+        }
+        return page;
+    }
+
+    @Override
+    public int add(Case newCase) {
+        if (source != null) {
+            return source.add(newCase); // Reaches the columns through the mirror's listener
+        }
+        int rowId;
+        synchronized (this) {
+            rowId = rowCount;
+            put(rowId, newCase);
+            for (Listener listener : listeners) {
+                listener.caseAdded(rowId, newCase);
+            }
+        }
+        return rowId;
+    }
+
+    @Override
+    public void update(int rowId, Case updated) {
+        if (source != null) {
+            source.update(rowId, updated);
+            return;
+        }
+        synchronized (this) {
+            checkRow(rowId);
+            Case previous = snapshot(rowId);
+            put(rowId, updated);
+            for (Listener listener : listeners) {
+                listener.caseUpdated(rowId, previous, updated);
+            }
+        }
+    }
+
+    @Override
+    public void addListener(Listener listener) {
+        if (source != null) {
+            source.addListener(listener);
+        } else {
+            listeners.add(listener);
+        }
+    }
+
+    @Override
+    public void removeListener(Listener listener) {
+        if (source != null) {
+            source.removeListener(listener);
+        } else {
+            listeners.remove(listener);
+        }
+    }
+
+    /**
+     * Counts cases per distinct value of a dictionary-encoded column.
+     *
+     * @param column The column to group by.
+     * @return Value to case count, in dictionary order.
+     */
+    public synchronized Map<String, Long> countBy(Column column) {
+        Dictionary dictionary = dictionary(column);
+        long[] counts = new long[dictionary.size()];
+        for (int row = 0; row < rowCount; row++) {
+            counts[code(column, row)]++;
+        }
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int code = 0; code < counts.length; code++) {
+            if (counts[code] > 0) {
+                result.put(dictionary.value(code), counts[code]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Counts cases filed on a given day.
+     *
+     * @param date The filing date.
+     * @return The number of cases filed that day.
+     */
+    public synchronized int countFiledOn(LocalDate date) {
+        int day = (int) date.toEpochDay();
+        int count = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (filingDays[row] == day) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Finds cases whose column value is one of the given values.
+     *
+     * @param column The column to filter on.
+     * @param values The accepted values.
+     * @param limit  The maximum number of row ids to return.
+     * @return Matching row ids in ascending order.
+     */
+    public synchronized int[] rowsWhere(Column column, Set<String> values, int limit) {
+        Dictionary dictionary = dictionary(column);
+        boolean[] accepted = new boolean[dictionary.size()];
+        for (String value : values) {
+            int code = dictionary.find(value);
+            if (code >= 0) {
+                accepted[code] = true;
+            }
+        }
+        return rowsWhere(column, accepted, limit);
+    }
+
+    /**
+     * Finds cases whose column value passes a test. The test runs once per distinct value, not
+     * once per row, so an expensive check such as a permission costs one array lookup per row.
+     *
+     * @param column  The column to filter on.
+     * @param accepts The test for a column value.
+     * @param limit   The maximum number of row ids to return.
+     * @return Matching row ids in ascending order.
+     */
+    public synchronized int[] rowsWhere(Column column, Predicate<String> accepts, int limit) {
+        Dictionary dictionary = dictionary(column);
+        boolean[] accepted = new boolean[dictionary.size()];
+        for (int code = 0; code < accepted.length; code++) {
+            accepted[code] = accepts.test(dictionary.value(code));
+        }
+        return rowsWhere(column, accepted, limit);
+    }
+
+    private int[] rowsWhere(Column column, boolean[] accepted, int limit) {
+        int[] matches = new int[Math.min(limit, rowCount)];
+        int found = 0;
+        for (int row = 0; row < rowCount && found < matches.length; row++) {
+            if (accepted[code(column, row)]) {
+                matches[found++] = row;
+            }
+        }
+        return Arrays.copyOf(matches, found);
+    }
+
+    /**
+     * Copies a row into a standalone {@link Case} that does not change if the row is updated.
+     *
+     * @param rowId The row to copy.
+     * @return An immutable copy of the row.
+     */
+    public Case snapshot(int rowId) {
+        synchronized (this) {
+            checkRow(rowId);
+            if (source == null) {
+                Row row = new Row(rowId);
+                return new Case(row.getCaseNumber(), row.getCaseTitle(), row.getCaseType(),
+                    row.getCurrentStatus(), row.getFilingDate(), row.getAssignedJudge());
+            }
+        }
+        // Already a copy. Read outside this store's lock, which writers take under the source's monitor
+        return source.get(rowId);
+    }
+
+    // --- Column maintenance ---
+
+    private synchronized void put(int rowId, Case c) {
+        byte[] number = source == null ? bytes(c.getCaseNumber()) : null; // Text stays in a mirror's source
+        if (number != null && number.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Case number too long: " + number.length + " bytes");
+        }
+        if (rowId >= typeCodes.length) {
+            grow(Math.max(rowId + 1, typeCodes.length + (typeCodes.length >> 1)));
+        }
+        typeCodes[rowId] = (byte) types.encode(c.getCaseType());
+        statusCodes[rowId] = (byte) statuses.encode(c.getCurrentStatus());
+        judgeCodes[rowId] = (short) judges.encode(c.getAssignedJudge());
+        filingDays[rowId] = c.getFilingDate() == null ? NO_DATE : (int) c.getFilingDate().toEpochDay();
+        if (number != null) {
+            byte[] title = bytes(c.getCaseTitle());
+            textStart[rowId] = append(number); // Updates append; superseded text is left behind
+            append(title);
+            numberLength[rowId] = (short) number.length;
+            titleLength[rowId] = title.length;
+        }
+        rowCount = Math.max(rowCount, rowId + 1);
+        sortedRows.clear();
+    }
+
+    private int append(byte[] text) {
+        if (arenaSize + text.length > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arenaSize + text.length, arena.length + (arena.length >> 1)));
+        }
+        System.arraycopy(text, 0, arena, arenaSize, text.length);
+        int start = arenaSize;
+        arenaSize += text.length;
+        return start;
+    }
+
+    private void grow(int capacity) {
+        typeCodes = Arrays.copyOf(typeCodes, capacity);
+        statusCodes = Arrays.copyOf(statusCodes, capacity);
+        judgeCodes = Arrays.copyOf(judgeCodes, capacity);
+        filingDays = Arrays.copyOf(filingDays, capacity);
+        if (source != null) {
+            return;
+        }
+        textStart = Arrays.copyOf(textStart, capacity);
+        numberLength = Arrays.copyOf(numberLength, capacity);
+        titleLength = Arrays.copyOf(titleLength, capacity);
+    }
+
+    private int[] sort(SortKey key) {
+        Comparator<Integer> order = this::compareNumbers;
+        if (key == SortKey.FILING_DATE) {
+            order = Comparator.<Integer>comparingInt(row -> filingDays[row]).thenComparing(this::compareNumbers);
+        }
+        Integer[] rows = new Integer[rowCount];
+        for (int row = 0; row < rowCount; row++) {
+            rows[row] = row;
+        }
+        Arrays.sort(rows, order);
+        int[] sorted = new int[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            sorted[i] = rows[i];
+        }
+        return sorted;
+    }
+
+    private int compareNumbers(int left, int right) {
+        // UTF-8 byte order matches code point order, so no decoding is needed
+        return Arrays.compareUnsigned(
+            arena, textStart[left], textStart[left] + numberLength[left],
+            arena, textStart[right], textStart[right] + numberLength[right]);
+    }
+
+    private int code(Column column, int row) {
+        switch (column) {
+            case TYPE:
+                return typeCodes[row] & 0xFF;
+            case STATUS:
+                return statusCodes[row] & 0xFF;
+            default:
+                return judgeCodes[row] & 0xFFFF;
+        }
+    }
+
+    private Dictionary dictionary(Column column) {
+        switch (column) {
+            case TYPE:
+                return types;
+            case STATUS:
+                return statuses;
+            default:
+                return judges;
+        }
+    }
+
+    private void checkRow(int rowId) {
+        if (rowId < 0 || rowId >= rowCount) {
+            throw new IndexOutOfBoundsException("Row " + rowId + " of " + rowCount);
+        }
+    }
+
+    private static byte[] bytes(String text) {
+        return text == null ? new byte[0] : text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Maps each distinct value of a small vocabulary to a dense integer code.
+     */
+    private static final class Dictionary {
+        private final int capacity;
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        Dictionary(int capacity) {
+            this.capacity = capacity;
+        }
+
+        int encode(String value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                if (values.size() == capacity) {
+                    throw new IllegalStateException("Dictionary full (" + capacity + " values)");
+                }
+                code = values.size();
+                values.add(value);
+                codes.put(value, code);
+            }
+            return code;
+        }
+
+        int find(String value) {
+            return codes.getOrDefault(value, -1);
+        }
+
+        String value(int code) {
+            return values.get(code);
+        }
+
+        int size() {
+            return values.size();
+        }
+    }
+
+    /**
+     * Flyweight view of one row. Reads go straight to the columns, so the view reflects later
+     * updates to the row; use {@link #snapshot(int)} for a stable copy.
+     */
+    private final class Row extends Case {
+        private final int row;
+
+        Row(int row) {
+            this.row = row;
+        }
+
+        @Override
+        public String getCaseNumber() {
+            synchronized (ColumnarCaseStore.this) {
+                return new String(arena, textStart[row], numberLength[row], StandardCharsets.UTF_8);
+            }
+        }
+
+        @Override
+        public String getCaseTitle() {
+            synchronized (ColumnarCaseStore.this) {
+                return new String(arena, textStart[row] + numberLength[row], titleLength[row], StandardCharsets.UTF_8);
+            }
+        }
+
+        @Override
+        public String getCaseType() {
+            synchronized (ColumnarCaseStore.this) {
+                return types.value(code(Column.TYPE, row));
+            }
+        }
+
+        @Override
+        public String getCurrentStatus() {
+            synchronized (ColumnarCaseStore.this) {
+                return statuses.value(code(Column.STATUS, row));
+            }
+        }
+
+        @Override
+        public LocalDate getFilingDate() {
+            synchronized (ColumnarCaseStore.this) {
+                return filingDays[row] == NO_DATE ? null : LocalDate.ofEpochDay(filingDays[row]);
+            }
+        }
+
+        @Override
+        public String getAssignedJudge() {
+            synchronized (ColumnarCaseStore.this) {
+                return judges.value(code(Column.JUDGE, row));
+            }
+        }
+    }
+}
@@ -6,15 +6,36 @@ import jfxtras.scene.control.agenda.Agenda.AppointmentGroup;
 import jfxtras.scene.control.agenda.Agenda.AppointmentImplLocal;
 import jfxtras.scene.control.agenda.AgendaSkinSwitcher;
 
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.CheckBox;
 import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
 import javafx.scene.layout.VBox;
 import javafx.util.Callback;
 
@@ -28,6 +49,25 @@ public class CourtScheduling {
     private final BorderPane mainLayout; // Primary layout container for the scheduling view
     private final Agenda agenda; // Agenda control for displaying hearings
     private final ObservableList<Hearing> allHearings; // Collection of all scheduled hearings
+    private final HearingConflictEngine conflictEngine; // Courtroom and judge double-booking checks
+    private final Map<Appointment, Hearing> hearingsByAppointment = new IdentityHashMap<>(); // Appointment -> source hearing
+    private final Map<Hearing, Appointment> visibleAppointments = new IdentityHashMap<>(); // Hearings materialized in the Agenda
+    private final NavigableMap<LocalDate, List<Hearing>> hearingsByDate = new TreeMap<>(); // Date index over all hearings
+    private LocalDate visibleFrom; // First day the Agenda is displaying
+    private LocalDate visibleTo; // Last day the Agenda is displaying
+    private final PropertyChangeListener hearingChangeListener = this::hearingChanged; // Patches appointments on setter calls
+    private boolean refreshPending; // Coalesces Agenda re-layouts to one per pulse
+    private Supplier<Collection<HearingAutoScheduler.Request>> backlogSupplier = Collections::emptyList; // Hearings awaiting dates
+    private CaseEventLog eventLog; // Receives scheduling events for case histories; null if not recorded
+    private JudgeWorkloadIndex judgeWorkload; // Counts active hearings per judge; null if not tracked
+    private JudgeRoster roster; // Courtrooms and judges the auto-scheduler plans over; null until loaded
+    private final AccessPolicy policy = AccessPolicy.current(); // Permissions of the signed-in user
+    private Predicate<String> shownJudges = policy.rowCheck(Permission.VIEW_HEARINGS); // Presiding judges whose hearings are shown
+
+    private static final int AUTO_SCHEDULE_DAYS = 91; // Planning horizon of one quarter
+    private static final int INITIAL_WINDOW_DAYS = 7; // Days materialized before the skin reports its range
+    private static final LatencyHistogram AGENDA_LAYOUT = Metrics.global().histogram("hearings.agenda.layout"); // Change until laid out
+    private static final LatencyHistogram HEARINGS_LOAD = Metrics.global().histogram("load.hearings");
 
     // Predefined appointment groups for different hearing types
     public static final Agenda.AppointmentGroup HEARING_GROUP_TRIAL = new Agenda.AppointmentGroupImpl().withStyleClass("hearing-trial");
@@ -35,6 +75,28 @@ public class CourtScheduling {
     public static final Agenda.AppointmentGroup HEARING_GROUP_STATUS = new Agenda.AppointmentGroupImpl().withStyleClass("hearing-status");
     public static final Agenda.AppointmentGroup HEARING_GROUP_DEFAULT = new Agenda.AppointmentGroupImpl().withStyleClass("hearing-default");
 
+    /**
+     * Returns the appointment group used to style a hearing type.
+     *
+     * @param typeOfHearing The hearing type (e.g., Trial, Motion).
+     * @return The matching appointment group, or the default group.
+     */
+    public static Agenda.AppointmentGroup groupFor(String typeOfHearing) {
+        if (typeOfHearing == null) {
+            return HEARING_GROUP_DEFAULT;
+        }
+        switch (typeOfHearing) {
+            case "Trial":
+                return HEARING_GROUP_TRIAL;
+            case "Motion":
+                return HEARING_GROUP_MOTION;
+            case "Status Conference":
+                return HEARING_GROUP_STATUS;
+            default:
+                return HEARING_GROUP_DEFAULT;
+        }
+    }
+
     /**
      * Constructs a CourtScheduling component, initializing the layout, agenda, and sample hearings.
      * Configures event handlers for user interactions and applies default styling.
@@ -44,14 +106,22 @@ public class CourtScheduling {
         mainLayout = new BorderPane();
         agenda = new Agenda();
         allHearings = FXCollections.observableArrayList();
+        conflictEngine = new HearingConflictEngine();
 
         // Populate with sample hearing data
+        long loadStarted = System.nanoTime();
         initializeSampleHearings();
+        for (Hearing hearing : allHearings) {
+            conflictEngine.book(hearing);
+            track(hearing);
+        }
+        HEARINGS_LOAD.recordSince(loadStarted);
 
-        // Convert hearings to Agenda appointments
-        List<Appointment> appointments = createAppointmentsFromHearings();
+        // Only hearings in the displayed range become Agenda appointments
         agenda.appointments().clear(); // Ensure no duplicate appointments
-        agenda.appointments().addAll(appointments);
+        LocalDate displayed = agenda.getDisplayedLocalDateTime().toLocalDate();
+        showRange(displayed.minusDays(INITIAL_WINDOW_DAYS), displayed.plusDays(INITIAL_WINDOW_DAYS));
+        setupDisplayedRangeCallback();
 
         // Configure callback for creating new appointments
         setupNewAppointmentCallback();
@@ -59,6 +129,9 @@ public class CourtScheduling {
         // Configure callback for handling appointment clicks
         setupActionCallback();
 
+        // Validate appointments that are dragged or resized
+        setupAppointmentChangedCallback();
+
         // Set up the layout with agenda and skin switcher
         configureLayout();
     }
@@ -92,29 +165,223 @@ public class CourtScheduling {
     /**
      * Converts the list of hearings into Agenda appointments for display.
      *
+     * @param hearings The hearings to convert.
      * @return A list of configured Appointment objects.
      */
-    private List<Appointment> createAppointmentsFromHearings() {
+    private List<Appointment> createAppointmentsFromHearings(List<Hearing> hearings) {
         List<Appointment> appointments = new ArrayList<>();
-        for (Hearing hearing : allHearings) {
+        for (Hearing hearing : hearings) {
             AppointmentImplLocal appointment = new AppointmentImplLocal();
-            appointment.setStartLocalDateTime(LocalDateTime.of(hearing.getHearingDate(), hearing.getHearingStartTime()));
-            appointment.setEndLocalDateTime(LocalDateTime.of(hearing.getHearingDate(), hearing.getHearingEndTime()));
-            appointment.setSummary(hearing.getAgendaSummary());
-            appointment.setDescription(hearing.getAgendaDescription());
-            appointment.setLocation(hearing.getCourtRoom());
-            appointment.setAppointmentGroup(hearing.getAppointmentGroup());
+            copyToAppointment(hearing, appointment);
             appointments.add(appointment);
+            hearingsByAppointment.put(appointment, hearing);
+            visibleAppointments.put(hearing, appointment);
         }
         return appointments;
     }
 
+    /**
+     * Swaps appointments in and out whenever the Agenda's skin shows a different date range,
+     * e.g. after navigating to another week or switching between day, week and month views.
+     */
+    private void setupDisplayedRangeCallback() {
+        agenda.setLocalDateTimeRangeCallback((Agenda.LocalDateTimeRange range) -> {
+            showRange(range.getStartLocalDateTime().toLocalDate(), range.getEndLocalDateTime().toLocalDate());
+            return null;
+        });
+    }
+
+    /**
+     * Materializes appointments for the hearings between two dates (inclusive) that the user may
+     * see, and drops the appointments of all other hearings. Only the difference between the old
+     * and new window is added or removed, so cost follows the size of the window, not of the
+     * calendar.
+     *
+     * @param from The first displayed day.
+     * @param to   The last displayed day.
+     */
+    private void showRange(LocalDate from, LocalDate to) {
+        visibleFrom = from;
+        visibleTo = to;
+        Map<Hearing, Boolean> inRange = new IdentityHashMap<>();
+        for (List<Hearing> day : hearingsByDate.subMap(from, true, to, true).values()) {
+            for (Hearing hearing : day) {
+                if (shownJudges.test(hearing.getPresidingJudge())) {
+                    inRange.put(hearing, Boolean.TRUE);
+                }
+            }
+        }
+
+        List<Appointment> leaving = new ArrayList<>();
+        for (Iterator<Map.Entry<Hearing, Appointment>> it = visibleAppointments.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Hearing, Appointment> entry = it.next();
+            if (!inRange.containsKey(entry.getKey())) {
+                leaving.add(entry.getValue());
+                hearingsByAppointment.remove(entry.getValue());
+                it.remove();
+            }
+        }
+        List<Hearing> entering = new ArrayList<>();
+        for (Hearing hearing : inRange.keySet()) {
+            if (!visibleAppointments.containsKey(hearing)) {
+                entering.add(hearing);
+            }
+        }
+        if (leaving.isEmpty() && entering.isEmpty()) {
+            return;
+        }
+        long started = System.nanoTime();
+        if (!leaving.isEmpty()) {
+            agenda.appointments().removeAll(leaving);
+        }
+        if (!entering.isEmpty()) {
+            agenda.appointments().addAll(createAppointmentsFromHearings(entering));
+        }
+        FxPerformanceMonitor.recordNextPulse(agenda, AGENDA_LAYOUT, started);
+    }
+
+    /**
+     * Tells whether a hearing falls inside the range the Agenda is displaying and passes the
+     * user's hearing filter.
+     */
+    private boolean isVisible(Hearing hearing) {
+        LocalDate date = hearing.getHearingDate();
+        return visibleFrom != null && !date.isBefore(visibleFrom) && !date.isAfter(visibleTo)
+            && shownJudges.test(hearing.getPresidingJudge());
+    }
+
+    private void indexByDate(Hearing hearing) {
+        hearingsByDate.computeIfAbsent(hearing.getHearingDate(), d -> new ArrayList<>()).add(hearing);
+    }
+
+    private void unindexByDate(Hearing hearing, LocalDate date) {
+        List<Hearing> day = hearingsByDate.get(date);
+        if (day != null) {
+            day.removeIf(other -> other == hearing);
+            if (day.isEmpty()) {
+                hearingsByDate.remove(date);
+            }
+        }
+    }
+
+    /**
+     * Copies the displayed fields of a hearing onto its appointment.
+     *
+     * @param hearing     The source hearing.
+     * @param appointment The appointment to update.
+     */
+    static void copyToAppointment(Hearing hearing, Appointment appointment) {
+        appointment.setStartLocalDateTime(LocalDateTime.of(hearing.getHearingDate(), hearing.getHearingStartTime()));
+        appointment.setEndLocalDateTime(LocalDateTime.of(hearing.getHearingDate(), hearing.getHearingEndTime()));
+        appointment.setSummary(hearing.getAgendaSummary());
+        appointment.setDescription(hearing.getAgendaDescription());
+        appointment.setLocation(hearing.getCourtRoom());
+        appointment.setAppointmentGroup(hearing.getAppointmentGroup());
+    }
+
+    /**
+     * Starts listening to a hearing's setters and adds it to the date index.
+     *
+     * @param hearing The hearing to track.
+     */
+    private void track(Hearing hearing) {
+        hearing.addPropertyChangeListener(hearingChangeListener);
+        indexByDate(hearing);
+        if (judgeWorkload != null) {
+            judgeWorkload.track(hearing);
+        }
+    }
+
+    /**
+     * Applies one change made through a {@link Hearing} setter: keeps the date index and the
+     * conflict engine current and patches only that hearing's appointment.
+     *
+     * @param event The change reported by the hearing.
+     */
+    private void hearingChanged(PropertyChangeEvent event) {
+        if (!Platform.isFxApplicationThread()) {
+            Platform.runLater(() -> hearingChanged(event));
+            return;
+        }
+        Hearing hearing = (Hearing) event.getSource();
+        switch (event.getPropertyName()) {
+            case "hearingDate":
+                unindexByDate(hearing, (LocalDate) event.getOldValue());
+                indexByDate(hearing);
+                conflictEngine.rebook(hearing);
+                record(CaseEvent.hearingScheduled(hearing.getCaseNumber(), hearing.getHearingDate()));
+                break;
+            case "schedule":
+                LocalDate oldDate = ((Hearing.Slot) event.getOldValue()).getDate();
+                if (!oldDate.equals(hearing.getHearingDate())) {
+                    unindexByDate(hearing, oldDate);
+                    indexByDate(hearing);
+                    record(CaseEvent.hearingScheduled(hearing.getCaseNumber(), hearing.getHearingDate()));
+                }
+                conflictEngine.rebook(hearing);
+                break;
+            case "status":
+                conflictEngine.rebook(hearing); // Frees the slot when vacated, takes it back when reinstated
+                if ("Adjourned".equalsIgnoreCase((String) event.getNewValue())) {
+                    record(CaseEvent.adjourned(hearing.getCaseNumber(), hearing.getHearingDate()));
+                }
+                break;
+            case "startTime":
+            case "endTime":
+            case "courtRoom":
+            case "presidingJudge":
+                conflictEngine.rebook(hearing);
+                break;
+            default:
+                break;
+        }
+        patchAppointment(hearing);
+    }
+
+    /**
+     * Brings a hearing's appointment in line with the hearing, creating or dropping it if the
+     * hearing moved into or out of the displayed range.
+     *
+     * @param hearing The changed hearing.
+     */
+    private void patchAppointment(Hearing hearing) {
+        Appointment appointment = visibleAppointments.get(hearing);
+        boolean visible = isVisible(hearing);
+        if (appointment == null) {
+            if (visible) {
+                agenda.appointments().addAll(createAppointmentsFromHearings(List.of(hearing)));
+            }
+            return;
+        }
+        if (!visible) {
+            visibleAppointments.remove(hearing);
+            hearingsByAppointment.remove(appointment);
+            agenda.appointments().remove(appointment);
+            return;
+        }
+        copyToAppointment(hearing, appointment);
+        if (!refreshPending) {
+            refreshPending = true;
+            Platform.runLater(() -> {
+                refreshPending = false;
+                long started = System.nanoTime();
+                agenda.refresh();
+                FxPerformanceMonitor.recordNextPulse(agenda, AGENDA_LAYOUT, started);
+            });
+        }
+    }
+
     /**
      * Configures the callback for handling new appointment creation requests.
      */
     private void setupNewAppointmentCallback() {
         agenda.setNewAppointmentCallback((Agenda.LocalDateTimeRange range) -> {
-            System.out.println("New appointment requested from " + range.getStartLocalDateTime() + " to " + range.getEndLocalDateTime());
+            if (!policy.can(Permission.SCHEDULE_HEARINGS)) {
+                return null;
+            }
+            AuditLog.global().record("hearing.slot.requested", range.getStartLocalDateTime() + " to " + range.getEndLocalDateTime()
+                + ". Free courtrooms: " + conflictEngine.freeCourtrooms(range.getStartLocalDateTime(), range.getEndLocalDateTime())
+                + ", free judges: " + conflictEngine.freeJudges(range.getStartLocalDateTime(), range.getEndLocalDateTime()));
             return null; // Return null to prevent default appointment creation
         });
     }
@@ -124,11 +391,224 @@ public class CourtScheduling {
      */
     private void setupActionCallback() {
         agenda.setActionCallback((Agenda.Appointment appointment) -> {
-            System.out.println("Appointment clicked: Summary: " + appointment.getSummary() + ", Location: " + appointment.getLocation());
+            Hearing hearing = hearingsByAppointment.get(appointment);
+            if (hearing == null || !policy.can(Permission.VIEW_HEARINGS, hearing.getPresidingJudge())) {
+                return null;
+            }
+            AuditLog.global().record("hearing.opened", appointment.getSummary() + " in " + appointment.getLocation());
             return null; // No return value required
         });
     }
 
+    /**
+     * Configures the callback that validates an appointment after it is dragged or resized.
+     * A move by a user who may not schedule hearings, one that runs past midnight, or one that
+     * double-books the courtroom or judge, is rolled back and the reason is reported.
+     */
+    private void setupAppointmentChangedCallback() {
+        agenda.setAppointmentChangedCallback((Agenda.Appointment appointment) -> {
+            Hearing hearing = hearingsByAppointment.get(appointment);
+            if (hearing == null) {
+                return null;
+            }
+            if (!policy.can(Permission.SCHEDULE_HEARINGS)) {
+                putBack(hearing, appointment);
+                new Alert(Alert.AlertType.WARNING, "Only clerks can move hearings.").show();
+                return null;
+            }
+            LocalDateTime start = appointment.getStartLocalDateTime();
+            LocalDateTime end = appointment.getEndLocalDateTime();
+            if (!end.toLocalDate().equals(start.toLocalDate()) || !end.isAfter(start)) {
+                putBack(hearing, appointment);
+                new Alert(Alert.AlertType.WARNING, "A hearing must start and end on the same day.").show();
+                return null;
+            }
+            List<HearingConflictEngine.Conflict> conflicts = conflictEngine.conflictsAt(hearing, start, end);
+            if (conflicts.isEmpty()) {
+                // The single change event re-indexes the hearing and re-books it in the conflict engine
+                hearing.reschedule(start.toLocalDate(), start.toLocalTime(), end.toLocalTime());
+            } else {
+                putBack(hearing, appointment);
+                showConflicts(conflicts);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Puts an appointment back where its hearing is still booked.
+     */
+    private void putBack(Hearing hearing, Appointment appointment) {
+        appointment.setStartLocalDateTime(LocalDateTime.of(hearing.getHearingDate(), hearing.getHearingStartTime()));
+        appointment.setEndLocalDateTime(LocalDateTime.of(hearing.getHearingDate(), hearing.getHearingEndTime()));
+        long started = System.nanoTime();
+        agenda.refresh();
+        FxPerformanceMonitor.recordNextPulse(agenda, AGENDA_LAYOUT, started);
+    }
+
+    /**
+     * Shows only the hearings the user presides over, or every hearing the user may see.
+     *
+     * @param own True to show only the user's own hearings.
+     */
+    private void showOwnHearings(boolean own) {
+        String owner = policy.getProfile().getDisplayName();
+        shownJudges = own ? owner::equals : policy.rowCheck(Permission.VIEW_HEARINGS);
+        if (visibleFrom != null) {
+            showRange(visibleFrom, visibleTo);
+        }
+    }
+
+    /**
+     * Tells the user why a scheduling change was rejected.
+     *
+     * @param conflicts The clashing bookings.
+     */
+    private void showConflicts(List<HearingConflictEngine.Conflict> conflicts) {
+        StringBuilder message = new StringBuilder();
+        for (HearingConflictEngine.Conflict conflict : conflicts) {
+            message.append(conflict).append('\n');
+        }
+        Alert alert = new Alert(Alert.AlertType.WARNING, message.toString().trim());
+        alert.setHeaderText("Scheduling conflict");
+        alert.show();
+    }
+
+    /**
+     * Sets where the auto-scheduler gets the hearings that still need a date.
+     *
+     * @param backlogSupplier Supplies the backlog; called on a background thread.
+     */
+    public void setBacklogSupplier(Supplier<Collection<HearingAutoScheduler.Request>> backlogSupplier) {
+        this.backlogSupplier = backlogSupplier;
+    }
+
+    /**
+     * Plans the backlog over the next quarter on a background thread, then lets the clerk review
+     * the plan before anything is added to the Agenda.
+     *
+     * @param trigger The button that started the run; disabled while planning.
+     */
+    private void autoSchedule(Button trigger) {
+        if (roster == null) {
+            new Alert(Alert.AlertType.INFORMATION, "The judge roster is still loading; try again in a moment.").show();
+            return;
+        }
+        trigger.setDisable(true);
+        List<Hearing> existing = new ArrayList<>(allHearings);
+        JudgeRoster plannedRoster = roster;
+        Task<HearingAutoScheduler.Plan> planning = new Task<>() {
+            @Override
+            protected HearingAutoScheduler.Plan call() {
+                // Cases assigned to a judge who is not on the roster stay unscheduled
+                List<Judge> judges = plannedRoster.judges();
+                List<String> judgeNames = new ArrayList<>();
+                for (Judge judge : judges) {
+                    judgeNames.add(judge.getName());
+                }
+                LocalDate firstDay = LocalDate.now().plusDays(1);
+                HearingAutoScheduler scheduler = new HearingAutoScheduler(plannedRoster.courtrooms(), judgeNames,
+                    firstDay, AUTO_SCHEDULE_DAYS);
+                for (Judge judge : judges) {
+                    for (int day = 0; day < AUTO_SCHEDULE_DAYS; day++) {
+                        if (!judge.isAvailableOn(firstDay.plusDays(day))) {
+                            scheduler.markUnavailable(judge.getName(), firstDay.plusDays(day));
+                        }
+                    }
+                }
+                return scheduler.plan(backlogSupplier.get(), existing);
+            }
+        };
+        planning.setOnSucceeded(event -> {
+            trigger.setDisable(false);
+            reviewPlan(planning.getValue());
+        });
+        planning.setOnFailed(event -> {
+            trigger.setDisable(false);
+            new Alert(Alert.AlertType.ERROR, "Auto-scheduling failed: " + planning.getException().getMessage()).show();
+        });
+        Thread worker = new Thread(planning, "hearing-auto-scheduler");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Shows the plan's utilization metrics and adds its hearings to the Agenda only if the clerk
+     * confirms. Each hearing is booked through the conflict engine, so anything booked while the
+     * plan was under review is not double-booked.
+     *
+     * @param plan The plan to review.
+     */
+    private void reviewPlan(HearingAutoScheduler.Plan plan) {
+        Alert review = new Alert(Alert.AlertType.CONFIRMATION, plan.summary());
+        review.setHeaderText("Commit " + plan.getHearings().size() + " proposed hearings to the calendar?");
+        review.showAndWait()
+            .filter(ButtonType.OK::equals)
+            .ifPresent(ok -> {
+                List<Hearing> committed = new ArrayList<>();
+                List<Hearing> shown = new ArrayList<>();
+                for (Hearing hearing : plan.getHearings()) {
+                    if (conflictEngine.tryBook(hearing).isEmpty()) {
+                        committed.add(hearing);
+                        track(hearing);
+                        record(CaseEvent.hearingScheduled(hearing.getCaseNumber(), hearing.getHearingDate()));
+                        if (isVisible(hearing)) {
+                            shown.add(hearing);
+                        }
+                    }
+                }
+                allHearings.addAll(committed);
+                agenda.appointments().addAll(createAppointmentsFromHearings(shown));
+            });
+    }
+
+    /**
+     * Sets the log that scheduled and adjourned hearings are recorded in.
+     *
+     * @param eventLog The case history log.
+     */
+    public void setEventLog(CaseEventLog eventLog) {
+        this.eventLog = eventLog;
+    }
+
+    /**
+     * Sets the judge workload index that follows the presiding judge and status of every hearing.
+     * Hearings already loaded are handed to it straight away.
+     *
+     * @param judgeWorkload The judge workload index.
+     */
+    public void setJudgeWorkload(JudgeWorkloadIndex judgeWorkload) {
+        this.judgeWorkload = judgeWorkload;
+        for (Hearing hearing : allHearings) {
+            judgeWorkload.track(hearing);
+        }
+    }
+
+    /**
+     * Sets the roster whose courtrooms and judges the auto-scheduler plans over. Judges' leave
+     * is kept free of hearings.
+     *
+     * @param roster The court's roster.
+     */
+    public void setRoster(JudgeRoster roster) {
+        this.roster = roster;
+    }
+
+    private void record(CaseEvent event) {
+        if (eventLog != null) {
+            eventLog.append(event);
+        }
+    }
+
+    /**
+     * Returns the engine used to check courtroom and judge availability.
+     *
+     * @return The conflict engine holding every booked hearing.
+     */
+    public HearingConflictEngine getConflictEngine() {
+        return conflictEngine;
+    }
+
     /**
      * Configures the layout, including the agenda container and skin switcher.
      */
@@ -143,8 +623,30 @@ public class CourtScheduling {
         AgendaSkinSwitcher switcher = new AgendaSkinSwitcher(agenda);
         switcher.setPadding(new Insets(0, 10, 10, 10));
 
+        // Button that plans the hearing backlog across courtrooms and judges
+        Button autoScheduleButton = new Button("Auto-Schedule Backlog");
+        autoScheduleButton.setStyle("-fx-background-color: #007bff; -fx-text-fill: white; -fx-font-weight: bold;");
+        autoScheduleButton.setOnAction(event -> autoSchedule(autoScheduleButton));
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+        HBox topBar = new HBox(10, switcher, spacer);
+        if (policy.isOwnOnly(Permission.VIEW_HEARINGS) || policy.isOwnOnly(Permission.ADJOURN_HEARINGS)) {
+            // "My hearings" for judges and lawyers; forced on for users who may see no others
+            CheckBox myHearings = new CheckBox("My Hearings");
+            myHearings.setStyle("-fx-text-fill: #e0e0e0;");
+            myHearings.setSelected(policy.isOwnOnly(Permission.VIEW_HEARINGS));
+            myHearings.setDisable(policy.isOwnOnly(Permission.VIEW_HEARINGS));
+            myHearings.setOnAction(event -> showOwnHearings(myHearings.isSelected()));
+            topBar.getChildren().add(myHearings);
+        }
+        if (policy.can(Permission.SCHEDULE_HEARINGS)) {
+            topBar.getChildren().add(autoScheduleButton);
+        }
+        topBar.setAlignment(Pos.CENTER_LEFT);
+        topBar.setPadding(new Insets(0, 10, 0, 0));
+
         // Assemble the main layout
-        mainLayout.setTop(switcher);
+        mainLayout.setTop(topBar);
         mainLayout.setCenter(agendaContainer);
     }
 
@@ -1,10 +1,17 @@
 package com.astro;
 
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.control.Label;
 import javafx.scene.control.Button;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.ListView;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
@@ -13,6 +20,14 @@ import javafx.scene.chart.CategoryAxis;
 import javafx.scene.chart.NumberAxis;
 import javafx.scene.chart.XYChart;
 
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Dashboard view for the judiciary management system.
  * Displays key metrics and quick actions in a responsive grid layout.
@@ -24,6 +39,16 @@ public class Dashboard {
     // Main layout container using GridPane for responsive card arrangement
     private GridPane mainLayout;
 
+    private final Label casesCount = new Label("0");
+    private final XYChart.Series<String, Number> caseSeries = new XYChart.Series<>();
+    private final Map<String, XYChart.Data<String, Number>> typeBars = new HashMap<>(); // Bar per case type
+    private final Label unreadCount = new Label();
+    private final Label[] notificationLines = new Label[3]; // Latest notices in the Notifications card
+
+    private static final int HISTORY_LIMIT = 1_000; // Notices listed by "View All"
+    private static final DateTimeFormatter NOTICE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")
+        .withZone(ZoneId.systemDefault());
+
     /**
      * Constructs the dashboard with all UI components.
      * Initializes the layout and creates four primary dashboard cards:
@@ -31,8 +56,14 @@ public class Dashboard {
      * 2. Cases by Type - Visualizes case distribution
      * 3. Notifications - Shows system alerts and updates
      * 4. Quick Actions - Provides access to common tasks
+     *
+     * @param aggregates    The live case counters the cards are bound to.
+     * @param reports       The report jobs started from Quick Actions.
+     * @param judgeWorkload The judge workloads "Assign Judge" suggests from; the button is enabled once it has loaded.
+     * @param notifications The service whose inbox for the signed-in user is shown under Notifications.
      */
-    public Dashboard() {
+    public Dashboard(CaseAggregationService aggregates, Reports reports, CompletableFuture<JudgeWorkloadIndex> judgeWorkload,
+                     CompletableFuture<NotificationService> notifications) {
         // Initialize main grid layout with spacing and styling
         mainLayout = new GridPane();
         mainLayout.setPadding(new Insets(20));
@@ -42,7 +73,6 @@ public class Dashboard {
 
         // Card 1: New Cases Today -------------------------------------------------
         Card newCasesCard = new Card("New Cases Today");
-        Label casesCount = new Label("15");
         casesCount.setStyle("-fx-font-size: 40px; -fx-font-weight: bold; -fx-text-fill: #00FFC2;");
         HBox countBox = new HBox(casesCount);
         countBox.setAlignment(Pos.CENTER);
@@ -60,11 +90,7 @@ public class Dashboard {
         barChart.setLegendVisible(false);
         barChart.setStyle("-fx-bar-fill: #1E90FF;");  // Custom bar color
         
-        // Populate chart with sample data
-        XYChart.Series<String, Number> caseSeries = new XYChart.Series<>();
-        caseSeries.getData().add(new XYChart.Data<>("Civil", 50));
-        caseSeries.getData().add(new XYChart.Data<>("Criminal", 80));
-        caseSeries.getData().add(new XYChart.Data<>("Family", 30));
+        // Bars are filled in from the aggregation snapshots
         barChart.getData().add(caseSeries);
         
         casesByTypeCard.setCardContent(barChart);
@@ -74,25 +100,32 @@ public class Dashboard {
         Card notificationCard = new Card("Notifications");
         VBox notificationContent = new VBox(5);  // Vertical container with 5px spacing
         
-        // Notification items
-        Label notification1 = new Label("• Case #2025-0123: Hearing adjourned.");
-        Label notification2 = new Label("• New filing: Plaintiff Smith vs. Jones.");
-        Label notification3 = new Label("• Deadline approaching for Case #2024-5678.");
-        
-        // Apply consistent text styling
+        // Notification items, newest first, filled in from the user's inbox
+        unreadCount.setStyle("-fx-text-fill: #00FFC2; -fx-font-weight: bold;");
         String notificationStyle = "-fx-text-fill: #DDDDDD;";
-        notification1.setStyle(notificationStyle);
-        notification2.setStyle(notificationStyle);
-        notification3.setStyle(notificationStyle);
+        for (int i = 0; i < notificationLines.length; i++) {
+            notificationLines[i] = new Label(i == 0 ? "• No notifications yet." : "");
+            notificationLines[i].setStyle(notificationStyle);
+        }
+        String user = AccessPolicy.current().getProfile().getUserName();
+        notifications.thenAccept(service -> service.addListener(user,
+            delivery -> Platform.runLater(() -> showNotifications(delivery)))); // One FX update per delivery, however many arrived
         
         // View All button
         Button viewAllButton = new Button("View All");
         viewAllButton.setStyle("-fx-background-color: #007bff; -fx-text-fill: white;");
+        viewAllButton.setDisable(!notifications.isDone());
+        notifications.thenAccept(service -> Platform.runLater(() -> {
+            viewAllButton.setDisable(false);
+            viewAllButton.setOnAction(e -> showAllNotifications(service, user));
+        }));
         HBox buttonBox = new HBox(viewAllButton);
         buttonBox.setAlignment(Pos.CENTER_RIGHT);
         
         // Assemble notification content
-        notificationContent.getChildren().addAll(notification1, notification2, notification3, buttonBox);
+        notificationContent.getChildren().add(unreadCount);
+        notificationContent.getChildren().addAll(notificationLines);
+        notificationContent.getChildren().add(buttonBox);
         notificationCard.setCardContent(notificationContent);
         mainLayout.add(notificationCard, 0, 1);  // Position at column 0, row 1
 
@@ -101,7 +134,7 @@ public class Dashboard {
         VBox actionButtons = new VBox(10);  // Vertical container with 10px spacing
         
         // Action buttons
-        Button assignCaseBtn = new Button("Assign Case");
+        Button assignCaseBtn = new Button("Assign Judge");
         Button generateReportBtn = new Button("Generate Report");
         Button manageUsersBtn = new Button("Manage Users");
         
@@ -114,10 +147,108 @@ public class Dashboard {
         assignCaseBtn.setStyle(buttonStyle);
         generateReportBtn.setStyle(buttonStyle);
         manageUsersBtn.setStyle(buttonStyle);
+        generateReportBtn.setOnAction(e -> reports.showGenerateDialog(mainLayout.getScene().getWindow()));
+        assignCaseBtn.setDisable(!judgeWorkload.isDone());
+        judgeWorkload.thenAccept(index -> Platform.runLater(() -> {
+            assignCaseBtn.setDisable(false);
+            assignCaseBtn.setOnAction(e -> StaffAllocation.showAssignDialog(index, mainLayout.getScene().getWindow()));
+        }));
         
-        actionButtons.getChildren().addAll(assignCaseBtn, generateReportBtn, manageUsersBtn);
+        // Only the actions the user's roles allow are offered
+        AccessPolicy policy = AccessPolicy.current();
+        if (policy.can(Permission.ASSIGN_JUDGES)) {
+            actionButtons.getChildren().add(assignCaseBtn);
+        }
+        if (policy.can(Permission.VIEW_REPORTS)) {
+            actionButtons.getChildren().add(generateReportBtn);
+        }
+        if (policy.can(Permission.MANAGE_USERS)) {
+            actionButtons.getChildren().add(manageUsersBtn);
+        }
+        // Running report jobs show their progress under the buttons
+        actionButtons.getChildren().add(reports.getView());
         quickActionsCard.setCardContent(actionButtons);
         mainLayout.add(quickActionsCard, 1, 1);  // Position at column 1, row 1
+
+        aggregates.subscribe(this::showSnapshot);
+    }
+
+    /**
+     * Applies a published snapshot to the cards. Existing bars are updated in place so the chart
+     * animates instead of being rebuilt; a bar is added the first time a case type appears.
+     *
+     * @param snapshot The counters to show.
+     */
+    private void showSnapshot(CaseAggregationService.Snapshot snapshot) {
+        casesCount.setText(Long.toString(snapshot.getNewToday()));
+        for (Map.Entry<String, XYChart.Data<String, Number>> bar : typeBars.entrySet()) {
+            if (!snapshot.getByType().containsKey(bar.getKey())) {
+                bar.getValue().setYValue(0);
+            }
+        }
+        snapshot.getByType().forEach((type, count) -> {
+            XYChart.Data<String, Number> bar = typeBars.get(type);
+            if (bar == null) {
+                bar = new XYChart.Data<>(type, count);
+                typeBars.put(type, bar);
+                caseSeries.getData().add(bar);
+            } else {
+                bar.setYValue(count);
+            }
+        });
+    }
+
+    /**
+     * Shows the latest notices and the unread count of the user's inbox.
+     *
+     * @param delivery The inbox state from the notification service.
+     */
+    private void showNotifications(NotificationService.Delivery delivery) {
+        List<NotificationService.Notification> latest = delivery.getLatest();
+        for (int i = 0; i < notificationLines.length; i++) {
+            notificationLines[i].setText(i < latest.size() ? "• " + latest.get(i).getMessage()
+                : i == 0 ? "• No notifications yet." : "");
+        }
+        unreadCount.setText(delivery.getUnread() == 0 ? "" : delivery.getUnread() + " unread");
+    }
+
+    /**
+     * Lists the user's notices, including those moved to disk, and marks them as read. The
+     * inbox is read off the FX thread.
+     */
+    private void showAllNotifications(NotificationService service, String user) {
+        ObservableList<String> entries = FXCollections.observableArrayList();
+        ListView<String> list = new ListView<>(entries);
+        list.setPrefSize(640, 420);
+        list.setPlaceholder(new Label("Loading..."));
+        Task<List<NotificationService.Notification>> loading = new Task<>() {
+            @Override
+            protected List<NotificationService.Notification> call() throws Exception {
+                List<NotificationService.Notification> history = service.history(user, HISTORY_LIMIT);
+                service.markAllRead(user);
+                return history;
+            }
+        };
+        loading.setOnSucceeded(e -> {
+            List<String> lines = new ArrayList<>();
+            for (NotificationService.Notification notification : loading.getValue()) {
+                lines.add(NOTICE_TIME.format(notification.getTime()) + "  " + notification.getMessage());
+            }
+            entries.setAll(lines);
+            list.setPlaceholder(new Label("No notifications"));
+        });
+        loading.setOnFailed(e -> list.setPlaceholder(new Label("Cannot read notifications: " + loading.getException().getMessage())));
+        Thread worker = new Thread(loading, "notification-history");
+        worker.setDaemon(true);
+        worker.start();
+
+        Dialog<Void> dialog = new Dialog<>();
+        dialog.initOwner(mainLayout.getScene().getWindow());
+        dialog.setTitle("Notifications");
+        dialog.setHeaderText("Notifications for " + AccessPolicy.current().getProfile().getDisplayName());
+        dialog.getDialogPane().setContent(list);
+        dialog.getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
+        dialog.show();
     }
 
     /**
@@ -0,0 +1,48 @@
+package com.astro;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Locates the on-disk home of the embedded data stores.
+ * Defaults to {@code ~/.jms} and can be overridden with the {@code jms.data.dir} system property.
+ */
+public final class DataDirectory {
+
+    private DataDirectory() {
+    }
+
+    /**
+     * Returns the root data directory, creating it if necessary.
+     *
+     * @return The root directory for all embedded stores.
+     */
+    public static Path root() {
+        String configured = System.getProperty("jms.data.dir");
+        Path root = configured != null
+            ? Paths.get(configured)
+            : Paths.get(System.getProperty("user.home"), ".jms");
+        return ensure(root);
+    }
+
+    /**
+     * Returns a named sub-directory of the data directory, creating it if necessary.
+     *
+     * @param name The store name (e.g., "cases").
+     * @return The directory reserved for that store.
+     */
+    public static Path resolve(String name) {
+        return ensure(root().resolve(name));
+    }
+
+    private static Path ensure(Path dir) {
+        try {
+            return Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create data directory " + dir, e);
+        }
+    }
+}
@@ -0,0 +1,446 @@
+package com.astro;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connections to the relational store described by {@code JMS Schema.sql}.
+ * A fixed number of connections are pooled; a caller that finds them all leased waits up to
+ * {@link #LEASE_TIMEOUT_MILLIS} and then fails rather than opening more, so a burst of work
+ * cannot exhaust the server's connection limit. Every pooled connection keeps its own cache of
+ * prepared statements, so a statement is parsed once per connection rather than once per call.
+ * <p>
+ * Writes can go three ways: {@link #inTransaction} for a unit of work, {@link #batch} for bulk
+ * loads sent as JDBC batches, and {@link #submit} for single-row writes from many threads, which
+ * a committer thread gathers into one batch and one commit per round (group commit).
+ * <p>
+ * For MySQL the URL should carry {@code rewriteBatchedStatements=true}, which lets the driver
+ * send a batch of inserts as multi-row statements; {@link #openDefault()} adds it when missing.
+ */
+public class Database implements Closeable {
+
+    static final int DEFAULT_POOL_SIZE = 8;
+    static final int STATEMENT_CACHE_SIZE = 64; // Prepared statements kept per connection
+    static final int BATCH_SIZE = 1_000; // Rows per executeBatch call
+    static final int GROUP_COMMIT_MAX = 1_000; // Queued writes folded into one commit
+    static final long LEASE_TIMEOUT_MILLIS = 10_000;
+    private static final long VALIDATE_AFTER_MILLIS = 30_000; // Idle time after which a connection is checked on lease
+    private static final int VALIDATE_TIMEOUT_SECONDS = 2;
+    private static final Pending<Void> CLOSE = new Pending<>(null, null, null); // Queued last by close()
+
+    /**
+     * Work run on a leased connection.
+     *
+     * @param <T> The result type.
+     */
+    public interface Work<T> {
+        T run(Session session) throws SQLException;
+    }
+
+    /**
+     * Sets the parameters of a statement for one row.
+     *
+     * @param <T> The row type.
+     */
+    public interface Binder<T> {
+        void bind(PreparedStatement statement, T row) throws SQLException;
+    }
+
+    /**
+     * A connection leased from the pool. Closing the session rolls back anything uncommitted and
+     * returns the connection; statements from {@link #prepare} stay open in the connection's
+     * cache and must not be closed by the caller.
+     */
+    public final class Session implements AutoCloseable {
+        private final Pooled pooled;
+        private boolean broken;
+
+        private Session(Pooled pooled) {
+            this.pooled = pooled;
+        }
+
+        public Connection connection() { return pooled.connection; }
+
+        /**
+         * Returns a prepared statement for the SQL, reusing the connection's cached one.
+         *
+         * @param sql The statement text.
+         * @return The statement with its parameters cleared.
+         * @throws SQLException If it cannot be prepared.
+         */
+        public PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement statement = pooled.statements.get(sql);
+            if (statement == null) {
+                statement = pooled.connection.prepareStatement(sql);
+                pooled.statements.put(sql, statement);
+            } else {
+                statement.clearParameters();
+            }
+            return statement;
+        }
+
+        public void commit() throws SQLException {
+            pooled.connection.commit();
+        }
+
+        public void rollback() throws SQLException {
+            pooled.connection.rollback();
+        }
+
+        @Override
+        public void close() {
+            try {
+                pooled.connection.rollback();
+            } catch (SQLException e) {
+                broken = true;
+            }
+            release(pooled, broken);
+        }
+    }
+
+    private static final class Pooled {
+        final Connection connection;
+        final Map<String, PreparedStatement> statements; // LRU by last use
+        long idleSince;
+
+        Pooled(Connection connection) {
+            this.connection = connection;
+            this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                    if (size() <= STATEMENT_CACHE_SIZE) {
+                        return false;
+                    }
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+            };
+        }
+
+        void close() {
+            statements.values().forEach(Pooled::closeQuietly);
+            statements.clear();
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                // Already unusable
+            }
+        }
+
+        static void closeQuietly(PreparedStatement statement) {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                // Nothing to release
+            }
+        }
+    }
+
+    private static final class Pending<T> {
+        final String sql;
+        final T row;
+        final Binder<T> binder;
+        final CompletableFuture<Integer> done = new CompletableFuture<>();
+
+        Pending(String sql, T row, Binder<T> binder) {
+            this.sql = sql;
+            this.row = row;
+            this.binder = binder;
+        }
+
+        void bind(PreparedStatement statement) throws SQLException {
+            binder.bind(statement, row);
+        }
+    }
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final Semaphore permits; // One per connection the pool may hand out
+    private final ArrayDeque<Pooled> idle = new ArrayDeque<>(); // Most recently returned last
+    private final BlockingQueue<Pending<?>> pending = new LinkedBlockingQueue<>(); // Writes awaiting group commit
+    private final Thread committer;
+    private volatile boolean closed;
+
+    /**
+     * Creates a pool. Connections are opened on first use, up to the pool size.
+     *
+     * @param url      The JDBC URL.
+     * @param user     The database user.
+     * @param password The password.
+     * @param poolSize The most connections open at once.
+     */
+    public Database(String url, String user, String password, int poolSize) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.permits = new Semaphore(poolSize, true);
+        committer = new Thread(this::commitLoop, "db-group-commit");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    /**
+     * Opens a pool from the {@code jms.db.url}, {@code jms.db.user}, {@code jms.db.password}
+     * and {@code jms.db.pool} system properties.
+     *
+     * @return The pool.
+     * @throws IllegalStateException If no URL is configured.
+     */
+    public static Database openDefault() {
+        String url = System.getProperty("jms.db.url");
+        if (url == null || url.isBlank()) {
+            throw new IllegalStateException("No database configured; set jms.db.url");
+        }
+        if (url.startsWith("jdbc:mysql:") && !url.contains("rewriteBatchedStatements")) {
+            url += (url.contains("?") ? "&" : "?") + "rewriteBatchedStatements=true";
+        }
+        return new Database(url, System.getProperty("jms.db.user", ""), System.getProperty("jms.db.password", ""),
+            Integer.getInteger("jms.db.pool", DEFAULT_POOL_SIZE));
+    }
+
+    /**
+     * Leases a connection, waiting up to {@link #LEASE_TIMEOUT_MILLIS} for one to be returned
+     * if the pool is exhausted. The connection is not in auto-commit mode.
+     *
+     * @return The session, to be closed when done.
+     * @throws SQLException If no connection became free in time or one cannot be opened.
+     */
+    public Session lease() throws SQLException {
+        if (closed) {
+            throw new SQLException("Database is closed");
+        }
+        return acquire();
+    }
+
+    private Session acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(LEASE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out waiting for a database connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted waiting for a database connection", e);
+        }
+        try {
+            return new Session(take());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private Pooled take() throws SQLException {
+        while (true) {
+            Pooled pooled;
+            synchronized (idle) {
+                pooled = idle.pollLast();
+            }
+            if (pooled == null) {
+                Connection connection = DriverManager.getConnection(url, user, password);
+                connection.setAutoCommit(false);
+                return new Pooled(connection);
+            }
+            if (System.currentTimeMillis() - pooled.idleSince < VALIDATE_AFTER_MILLIS
+                || pooled.connection.isValid(VALIDATE_TIMEOUT_SECONDS)) {
+                return pooled;
+            }
+            pooled.close();
+        }
+    }
+
+    private void release(Pooled pooled, boolean broken) {
+        if (broken || closed) {
+            pooled.close();
+        } else {
+            pooled.idleSince = System.currentTimeMillis();
+            synchronized (idle) {
+                idle.addLast(pooled);
+            }
+        }
+        permits.release();
+    }
+
+    /**
+     * Runs work in one transaction, committing if it returns and rolling back if it throws.
+     *
+     * @param work The work.
+     * @param <T>  The result type.
+     * @return What the work returned.
+     * @throws SQLException If the work or the commit fails.
+     */
+    public <T> T inTransaction(Work<T> work) throws SQLException {
+        try (Session session = lease()) {
+            T result = work.run(session);
+            session.commit();
+            return result;
+        }
+    }
+
+    /**
+     * Writes many rows with one statement as JDBC batches of {@link #BATCH_SIZE}, all in one
+     * transaction, so either every row is written or none is.
+     *
+     * @param sql    The insert or update statement.
+     * @param rows   The rows.
+     * @param binder Sets the statement's parameters for a row.
+     * @param <T>    The row type.
+     * @return The number of rows affected.
+     * @throws SQLException If a row fails; nothing is written then.
+     */
+    public <T> int batch(String sql, Iterable<T> rows, Binder<T> binder) throws SQLException {
+        return inTransaction(session -> batch(session, sql, rows, binder));
+    }
+
+    /**
+     * Writes many rows as JDBC batches within a caller's transaction.
+     *
+     * @param session The session whose transaction the rows join.
+     * @param sql     The insert or update statement.
+     * @param rows    The rows.
+     * @param binder  Sets the statement's parameters for a row.
+     * @param <T>     The row type.
+     * @return The number of rows affected.
+     * @throws SQLException If a row fails.
+     */
+    public static <T> int batch(Session session, String sql, Iterable<T> rows, Binder<T> binder) throws SQLException {
+        PreparedStatement statement = session.prepare(sql);
+        int affected = 0;
+        int queued = 0;
+        for (Iterator<T> it = rows.iterator(); it.hasNext(); ) {
+            binder.bind(statement, it.next());
+            statement.addBatch();
+            if (++queued == BATCH_SIZE || !it.hasNext()) {
+                affected += sum(statement.executeBatch());
+                queued = 0;
+            }
+        }
+        return affected;
+    }
+
+    private static int sum(int[] counts) {
+        int total = 0;
+        for (int count : counts) {
+            // Drivers that rewrite batches report SUCCESS_NO_INFO (-2) per row
+            total += count == PreparedStatement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+        }
+        return total;
+    }
+
+    /**
+     * Queues a single-row write for the committer thread, which folds the writes queued by every
+     * caller since its last round into batches and one commit. A write that fails is retried on
+     * its own so it does not take the rest of its round down with it.
+     *
+     * @param sql    The insert or update statement.
+     * @param row    The row.
+     * @param binder Sets the statement's parameters for the row.
+     * @param <T>    The row type.
+     * @return Completes with the rows affected once committed, or with the write's error.
+     */
+    public <T> CompletableFuture<Integer> submit(String sql, T row, Binder<T> binder) {
+        Pending<T> write = new Pending<>(sql, row, binder);
+        if (closed) {
+            write.done.completeExceptionally(new SQLException("Database is closed"));
+        } else {
+            pending.add(write);
+        }
+        return write.done;
+    }
+
+    private void commitLoop() {
+        List<Pending<?>> round = new ArrayList<>();
+        boolean last = false;
+        while (!last) {
+            try {
+                round.add(pending.take());
+            } catch (InterruptedException e) {
+                continue;
+            }
+            pending.drainTo(round, GROUP_COMMIT_MAX - 1);
+            last = round.remove(CLOSE);
+            if (round.isEmpty()) {
+                break;
+            }
+            try {
+                commitRound(round);
+            } catch (SQLException | RuntimeException e) {
+                for (Pending<?> write : round) {
+                    commitAlone(write);
+                }
+            }
+            round.clear();
+        }
+    }
+
+    private void commitRound(List<Pending<?>> round) throws SQLException {
+        int[] counts = new int[round.size()];
+        try (Session session = acquire()) {
+            // Consecutive writes with the same statement go out as one batch; order is kept
+            int start = 0;
+            while (start < round.size()) {
+                String sql = round.get(start).sql;
+                PreparedStatement statement = session.prepare(sql);
+                int end = start;
+                while (end < round.size() && round.get(end).sql.equals(sql)) {
+                    round.get(end++).bind(statement);
+                    statement.addBatch();
+                }
+                System.arraycopy(statement.executeBatch(), 0, counts, start, end - start);
+                start = end;
+            }
+            session.commit();
+        }
+        for (int i = 0; i < counts.length; i++) {
+            round.get(i).done.complete(counts[i] == PreparedStatement.SUCCESS_NO_INFO ? 1 : counts[i]);
+        }
+    }
+
+    private void commitAlone(Pending<?> write) {
+        try (Session session = acquire()) {
+            PreparedStatement statement = session.prepare(write.sql);
+            write.bind(statement);
+            int count = statement.executeUpdate();
+            session.commit();
+            write.done.complete(count);
+        } catch (SQLException | RuntimeException e) {
+            write.done.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Commits the queued writes, then closes idle connections. Leased connections are closed
+     * when their sessions are.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        pending.add(CLOSE);
+        try {
+            committer.join(LEASE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Pending<?> write; (write = pending.poll()) != null; ) {
+            write.done.completeExceptionally(new SQLException("Database is closed"));
+        }
+        synchronized (idle) {
+            idle.forEach(Pooled::close);
+            idle.clear();
+        }
+    }
+}
@@ -0,0 +1,419 @@
+package com.astro;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed, deduplicating store for case documents.
+ * Uploads are cut into {@link #CHUNK_SIZE} chunks, and every chunk is stored once under its
+ * SHA-256 hash, so an exhibit attached to many filings occupies disk space only once. A
+ * document's content is a manifest of chunk hashes, itself named by the SHA-256 of the whole
+ * file. Chunks are copied between files with {@link FileChannel#transferTo}, and hashing reads
+ * through a small reusable buffer, so no file is ever held in heap. Each case keeps the version
+ * history of every document name in an append-only catalog.
+ */
+public class DocumentStore implements BackupManager.Source, Closeable {
+
+    static final int CHUNK_SIZE = 1 << 20; // Deduplication granularity
+    private static final int HASH_BYTES = 32; // SHA-256
+    private static final int READ_BUFFER_SIZE = 64 * 1024; // Buffer used while hashing
+    private static final HexFormat HEX = HexFormat.of();
+
+    /**
+     * One uploaded version of a case document.
+     */
+    public static final class Version {
+        private final String caseNumber;
+        private final String name;
+        private final int number;
+        private final String contentHash;
+        private final long size;
+        private final String uploadedBy;
+        private final Instant uploadedAt;
+
+        Version(String caseNumber, String name, int number, String contentHash, long size,
+                String uploadedBy, Instant uploadedAt) {
+            this.caseNumber = caseNumber;
+            this.name = name;
+            this.number = number;
+            this.contentHash = contentHash;
+            this.size = size;
+            this.uploadedBy = uploadedBy;
+            this.uploadedAt = uploadedAt;
+        }
+
+        public String getCaseNumber() { return caseNumber; }
+        public String getName() { return name; }
+        public int getNumber() { return number; }
+        public String getContentHash() { return contentHash; }
+        public long getSize() { return size; }
+        public String getUploadedBy() { return uploadedBy; }
+        public Instant getUploadedAt() { return uploadedAt; }
+
+        @Override
+        public String toString() {
+            return name + " (v" + number + ")";
+        }
+    }
+
+    private final Path directory;
+    private final Path chunks; // chunks/<2 hex>/<hash>
+    private final Path manifests; // manifests/<hash>: size and chunk hashes of a whole document
+    private final Path temp; // Staging area for atomic moves
+    private final FileChannel catalog; // Append-only version records
+    private final Map<String, Map<String, List<Version>>> versions = new LinkedHashMap<>(); // Case -> name -> versions
+    private long logicalBytes; // Sum of all version sizes, before deduplication
+
+    /**
+     * Opens (or creates) the store in the given directory.
+     *
+     * @param directory The directory for the store.
+     * @throws IOException If the store cannot be opened or its catalog read.
+     */
+    public DocumentStore(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.chunks = Files.createDirectories(directory.resolve("chunks"));
+        this.manifests = Files.createDirectories(directory.resolve("manifests"));
+        this.temp = Files.createDirectories(directory.resolve("tmp"));
+        Path catalogFile = directory.resolve("catalog.dat");
+        loadCatalog(catalogFile);
+        this.catalog = FileChannel.open(catalogFile,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Opens the store in the default data directory.
+     *
+     * @return The default store.
+     */
+    public static DocumentStore openDefault() {
+        try {
+            return new DocumentStore(DataDirectory.resolve("documents"));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open document store", e);
+        }
+    }
+
+    /**
+     * Uploads a file as the next version of the case document with the same file name.
+     *
+     * @param caseNumber The case the document belongs to.
+     * @param source     The file to upload.
+     * @param uploadedBy The uploading user.
+     * @return The stored version; the latest existing one if the content did not change.
+     * @throws IOException If the file cannot be read or stored.
+     */
+    public Version upload(String caseNumber, Path source, String uploadedBy) throws IOException {
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            return upload(caseNumber, source.getFileName().toString(), channel, uploadedBy);
+        }
+    }
+
+    /**
+     * Uploads the content of a channel as the next version of a case document. Chunks already in
+     * the store are only hashed, never written again.
+     *
+     * @param caseNumber The case the document belongs to.
+     * @param name       The document name.
+     * @param source     The content; read from position 0 to its size.
+     * @param uploadedBy The uploading user.
+     * @return The stored version; the latest existing one if the content did not change.
+     * @throws IOException If the content cannot be read or stored.
+     */
+    public Version upload(String caseNumber, String name, FileChannel source, String uploadedBy) throws IOException {
+        long size = source.size();
+        MessageDigest whole = sha256();
+        MessageDigest part = sha256();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+        ByteArrayOutputStream manifest = new ByteArrayOutputStream();
+        DataOutputStream manifestOut = new DataOutputStream(manifest);
+        manifestOut.writeLong(size);
+
+        for (long offset = 0; offset < size || offset == 0; offset += CHUNK_SIZE) {
+            long length = Math.min(CHUNK_SIZE, size - offset);
+            for (long read = 0; read < length; ) {
+                buffer.clear().limit((int) Math.min(buffer.capacity(), length - read));
+                int n = source.read(buffer, offset + read);
+                if (n < 0) {
+                    throw new IOException("Document " + name + " shrank while uploading");
+                }
+                buffer.flip();
+                whole.update(buffer.duplicate());
+                part.update(buffer);
+                read += n;
+            }
+            byte[] chunkHash = part.digest();
+            manifestOut.write(chunkHash);
+            Path chunk = chunkPath(HEX.formatHex(chunkHash));
+            if (!Files.exists(chunk)) {
+                storeChunk(source, offset, length, chunk);
+            }
+            if (size == 0) {
+                break; // An empty document is one empty chunk
+            }
+        }
+
+        String contentHash = HEX.formatHex(whole.digest());
+        Path manifestFile = manifests.resolve(contentHash);
+        if (!Files.exists(manifestFile)) {
+            Path staged = Files.createTempFile(temp, "manifest", null);
+            Files.write(staged, manifest.toByteArray());
+            moveIntoPlace(staged, manifestFile);
+        }
+        return record(caseNumber, name, contentHash, size, uploadedBy);
+    }
+
+    /**
+     * Lists the latest version of each document of a case, in upload order.
+     *
+     * @param caseNumber The case number.
+     * @return The current documents.
+     */
+    public synchronized List<Version> documents(String caseNumber) {
+        List<Version> latest = new ArrayList<>();
+        for (List<Version> history : versions.getOrDefault(caseNumber, Collections.emptyMap()).values()) {
+            latest.add(history.get(history.size() - 1));
+        }
+        return latest;
+    }
+
+    /**
+     * Lists every version of one case document, oldest first.
+     *
+     * @param caseNumber The case number.
+     * @param name       The document name.
+     * @return The version history.
+     */
+    public synchronized List<Version> versions(String caseNumber, String name) {
+        List<Version> history = versions.getOrDefault(caseNumber, Collections.emptyMap()).get(name);
+        return history == null ? Collections.emptyList() : new ArrayList<>(history);
+    }
+
+    /**
+     * Writes a version's content to a file.
+     *
+     * @param version The version to download.
+     * @param target  The file to create or replace.
+     * @throws IOException If the content cannot be read or written.
+     */
+    public void download(Version version, Path target) throws IOException {
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            transferTo(version.getContentHash(), out);
+        }
+    }
+
+    /**
+     * Streams stored content chunk by chunk into a channel without copying it through the heap.
+     *
+     * @param contentHash The SHA-256 of the content.
+     * @param target      The channel to write to.
+     * @return The number of bytes written.
+     * @throws IOException If the content is missing or cannot be written.
+     */
+    public long transferTo(String contentHash, WritableByteChannel target) throws IOException {
+        long written = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(manifests.resolve(contentHash))))) {
+            long size = in.readLong();
+            byte[] chunkHash = new byte[HASH_BYTES];
+            while (written < size) {
+                in.readFully(chunkHash);
+                try (FileChannel chunk = FileChannel.open(chunkPath(HEX.formatHex(chunkHash)), StandardOpenOption.READ)) {
+                    long length = chunk.size();
+                    for (long position = 0; position < length; ) {
+                        position += chunk.transferTo(position, length - position, target);
+                    }
+                    written += length;
+                }
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Returns the total size of all stored versions, as if nothing were deduplicated.
+     *
+     * @return The logical size in bytes.
+     */
+    public synchronized long getLogicalBytes() {
+        return logicalBytes;
+    }
+
+    /**
+     * Returns the disk space used by the stored chunks. Walks the chunk directory, so call it
+     * for reporting rather than on every upload.
+     *
+     * @return The physical size in bytes.
+     * @throws IOException If the chunk directory cannot be read.
+     */
+    public long getStoredBytes() throws IOException {
+        try (Stream<Path> files = Files.walk(chunks)) {
+            long total = 0;
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                total += Files.size(file);
+            }
+            return total;
+        }
+    }
+
+    @Override
+    public String getBackupName() {
+        return directory.getFileName().toString();
+    }
+
+    /**
+     * Captures the catalog by its length. Chunks and manifests never change once moved into
+     * place, and are in place before the catalog record naming them, so every version in the
+     * captured catalog has its content in the listed files.
+     */
+    @Override
+    public BackupManager.Snapshot openSnapshot() throws IOException {
+        FileChannel catalogReader = FileChannel.open(directory.resolve("catalog.dat"), StandardOpenOption.READ);
+        List<BackupManager.FileImage> files = new ArrayList<>();
+        synchronized (this) {
+            files.add(BackupManager.FileImage.of("catalog.dat", catalog.size(), BackupManager.Kind.APPEND_ONLY, catalogReader));
+        }
+        for (Path contentDirectory : List.of(manifests, chunks)) {
+            try (Stream<Path> walk = Files.walk(contentDirectory)) {
+                for (Path file : (Iterable<Path>) walk.filter(Files::isRegularFile)::iterator) {
+                    String path = directory.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+                    files.add(BackupManager.FileImage.ofImmutable(path, file, Files.size(file)));
+                }
+            }
+        }
+        return new BackupManager.Snapshot() {
+            @Override
+            public List<BackupManager.FileImage> getFiles() {
+                return files;
+            }
+
+            @Override
+            public void close() throws IOException {
+                catalogReader.close();
+            }
+        };
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        catalog.force(false);
+        catalog.close();
+    }
+
+    private void storeChunk(FileChannel source, long offset, long length, Path chunk) throws IOException {
+        Path staged = Files.createTempFile(temp, "chunk", null);
+        try (FileChannel out = FileChannel.open(staged, StandardOpenOption.WRITE)) {
+            for (long copied = 0; copied < length; ) {
+                copied += source.transferTo(offset + copied, length - copied, out);
+            }
+        }
+        Files.createDirectories(chunk.getParent());
+        moveIntoPlace(staged, chunk);
+    }
+
+    private static void moveIntoPlace(Path staged, Path target) throws IOException {
+        try {
+            Files.move(staged, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            Files.deleteIfExists(staged); // Stored concurrently by another upload
+        }
+    }
+
+    private Path chunkPath(String hash) {
+        return chunks.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    // --- Catalog ---
+
+    private synchronized Version record(String caseNumber, String name, String contentHash, long size,
+                                        String uploadedBy) throws IOException {
+        List<Version> history = versions.computeIfAbsent(caseNumber, c -> new LinkedHashMap<>())
+            .computeIfAbsent(name, n -> new ArrayList<>());
+        if (!history.isEmpty() && history.get(history.size() - 1).getContentHash().equals(contentHash)) {
+            return history.get(history.size() - 1); // Same content uploaded again
+        }
+        Version version = new Version(caseNumber, name, history.size() + 1, contentHash, size,
+            uploadedBy, Instant.now());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0); // Length placeholder
+        out.writeUTF(caseNumber);
+        out.writeUTF(name);
+        out.writeInt(version.getNumber());
+        out.writeUTF(contentHash);
+        out.writeLong(size);
+        out.writeUTF(uploadedBy);
+        out.writeLong(version.getUploadedAt().toEpochMilli());
+        ByteBuffer record = ByteBuffer.wrap(bytes.toByteArray());
+        record.putInt(0, record.remaining() - Integer.BYTES);
+        while (record.hasRemaining()) {
+            catalog.write(record);
+        }
+        catalog.force(false);
+
+        history.add(version);
+        logicalBytes += size;
+        return version;
+    }
+
+    private void loadCatalog(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        long valid = 0; // Length of the complete records
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            while (true) {
+                byte[] payload = new byte[in.readInt()];
+                in.readFully(payload);
+                DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+                Version version = new Version(record.readUTF(), record.readUTF(), record.readInt(), record.readUTF(),
+                    record.readLong(), record.readUTF(), Instant.ofEpochMilli(record.readLong()));
+                versions.computeIfAbsent(version.getCaseNumber(), c -> new LinkedHashMap<>())
+                    .computeIfAbsent(version.getName(), n -> new ArrayList<>())
+                    .add(version);
+                logicalBytes += version.getSize();
+                valid += Integer.BYTES + payload.length;
+            }
+        } catch (EOFException e) {
+            // End of catalog, or a record cut short by a crash
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(valid); // Drop a torn tail so new records append cleanly
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required on every Java platform", e);
+        }
+    }
+}
@@ -0,0 +1,593 @@
+package com.astro;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Staged intake pipeline for electronic filings.
+ * Filings flow through screening (format and malware checks), metadata extraction, the clerk
+ * review queue and docketing, each run by its own workers. Stages are linked by bounded queues,
+ * so a surge fills the queues and then blocks {@link #submit(Filing)} instead of growing the
+ * heap; the review queue is bounded by a semaphore for the same reason. Docketing drains up to
+ * {@link #DOCKET_BATCH} accepted filings at a time and commits them to the case repository in
+ * one batch. Every filing's current status sits in a hash map, so tracking a filing is a single
+ * lookup however many filings are in flight.
+ */
+public class EfilingPipeline {
+
+    static final int QUEUE_CAPACITY = 1_024; // Filings buffered between two stages
+    static final int REVIEW_CAPACITY = 10_000; // Filings waiting for a clerk
+    static final int DOCKET_BATCH = 256; // Filings committed per repository batch
+    static final long MAX_DOCUMENT_BYTES = 100L << 20; // Larger uploads are rejected
+    static final int TRACKING_RETENTION = 500_000; // Finished filings kept for status lookups
+    private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+    private static final byte[] EICAR = ("X5O!P%@AP[4\\PZX54(P^)7CC)7}$EICAR-STANDARD-ANTIVIRUS-TEST-FILE!")
+        .getBytes(StandardCharsets.US_ASCII); // Stand-in signature until an AV engine is wired in
+
+    /**
+     * Where a filing is in the pipeline.
+     */
+    public enum Status {
+        RECEIVED, SCREENED, AWAITING_REVIEW, ACCEPTED, DOCKETED, REJECTED, FAILED
+    }
+
+    /**
+     * The pipeline stages, for throughput and latency reporting.
+     */
+    public enum Stage {
+        SCREENING, EXTRACTION, REVIEW, DOCKETING
+    }
+
+    /**
+     * A submitted filing. Metadata is filled in by the extraction stage.
+     */
+    public static final class Filing {
+        private final String caseNumber; // Target case; null to open a new case
+        private final String caseTitle;
+        private final String caseType;
+        private final String filer;
+        private final Path document;
+        private long id;
+        private Instant submittedAt;
+        private String docketNumber; // Case number the filing is docketed under
+        private String contentType;
+        private String contentHash;
+        private long size;
+
+        private Filing(String caseNumber, String caseTitle, String caseType, String filer, Path document) {
+            this.caseNumber = caseNumber;
+            this.caseTitle = caseTitle;
+            this.caseType = caseType;
+            this.filer = filer;
+            this.document = document;
+        }
+
+        /**
+         * Creates a filing that opens a new case.
+         *
+         * @param caseTitle The title of the new case.
+         * @param caseType  The case type, e.g. "Civil".
+         * @param filer     The submitting party or counsel.
+         * @param document  The initiating document.
+         * @return The filing.
+         */
+        public static Filing newCase(String caseTitle, String caseType, String filer, Path document) {
+            return new Filing(null, caseTitle, caseType, filer, document);
+        }
+
+        /**
+         * Creates a filing into an existing case.
+         *
+         * @param caseNumber The case filed into.
+         * @param filer      The submitting party or counsel.
+         * @param document   The filed document.
+         * @return The filing.
+         */
+        public static Filing intoCase(String caseNumber, String filer, Path document) {
+            return new Filing(caseNumber, null, null, filer, document);
+        }
+
+        public long getId() { return id; }
+        public String getCaseNumber() { return caseNumber; }
+        public String getCaseTitle() { return caseTitle; }
+        public String getCaseType() { return caseType; }
+        public String getFiler() { return filer; }
+        public Path getDocument() { return document; }
+        public Instant getSubmittedAt() { return submittedAt; }
+        public String getDocketNumber() { return docketNumber; }
+        public String getContentType() { return contentType; }
+        public String getContentHash() { return contentHash; }
+        public long getSize() { return size; }
+    }
+
+    /**
+     * A filing's status as seen by the filer.
+     */
+    public static final class Tracking {
+        private final Status status;
+        private final String docketNumber;
+        private final String reason; // Why it was rejected or failed; null otherwise
+        private final Instant updatedAt;
+
+        Tracking(Status status, String docketNumber, String reason) {
+            this.status = status;
+            this.docketNumber = docketNumber;
+            this.reason = reason;
+            this.updatedAt = Instant.now();
+        }
+
+        public Status getStatus() { return status; }
+        public String getDocketNumber() { return docketNumber; }
+        public String getReason() { return reason; }
+        public Instant getUpdatedAt() { return updatedAt; }
+    }
+
+    /**
+     * Throughput and latency of one stage since the pipeline started.
+     */
+    public static final class StageStats {
+        private final Stage stage;
+        private final long processed;
+        private final int queued;
+        private final double perSecond;
+        private final double meanLatencyMillis;
+
+        StageStats(Stage stage, long processed, int queued, double perSecond, double meanLatencyMillis) {
+            this.stage = stage;
+            this.processed = processed;
+            this.queued = queued;
+            this.perSecond = perSecond;
+            this.meanLatencyMillis = meanLatencyMillis;
+        }
+
+        public Stage getStage() { return stage; }
+        public long getProcessed() { return processed; }
+        public int getQueued() { return queued; }
+        public double getPerSecond() { return perSecond; }
+        public double getMeanLatencyMillis() { return meanLatencyMillis; }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d done, %d queued, %.1f/s, %.1f ms avg", stage, processed, queued, perSecond, meanLatencyMillis);
+        }
+    }
+
+    private final CaseRepository caseRepository;
+    private final DocumentStore documentStore;
+    private final BlockingQueue<Envelope> intake = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final BlockingQueue<Envelope> screened = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final ConcurrentNavigableMap<Long, Envelope> review = new ConcurrentSkipListMap<>(); // Id order = submission order
+    private final Semaphore reviewSlots = new Semaphore(REVIEW_CAPACITY);
+    private final BlockingQueue<Envelope> accepted = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Map<Long, Tracking> tracking = new ConcurrentHashMap<>();
+    private final Queue<Long> finished = new ConcurrentLinkedQueue<>(); // Finished ids, oldest first
+    private final AtomicInteger finishedCount = new AtomicInteger();
+    private final Map<Stage, LongAdder> processed = new EnumMap<>(Stage.class);
+    private final Map<Stage, LongAdder> latencyNanos = new EnumMap<>(Stage.class);
+    private final AtomicLong nextId = new AtomicLong(System.currentTimeMillis() * 1_000); // Unique across restarts
+    private final List<Thread> workers = new ArrayList<>();
+    private final long startedAt = System.nanoTime();
+    private volatile boolean running = true;
+
+    /**
+     * Starts the pipeline's workers.
+     *
+     * @param caseRepository Where new cases are docketed.
+     * @param documentStore  Where filed documents are stored.
+     */
+    public EfilingPipeline(CaseRepository caseRepository, DocumentStore documentStore) {
+        this.caseRepository = caseRepository;
+        this.documentStore = documentStore;
+        for (Stage stage : Stage.values()) {
+            processed.put(stage, new LongAdder());
+            latencyNanos.put(stage, new LongAdder());
+        }
+        int parallelism = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        for (int i = 0; i < parallelism; i++) {
+            startWorker("efiling-screening-" + i, () -> stage(intake, Stage.SCREENING, this::screen));
+            startWorker("efiling-extraction-" + i, () -> stage(screened, Stage.EXTRACTION, this::extract));
+        }
+        startWorker("efiling-docketing", this::docketLoop); // Single writer keeps batches in order
+    }
+
+    /**
+     * Submits a filing, waiting while the intake queue is full.
+     *
+     * @param filing The filing to submit.
+     * @return The id to track the filing with.
+     * @throws InterruptedException If interrupted while waiting for room.
+     */
+    public long submit(Filing filing) throws InterruptedException {
+        Envelope envelope = receive(filing);
+        intake.put(envelope);
+        return filing.id;
+    }
+
+    /**
+     * Submits a filing unless the intake queue stays full for the given time.
+     *
+     * @param filing  The filing to submit.
+     * @param timeout How long to wait for room.
+     * @param unit    The unit of {@code timeout}.
+     * @return The id to track the filing with, or -1 if the pipeline is saturated.
+     * @throws InterruptedException If interrupted while waiting for room.
+     */
+    public long offer(Filing filing, long timeout, TimeUnit unit) throws InterruptedException {
+        Envelope envelope = receive(filing);
+        if (!intake.offer(envelope, timeout, unit)) {
+            tracking.remove(filing.id);
+            return -1;
+        }
+        return filing.id;
+    }
+
+    /**
+     * Returns a filing's current status.
+     *
+     * @param filingId The id returned on submission.
+     * @return The status, or null for an unknown id.
+     */
+    public Tracking track(long filingId) {
+        return tracking.get(filingId);
+    }
+
+    /**
+     * Lists filings waiting for a clerk, oldest first.
+     *
+     * @param limit The maximum number of filings to return.
+     * @return The filings awaiting review.
+     */
+    public List<Filing> awaitingReview(int limit) {
+        List<Filing> filings = new ArrayList<>();
+        for (Envelope envelope : review.values()) {
+            if (filings.size() >= limit) {
+                break;
+            }
+            filings.add(envelope.filing);
+        }
+        return filings;
+    }
+
+    /**
+     * Accepts a reviewed filing for docketing, waiting while the docketing queue is full.
+     *
+     * @param filingId The filing to accept.
+     * @return False if the filing is not awaiting review.
+     * @throws InterruptedException If interrupted while waiting for room.
+     */
+    public boolean accept(long filingId) throws InterruptedException {
+        Envelope envelope = takeFromReview(filingId);
+        if (envelope == null) {
+            return false;
+        }
+        setStatus(envelope.filing, Status.ACCEPTED, null);
+        accepted.put(envelope.next());
+        return true;
+    }
+
+    /**
+     * Rejects a reviewed filing.
+     *
+     * @param filingId The filing to reject.
+     * @param reason   The reason shown to the filer.
+     * @return False if the filing is not awaiting review.
+     */
+    public boolean reject(long filingId, String reason) {
+        Envelope envelope = takeFromReview(filingId);
+        if (envelope == null) {
+            return false;
+        }
+        setStatus(envelope.filing, Status.REJECTED, reason);
+        return true;
+    }
+
+    /**
+     * Reports throughput and latency per stage.
+     *
+     * @return One entry per stage, in pipeline order.
+     */
+    public List<StageStats> stats() {
+        double seconds = Math.max(1e-9, (System.nanoTime() - startedAt) / 1e9);
+        List<StageStats> stats = new ArrayList<>();
+        for (Stage stage : Stage.values()) {
+            long done = processed.get(stage).sum();
+            double meanMillis = done == 0 ? 0 : latencyNanos.get(stage).sum() / 1e6 / done;
+            stats.add(new StageStats(stage, done, queueFor(stage), done / seconds, meanMillis));
+        }
+        return stats;
+    }
+
+    /**
+     * Stops the workers. Filings still queued are left in their current status.
+     */
+    public void shutdown() {
+        running = false;
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+    }
+
+    // --- Stages ---
+
+    private Envelope receive(Filing filing) {
+        filing.id = nextId.incrementAndGet();
+        filing.submittedAt = Instant.now();
+        filing.docketNumber = filing.caseNumber != null ? filing.caseNumber : "EF-" + filing.id;
+        setStatus(filing, Status.RECEIVED, null);
+        return new Envelope(filing);
+    }
+
+    /**
+     * Checks size, format and known malware signatures, reading the document once through a
+     * small buffer.
+     */
+    private void screen(Envelope envelope) throws InterruptedException {
+        Filing filing = envelope.filing;
+        try {
+            long size = Files.size(filing.document);
+            if (size > MAX_DOCUMENT_BYTES) {
+                setStatus(filing, Status.REJECTED, "Document exceeds " + (MAX_DOCUMENT_BYTES >> 20) + " MB");
+                return;
+            }
+            try (InputStream in = Files.newInputStream(filing.document)) {
+                byte[] buffer = new byte[SCAN_BUFFER_SIZE];
+                int carry = 0; // Bytes kept from the previous read so a signature can span reads
+                boolean first = true;
+                for (int n; (n = in.read(buffer, carry, buffer.length - carry)) > 0; ) {
+                    int length = carry + n;
+                    if (first) {
+                        filing.contentType = detectType(buffer, length);
+                        if (filing.contentType == null) {
+                            setStatus(filing, Status.REJECTED, "Unsupported document format");
+                            return;
+                        }
+                        first = false;
+                    }
+                    if (indexOf(buffer, length, EICAR) >= 0) {
+                        setStatus(filing, Status.REJECTED, "Document failed the malware scan");
+                        return;
+                    }
+                    carry = Math.min(EICAR.length - 1, length);
+                    System.arraycopy(buffer, length - carry, buffer, 0, carry);
+                }
+                if (first) {
+                    setStatus(filing, Status.REJECTED, "Document is empty");
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            setStatus(filing, Status.REJECTED, "Document could not be read");
+            return;
+        }
+        setStatus(filing, Status.SCREENED, null);
+        screened.put(envelope.next());
+    }
+
+    /**
+     * Records size and content hash, then parks the filing in the review queue, waiting for a
+     * free review slot so clerks falling behind slows intake instead of growing the queue.
+     */
+    private void extract(Envelope envelope) throws InterruptedException {
+        Filing filing = envelope.filing;
+        try (InputStream in = Files.newInputStream(filing.document)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[SCAN_BUFFER_SIZE];
+            long size = 0;
+            for (int n; (n = in.read(buffer)) > 0; ) {
+                digest.update(buffer, 0, n);
+                size += n;
+            }
+            filing.size = size;
+            filing.contentHash = HexFormat.of().formatHex(digest.digest());
+        } catch (IOException e) {
+            setStatus(filing, Status.FAILED, "Document could not be read");
+            return;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required on every Java platform", e);
+        }
+        reviewSlots.acquire();
+        setStatus(filing, Status.AWAITING_REVIEW, null);
+        review.put(filing.id, envelope.next());
+    }
+
+    /**
+     * Commits accepted filings in batches: new cases in one repository batch, then every
+     * document into the document store.
+     */
+    private void docketLoop() {
+        List<Envelope> batch = new ArrayList<>(DOCKET_BATCH);
+        while (running) {
+            try {
+                Envelope first = accepted.poll(250, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                accepted.drainTo(batch, DOCKET_BATCH - 1);
+                docket(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void docket(List<Envelope> batch) {
+        List<Case> newCases = new ArrayList<>();
+        for (Envelope envelope : batch) {
+            Filing filing = envelope.filing;
+            if (filing.caseNumber == null) {
+                newCases.add(new Case(filing.docketNumber, filing.caseTitle, filing.caseType,
+                    "Filed", LocalDate.now(), Case.UNASSIGNED));
+            }
+        }
+        try {
+            caseRepository.addAll(newCases);
+        } catch (RuntimeException e) {
+            for (Envelope envelope : batch) {
+                setStatus(envelope.filing, Status.FAILED, "Docketing failed: " + e.getMessage());
+            }
+            return;
+        }
+        for (Envelope envelope : batch) {
+            Filing filing = envelope.filing;
+            try {
+                documentStore.upload(filing.docketNumber, filing.document, filing.filer);
+                setStatus(filing, Status.DOCKETED, null);
+            } catch (IOException e) {
+                setStatus(filing, Status.FAILED, "Document could not be stored");
+            }
+            processed.get(Stage.DOCKETING).increment();
+            latencyNanos.get(Stage.DOCKETING).add(System.nanoTime() - envelope.enqueuedAt);
+        }
+    }
+
+    // --- Plumbing ---
+
+    private interface Step {
+        void apply(Envelope envelope) throws InterruptedException;
+    }
+
+    private void stage(BlockingQueue<Envelope> input, Stage stage, Step step) {
+        while (running) {
+            try {
+                Envelope envelope = input.take();
+                step.apply(envelope);
+                processed.get(stage).increment();
+                latencyNanos.get(stage).add(System.nanoTime() - envelope.enqueuedAt); // Queue wait plus work
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private Envelope takeFromReview(long filingId) {
+        Envelope envelope = review.remove(filingId);
+        if (envelope == null) {
+            return null;
+        }
+        reviewSlots.release();
+        processed.get(Stage.REVIEW).increment();
+        latencyNanos.get(Stage.REVIEW).add(System.nanoTime() - envelope.enqueuedAt);
+        return envelope;
+    }
+
+    private int queueFor(Stage stage) {
+        switch (stage) {
+            case SCREENING:
+                return intake.size();
+            case EXTRACTION:
+                return screened.size();
+            case REVIEW:
+                return review.size();
+            default:
+                return accepted.size();
+        }
+    }
+
+    private void setStatus(Filing filing, Status status, String reason) {
+        tracking.put(filing.id, new Tracking(status, filing.docketNumber, reason));
+        if (status == Status.DOCKETED || status == Status.REJECTED || status == Status.FAILED) {
+            finished.add(filing.id);
+            if (finishedCount.incrementAndGet() > TRACKING_RETENTION) {
+                Long oldest = finished.poll(); // Keeps the status map bounded through long surges
+                if (oldest != null) {
+                    tracking.remove(oldest);
+                    finishedCount.decrementAndGet();
+                }
+            }
+        }
+    }
+
+    private void startWorker(String name, Runnable loop) {
+        Thread worker = new Thread(loop, name);
+        worker.setDaemon(true);
+        workers.add(worker);
+        worker.start();
+    }
+
+    /**
+     * Identifies PDF, Office Open XML and common image formats by their leading bytes.
+     */
+    private static String detectType(byte[] head, int length) {
+        if (startsWith(head, length, "%PDF".getBytes(StandardCharsets.US_ASCII))) {
+            return "application/pdf";
+        }
+        if (startsWith(head, length, new byte[] {'P', 'K', 3, 4})) {
+            return "application/vnd.openxmlformats-officedocument"; // DOCX, XLSX and other OOXML
+        }
+        if (startsWith(head, length, new byte[] {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF})) {
+            return "image/jpeg";
+        }
+        if (startsWith(head, length, new byte[] {(byte) 0x89, 'P', 'N', 'G'})) {
+            return "image/png";
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] data, int length, byte[] prefix) {
+        if (length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (data[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(byte[] data, int length, byte[] pattern) {
+        outer:
+        for (int i = 0; i + pattern.length <= length; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (data[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    /**
+     * A filing on its way between two stages, stamped with when it was queued.
+     */
+    private static final class Envelope {
+        final Filing filing;
+        final long enqueuedAt;
+
+        Envelope(Filing filing) {
+            this.filing = filing;
+            this.enqueuedAt = System.nanoTime();
+        }
+
+        Envelope next() {
+            return new Envelope(filing);
+        }
+    }
+}
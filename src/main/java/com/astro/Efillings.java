@@ -1,6 +1,325 @@
-import javax.swing.*;
-import java.awt.*;
-class Efillings extends JPanel
-{
+package com.astro;
 
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
+import javafx.scene.control.TextInputDialog;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
+import javafx.util.Duration;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * E-filing view.
+ * Submits filings to the {@link EfilingPipeline} and tracks the ones submitted in this session;
+ * clerks who validate filings also see the review queue and accept or reject from it. The
+ * pipeline's per-stage throughput is shown under the tables.
+ */
+public class Efillings {
+
+    private static final int REVIEW_ROWS = 500; // Filings shown from the head of the review queue
+    private static final int SUBMITTED_ROWS = 500; // Own submissions kept in the tracking table
+    private static final long SUBMIT_TIMEOUT_SECONDS = 5; // Wait for room in the intake queue before giving up
+    private static final String NEW_CASE = "New case";
+    private static final String EXISTING_CASE = "Existing case";
+    private static final DateTimeFormatter UPDATED_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final EfilingPipeline pipeline;
+    private final ExecutorService actions = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "efiling-actions");
+        thread.setDaemon(true);
+        return thread;
+    }); // Submitting and accepting can wait for room in a full queue, so they run off the FX thread
+    private final VBox efilingPane;
+    private final ObservableList<EfilingPipeline.Filing> submitted = FXCollections.observableArrayList();
+    private final ObservableList<EfilingPipeline.Filing> awaitingReview = FXCollections.observableArrayList();
+    private final Label stats = new Label();
+    private final TableView<EfilingPipeline.Filing> submittedTable;
+    private final TableView<EfilingPipeline.Filing> reviewTable;
+    private final Button acceptButton = new Button("Accept");
+    private final Button rejectButton = new Button("Reject");
+
+    public Efillings(EfilingPipeline pipeline) {
+        this.pipeline = pipeline;
+
+        efilingPane = new VBox(20);
+        efilingPane.setPadding(new Insets(20));
+        efilingPane.setStyle("-fx-background-color: #282c34;"); // Main content background
+
+        Label title = new Label("E-Filings");
+        title.setStyle("-fx-text-fill: #e0e0e0; -fx-font-size: 16px; -fx-font-weight: bold;");
+        stats.setStyle("-fx-text-fill: #e0e0e0;");
+
+        Label submittedTitle = new Label("My Filings");
+        submittedTitle.setStyle("-fx-text-fill: #e0e0e0; -fx-font-weight: bold;");
+        submittedTable = createTable(submitted, true);
+        VBox.setVgrow(submittedTable, Priority.ALWAYS);
+
+        Label reviewTitle = new Label("Awaiting Review");
+        reviewTitle.setStyle("-fx-text-fill: #e0e0e0; -fx-font-weight: bold;");
+        reviewTable = createTable(awaitingReview, false);
+        reviewTable.getSelectionModel().selectedItemProperty().addListener((obs, oldFiling, filing) -> updateButtons(filing));
+        VBox.setVgrow(reviewTable, Priority.ALWAYS);
+
+        efilingPane.getChildren().addAll(title, createToolbar(), submittedTitle, submittedTable);
+        if (AccessPolicy.current().can(Permission.VALIDATE_FILINGS)) {
+            efilingPane.getChildren().addAll(reviewTitle, reviewTable);
+        }
+        efilingPane.getChildren().add(stats);
+        updateButtons(null);
+        refresh();
+
+        // Filings move through screening and extraction in the background
+        Timeline refresher = new Timeline(new KeyFrame(Duration.seconds(2), e -> refresh()));
+        refresher.setCycleCount(Timeline.INDEFINITE);
+        refresher.play();
+    }
+
+    private HBox createToolbar() {
+        HBox toolbar = new HBox(10);
+        toolbar.setAlignment(Pos.CENTER_LEFT);
+        String primaryStyle = "-fx-background-color: #007bff; -fx-text-fill: white; -fx-font-weight: bold; -fx-border-radius: 5; -fx-background-radius: 5;";
+        String secondaryStyle = "-fx-background-color: #6c757d; -fx-text-fill: white; -fx-border-radius: 5; -fx-background-radius: 5;";
+
+        Button newFilingButton = new Button("New Filing");
+        newFilingButton.setStyle(primaryStyle);
+        newFilingButton.setDisable(!AccessPolicy.current().can(Permission.SUBMIT_FILINGS));
+        newFilingButton.setOnAction(e -> showNewFilingDialog());
+        toolbar.getChildren().add(newFilingButton);
+
+        if (AccessPolicy.current().can(Permission.VALIDATE_FILINGS)) {
+            Region spacer = new Region();
+            HBox.setHgrow(spacer, Priority.ALWAYS);
+            acceptButton.setStyle(secondaryStyle);
+            acceptButton.setOnAction(e -> accept());
+            rejectButton.setStyle(secondaryStyle);
+            rejectButton.setOnAction(e -> reject());
+            toolbar.getChildren().addAll(spacer, acceptButton, rejectButton);
+        }
+        return toolbar;
+    }
+
+    private TableView<EfilingPipeline.Filing> createTable(ObservableList<EfilingPipeline.Filing> filings, boolean tracked) {
+        TableView<EfilingPipeline.Filing> filingTable = new TableView<>(filings);
+        filingTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+
+        TableColumn<EfilingPipeline.Filing, String> idCol = new TableColumn<>("Filing");
+        idCol.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(String.valueOf(cellData.getValue().getId())));
+
+        TableColumn<EfilingPipeline.Filing, String> caseCol = new TableColumn<>("Case");
+        caseCol.setCellValueFactory(cellData -> {
+            EfilingPipeline.Filing filing = cellData.getValue();
+            return new ReadOnlyStringWrapper(filing.getCaseNumber() != null ? filing.getCaseNumber()
+                : filing.getCaseTitle() + " (new " + filing.getCaseType() + ")");
+        });
+
+        TableColumn<EfilingPipeline.Filing, String> documentCol = new TableColumn<>("Document");
+        documentCol.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(String.valueOf(cellData.getValue().getDocument().getFileName())));
+
+        TableColumn<EfilingPipeline.Filing, String> filerCol = new TableColumn<>("Filer");
+        filerCol.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(cellData.getValue().getFiler()));
+        filingTable.getColumns().add(idCol);
+        filingTable.getColumns().add(caseCol);
+        filingTable.getColumns().add(documentCol);
+        filingTable.getColumns().add(filerCol);
+
+        if (tracked) {
+            TableColumn<EfilingPipeline.Filing, String> statusCol = new TableColumn<>("Status");
+            statusCol.setCellValueFactory(cellData -> {
+                EfilingPipeline.Tracking tracking = pipeline.track(cellData.getValue().getId());
+                if (tracking == null) {
+                    return new ReadOnlyStringWrapper("");
+                }
+                String status = tracking.getStatus().name();
+                if (tracking.getDocketNumber() != null) {
+                    status += " as " + tracking.getDocketNumber();
+                }
+                if (tracking.getReason() != null) {
+                    status += ": " + tracking.getReason();
+                }
+                return new ReadOnlyStringWrapper(status);
+            });
+
+            TableColumn<EfilingPipeline.Filing, String> updatedCol = new TableColumn<>("Last Update");
+            updatedCol.setCellValueFactory(cellData -> {
+                EfilingPipeline.Tracking tracking = pipeline.track(cellData.getValue().getId());
+                return new ReadOnlyStringWrapper(tracking == null ? ""
+                    : UPDATED_FORMAT.format(tracking.getUpdatedAt().atZone(ZoneId.systemDefault())));
+            });
+            filingTable.getColumns().add(statusCol);
+            filingTable.getColumns().add(updatedCol);
+        } else {
+            TableColumn<EfilingPipeline.Filing, String> typeCol = new TableColumn<>("Content");
+            typeCol.setCellValueFactory(cellData -> {
+                EfilingPipeline.Filing filing = cellData.getValue();
+                return new ReadOnlyStringWrapper(filing.getContentType() + ", " + filing.getSize() / 1024 + " KB");
+            });
+            filingTable.getColumns().add(typeCol);
+        }
+
+        filingTable.setStyle("-fx-control-inner-background: #3e4450; " +
+                             "-fx-background-color: #3e4450; " +
+                             "-fx-table-cell-border-color: #282c34; " +
+                             "-fx-text-fill: #e0e0e0;");
+        filingTable.getStylesheets().add(getClass().getResource("/styles.css").toExternalForm());
+        return filingTable;
+    }
+
+    private void refresh() {
+        submittedTable.refresh(); // Statuses are looked up per row, so redrawing picks up their changes
+        if (AccessPolicy.current().can(Permission.VALIDATE_FILINGS)) {
+            EfilingPipeline.Filing selected = reviewTable.getSelectionModel().getSelectedItem();
+            awaitingReview.setAll(pipeline.awaitingReview(REVIEW_ROWS));
+            if (selected != null && awaitingReview.contains(selected)) {
+                reviewTable.getSelectionModel().select(selected);
+            }
+            updateButtons(reviewTable.getSelectionModel().getSelectedItem());
+        }
+        StringBuilder text = new StringBuilder();
+        for (EfilingPipeline.StageStats stage : pipeline.stats()) {
+            text.append(text.length() == 0 ? "" : "\n").append(stage);
+        }
+        stats.setText(text.toString());
+    }
+
+    private void updateButtons(EfilingPipeline.Filing filing) {
+        acceptButton.setDisable(filing == null);
+        rejectButton.setDisable(filing == null);
+    }
+
+    private void accept() {
+        EfilingPipeline.Filing filing = reviewTable.getSelectionModel().getSelectedItem();
+        if (filing == null) {
+            return;
+        }
+        actions.execute(() -> {
+            try {
+                boolean accepted = pipeline.accept(filing.getId());
+                Platform.runLater(() -> {
+                    if (!accepted) {
+                        new Alert(Alert.AlertType.WARNING, "Filing " + filing.getId() + " is no longer awaiting review.").show();
+                    }
+                    refresh();
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    private void reject() {
+        EfilingPipeline.Filing filing = reviewTable.getSelectionModel().getSelectedItem();
+        if (filing == null) {
+            return;
+        }
+        TextInputDialog dialog = new TextInputDialog();
+        dialog.initOwner(efilingPane.getScene().getWindow());
+        dialog.setTitle("Reject Filing");
+        dialog.setHeaderText("Reason shown to " + filing.getFiler());
+        dialog.showAndWait().filter(reason -> !reason.isBlank()).ifPresent(reason -> {
+            if (!pipeline.reject(filing.getId(), reason.trim())) {
+                new Alert(Alert.AlertType.WARNING, "Filing " + filing.getId() + " is no longer awaiting review.").show();
+            }
+            refresh();
+        });
+    }
+
+    private void showNewFilingDialog() {
+        ComboBox<String> kindField = new ComboBox<>(FXCollections.observableArrayList(NEW_CASE, EXISTING_CASE));
+        kindField.setValue(NEW_CASE);
+        TextField caseNumberField = new TextField();
+        TextField caseTitleField = new TextField();
+        TextField caseTypeField = new TextField();
+        TextField documentField = new TextField();
+        documentField.setEditable(false);
+        Button browseButton = new Button("Browse...");
+        browseButton.setOnAction(e -> {
+            File file = new FileChooser().showOpenDialog(efilingPane.getScene().getWindow());
+            if (file != null) {
+                documentField.setText(file.getAbsolutePath());
+            }
+        });
+        caseNumberField.disableProperty().bind(kindField.valueProperty().isEqualTo(NEW_CASE));
+        caseTitleField.disableProperty().bind(kindField.valueProperty().isEqualTo(EXISTING_CASE));
+        caseTypeField.disableProperty().bind(kindField.valueProperty().isEqualTo(EXISTING_CASE));
+
+        GridPane form = new GridPane();
+        form.setHgap(10);
+        form.setVgap(10);
+        form.setPadding(new Insets(10));
+        form.addRow(0, new Label("Filing Into:"), kindField);
+        form.addRow(1, new Label("Case Number:"), caseNumberField);
+        form.addRow(2, new Label("Case Title:"), caseTitleField);
+        form.addRow(3, new Label("Case Type:"), caseTypeField);
+        form.addRow(4, new Label("Document:"), documentField, browseButton);
+
+        Dialog<ButtonType> dialog = new Dialog<>();
+        dialog.initOwner(efilingPane.getScene().getWindow());
+        dialog.setTitle("New Filing");
+        dialog.setHeaderText("Submit a document for review");
+        dialog.getDialogPane().setContent(form);
+        dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+        if (dialog.showAndWait().orElse(ButtonType.CANCEL) != ButtonType.OK) {
+            return;
+        }
+        boolean newCase = NEW_CASE.equals(kindField.getValue());
+        if (documentField.getText().isBlank()
+                || (newCase ? caseTitleField.getText().isBlank() || caseTypeField.getText().isBlank() : caseNumberField.getText().isBlank())) {
+            new Alert(Alert.AlertType.ERROR, newCase ? "Case title, case type and document are required."
+                : "Case number and document are required.").show();
+            return;
+        }
+        String filer = AccessPolicy.current().getProfile().getUserName();
+        Path document = Path.of(documentField.getText());
+        EfilingPipeline.Filing filing = newCase
+            ? EfilingPipeline.Filing.newCase(caseTitleField.getText().trim(), caseTypeField.getText().trim(), filer, document)
+            : EfilingPipeline.Filing.intoCase(caseNumberField.getText().trim(), filer, document);
+        actions.execute(() -> {
+            try {
+                long id = pipeline.offer(filing, SUBMIT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                Platform.runLater(() -> {
+                    if (id < 0) {
+                        new Alert(Alert.AlertType.WARNING, "E-filing is busy; please submit again in a few minutes.").show();
+                        return;
+                    }
+                    submitted.add(0, filing);
+                    if (submitted.size() > SUBMITTED_ROWS) {
+                        submitted.remove(SUBMITTED_ROWS, submitted.size());
+                    }
+                    refresh();
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    public VBox getView() {
+        return efilingPane;
+    }
 }
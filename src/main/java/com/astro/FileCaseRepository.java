@@ -0,0 +1,599 @@
+package com.astro;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Embedded, file-backed {@link CaseRepository}.
+ * Case records are appended to {@code cases.dat} and located through a fixed-width row offset
+ * file, so a case is read with a single positional read. Each {@link CaseRepository.SortKey} has
+ * a memory-mapped index of row ids in sort order plus a small in-memory delta of recent inserts
+ * that is merged into the mapped index once it grows past {@link #COMPACTION_THRESHOLD}.
+ * Heap use is therefore bounded by the delta, not by the size of the registry.
+ */
+public class FileCaseRepository implements CaseRepository, BackupManager.Source, Closeable {
+
+    static final int COMPACTION_THRESHOLD = 16_384; // Delta entries kept in memory before merging
+    private static final long NO_DATE = Long.MIN_VALUE; // Marker for a missing filing date
+
+    private final Path directory; // Directory holding the data, offset and index files
+    private final FileChannel data; // Append-only case records
+    private final FileChannel offsets; // Row id -> record offset, 8 bytes per row
+    private final Map<SortKey, SortIndex> indexes = new EnumMap<>(SortKey.class);
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final ByteBuffer longBuffer = ByteBuffer.allocate(Long.BYTES);
+    private int rowCount; // Number of rows currently stored
+    private BackupManager.CopyOnWrite offsetsBackup; // Keeps offsets a running backup has yet to read; null otherwise
+
+    /**
+     * Opens (or creates) the repository in the given directory.
+     *
+     * @param directory The directory for the repository files.
+     * @throws IOException If the files cannot be opened.
+     */
+    public FileCaseRepository(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.data = FileChannel.open(directory.resolve("cases.dat"),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.offsets = FileChannel.open(directory.resolve("cases.off"),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.rowCount = (int) (offsets.size() / Long.BYTES);
+
+        indexes.put(SortKey.CASE_NUMBER, new SortIndex("by-number",
+            Comparator.comparing(Case::getCaseNumber)));
+        indexes.put(SortKey.FILING_DATE, new SortIndex("by-date",
+            Comparator.comparingLong(FileCaseRepository::epochDay).thenComparing(Case::getCaseNumber)));
+        for (SortIndex index : indexes.values()) {
+            index.open();
+        }
+    }
+
+    /**
+     * Opens the repository in the default data directory, seeding it with the sample cases
+     * on first use.
+     *
+     * @return The default repository.
+     */
+    public static FileCaseRepository openDefault() {
+        try {
+            FileCaseRepository repository = new FileCaseRepository(DataDirectory.resolve("cases"));
+            if (repository.size() == 0) {
+                repository.add(new Case("C001", "Smith vs. Jones", "Civil", "Hearing Scheduled", LocalDate.of(2025, 6, 1), "Judge Evans"));
+                repository.add(new Case("C002", "State vs. Johnson", "Criminal", "In Progress", LocalDate.of(2025, 5, 10), "Judge Patel"));
+                repository.add(new Case("C003", "Estate of Miller", "Family", "Awaiting Judgment", LocalDate.of(2025, 7, 5), "Judge Chen"));
+                repository.add(new Case("C004", "Doe vs. Roe", "Civil", "Filed", LocalDate.of(2025, 7, 9), Case.UNASSIGNED));
+                repository.add(new Case("C005", "State vs. Davis", "Criminal", "Closed", LocalDate.of(2025, 4, 15), "Judge Evans"));
+            }
+            return repository;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open case repository", e);
+        }
+    }
+
+    @Override
+    public synchronized int size() {
+        return rowCount;
+    }
+
+    @Override
+    public synchronized Case get(int rowId) {
+        if (rowId < 0 || rowId >= rowCount) {
+            throw new IndexOutOfBoundsException("Row " + rowId + " of " + rowCount);
+        }
+        try {
+            return readRecord(readOffset(rowId));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read case row " + rowId, e);
+        }
+    }
+
+    @Override
+    public synchronized List<Case> page(SortKey key, boolean descending, int offset, int limit) {
+        int from = Math.max(0, offset);
+        int to = Math.min(rowCount, from + Math.max(0, limit));
+        if (from >= to) {
+            return Collections.emptyList();
+        }
+        SortIndex index = indexes.get(key);
+        List<Case> result = new ArrayList<>(to - from);
+        if (descending) {
+            for (int rowId : index.rowIds(rowCount - to, rowCount - from)) {
+                result.add(get(rowId));
+            }
+            Collections.reverse(result);
+        } else {
+            for (int rowId : index.rowIds(from, to)) {
+                result.add(get(rowId));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int add(Case newCase) {
+        int rowId;
+        synchronized (this) {
+            try {
+                long offset = appendRecord(newCase);
+                rowId = rowCount;
+                writeOffset(rowId, offset);
+                rowCount++;
+                for (SortIndex index : indexes.values()) {
+                    index.insert(rowId, newCase);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot store case " + newCase.getCaseNumber(), e);
+            }
+            for (Listener listener : listeners) {
+                listener.caseAdded(rowId, newCase);
+            }
+        }
+        return rowId;
+    }
+
+    /**
+     * Stores a batch under a single lock acquisition, so readers see the whole batch at once and
+     * listeners are notified, still under the lock, only after every case is on disk.
+     */
+    @Override
+    public int[] addAll(List<Case> newCases) {
+        int[] rowIds = new int[newCases.size()];
+        int stored = 0;
+        UncheckedIOException failure = null;
+        synchronized (this) {
+            try {
+                for (; stored < rowIds.length; stored++) {
+                    Case newCase = newCases.get(stored);
+                    long offset = appendRecord(newCase);
+                    rowIds[stored] = rowCount;
+                    writeOffset(rowCount, offset);
+                    rowCount++;
+                    for (SortIndex index : indexes.values()) {
+                        index.insert(rowIds[stored], newCase);
+                    }
+                }
+            } catch (IOException e) {
+                failure = new UncheckedIOException("Cannot store case " + newCases.get(stored).getCaseNumber(), e);
+            }
+            for (int i = 0; i < stored; i++) { // Cases stored before a failure are still reported
+                for (Listener listener : listeners) {
+                    listener.caseAdded(rowIds[i], newCases.get(i));
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return rowIds;
+    }
+
+    @Override
+    public void update(int rowId, Case updated) {
+        Case previous;
+        synchronized (this) {
+            previous = get(rowId);
+            try {
+                writeOffset(rowId, appendRecord(updated));
+                for (SortIndex index : indexes.values()) {
+                    if (index.order.compare(previous, updated) != 0) {
+                        index.rebuild(); // Sort keys rarely change, so a full rebuild is acceptable
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot update case row " + rowId, e);
+            }
+            for (Listener listener : listeners) {
+                listener.caseUpdated(rowId, previous, updated);
+            }
+        }
+    }
+
+    @Override
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public String getBackupName() {
+        return directory.getFileName().toString();
+    }
+
+    /**
+     * Captures the repository at its current row count. Records are only ever appended, so the
+     * data file is captured by its length; offsets that later updates overwrite are preserved
+     * page by page; and the index files, which are only ever replaced, are pinned by open
+     * channels.
+     */
+    @Override
+    public synchronized BackupManager.Snapshot openSnapshot() throws IOException {
+        if (offsetsBackup != null) {
+            throw new IllegalStateException("A backup is already reading the case repository");
+        }
+        BackupManager.CopyOnWrite offsetImage = new BackupManager.CopyOnWrite(offsets, (long) rowCount * Long.BYTES);
+        List<BackupManager.FileImage> files = new ArrayList<>();
+        files.add(BackupManager.FileImage.of("cases.dat", data.size(), BackupManager.Kind.APPEND_ONLY, data));
+        files.add(new BackupManager.FileImage("cases.off", (long) rowCount * Long.BYTES, BackupManager.Kind.MUTABLE, offsetImage));
+        List<FileChannel> pinned = new ArrayList<>();
+        for (SortIndex index : indexes.values()) {
+            if (Files.exists(index.file)) {
+                FileChannel channel = FileChannel.open(index.file, StandardOpenOption.READ);
+                pinned.add(channel);
+                files.add(BackupManager.FileImage.of(index.file.getFileName().toString(), channel.size(),
+                    BackupManager.Kind.MUTABLE, channel));
+            }
+        }
+        offsetsBackup = offsetImage;
+        return new BackupManager.Snapshot() {
+            @Override
+            public List<BackupManager.FileImage> getFiles() {
+                return files;
+            }
+
+            @Override
+            public void close() throws IOException {
+                synchronized (FileCaseRepository.this) {
+                    offsetsBackup = null;
+                }
+                for (FileChannel channel : pinned) {
+                    channel.close();
+                }
+            }
+        };
+    }
+
+    /**
+     * Forces pending writes to disk.
+     *
+     * @throws IOException If the files cannot be synced.
+     */
+    public synchronized void flush() throws IOException {
+        data.force(false);
+        offsets.force(false);
+    }
+
+    /**
+     * Merges the in-memory index deltas to disk and closes the repository files.
+     *
+     * @throws IOException If the files cannot be written or closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        for (SortIndex index : indexes.values()) {
+            index.compact();
+        }
+        flush();
+        data.close();
+        offsets.close();
+    }
+
+    // --- Record encoding ---
+
+    private long appendRecord(Case c) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0); // Length placeholder
+        out.writeUTF(c.getCaseNumber());
+        out.writeUTF(nullToEmpty(c.getCaseTitle()));
+        out.writeUTF(nullToEmpty(c.getCaseType()));
+        out.writeUTF(nullToEmpty(c.getCurrentStatus()));
+        out.writeLong(epochDay(c));
+        out.writeUTF(nullToEmpty(c.getAssignedJudge()));
+        ByteBuffer record = ByteBuffer.wrap(bytes.toByteArray());
+        record.putInt(0, record.remaining() - Integer.BYTES);
+
+        long offset = data.size();
+        long position = offset;
+        while (record.hasRemaining()) {
+            position += data.write(record, position);
+        }
+        return offset;
+    }
+
+    private Case readRecord(long offset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+        readFully(data, header, offset);
+        ByteBuffer payload = ByteBuffer.allocate(header.getInt(0));
+        readFully(data, payload, offset + Integer.BYTES);
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload.array()));
+        String caseNumber = in.readUTF();
+        String title = in.readUTF();
+        String type = in.readUTF();
+        String status = in.readUTF();
+        long day = in.readLong();
+        String judge = in.readUTF();
+        return new Case(caseNumber, title, type, status, day == NO_DATE ? null : LocalDate.ofEpochDay(day), judge);
+    }
+
+    private long readOffset(int rowId) throws IOException {
+        longBuffer.clear();
+        readFully(offsets, longBuffer, (long) rowId * Long.BYTES);
+        return longBuffer.getLong(0);
+    }
+
+    private void writeOffset(int rowId, long offset) throws IOException {
+        longBuffer.clear();
+        longBuffer.putLong(0, offset);
+        long position = (long) rowId * Long.BYTES;
+        if (offsetsBackup != null) {
+            offsetsBackup.beforeWrite(position, Long.BYTES);
+        }
+        while (longBuffer.hasRemaining()) {
+            position += offsets.write(longBuffer, position);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of file at " + position);
+            }
+            position += read;
+        }
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static long epochDay(Case c) {
+        return c.getFilingDate() == null ? NO_DATE : c.getFilingDate().toEpochDay();
+    }
+
+    /**
+     * A sorted list of row ids made of a memory-mapped base file and an in-memory delta.
+     * Each delta entry remembers its rank in the base, so the merged position of delta entry
+     * {@code j} is {@code rank + j} and any slice can be produced without materializing the merge.
+     */
+    private final class SortIndex {
+
+        private final Path file; // Header (row count) followed by row ids in sort order
+        private final Comparator<Case> order;
+        private final List<DeltaEntry> delta = new ArrayList<>();
+        private IntBuffer base = IntBuffer.allocate(0);
+
+        SortIndex(String name, Comparator<Case> order) {
+            this.file = directory.resolve("cases." + name + ".idx");
+            this.order = order;
+        }
+
+        void open() throws IOException {
+            int covered = 0;
+            if (Files.exists(file)) {
+                map();
+                covered = base.limit();
+            }
+            // Rows appended after the last compaction are re-inserted into the delta
+            for (int rowId = covered; rowId < rowCount; rowId++) {
+                insert(rowId, get(rowId));
+            }
+        }
+
+        void insert(int rowId, Case c) throws IOException {
+            int rank = baseRank(c);
+            int low = 0;
+            int high = delta.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (order.compare(delta.get(mid).value, c) <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            delta.add(low, new DeltaEntry(rowId, rank, c));
+            if (delta.size() >= COMPACTION_THRESHOLD) {
+                compact();
+            }
+        }
+
+        int[] rowIds(int from, int to) {
+            int[] result = new int[to - from];
+            int j = firstDeltaAtOrAfter(from);
+            int baseIndex = from - j;
+            for (int position = from; position < to; position++) {
+                if (j < delta.size() && delta.get(j).rank + j == position) {
+                    result[position - from] = delta.get(j++).rowId;
+                } else {
+                    result[position - from] = base.get(baseIndex++);
+                }
+            }
+            return result;
+        }
+
+        void compact() throws IOException {
+            if (delta.isEmpty() && Files.exists(file)) {
+                return;
+            }
+            int total = base.limit() + delta.size();
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(total);
+                int j = 0;
+                int baseIndex = 0;
+                for (int position = 0; position < total; position++) {
+                    if (j < delta.size() && delta.get(j).rank + j == position) {
+                        out.writeInt(delta.get(j++).rowId);
+                    } else {
+                        out.writeInt(base.get(baseIndex++));
+                    }
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            delta.clear();
+            map();
+        }
+
+        /**
+         * Re-sorts every row by an external merge sort, so heap use stays at one run of
+         * {@link #COMPACTION_THRESHOLD} cases however large the registry is. Runs of row ids are
+         * sorted in memory and written to temporary files, then merged holding only the head
+         * case of each run.
+         */
+        void rebuild() throws IOException {
+            List<Path> runs = new ArrayList<>();
+            List<RunReader> readers = new ArrayList<>();
+            try {
+                List<DeltaEntry> run = new ArrayList<>(Math.min(rowCount, COMPACTION_THRESHOLD));
+                for (int start = 0; start < rowCount; start += COMPACTION_THRESHOLD) {
+                    run.clear();
+                    for (int rowId = start; rowId < Math.min(rowCount, start + COMPACTION_THRESHOLD); rowId++) {
+                        run.add(new DeltaEntry(rowId, 0, get(rowId)));
+                    }
+                    run.sort((a, b) -> order.compare(a.value, b.value)); // Stable, so equal keys stay in row order
+                    Path runFile = file.resolveSibling(file.getFileName() + ".run" + runs.size());
+                    runs.add(runFile);
+                    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(runFile)))) {
+                        for (DeltaEntry entry : run) {
+                            out.writeInt(entry.rowId);
+                        }
+                    }
+                }
+                run.clear();
+
+                // Ties between runs go to the lower row id, as a single stable sort would order them
+                PriorityQueue<RunReader> heads = new PriorityQueue<>((a, b) -> {
+                    int byKey = order.compare(a.head, b.head);
+                    return byKey != 0 ? byKey : Integer.compare(a.headRowId, b.headRowId);
+                });
+                for (Path runFile : runs) {
+                    RunReader reader = new RunReader(runFile);
+                    readers.add(reader);
+                    if (reader.advance()) {
+                        heads.add(reader);
+                    }
+                }
+                Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                    out.writeInt(rowCount);
+                    while (!heads.isEmpty()) {
+                        RunReader reader = heads.poll();
+                        out.writeInt(reader.headRowId);
+                        if (reader.advance()) {
+                            heads.add(reader);
+                        }
+                    }
+                }
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                delta.clear();
+                map();
+            } finally {
+                for (RunReader reader : readers) {
+                    reader.in.close();
+                }
+                for (Path runFile : runs) {
+                    Files.deleteIfExists(runFile);
+                }
+            }
+        }
+
+        private void map() throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                int count = mapped.getInt(0);
+                mapped.position(Integer.BYTES);
+                base = mapped.slice().asIntBuffer();
+                base.limit(count);
+            }
+        }
+
+        private int baseRank(Case c) {
+            int low = 0;
+            int high = base.limit();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (order.compare(get(base.get(mid)), c) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private int firstDeltaAtOrAfter(int position) {
+            int low = 0;
+            int high = delta.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (delta.get(mid).rank + mid < position) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * Reads a sorted run of row ids during {@link SortIndex#rebuild()}, keeping the case of the
+     * current row to compare against the other runs.
+     */
+    private final class RunReader {
+        final DataInputStream in;
+        int headRowId;
+        Case head;
+
+        RunReader(Path runFile) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(runFile)));
+        }
+
+        boolean advance() throws IOException {
+            try {
+                headRowId = in.readInt();
+            } catch (EOFException e) {
+                head = null;
+                return false;
+            }
+            head = get(headRowId);
+            return true;
+        }
+    }
+
+    /**
+     * A recently inserted row waiting to be merged into the mapped index.
+     */
+    private static final class DeltaEntry {
+        final int rowId;
+        final int rank; // Number of base entries that sort before this row
+        final Case value; // Kept so the delta can be ordered without re-reading the row
+
+        DeltaEntry(int rowId, int rank, Case value) {
+            this.rowId = rowId;
+            this.rank = rank;
+            this.value = value;
+        }
+    }
+}
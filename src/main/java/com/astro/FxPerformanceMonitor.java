@@ -0,0 +1,235 @@
+package com.astro;
+
+import javafx.animation.AnimationTimer;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.layout.StackPane;
+import javafx.util.Duration;
+
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Samples how responsive the FX thread is, into the global {@link Metrics}:
+ * <ul>
+ *   <li>{@code fx.event.latency} - how long a task posted with {@link Platform#runLater} waits
+ *       for the FX thread, probed every {@value #PROBE_MILLIS} ms; waits over
+ *       {@value #STALL_MILLIS} ms also count in {@code fx.stalls}. This is what a clerk feels as
+ *       a frozen window.</li>
+ *   <li>{@code fx.pulse.layout} - CSS and layout time of each pulse of the scene.</li>
+ *   <li>{@code fx.frame.interval} - time between frames, only while the overlay is shown, since
+ *       sampling every frame keeps the scene pulsing.</li>
+ * </ul>
+ * It also provides the overlay that shows these and the application's other latencies over the
+ * last second.
+ */
+public class FxPerformanceMonitor implements Closeable {
+
+    static final long PROBE_MILLIS = 100; // Interval between event-latency probes
+    static final long STALL_MILLIS = 100; // Event latency from which the FX thread counts as stalled
+    private static final String[][] OVERLAY_ROWS = { // Histogram and label, in overlay order
+        {"fx.frame.interval", "frame"},
+        {"fx.event.latency", "event wait"},
+        {"fx.pulse.layout", "layout pulse"},
+        {"cases.search", "case search"},
+        {"cases.table.refresh", "table refresh"},
+        {"hearings.agenda.layout", "agenda layout"},
+    };
+
+    private final Metrics metrics;
+    private final LatencyHistogram eventLatency;
+    private final LatencyHistogram pulseLayout;
+    private final LatencyHistogram frameInterval;
+    private final LongAdder stalls;
+    private final ScheduledExecutorService prober;
+    private final AtomicBoolean probePending = new AtomicBoolean(); // Probes are not queued behind a stall
+    private long layoutStart; // FX thread only
+
+    private final Label overlayText = new Label();
+    private final StackPane overlay = new StackPane(overlayText);
+    private final Timeline overlayRefresher = new Timeline(new KeyFrame(Duration.seconds(1), e -> refreshOverlay()));
+    private final AnimationTimer frameSampler;
+    private final Map<String, LatencyHistogram.Snapshot> previous = new HashMap<>(); // Snapshots at the last refresh
+    private long previousStalls;
+    private long previousGcMillis;
+
+    /**
+     * Starts probing the FX thread.
+     *
+     * @param metrics The registry to record into.
+     */
+    public FxPerformanceMonitor(Metrics metrics) {
+        this.metrics = metrics;
+        this.eventLatency = metrics.histogram("fx.event.latency");
+        this.pulseLayout = metrics.histogram("fx.pulse.layout");
+        this.frameInterval = metrics.histogram("fx.frame.interval");
+        this.stalls = metrics.counter("fx.stalls");
+        this.frameSampler = new AnimationTimer() {
+            private long last;
+
+            @Override
+            public void handle(long now) {
+                if (last != 0) {
+                    frameInterval.record(now - last);
+                }
+                last = now;
+            }
+
+            @Override
+            public void stop() {
+                super.stop();
+                last = 0;
+            }
+        };
+
+        overlayText.setStyle("-fx-text-fill: #e0e0e0; -fx-font-family: monospace; -fx-font-size: 11px;");
+        overlay.setStyle("-fx-background-color: rgba(40, 44, 52, 0.85); -fx-background-radius: 5;");
+        overlay.setPadding(new Insets(8));
+        overlay.setMaxSize(StackPane.USE_PREF_SIZE, StackPane.USE_PREF_SIZE);
+        overlay.setMouseTransparent(true);
+        overlay.setVisible(false);
+        StackPane.setAlignment(overlay, Pos.BOTTOM_RIGHT);
+        StackPane.setMargin(overlay, new Insets(10));
+        overlayRefresher.setCycleCount(Timeline.INDEFINITE);
+
+        prober = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "fx-latency-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+        prober.scheduleWithFixedDelay(this::probe, PROBE_MILLIS, PROBE_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private void probe() {
+        if (!probePending.compareAndSet(false, true)) {
+            return; // The last probe is still waiting; it will record the whole stall
+        }
+        long posted = System.nanoTime();
+        Platform.runLater(() -> {
+            long waited = System.nanoTime() - posted;
+            probePending.set(false);
+            eventLatency.record(waited);
+            if (waited >= TimeUnit.MILLISECONDS.toNanos(STALL_MILLIS)) {
+                stalls.increment();
+            }
+        });
+    }
+
+    /**
+     * Times the CSS and layout pass of every pulse of a scene.
+     *
+     * @param scene The scene.
+     */
+    public void install(Scene scene) {
+        scene.addPreLayoutPulseListener(() -> layoutStart = System.nanoTime());
+        scene.addPostLayoutPulseListener(() -> pulseLayout.recordSince(layoutStart));
+    }
+
+    /**
+     * Records the time from a starting point until the node's scene has been laid out again,
+     * i.e. until a change made since then is on screen. A node not yet in a scene records the
+     * time until now. Call on the FX thread.
+     *
+     * @param node       A node showing the change.
+     * @param histogram  The histogram to record into.
+     * @param startNanos The {@link System#nanoTime()} reading taken before the change.
+     */
+    public static void recordNextPulse(Node node, LatencyHistogram histogram, long startNanos) {
+        Scene scene = node.getScene();
+        if (scene == null) {
+            histogram.recordSince(startNanos);
+            return;
+        }
+        scene.addPostLayoutPulseListener(new Runnable() {
+            @Override
+            public void run() {
+                scene.removePostLayoutPulseListener(this);
+                histogram.recordSince(startNanos);
+            }
+        });
+        Platform.requestNextPulse();
+    }
+
+    // --- Overlay ---
+
+    /**
+     * Returns the overlay node, hidden until {@link #setOverlayVisible} shows it. Place it above
+     * the application content, e.g. in a {@code StackPane}; it takes no mouse input.
+     *
+     * @return The overlay.
+     */
+    public Node getOverlay() {
+        return overlay;
+    }
+
+    public boolean isOverlayVisible() {
+        return overlay.isVisible();
+    }
+
+    /**
+     * Shows or hides the overlay. Frames are timed only while it is shown.
+     *
+     * @param visible Whether to show it.
+     */
+    public void setOverlayVisible(boolean visible) {
+        if (visible == overlay.isVisible()) {
+            return;
+        }
+        overlay.setVisible(visible);
+        if (visible) {
+            previous.clear(); // Intervals start now, not when the overlay was last shown
+            previousStalls = stalls.sum();
+            previousGcMillis = metrics.getGauges().get("jvm.gc.time.ms").getAsLong();
+            refreshOverlay();
+            frameSampler.start();
+            overlayRefresher.play();
+        } else {
+            overlayRefresher.stop();
+            frameSampler.stop();
+        }
+    }
+
+    public void toggleOverlay() {
+        setOverlayVisible(!overlay.isVisible());
+    }
+
+    /**
+     * Shows the last second's latencies: count, 99th percentile and maximum in milliseconds.
+     */
+    private void refreshOverlay() {
+        StringBuilder text = new StringBuilder(String.format("%-14s %6s %8s %8s%n", "last second", "count", "p99 ms", "max ms"));
+        for (String[] row : OVERLAY_ROWS) {
+            LatencyHistogram.Snapshot now = metrics.histogram(row[0]).snapshot();
+            LatencyHistogram.Snapshot before = previous.put(row[0], now);
+            LatencyHistogram.Snapshot interval = now.since(before == null ? now : before);
+            text.append(String.format("%-14s %6d %8.1f %8.1f%n", row[1], interval.getCount(),
+                interval.valueAt(0.99) / 1e6, interval.getMaxNanos() / 1e6));
+        }
+        long stallCount = stalls.sum();
+        long gcMillis = metrics.getGauges().get("jvm.gc.time.ms").getAsLong();
+        text.append(String.format("stalls %d (total %d)  gc %d ms  heap %d MB", stallCount - previousStalls, stallCount,
+            gcMillis - previousGcMillis, metrics.getGauges().get("jvm.heap.used.bytes").getAsLong() >> 20));
+        previousStalls = stallCount;
+        previousGcMillis = gcMillis;
+        overlayText.setText(text.toString());
+    }
+
+    @Override
+    public void close() {
+        prober.shutdownNow();
+        overlayRefresher.stop();
+        frameSampler.stop();
+    }
+}
@@ -1,16 +1,25 @@
 package com.astro;
 
 import jfxtras.scene.control.agenda.Agenda;
+
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
 
 /**
  * Represents a court hearing with relevant details such as case number, parties, and scheduling information.
  * Integrates with the Agenda control by providing necessary data for appointment rendering, including
- * summary, description, and appointment group for styling.
+ * summary, description, and appointment group for styling. Changes made through the setters are
+ * published to {@link PropertyChangeListener}s so views can patch just the affected appointment.
  */
 public class Hearing {
 
+    private static final Set<String> VACATED_STATUSES = Set.of("adjourned", "cancelled"); // No longer hold their slot
+
     private String caseNumber; // Unique identifier for the case
     private String parties; // Names of the involved parties
     private String presidingJudge; // Name of the judge presiding over the hearing
@@ -21,6 +30,7 @@ public class Hearing {
     private String typeOfHearing; // Type of hearing (e.g., Trial, Motion)
     private String status; // Current status of the hearing (e.g., Scheduled)
     private Agenda.AppointmentGroup appointmentGroup; // Styling group for Agenda integration
+    private final PropertyChangeSupport changes = new PropertyChangeSupport(this); // Notifies views of setter changes
 
     /**
      * Constructs a Hearing object with all required details.
@@ -69,7 +79,9 @@ public class Hearing {
      * @param caseNumber The case number to set.
      */
     public void setCaseNumber(String caseNumber) {
+        String old = this.caseNumber;
         this.caseNumber = caseNumber;
+        changes.firePropertyChange("caseNumber", old, caseNumber);
     }
 
     /**
@@ -87,7 +99,9 @@ public class Hearing {
      * @param parties The parties to set.
      */
     public void setParties(String parties) {
+        String old = this.parties;
         this.parties = parties;
+        changes.firePropertyChange("parties", old, parties);
     }
 
     /**
@@ -105,7 +119,9 @@ public class Hearing {
      * @param presidingJudge The judge's name to set.
      */
     public void setPresidingJudge(String presidingJudge) {
+        String old = this.presidingJudge;
         this.presidingJudge = presidingJudge;
+        changes.firePropertyChange("presidingJudge", old, presidingJudge);
     }
 
     /**
@@ -123,7 +139,9 @@ public class Hearing {
      * @param hearingDate The hearing date to set.
      */
     public void setHearingDate(LocalDate hearingDate) {
+        LocalDate old = this.hearingDate;
         this.hearingDate = hearingDate;
+        changes.firePropertyChange("hearingDate", old, hearingDate);
     }
 
     /**
@@ -141,7 +159,9 @@ public class Hearing {
      * @param startTime The start time to set.
      */
     public void setHearingStartTime(LocalTime startTime) {
+        LocalTime old = this.startTime;
         this.startTime = startTime;
+        changes.firePropertyChange("startTime", old, startTime);
     }
 
     /**
@@ -159,7 +179,40 @@ public class Hearing {
      * @param endTime The end time to set.
      */
     public void setHearingEndTime(LocalTime endTime) {
+        LocalTime old = this.endTime;
         this.endTime = endTime;
+        changes.firePropertyChange("endTime", old, endTime);
+    }
+
+    /**
+     * Moves the hearing to a new date and times in one step. Listeners get a single
+     * {@code "schedule"} change carrying the old and new {@link Slot}, so they never see a
+     * half-moved hearing, e.g. the new date with the old times.
+     *
+     * @param date  The new hearing date.
+     * @param start The new start time.
+     * @param end   The new end time, after {@code start} on the same day.
+     * @throws IllegalArgumentException If the hearing would not end after it starts, e.g. because
+     *                                  it runs past midnight.
+     */
+    public void reschedule(LocalDate date, LocalTime start, LocalTime end) {
+        if (!end.isAfter(start)) {
+            throw new IllegalArgumentException("A hearing must end after it starts on the same day: " + start + "-" + end);
+        }
+        Slot old = getSlot();
+        this.hearingDate = date;
+        this.startTime = start;
+        this.endTime = end;
+        changes.firePropertyChange("schedule", old, getSlot());
+    }
+
+    /**
+     * Gets the date and times of the hearing together.
+     *
+     * @return The current slot.
+     */
+    public Slot getSlot() {
+        return new Slot(hearingDate, startTime, endTime);
     }
 
     /**
@@ -177,7 +230,9 @@ public class Hearing {
      * @param courtRoom The courtroom to set.
      */
     public void setCourtRoom(String courtRoom) {
+        String old = this.courtRoom;
         this.courtRoom = courtRoom;
+        changes.firePropertyChange("courtRoom", old, courtRoom);
     }
 
     /**
@@ -195,7 +250,9 @@ public class Hearing {
      * @param typeOfHearing The type of hearing to set.
      */
     public void setTypeOfHearing(String typeOfHearing) {
+        String old = this.typeOfHearing;
         this.typeOfHearing = typeOfHearing;
+        changes.firePropertyChange("typeOfHearing", old, typeOfHearing);
     }
 
     /**
@@ -213,7 +270,19 @@ public class Hearing {
      * @param status The status to set.
      */
     public void setStatus(String status) {
+        String old = this.status;
         this.status = status;
+        changes.firePropertyChange("status", old, status);
+    }
+
+    /**
+     * Indicates whether the hearing was adjourned or cancelled, so its courtroom and judge are
+     * free again for its time slot.
+     *
+     * @return True if the hearing no longer holds its slot.
+     */
+    public boolean isVacated() {
+        return status != null && VACATED_STATUSES.contains(status.toLowerCase(Locale.ROOT));
     }
 
     /**
@@ -231,7 +300,28 @@ public class Hearing {
      * @param appointmentGroup The appointment group to set.
      */
     public void setAppointmentGroup(Agenda.AppointmentGroup appointmentGroup) {
+        Agenda.AppointmentGroup old = this.appointmentGroup;
         this.appointmentGroup = appointmentGroup;
+        changes.firePropertyChange("appointmentGroup", old, appointmentGroup);
+    }
+
+    /**
+     * Registers a listener that is told about every change made through the setters.
+     * The property name is the field name (e.g., "hearingDate", "startTime", "courtRoom").
+     *
+     * @param listener The listener to add.
+     */
+    public void addPropertyChangeListener(PropertyChangeListener listener) {
+        changes.addPropertyChangeListener(listener);
+    }
+
+    /**
+     * Removes a previously registered change listener.
+     *
+     * @param listener The listener to remove.
+     */
+    public void removePropertyChangeListener(PropertyChangeListener listener) {
+        changes.removePropertyChangeListener(listener);
     }
 
     /**
@@ -253,6 +343,39 @@ public class Hearing {
                "\nCourtroom: " + courtRoom + "\nStatus: " + status;
     }
 
+    /**
+     * The date and times of a hearing, as reported by a {@code "schedule"} change.
+     */
+    public static final class Slot {
+        private final LocalDate date;
+        private final LocalTime start;
+        private final LocalTime end;
+
+        Slot(LocalDate date, LocalTime start, LocalTime end) {
+            this.date = date;
+            this.start = start;
+            this.end = end;
+        }
+
+        public LocalDate getDate() { return date; }
+        public LocalTime getStart() { return start; }
+        public LocalTime getEnd() { return end; }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Slot)) {
+                return false;
+            }
+            Slot slot = (Slot) other;
+            return Objects.equals(date, slot.date) && Objects.equals(start, slot.start) && Objects.equals(end, slot.end);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(date, start, end);
+        }
+    }
+
     /**
      * Indicates whether the hearing can be edited.
      *
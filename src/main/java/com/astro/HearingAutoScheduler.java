@@ -0,0 +1,584 @@
+package com.astro;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Packs a backlog of hearing requests into courtroom and judge calendars.
+ * Each working day is split into 15-minute slots and every courtroom and judge keeps one
+ * {@code long} bitmask of busy slots per day, so finding a free run for a hearing is a handful
+ * of bit operations. A greedy pass places requests by deadline, earliest feasible day first,
+ * preferring the judge with the lightest load and the courtroom that is already busiest that day
+ * (to keep other rooms free for long trials). Several passes with perturbed request orders run
+ * in parallel on a fork/join pool and the best plan wins. Nothing is committed: the returned
+ * {@link Plan} is meant to be reviewed by a clerk first.
+ */
+public class HearingAutoScheduler {
+
+    static final int SLOT_MINUTES = 15;
+    private static final int DEFAULT_PASSES = 8; // Greedy passes tried in parallel
+
+    /**
+     * A hearing that still needs a date, courtroom and (optionally) a judge.
+     */
+    public static final class Request {
+        private final String caseNumber;
+        private final String parties;
+        private final String typeOfHearing;
+        private final int durationMinutes;
+        private final String judge; // Null lets the scheduler choose
+        private final LocalDate notBefore; // E.g. the date a hearing was adjourned to
+        private final LocalDate deadline; // Null for no deadline
+
+        public Request(String caseNumber, String parties, String typeOfHearing, int durationMinutes,
+                       String judge, LocalDate notBefore, LocalDate deadline) {
+            this.caseNumber = caseNumber;
+            this.parties = parties;
+            this.typeOfHearing = typeOfHearing;
+            this.durationMinutes = durationMinutes;
+            this.judge = judge;
+            this.notBefore = notBefore;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Creates a request for a case, using the typical length of the hearing type and the
+         * case's assigned judge if it has one.
+         *
+         * @param c             The case to schedule.
+         * @param typeOfHearing The hearing type (e.g., Trial, Motion, Status Conference).
+         * @param notBefore     The earliest acceptable date.
+         * @return The request.
+         */
+        public static Request forCase(Case c, String typeOfHearing, LocalDate notBefore) {
+            String judge = c.isUnassigned() ? null : c.getAssignedJudge(); // Any judge may preside
+            return new Request(c.getCaseNumber(), c.getCaseTitle(), typeOfHearing,
+                typicalMinutes(typeOfHearing), judge, notBefore, null);
+        }
+
+        public String getCaseNumber() { return caseNumber; }
+        public String getTypeOfHearing() { return typeOfHearing; }
+        public int getDurationMinutes() { return durationMinutes; }
+        public String getJudge() { return judge; }
+        public LocalDate getNotBefore() { return notBefore; }
+        public LocalDate getDeadline() { return deadline; }
+    }
+
+    /**
+     * The outcome of a scheduling run, for review before anything is committed.
+     */
+    public static final class Plan {
+        private final List<Hearing> hearings;
+        private final List<Request> unscheduled;
+        private final Map<String, Double> courtroomUtilization;
+        private final Map<String, Double> judgeUtilization;
+        private final double overallUtilization;
+        private final long waitingDays; // Sum of days between notBefore and the scheduled date
+        private long elapsedMillis;
+
+        Plan(List<Hearing> hearings, List<Request> unscheduled, Map<String, Double> courtroomUtilization,
+             Map<String, Double> judgeUtilization, double overallUtilization, long waitingDays) {
+            this.hearings = hearings;
+            this.unscheduled = unscheduled;
+            this.courtroomUtilization = courtroomUtilization;
+            this.judgeUtilization = judgeUtilization;
+            this.overallUtilization = overallUtilization;
+            this.waitingDays = waitingDays;
+        }
+
+        public List<Hearing> getHearings() { return hearings; }
+        public List<Request> getUnscheduled() { return unscheduled; }
+        public Map<String, Double> getCourtroomUtilization() { return courtroomUtilization; }
+        public Map<String, Double> getJudgeUtilization() { return judgeUtilization; }
+        public double getOverallUtilization() { return overallUtilization; }
+        public long getElapsedMillis() { return elapsedMillis; }
+
+        /**
+         * Tells whether this plan is better than another: more hearings placed, then less waiting.
+         */
+        boolean betterThan(Plan other) {
+            if (hearings.size() != other.hearings.size()) {
+                return hearings.size() > other.hearings.size();
+            }
+            return waitingDays < other.waitingDays;
+        }
+
+        /**
+         * Formats the headline numbers of the plan for a review dialog.
+         *
+         * @return A multi-line summary.
+         */
+        public String summary() {
+            StringBuilder text = new StringBuilder();
+            text.append(String.format("Scheduled: %d, unscheduled: %d (planned in %d ms)%n",
+                hearings.size(), unscheduled.size(), elapsedMillis));
+            text.append(String.format("Overall courtroom utilization: %.1f%%%n", overallUtilization * 100));
+            courtroomUtilization.forEach((room, use) -> text.append(String.format("  %s: %.1f%%%n", room, use * 100)));
+            text.append("Judge utilization:\n");
+            judgeUtilization.forEach((judge, use) -> text.append(String.format("  %s: %.1f%%%n", judge, use * 100)));
+            return text.toString();
+        }
+    }
+
+    private final List<String> courtrooms;
+    private final List<String> judges;
+    private final LocalDate firstDay;
+    private final int days;
+    private LocalTime opening = LocalTime.of(9, 0);
+    private int slotsPerDay = 32; // 09:00-17:00
+    private final Map<String, Set<LocalDate>> unavailable = new HashMap<>();
+    private int passes = DEFAULT_PASSES;
+
+    /**
+     * Creates a scheduler for a planning horizon.
+     *
+     * @param courtrooms The courtrooms that can be used.
+     * @param judges     The judges that can preside.
+     * @param firstDay   The first day of the horizon.
+     * @param days       The number of calendar days in the horizon.
+     */
+    public HearingAutoScheduler(Collection<String> courtrooms, Collection<String> judges, LocalDate firstDay, int days) {
+        this.courtrooms = new ArrayList<>(new LinkedHashSet<>(courtrooms));
+        this.judges = new ArrayList<>(new LinkedHashSet<>(judges));
+        this.firstDay = firstDay;
+        this.days = days;
+    }
+
+    /**
+     * Sets the daily sitting hours. At most 16 hours fit in a day's slot mask.
+     *
+     * @param open  The time the first hearing may start.
+     * @param close The time the last hearing must end.
+     * @return This scheduler.
+     */
+    public HearingAutoScheduler withSittingHours(LocalTime open, LocalTime close) {
+        int slots = (int) (Duration.between(open, close).toMinutes() / SLOT_MINUTES);
+        if (slots <= 0 || slots > Long.SIZE) {
+            throw new IllegalArgumentException("Sitting hours must be between 15 minutes and 16 hours");
+        }
+        this.opening = open;
+        this.slotsPerDay = slots;
+        return this;
+    }
+
+    /**
+     * Sets how many perturbed greedy passes are compared.
+     *
+     * @param passes The number of passes, at least 1.
+     * @return This scheduler.
+     */
+    public HearingAutoScheduler withPasses(int passes) {
+        this.passes = Math.max(1, passes);
+        return this;
+    }
+
+    /**
+     * Marks a courtroom or judge as unavailable for a whole day (leave, maintenance).
+     *
+     * @param resource The courtroom or judge name.
+     * @param day      The unavailable day.
+     */
+    public void markUnavailable(String resource, LocalDate day) {
+        unavailable.computeIfAbsent(resource, r -> new LinkedHashSet<>()).add(day);
+    }
+
+    /**
+     * Plans the backlog around the hearings already on the calendar.
+     *
+     * @param backlog  The hearings to place.
+     * @param existing Hearings already booked; their slots are treated as busy unless vacated.
+     * @return The best plan found.
+     */
+    public Plan plan(Collection<Request> backlog, Collection<Hearing> existing) {
+        long started = System.nanoTime();
+        Calendar base = new Calendar();
+        for (Hearing hearing : existing) {
+            base.occupy(hearing);
+        }
+        List<Request> ordered = new ArrayList<>(backlog);
+        ordered.sort(Comparator
+            .comparing((Request r) -> r.deadline == null ? LocalDate.MAX : r.deadline)
+            .thenComparing(r -> r.notBefore == null ? LocalDate.MIN : r.notBefore)
+            .thenComparing(Comparator.comparingInt((Request r) -> r.durationMinutes).reversed()));
+
+        Plan best = ForkJoinPool.commonPool().invoke(new PassTask(base, ordered, 0, passes));
+        best.elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        return best;
+    }
+
+    /**
+     * Builds a backlog of requests for every case in a repository with the given status,
+     * reading the repository one page at a time.
+     *
+     * @param repository    The case repository.
+     * @param status        The status of cases awaiting a hearing (e.g., "Filed").
+     * @param typeOfHearing The kind of hearing to request for each case.
+     * @return One request per matching case.
+     */
+    public static List<Request> backlogFrom(CaseRepository repository, String status, String typeOfHearing) {
+        List<Request> backlog = new ArrayList<>();
+        int total = repository.size();
+        for (int offset = 0; offset < total; offset += PagedCaseList.PAGE_SIZE) {
+            for (Case c : repository.page(CaseRepository.SortKey.FILING_DATE, false, offset, PagedCaseList.PAGE_SIZE)) {
+                if (status.equals(c.getCurrentStatus())) {
+                    backlog.add(Request.forCase(c, typeOfHearing, null));
+                }
+            }
+        }
+        return backlog;
+    }
+
+    /**
+     * Returns the usual length of a hearing type in minutes.
+     *
+     * @param typeOfHearing The hearing type.
+     * @return The typical duration.
+     */
+    public static int typicalMinutes(String typeOfHearing) {
+        if (typeOfHearing == null) {
+            return 60;
+        }
+        switch (typeOfHearing) {
+            case "Trial":
+                return 120;
+            case "Motion":
+                return 30;
+            case "Status Conference":
+                return 15;
+            default:
+                return 60;
+        }
+    }
+
+    /**
+     * Splits the passes across the fork/join pool and keeps the best plan.
+     */
+    private final class PassTask extends RecursiveTask<Plan> {
+        private static final long serialVersionUID = 1L;
+
+        private final Calendar base;
+        private final List<Request> ordered;
+        private final int fromSeed;
+        private final int toSeed;
+
+        PassTask(Calendar base, List<Request> ordered, int fromSeed, int toSeed) {
+            this.base = base;
+            this.ordered = ordered;
+            this.fromSeed = fromSeed;
+            this.toSeed = toSeed;
+        }
+
+        @Override
+        protected Plan compute() {
+            if (toSeed - fromSeed == 1) {
+                return runPass(base.copy(), perturb(ordered, fromSeed), fromSeed);
+            }
+            int middle = (fromSeed + toSeed) >>> 1;
+            PassTask left = new PassTask(base, ordered, fromSeed, middle);
+            left.fork();
+            Plan right = new PassTask(base, ordered, middle, toSeed).compute();
+            Plan leftPlan = left.join();
+            return right.betterThan(leftPlan) ? right : leftPlan;
+        }
+    }
+
+    /**
+     * Seed 0 keeps the priority order; other seeds swap neighbours so near-equal requests are
+     * tried in different orders.
+     */
+    private static List<Request> perturb(List<Request> ordered, int seed) {
+        List<Request> copy = new ArrayList<>(ordered);
+        if (seed == 0) {
+            return copy;
+        }
+        Random random = new Random(seed);
+        for (int i = 0; i + 1 < copy.size(); i++) {
+            if (random.nextInt(4) == 0) {
+                Request next = copy.get(i + 1);
+                copy.set(i + 1, copy.get(i));
+                copy.set(i, next);
+                i++;
+            }
+        }
+        return copy;
+    }
+
+    private Plan runPass(Calendar calendar, List<Request> requests, int seed) {
+        Random random = new Random(seed);
+        List<Hearing> placed = new ArrayList<>();
+        List<Request> unscheduled = new ArrayList<>();
+        int[] judgeLoad = new int[judges.size()]; // Slots assigned to each judge in this pass
+        long waitingDays = 0;
+
+        for (Request request : requests) {
+            int slots = Math.max(1, (request.durationMinutes + SLOT_MINUTES - 1) / SLOT_MINUTES);
+            int firstDayIndex = request.notBefore == null ? 0
+                : (int) Math.max(0, ChronoUnit.DAYS.between(firstDay, request.notBefore));
+            int lastDayIndex = request.deadline == null ? days - 1
+                : (int) Math.min(days - 1, ChronoUnit.DAYS.between(firstDay, request.deadline));
+
+            List<Integer> candidates = new ArrayList<>();
+            if (request.judge != null) {
+                int judge = judges.indexOf(request.judge);
+                if (judge >= 0) {
+                    candidates.add(judge);
+                }
+            } else {
+                int[] tieBreak = new int[judges.size()]; // Random per pass, so passes differ
+                for (int judge = 0; judge < judges.size(); judge++) {
+                    candidates.add(judge);
+                    tieBreak[judge] = random.nextInt();
+                }
+                // Least-loaded judges first
+                candidates.sort(Comparator
+                    .comparingInt((Integer judge) -> judgeLoad[judge])
+                    .thenComparingInt(judge -> tieBreak[judge]));
+            }
+
+            Placement placement = null;
+            for (int day = firstDayIndex; day <= lastDayIndex && placement == null && slots <= slotsPerDay; day++) {
+                if (calendar.anyRoomStarts(day, slots) == 0) {
+                    continue; // Every courtroom is full for this length of hearing
+                }
+                for (int judge : candidates) {
+                    placement = calendar.find(day, judge, slots);
+                    if (placement != null) {
+                        break;
+                    }
+                }
+            }
+            if (placement == null) {
+                unscheduled.add(request);
+                continue;
+            }
+            calendar.reserve(placement, slots);
+            String judgeName = judges.get(placement.judge);
+            judgeLoad[placement.judge] += slots;
+            waitingDays += placement.day - firstDayIndex;
+
+            LocalDate date = firstDay.plusDays(placement.day);
+            LocalTime start = opening.plusMinutes((long) placement.slot * SLOT_MINUTES);
+            placed.add(new Hearing(request.caseNumber, request.parties, judgeName, date,
+                start, start.plusMinutes((long) slots * SLOT_MINUTES), courtrooms.get(placement.courtroom),
+                request.typeOfHearing, "Scheduled", CourtScheduling.groupFor(request.typeOfHearing)));
+        }
+        return calendar.toPlan(placed, unscheduled, waitingDays);
+    }
+
+    /**
+     * A chosen day, start slot, judge and courtroom.
+     */
+    private static final class Placement {
+        final int day;
+        final int slot;
+        final int judge;
+        final int courtroom;
+
+        Placement(int day, int slot, int judge, int courtroom) {
+            this.day = day;
+            this.slot = slot;
+            this.judge = judge;
+            this.courtroom = courtroom;
+        }
+    }
+
+    /**
+     * Busy-slot bitmasks for every courtroom and judge on every day of the horizon.
+     */
+    private final class Calendar {
+        final long[][] roomBusy; // [courtroom][day]
+        final long[][] judgeBusy; // [judge][day]
+        final long[][] roomBooked; // Slots booked by hearings, excluding closed days, for utilization
+        final long[][] judgeBooked;
+        final long[][] anyRoomStarts; // [day][slots] cached OR of room run starts, valid when flagged
+        final boolean[][] anyRoomValid;
+
+        Calendar() {
+            roomBusy = new long[courtrooms.size()][days];
+            judgeBusy = new long[judges.size()][days];
+            roomBooked = new long[courtrooms.size()][days];
+            judgeBooked = new long[judges.size()][days];
+            anyRoomStarts = new long[days][Long.SIZE + 1];
+            anyRoomValid = new boolean[days][Long.SIZE + 1];
+            long closed = slotsPerDay == Long.SIZE ? 0 : -1L << slotsPerDay; // Slots past closing time
+            for (int day = 0; day < days; day++) {
+                LocalDate date = firstDay.plusDays(day);
+                boolean weekend = date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY;
+                for (int room = 0; room < courtrooms.size(); room++) {
+                    roomBusy[room][day] = weekend || isUnavailable(courtrooms.get(room), date) ? -1L : closed;
+                }
+                for (int judge = 0; judge < judges.size(); judge++) {
+                    judgeBusy[judge][day] = weekend || isUnavailable(judges.get(judge), date) ? -1L : closed;
+                }
+            }
+        }
+
+        private Calendar(Calendar other) {
+            roomBusy = deepCopy(other.roomBusy);
+            judgeBusy = deepCopy(other.judgeBusy);
+            roomBooked = deepCopy(other.roomBooked);
+            judgeBooked = deepCopy(other.judgeBooked);
+            anyRoomStarts = new long[days][Long.SIZE + 1];
+            anyRoomValid = new boolean[days][Long.SIZE + 1];
+        }
+
+        Calendar copy() {
+            return new Calendar(this);
+        }
+
+        void occupy(Hearing hearing) {
+            if (hearing.isVacated()) {
+                return; // Holds no slot, as in HearingConflictEngine.book
+            }
+            long day = ChronoUnit.DAYS.between(firstDay, hearing.getHearingDate());
+            if (day < 0 || day >= days) {
+                return;
+            }
+            long mask = mask(hearing.getHearingStartTime(), hearing.getHearingEndTime());
+            int room = courtrooms.indexOf(hearing.getCourtRoom());
+            if (room >= 0) {
+                roomBusy[room][(int) day] |= mask;
+                roomBooked[room][(int) day] |= mask;
+            }
+            int judge = judges.indexOf(hearing.getPresidingJudge());
+            if (judge >= 0) {
+                judgeBusy[judge][(int) day] |= mask;
+                judgeBooked[judge][(int) day] |= mask;
+            }
+        }
+
+        /**
+         * Returns the start slots where at least one courtroom has a free run of the given length.
+         * Cached per day, so a full day is rejected without looking at any judge or room.
+         */
+        long anyRoomStarts(int day, int slots) {
+            if (!anyRoomValid[day][slots]) {
+                long starts = 0;
+                for (int room = 0; room < courtrooms.size(); room++) {
+                    starts |= runStarts(~roomBusy[room][day], slots);
+                }
+                anyRoomStarts[day][slots] = starts;
+                anyRoomValid[day][slots] = true;
+            }
+            return anyRoomStarts[day][slots];
+        }
+
+        Placement find(int day, int judge, int slots) {
+            long judgeStarts = runStarts(~judgeBusy[judge][day], slots) & anyRoomStarts(day, slots);
+            if (judgeStarts == 0) {
+                return null;
+            }
+            int bestRoom = -1;
+            int bestSlot = Integer.MAX_VALUE;
+            int bestBusy = -1;
+            for (int room = 0; room < courtrooms.size(); room++) {
+                long starts = judgeStarts & runStarts(~roomBusy[room][day], slots);
+                if (starts == 0) {
+                    continue;
+                }
+                int slot = Long.numberOfTrailingZeros(starts);
+                int busy = Long.bitCount(roomBooked[room][day]);
+                if (slot < bestSlot || (slot == bestSlot && busy > bestBusy)) {
+                    bestRoom = room;
+                    bestSlot = slot;
+                    bestBusy = busy;
+                }
+            }
+            return bestRoom < 0 ? null : new Placement(day, bestSlot, judge, bestRoom);
+        }
+
+        void reserve(Placement placement, int slots) {
+            long mask = runMask(slots) << placement.slot;
+            roomBusy[placement.courtroom][placement.day] |= mask;
+            roomBooked[placement.courtroom][placement.day] |= mask;
+            judgeBusy[placement.judge][placement.day] |= mask;
+            judgeBooked[placement.judge][placement.day] |= mask;
+            Arrays.fill(anyRoomValid[placement.day], false);
+        }
+
+        Plan toPlan(List<Hearing> placed, List<Request> unscheduled, long waitingDays) {
+            Map<String, Double> rooms = new LinkedHashMap<>();
+            long totalBooked = 0;
+            long totalOpen = 0;
+            for (int room = 0; room < courtrooms.size(); room++) {
+                long booked = 0;
+                long open = 0;
+                for (int day = 0; day < days; day++) {
+                    booked += Long.bitCount(roomBooked[room][day]);
+                    open += sittingSlots(courtrooms.get(room), day);
+                }
+                rooms.put(courtrooms.get(room), open == 0 ? 0 : (double) booked / open);
+                totalBooked += booked;
+                totalOpen += open;
+            }
+            Map<String, Double> judgeUse = new LinkedHashMap<>();
+            for (int judge = 0; judge < judges.size(); judge++) {
+                long booked = 0;
+                long open = 0;
+                for (int day = 0; day < days; day++) {
+                    booked += Long.bitCount(judgeBooked[judge][day]);
+                    open += sittingSlots(judges.get(judge), day);
+                }
+                judgeUse.put(judges.get(judge), open == 0 ? 0 : (double) booked / open);
+            }
+            return new Plan(placed, unscheduled, rooms, judgeUse,
+                totalOpen == 0 ? 0 : (double) totalBooked / totalOpen, waitingDays);
+        }
+
+        private int sittingSlots(String resource, int day) {
+            LocalDate date = firstDay.plusDays(day);
+            boolean weekend = date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY;
+            return weekend || isUnavailable(resource, date) ? 0 : slotsPerDay;
+        }
+
+        private long mask(LocalTime start, LocalTime end) {
+            long from = Math.max(0, Duration.between(opening, start).toMinutes() / SLOT_MINUTES);
+            long to = Math.min(slotsPerDay, (Duration.between(opening, end).toMinutes() + SLOT_MINUTES - 1) / SLOT_MINUTES);
+            return from >= to ? 0 : runMask((int) (to - from)) << from;
+        }
+    }
+
+    private boolean isUnavailable(String resource, LocalDate date) {
+        Set<LocalDate> daysOff = unavailable.get(resource);
+        return daysOff != null && daysOff.contains(date);
+    }
+
+    /**
+     * Returns a mask with bit {@code i} set when slots {@code i .. i + length - 1} are all free.
+     */
+    private static long runStarts(long free, int length) {
+        long starts = free;
+        for (int i = 1; i < length && starts != 0; i++) {
+            starts &= free >>> i;
+        }
+        return starts;
+    }
+
+    private static long runMask(int length) {
+        return length >= Long.SIZE ? -1L : (1L << length) - 1;
+    }
+
+    private static long[][] deepCopy(long[][] source) {
+        long[][] copy = new long[source.length][];
+        for (int i = 0; i < source.length; i++) {
+            copy[i] = source[i].clone();
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,291 @@
+package com.astro;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Detects double bookings of courtrooms and presiding judges.
+ * Every booked {@link Hearing} is kept in one {@link IntervalTree} per courtroom and one per
+ * judge, so checking a new or moved hearing costs O(log n) per resource no matter how many
+ * hearings the circuit holds. Hearings are indexed by identity with the times they had when
+ * booked; call {@link #rebook(Hearing)} after changing a hearing's date, times, room or judge.
+ */
+public class HearingConflictEngine {
+
+    /**
+     * A hearing that already occupies a courtroom or judge in the requested time.
+     */
+    public static final class Conflict {
+
+        /**
+         * The kind of resource that is double-booked.
+         */
+        public enum Resource {
+            COURTROOM, JUDGE
+        }
+
+        private final Resource resource;
+        private final String name;
+        private final Hearing existing;
+
+        Conflict(Resource resource, String name, Hearing existing) {
+            this.resource = resource;
+            this.name = name;
+            this.existing = existing;
+        }
+
+        public Resource getResource() {
+            return resource;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Hearing getExisting() {
+            return existing;
+        }
+
+        @Override
+        public String toString() {
+            return name + " is already booked for " + existing.getAgendaSummary() + " on "
+                + existing.getHearingDate() + " " + existing.getHearingStartTime() + "-" + existing.getHearingEndTime();
+        }
+    }
+
+    private static final int MAX_REPORTED = 10; // Conflicts listed per resource
+
+    private final Map<String, IntervalTree<Hearing>> courtrooms = new TreeMap<>();
+    private final Map<String, IntervalTree<Hearing>> judges = new TreeMap<>();
+    private final Map<Hearing, Booking> bookings = new IdentityHashMap<>(); // Where each hearing was indexed
+
+    /**
+     * Indexes a hearing without checking it, e.g. when loading an existing calendar. A vacated
+     * hearing (see {@link Hearing#isVacated()}) holds no slot and is only released.
+     *
+     * @param hearing The hearing to index.
+     */
+    public synchronized void book(Hearing hearing) {
+        release(hearing);
+        if (hearing.isVacated()) {
+            return;
+        }
+        long start = minutes(start(hearing));
+        long end = minutes(end(hearing));
+        Booking booking = new Booking(start, hearing.getCourtRoom(), hearing.getPresidingJudge());
+        if (booking.courtroom != null) {
+            booking.courtroomId = tree(courtrooms, booking.courtroom).insert(start, end, hearing);
+        }
+        if (booking.judge != null) {
+            booking.judgeId = tree(judges, booking.judge).insert(start, end, hearing);
+        }
+        bookings.put(hearing, booking);
+    }
+
+    /**
+     * Books a hearing only if it does not clash with anything already booked.
+     *
+     * @param hearing The hearing to book.
+     * @return The conflicts that prevented booking, or an empty list if it was booked.
+     */
+    public synchronized List<Conflict> tryBook(Hearing hearing) {
+        List<Conflict> conflicts = conflictsFor(hearing);
+        if (conflicts.isEmpty()) {
+            book(hearing);
+        }
+        return conflicts;
+    }
+
+    /**
+     * Re-indexes a hearing after its date, times, courtroom, judge or status changed, releasing
+     * it when it was adjourned or cancelled and booking it again when it is reinstated.
+     *
+     * @param hearing The changed hearing.
+     */
+    public synchronized void rebook(Hearing hearing) {
+        book(hearing);
+    }
+
+    /**
+     * Removes a hearing from the index.
+     *
+     * @param hearing The hearing to remove.
+     */
+    public synchronized void release(Hearing hearing) {
+        Booking booking = bookings.remove(hearing);
+        if (booking == null) {
+            return;
+        }
+        if (booking.courtroom != null) {
+            courtrooms.get(booking.courtroom).remove(booking.start, booking.courtroomId);
+        }
+        if (booking.judge != null) {
+            judges.get(booking.judge).remove(booking.start, booking.judgeId);
+        }
+    }
+
+    /**
+     * Finds bookings that clash with a hearing at its current date and times.
+     *
+     * @param hearing The hearing to check; its own booking is ignored.
+     * @return The clashing bookings.
+     */
+    public synchronized List<Conflict> conflictsFor(Hearing hearing) {
+        return conflictsAt(hearing, start(hearing), end(hearing));
+    }
+
+    /**
+     * Finds bookings that would clash if a hearing moved to a new time, e.g. while it is dragged
+     * or resized in the Agenda.
+     *
+     * @param hearing The hearing being moved; its own booking is ignored.
+     * @param start   The proposed start.
+     * @param end     The proposed end.
+     * @return The clashing bookings.
+     */
+    public synchronized List<Conflict> conflictsAt(Hearing hearing, LocalDateTime start, LocalDateTime end) {
+        List<Conflict> conflicts = new ArrayList<>();
+        long from = minutes(start);
+        long to = minutes(end);
+        addConflicts(conflicts, Conflict.Resource.COURTROOM, courtrooms, hearing.getCourtRoom(), from, to, hearing);
+        addConflicts(conflicts, Conflict.Resource.JUDGE, judges, hearing.getPresidingJudge(), from, to, hearing);
+        return conflicts;
+    }
+
+    /**
+     * Validates an imported docket in one sweep. Each hearing is checked against the booked
+     * calendar and against the other hearings of the docket, which are swept in start order so
+     * only hearings still running need to be compared. Vacated hearings hold no slot and are
+     * skipped, as in {@link #book(Hearing)}. Nothing is booked.
+     *
+     * @param docket The hearings to validate.
+     * @return Every hearing with at least one conflict, mapped to its conflicts, in start order.
+     */
+    public synchronized Map<Hearing, List<Conflict>> validateDocket(Collection<Hearing> docket) {
+        List<Hearing> ordered = new ArrayList<>(docket.size());
+        for (Hearing hearing : docket) {
+            if (!hearing.isVacated()) {
+                ordered.add(hearing);
+            }
+        }
+        ordered.sort(Comparator.comparing(HearingConflictEngine::start));
+        Map<String, List<Hearing>> runningInRoom = new HashMap<>();
+        Map<String, List<Hearing>> runningForJudge = new HashMap<>();
+        Map<Hearing, List<Conflict>> result = new LinkedHashMap<>();
+
+        for (Hearing hearing : ordered) {
+            List<Conflict> conflicts = conflictsFor(hearing);
+            sweep(conflicts, Conflict.Resource.COURTROOM, runningInRoom, hearing.getCourtRoom(), hearing);
+            sweep(conflicts, Conflict.Resource.JUDGE, runningForJudge, hearing.getPresidingJudge(), hearing);
+            if (!conflicts.isEmpty()) {
+                result.put(hearing, conflicts);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Lists courtrooms with no booking overlapping the given range.
+     *
+     * @param start The range start.
+     * @param end   The range end.
+     * @return The free courtrooms, in name order.
+     */
+    public synchronized List<String> freeCourtrooms(LocalDateTime start, LocalDateTime end) {
+        return free(courtrooms, minutes(start), minutes(end));
+    }
+
+    /**
+     * Lists judges with no hearing overlapping the given range.
+     *
+     * @param start The range start.
+     * @param end   The range end.
+     * @return The free judges, in name order.
+     */
+    public synchronized List<String> freeJudges(LocalDateTime start, LocalDateTime end) {
+        return free(judges, minutes(start), minutes(end));
+    }
+
+    private void addConflicts(List<Conflict> conflicts, Conflict.Resource resource,
+                              Map<String, IntervalTree<Hearing>> trees, String name,
+                              long from, long to, Hearing skip) {
+        IntervalTree<Hearing> tree = name == null ? null : trees.get(name);
+        if (tree == null) {
+            return;
+        }
+        for (Hearing existing : tree.findOverlaps(from, to, skip, MAX_REPORTED)) {
+            conflicts.add(new Conflict(resource, name, existing));
+        }
+    }
+
+    private static void sweep(List<Conflict> conflicts, Conflict.Resource resource,
+                              Map<String, List<Hearing>> running, String name, Hearing hearing) {
+        if (name == null) {
+            return;
+        }
+        List<Hearing> active = running.computeIfAbsent(name, n -> new ArrayList<>());
+        LocalDateTime start = start(hearing);
+        for (Iterator<Hearing> it = active.iterator(); it.hasNext(); ) {
+            Hearing other = it.next();
+            if (!end(other).isAfter(start)) {
+                it.remove(); // Finished before this one starts, and so before every later one
+            } else {
+                conflicts.add(new Conflict(resource, name, other));
+            }
+        }
+        active.add(hearing);
+    }
+
+    private static List<String> free(Map<String, IntervalTree<Hearing>> trees, long from, long to) {
+        List<String> free = new ArrayList<>();
+        for (Map.Entry<String, IntervalTree<Hearing>> entry : trees.entrySet()) {
+            if (!entry.getValue().overlaps(from, to, null)) {
+                free.add(entry.getKey());
+            }
+        }
+        return free;
+    }
+
+    private static IntervalTree<Hearing> tree(Map<String, IntervalTree<Hearing>> trees, String name) {
+        return trees.computeIfAbsent(name, n -> new IntervalTree<>());
+    }
+
+    private static LocalDateTime start(Hearing hearing) {
+        return LocalDateTime.of(hearing.getHearingDate(), hearing.getHearingStartTime());
+    }
+
+    private static LocalDateTime end(Hearing hearing) {
+        return LocalDateTime.of(hearing.getHearingDate(), hearing.getHearingEndTime());
+    }
+
+    private static long minutes(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    /**
+     * Where a hearing was indexed, so it can be found again after its fields change.
+     */
+    private static final class Booking {
+        final long start;
+        final String courtroom;
+        final String judge;
+        long courtroomId;
+        long judgeId;
+
+        Booking(long start, String courtroom, String judge) {
+            this.start = start;
+            this.courtroom = courtroom;
+            this.judge = judge;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.astro;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Reads and writes the {@code Hearings} table.
+ * A row keeps the hearing's case, start, courtroom and status; the parties, judge and hearing
+ * type live on the case or in the calendar, and the table has no end time. Rows are read as
+ * {@link Row}s, which carry the key needed to update them.
+ */
+public class HearingDao {
+
+    private static final String INSERT = "INSERT INTO Hearings (case_id, hearing_date, location, status) "
+        + "VALUES ((SELECT case_id FROM Cases WHERE case_number = ?), ?, ?, ?)";
+    private static final String UPDATE = "UPDATE Hearings SET hearing_date = ?, location = ?, status = ? "
+        + "WHERE hearing_id = ?";
+    private static final String SELECT = "SELECT h.hearing_id, c.case_number, h.hearing_date, h.location, h.status "
+        + "FROM Hearings h JOIN Cases c ON c.case_id = h.case_id ";
+    static final String SELECT_RANGE = SELECT + "WHERE h.hearing_date >= ? AND h.hearing_date < ? "
+        + "ORDER BY h.hearing_date, h.hearing_id";
+    static final String SELECT_FOR_CASE = SELECT + "WHERE c.case_number = ? ORDER BY h.hearing_date, h.hearing_id";
+    // The leading range on hearing_date keeps the date index usable; the OR alone would not
+    static final String SELECT_PAGE = SELECT + "WHERE h.hearing_date >= ? AND (h.hearing_date > ? OR h.hearing_id > ?) "
+        + "ORDER BY h.hearing_date, h.hearing_id LIMIT ?";
+
+    /**
+     * One row of the table.
+     */
+    public static final class Row {
+        private final int hearingId;
+        private final String caseNumber;
+        private final LocalDateTime start;
+        private final String location;
+        private final String status; // Scheduled, Completed or Adjourned
+
+        public Row(int hearingId, String caseNumber, LocalDateTime start, String location, String status) {
+            this.hearingId = hearingId;
+            this.caseNumber = caseNumber;
+            this.start = start;
+            this.location = location;
+            this.status = status;
+        }
+
+        public int getHearingId() { return hearingId; }
+        public String getCaseNumber() { return caseNumber; }
+        public LocalDateTime getStart() { return start; }
+        public String getLocation() { return location; }
+        public String getStatus() { return status; }
+
+        /**
+         * Returns a copy moved to another time and room, e.g. when a hearing is rescheduled.
+         *
+         * @param newStart    The new start.
+         * @param newLocation The new courtroom.
+         * @return The changed row.
+         */
+        public Row movedTo(LocalDateTime newStart, String newLocation) {
+            return new Row(hearingId, caseNumber, newStart, newLocation, status);
+        }
+
+        public Row withStatus(String newStatus) {
+            return new Row(hearingId, caseNumber, start, location, newStatus);
+        }
+    }
+
+    private final Database database;
+
+    public HearingDao(Database database) {
+        this.database = database;
+    }
+
+    /**
+     * Adds hearings in one transaction, sent as JDBC batches. Each hearing's case must be
+     * registered.
+     *
+     * @param hearings The hearings.
+     * @return The number of rows written.
+     * @throws SQLException If a hearing cannot be written, e.g. its case is unknown; none is then.
+     */
+    public int insertAll(Collection<Hearing> hearings) throws SQLException {
+        return database.batch(INSERT, hearings, (statement, hearing) -> {
+            statement.setString(1, hearing.getCaseNumber());
+            statement.setTimestamp(2, Timestamp.valueOf(hearing.getHearingDate().atTime(hearing.getHearingStartTime())));
+            statement.setString(3, hearing.getCourtRoom());
+            statement.setString(4, statusColumn(hearing.getStatus()));
+        });
+    }
+
+    /**
+     * Writes changed rows in one transaction, sent as JDBC batches.
+     *
+     * @param rows The rows, carrying their new start, courtroom and status.
+     * @return The number of rows changed.
+     * @throws SQLException If the update fails; nothing is changed then.
+     */
+    public int updateAll(Collection<Row> rows) throws SQLException {
+        return database.batch(UPDATE, rows, HearingDao::bindUpdate);
+    }
+
+    /**
+     * Queues a changed row for group commit with other writers' changes, e.g. a hearing dragged
+     * in the calendar.
+     *
+     * @param row The row, carrying its new start, courtroom and status.
+     * @return Completes with the rows changed once committed.
+     */
+    public CompletableFuture<Integer> submit(Row row) {
+        return database.submit(UPDATE, row, HearingDao::bindUpdate);
+    }
+
+    private static void bindUpdate(PreparedStatement statement, Row row) throws SQLException {
+        statement.setTimestamp(1, Timestamp.valueOf(row.getStart()));
+        statement.setString(2, row.getLocation());
+        statement.setString(3, statusColumn(row.getStatus()));
+        statement.setInt(4, row.getHearingId());
+    }
+
+    /**
+     * Reads the hearings of a case.
+     *
+     * @param caseNumber The case number.
+     * @return The hearings, earliest first.
+     * @throws SQLException If the query fails.
+     */
+    public List<Row> forCase(String caseNumber) throws SQLException {
+        return database.inTransaction(session -> {
+            PreparedStatement statement = session.prepare(SELECT_FOR_CASE);
+            statement.setString(1, caseNumber);
+            return readAll(statement, 16);
+        });
+    }
+
+    /**
+     * Reads the hearings starting in a time range, e.g. the weeks shown in the calendar.
+     *
+     * @param from  The start of the range, inclusive.
+     * @param until The end of the range, exclusive.
+     * @return The rows, earliest first.
+     * @throws SQLException If the query fails.
+     */
+    public List<Row> between(LocalDateTime from, LocalDateTime until) throws SQLException {
+        return database.inTransaction(session -> {
+            PreparedStatement statement = session.prepare(SELECT_RANGE);
+            statement.setTimestamp(1, Timestamp.valueOf(from));
+            statement.setTimestamp(2, Timestamp.valueOf(until));
+            return readAll(statement, 64);
+        });
+    }
+
+    /**
+     * Reads a page of hearings in start order. The next page starts after the last row returned,
+     * compared on start and then key so that hearings starting together are neither skipped nor
+     * repeated, and no earlier rows are read and discarded as with an offset.
+     *
+     * @param after The last row of the previous page, or null for the first page.
+     * @param limit The most rows to return.
+     * @return The rows.
+     * @throws SQLException If the query fails.
+     */
+    public List<Row> page(Row after, int limit) throws SQLException {
+        Timestamp start = Timestamp.valueOf(after != null ? after.getStart() : LocalDateTime.of(1, 1, 1, 0, 0));
+        int id = after != null ? after.getHearingId() : 0;
+        return database.inTransaction(session -> {
+            PreparedStatement statement = session.prepare(SELECT_PAGE);
+            statement.setTimestamp(1, start);
+            statement.setTimestamp(2, start);
+            statement.setInt(3, id);
+            statement.setInt(4, limit);
+            return readAll(statement, limit);
+        });
+    }
+
+    private static List<Row> readAll(PreparedStatement statement, int expected) throws SQLException {
+        List<Row> result = new ArrayList<>(expected);
+        try (ResultSet rows = statement.executeQuery()) {
+            while (rows.next()) {
+                result.add(new Row(rows.getInt(1), rows.getString(2), rows.getTimestamp(3).toLocalDateTime(),
+                    rows.getString(4), rows.getString(5)));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Maps a hearing status to the value of the {@code status} column.
+     *
+     * @param status The status, e.g. "Scheduled".
+     * @return "Completed" or "Adjourned" for those statuses, else "Scheduled".
+     */
+    static String statusColumn(String status) {
+        if ("Completed".equalsIgnoreCase(status)) {
+            return "Completed";
+        } else if ("Adjourned".equalsIgnoreCase(status)) {
+            return "Adjourned";
+        }
+        return "Scheduled";
+    }
+}
@@ -0,0 +1,207 @@
+package com.astro;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Balanced interval tree over half-open {@code [start, end)} ranges of {@code long} values.
+ * Implemented as a treap ordered by start, where every node also tracks the largest end in its
+ * subtree so whole branches that end before a query range can be skipped. Insert, remove and
+ * "is anything overlapping" checks run in expected O(log n); listing overlaps costs O(log n + k).
+ *
+ * @param <T> The type of value attached to each interval.
+ */
+public class IntervalTree<T> {
+
+    private final SplittableRandom random = new SplittableRandom(); // Treap priorities
+    private Node<T> root;
+    private long nextId; // Breaks ties between intervals with the same start
+    private int size;
+
+    /**
+     * Adds an interval.
+     *
+     * @param start The inclusive start.
+     * @param end   The exclusive end.
+     * @param value The value attached to the interval.
+     * @return An id to pass to {@link #remove(long, long)}.
+     */
+    public long insert(long start, long end, T value) {
+        Node<T> node = new Node<>(start, end, nextId++, random.nextInt(), value);
+        root = insert(root, node);
+        size++;
+        return node.id;
+    }
+
+    /**
+     * Removes an interval previously added with {@link #insert(long, long, Object)}.
+     *
+     * @param start The start the interval was inserted with.
+     * @param id    The id returned by {@code insert}.
+     * @return True if the interval was found and removed.
+     */
+    public boolean remove(long start, long id) {
+        int before = size;
+        root = remove(root, start, id);
+        return size < before;
+    }
+
+    /**
+     * Tells whether any stored interval overlaps {@code [start, end)}.
+     *
+     * @param start The inclusive start of the query range.
+     * @param end   The exclusive end of the query range.
+     * @param skip  A value to ignore, e.g. the hearing being moved; may be null.
+     * @return True if an overlapping interval exists.
+     */
+    public boolean overlaps(long start, long end, T skip) {
+        return !findOverlaps(start, end, skip, 1).isEmpty();
+    }
+
+    /**
+     * Lists the values of intervals overlapping {@code [start, end)}, in start order.
+     *
+     * @param start The inclusive start of the query range.
+     * @param end   The exclusive end of the query range.
+     * @param skip  A value to ignore; may be null.
+     * @param limit The maximum number of values to return.
+     * @return The overlapping values.
+     */
+    public List<T> findOverlaps(long start, long end, T skip, int limit) {
+        List<T> result = new ArrayList<>();
+        collect(root, start, end, skip, limit, result);
+        return result;
+    }
+
+    /**
+     * Returns the number of stored intervals.
+     *
+     * @return The interval count.
+     */
+    public int size() {
+        return size;
+    }
+
+    private void collect(Node<T> node, long start, long end, T skip, int limit, List<T> result) {
+        if (node == null || node.maxEnd <= start || result.size() >= limit) {
+            return; // Nothing in this subtree ends after the query starts
+        }
+        collect(node.left, start, end, skip, limit, result);
+        if (result.size() >= limit) {
+            return;
+        }
+        if (node.start < end && node.end > start && node.value != skip) {
+            result.add(node.value);
+        }
+        if (node.start < end) { // Right subtree starts even later
+            collect(node.right, start, end, skip, limit, result);
+        }
+    }
+
+    private Node<T> insert(Node<T> node, Node<T> added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added.start, added.id, node) < 0) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        node.update();
+        return node;
+    }
+
+    private Node<T> remove(Node<T> node, long start, long id) {
+        if (node == null) {
+            return null;
+        }
+        int order = compare(start, id, node);
+        if (order < 0) {
+            node.left = remove(node.left, start, id);
+        } else if (order > 0) {
+            node.right = remove(node.right, start, id);
+        } else {
+            size--;
+            return merge(node.left, node.right);
+        }
+        node.update();
+        return node;
+    }
+
+    private Node<T> merge(Node<T> left, Node<T> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private static int compare(long start, long id, Node<?> node) {
+        int order = Long.compare(start, node.start);
+        return order != 0 ? order : Long.compare(id, node.id);
+    }
+
+    private static <T> Node<T> rotateRight(Node<T> node) {
+        Node<T> pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        node.update();
+        pivot.update();
+        return pivot;
+    }
+
+    private static <T> Node<T> rotateLeft(Node<T> node) {
+        Node<T> pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        node.update();
+        pivot.update();
+        return pivot;
+    }
+
+    private static final class Node<T> {
+        final long start;
+        final long end;
+        final long id;
+        final int priority;
+        final T value;
+        long maxEnd; // Largest end in this subtree
+        Node<T> left;
+        Node<T> right;
+
+        Node(long start, long end, long id, int priority, T value) {
+            this.start = start;
+            this.end = end;
+            this.id = id;
+            this.priority = priority;
+            this.value = value;
+            this.maxEnd = end;
+        }
+
+        void update() {
+            maxEnd = end;
+            if (left != null && left.maxEnd > maxEnd) {
+                maxEnd = left.maxEnd;
+            }
+            if (right != null && right.maxEnd > maxEnd) {
+                maxEnd = right.maxEnd;
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.astro;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * A judge who can be assigned cases.
+ * Instances are immutable; the {@code with...} methods return changed copies. A judge with no
+ * listed case types can take any type. Capacity scales the judge's load, so a part-time judge
+ * with capacity 0.5 counts as fully loaded at half the caseload of a full-time judge.
+ */
+public class Judge {
+
+    private final String name;
+    private final Set<String> caseTypes; // Lower-case case types the judge hears; empty for all
+    private final double capacity; // 1.0 for a full-time judge
+    private final NavigableMap<LocalDate, LocalDate> leave; // First day -> last day of each absence
+
+    public Judge(String name, Set<String> caseTypes, double capacity, Map<LocalDate, LocalDate> leave) {
+        this.name = name;
+        Set<String> types = new TreeSet<>();
+        for (String type : caseTypes) {
+            types.add(type.toLowerCase(Locale.ROOT));
+        }
+        this.caseTypes = Collections.unmodifiableSet(types);
+        this.capacity = capacity;
+        this.leave = Collections.unmodifiableNavigableMap(new TreeMap<>(leave));
+    }
+
+    /**
+     * Creates a full-time judge who can hear any type of case and has no leave booked.
+     *
+     * @param name The judge's name as used on cases and hearings.
+     * @return The judge.
+     */
+    public static Judge generalist(String name) {
+        return new Judge(name, Set.of(), 1.0, Map.of());
+    }
+
+    public String getName() { return name; }
+    public Set<String> getCaseTypes() { return caseTypes; }
+    public double getCapacity() { return capacity; }
+    public NavigableMap<LocalDate, LocalDate> getLeave() { return leave; }
+
+    /**
+     * Checks whether the judge hears a type of case.
+     *
+     * @param caseType The case type.
+     * @return True if the judge hears it.
+     */
+    public boolean hears(String caseType) {
+        return caseTypes.isEmpty() || (caseType != null && caseTypes.contains(caseType.toLowerCase(Locale.ROOT)));
+    }
+
+    /**
+     * Checks whether the judge is sitting on a day, i.e. not on leave.
+     *
+     * @param day The day.
+     * @return True if no leave covers the day.
+     */
+    public boolean isAvailableOn(LocalDate day) {
+        for (LocalDate last : leave.headMap(day, true).values()) {
+            if (!last.isBefore(day)) {
+                return false; // Absences may overlap, so every earlier one is checked
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a copy with an absence added.
+     *
+     * @param first The first day of leave.
+     * @param last  The last day of leave.
+     * @return The changed judge.
+     */
+    public Judge withLeave(LocalDate first, LocalDate last) {
+        Map<LocalDate, LocalDate> changed = new TreeMap<>(leave);
+        changed.put(first, last);
+        return new Judge(name, caseTypes, capacity, changed);
+    }
+
+    /**
+     * Returns a copy with different case types.
+     *
+     * @param types The case types the judge hears; empty for all.
+     * @return The changed judge.
+     */
+    public Judge withCaseTypes(Set<String> types) {
+        return new Judge(name, types, capacity, leave);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,183 @@
+package com.astro;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * The judges of the court, with the case types they hear, their capacity and their leave, and
+ * the courtrooms hearings can be listed in. Kept in {@code roster.dat}, which is rewritten to a temporary file and moved into place on
+ * every change, so a crash leaves either the old or the new roster.
+ */
+public class JudgeRoster {
+
+    private static final int MAGIC_V1 = 0x4A524F31; // "JRO1", judges only
+    private static final int MAGIC = 0x4A524F32; // "JRO2", judges then courtrooms
+    private static final int DEFAULT_COURTROOMS = 6; // Seeded as "Courtroom 1" to "Courtroom 6"
+
+    private final Path file;
+    private final Map<String, Judge> judges = new LinkedHashMap<>(); // Name -> judge, in roster order
+    private final List<String> courtrooms = new ArrayList<>();
+
+    /**
+     * Opens a roster, seeding the court's judges and courtrooms the first time.
+     *
+     * @param directory The directory holding the roster file.
+     * @throws IOException If an existing roster cannot be read.
+     */
+    public JudgeRoster(Path directory) throws IOException {
+        this.file = directory.resolve("roster.dat");
+        if (Files.exists(file)) {
+            load();
+        } else {
+            for (Judge judge : List.of(
+                    new Judge("Judge Evans", Set.of("Civil", "Criminal"), 1.0, Map.of()),
+                    new Judge("Judge Patel", Set.of("Criminal"), 1.0, Map.of()),
+                    new Judge("Judge Chen", Set.of("Family", "Civil"), 1.0, Map.of()),
+                    Judge.generalist("Judge Smith"),
+                    Judge.generalist("Judge Jones"),
+                    new Judge("Judge Brown", Set.of(), 0.5, Map.of()), // Part-time
+                    Judge.generalist("Judge Green"))) {
+                judges.put(judge.getName(), judge);
+            }
+            seedCourtrooms();
+            save();
+        }
+    }
+
+    /**
+     * Opens the roster in the default data directory.
+     *
+     * @return The default roster.
+     */
+    public static JudgeRoster openDefault() {
+        try {
+            return new JudgeRoster(DataDirectory.resolve("judges"));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open judge roster", e);
+        }
+    }
+
+    /**
+     * Lists every judge.
+     *
+     * @return The judges in roster order.
+     */
+    public synchronized List<Judge> judges() {
+        return new ArrayList<>(judges.values());
+    }
+
+    /**
+     * Lists the courtrooms hearings can be listed in.
+     *
+     * @return The courtroom names in roster order.
+     */
+    public synchronized List<String> courtrooms() {
+        return new ArrayList<>(courtrooms);
+    }
+
+    /**
+     * Replaces the courtrooms and saves the roster.
+     *
+     * @param names The courtroom names.
+     */
+    public synchronized void setCourtrooms(List<String> names) {
+        courtrooms.clear();
+        courtrooms.addAll(names);
+        try {
+            save();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot save judge roster", e);
+        }
+    }
+
+    private void seedCourtrooms() {
+        for (int room = 1; room <= DEFAULT_COURTROOMS; room++) {
+            courtrooms.add("Courtroom " + room);
+        }
+    }
+
+    /**
+     * Adds a judge or replaces the judge with the same name, and saves the roster.
+     *
+     * @param judge The judge.
+     */
+    public synchronized void put(Judge judge) {
+        judges.put(judge.getName(), judge);
+        try {
+            save();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot save judge roster", e);
+        }
+    }
+
+    private void save() throws IOException {
+        Path temp = file.resolveSibling("roster.dat.tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(judges.size());
+            for (Judge judge : judges.values()) {
+                out.writeUTF(judge.getName());
+                out.writeDouble(judge.getCapacity());
+                out.writeShort(judge.getCaseTypes().size());
+                for (String type : judge.getCaseTypes()) {
+                    out.writeUTF(type);
+                }
+                out.writeShort(judge.getLeave().size());
+                for (Map.Entry<LocalDate, LocalDate> absence : judge.getLeave().entrySet()) {
+                    out.writeLong(absence.getKey().toEpochDay());
+                    out.writeLong(absence.getValue().toEpochDay());
+                }
+            }
+            out.writeInt(courtrooms.size());
+            for (String courtroom : courtrooms) {
+                out.writeUTF(courtroom);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void load() throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            int magic = in.readInt();
+            if (magic != MAGIC && magic != MAGIC_V1) {
+                throw new IOException("Not a judge roster: " + file);
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                double capacity = in.readDouble();
+                Set<String> types = new TreeSet<>();
+                for (int t = in.readShort(); t > 0; t--) {
+                    types.add(in.readUTF());
+                }
+                Map<LocalDate, LocalDate> leave = new TreeMap<>();
+                for (int l = in.readShort(); l > 0; l--) {
+                    leave.put(LocalDate.ofEpochDay(in.readLong()), LocalDate.ofEpochDay(in.readLong()));
+                }
+                judges.put(name, new Judge(name, types, capacity, leave));
+            }
+            if (magic == MAGIC_V1) {
+                seedCourtrooms(); // Rewritten in the current format on the next save
+            } else {
+                for (int c = in.readInt(); c > 0; c--) {
+                    courtrooms.add(in.readUTF());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,520 @@
+package com.astro;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Live workload of every judge, kept in priority order for case assignment.
+ * A judge's load is the weighted count of their open cases plus their active hearings, divided
+ * by their capacity. Roster judges sit in ordered sets keyed by load, one per case type they
+ * specialise in plus one for generalists, so the least-loaded eligible judge is found in
+ * O(log J) and a load change costs one remove and re-insert per set the judge is in. Loads
+ * follow the {@link CaseRepository} and the hearings handed to {@link #track(Hearing)}
+ * incrementally; nothing is rescanned after the initial count.
+ */
+public class JudgeWorkloadIndex implements CaseRepository.Listener, PropertyChangeListener {
+
+    private static final Map<String, Double> CASE_WEIGHTS = Map.of("criminal", 1.5); // Relative effort; others weigh 1
+    private static final double HEARING_WEIGHT = 0.5; // An active hearing counts as half a case
+    private static final Set<String> INACTIVE_HEARINGS = Set.of("adjourned", "completed", "cancelled");
+    private static final int PLAN_CHUNK = 1024; // Cases read per task, and written per progress report, in a rebalance
+    private static final Comparator<Workload> BY_LOAD = Comparator
+        .comparingDouble((Workload w) -> w.key)
+        .thenComparing(w -> w.judge.getName());
+
+    /**
+     * An immutable view of one judge's workload.
+     */
+    public static final class Snapshot {
+        private final Judge judge;
+        private final boolean onRoster;
+        private final int openCases;
+        private final int activeHearings;
+        private final double load;
+
+        Snapshot(Workload workload) {
+            this.judge = workload.judge;
+            this.onRoster = workload.onRoster;
+            this.openCases = workload.openCases;
+            this.activeHearings = workload.activeHearings;
+            this.load = workload.load();
+        }
+
+        public Judge getJudge() { return judge; }
+        public boolean isOnRoster() { return onRoster; }
+        public int getOpenCases() { return openCases; }
+        public int getActiveHearings() { return activeHearings; }
+        public double getLoad() { return load; }
+    }
+
+    /**
+     * Planned assignments for the unassigned cases; see {@link #planRebalance()}.
+     */
+    public static final class Plan {
+        private final int[] rowIds;
+        private final Case[] cases;
+        private final String[] judges;
+        private final int skipped; // Cases no roster judge hears
+        private final Map<String, Integer> perJudge;
+
+        Plan(int[] rowIds, Case[] cases, String[] judges, int skipped, Map<String, Integer> perJudge) {
+            this.rowIds = rowIds;
+            this.cases = cases;
+            this.judges = judges;
+            this.skipped = skipped;
+            this.perJudge = Collections.unmodifiableMap(perJudge);
+        }
+
+        public int size() { return rowIds.length; }
+        public int getSkipped() { return skipped; }
+        public Map<String, Integer> getPerJudge() { return perJudge; }
+    }
+
+    private final CaseRepository caseRepository;
+    private final JudgeRoster roster;
+    private final Map<String, Workload> workloads = new HashMap<>(); // Judge name -> workload, incl. judges not on the roster
+    private final Map<String, TreeSet<Workload>> specialists = new HashMap<>(); // Lower-case case type -> eligible roster judges
+    private final TreeSet<Workload> generalists = new TreeSet<>(BY_LOAD); // Roster judges who hear every type
+    private final BitSet unassigned = new BitSet(); // Row ids of open cases with no judge
+    private final Map<Hearing, String> countedHearings = new IdentityHashMap<>(); // Hearing -> judge it counts for
+    private int seededRows; // Rows below this id are counted by the initial scan
+    private int scannedRows; // Progress of the initial scan, in row id order; rows are read under the index's lock
+
+    private JudgeWorkloadIndex(CaseRepository caseRepository, JudgeRoster roster) {
+        this.caseRepository = caseRepository;
+        this.roster = roster;
+        for (Judge judge : roster.judges()) {
+            place(new Workload(judge, true));
+        }
+    }
+
+    /**
+     * Counts every case in the repository and keeps following it. Call off the FX thread; the
+     * initial count reads every case once.
+     *
+     * @param repository The case registry.
+     * @param roster     The judges eligible for assignment.
+     * @return The populated index.
+     */
+    public static JudgeWorkloadIndex build(CaseRepository repository, JudgeRoster roster) {
+        JudgeWorkloadIndex index = new JudgeWorkloadIndex(repository, roster);
+        synchronized (repository) { // No case can be added between reading the size and listening
+            synchronized (index) {
+                index.seededRows = repository.size();
+            }
+            repository.addListener(index);
+        }
+        int rows = index.seededRows;
+        for (int from = 0; from < rows; from += PLAN_CHUNK) {
+            // Writers notify under the repository's monitor, so an update is either stored and
+            // counted before this chunk is read or arrives after the scan has moved past it. The
+            // listener takes the index's lock under that monitor, so the two are taken in that order
+            synchronized (repository) {
+                synchronized (index) {
+                    for (int rowId = from; rowId < Math.min(rows, from + PLAN_CHUNK); rowId++) {
+                        index.count(rowId, repository.get(rowId), 1);
+                        index.scannedRows = rowId + 1;
+                    }
+                }
+            }
+        }
+        return index;
+    }
+
+    @Override
+    public synchronized void caseAdded(int rowId, Case added) {
+        if (rowId >= seededRows) {
+            count(rowId, added, 1);
+        }
+    }
+
+    @Override
+    public synchronized void caseUpdated(int rowId, Case previous, Case updated) {
+        if (rowId >= scannedRows && rowId < seededRows) {
+            return; // The initial scan has not reached this row and will read the new version
+        }
+        count(rowId, previous, -1);
+        count(rowId, updated, 1);
+    }
+
+    /**
+     * Starts counting a hearing toward its presiding judge, and follows later changes of its
+     * judge or status.
+     *
+     * @param hearing The hearing.
+     */
+    public synchronized void track(Hearing hearing) {
+        if (!countedHearings.containsKey(hearing)) {
+            hearing.addPropertyChangeListener(this);
+            countHearing(hearing);
+        }
+    }
+
+    @Override
+    public synchronized void propertyChange(PropertyChangeEvent event) {
+        String property = event.getPropertyName();
+        if (property.equals("presidingJudge") || property.equals("status")) {
+            Hearing hearing = (Hearing) event.getSource();
+            String counted = countedHearings.get(hearing);
+            if (counted != null) {
+                adjust(workload(counted), w -> w.activeHearings--);
+            }
+            countHearing(hearing);
+        }
+    }
+
+    /**
+     * Suggests the least-loaded roster judge who hears a type of case and is sitting on a day.
+     * Judges on leave are skipped, so the cost grows only with the number of absent judges ahead
+     * of the first available one.
+     *
+     * @param caseType The case type.
+     * @param day      The day the judge must be available.
+     * @return The judge, or null if no roster judge qualifies.
+     */
+    public synchronized Judge suggest(String caseType, LocalDate day) {
+        Workload specialist = firstAvailable(specialists.get(typeKey(caseType)), day);
+        Workload generalist = firstAvailable(generalists, day);
+        if (specialist == null || generalist == null) {
+            return specialist != null ? specialist.judge : generalist != null ? generalist.judge : null;
+        }
+        return BY_LOAD.compare(specialist, generalist) <= 0 ? specialist.judge : generalist.judge;
+    }
+
+    /**
+     * Lists the roster judges who hear a type of case and are sitting on a day, least loaded
+     * first, e.g. to offer alternatives to {@link #suggest}.
+     *
+     * @param caseType The case type.
+     * @param day      The day the judges must be available.
+     * @return The eligible judges.
+     */
+    public synchronized List<Judge> eligible(String caseType, LocalDate day) {
+        TreeSet<Workload> merged = new TreeSet<>(BY_LOAD);
+        merged.addAll(generalists);
+        merged.addAll(specialists.getOrDefault(typeKey(caseType), new TreeSet<>(BY_LOAD)));
+        List<Judge> judges = new ArrayList<>();
+        for (Workload workload : merged) {
+            if (workload.judge.isAvailableOn(day)) {
+                judges.add(workload.judge);
+            }
+        }
+        return judges;
+    }
+
+    /**
+     * Returns every judge's workload, heaviest first.
+     *
+     * @return The workloads, including judges found on cases but not on the roster.
+     */
+    public synchronized List<Snapshot> workloads() {
+        List<Snapshot> snapshots = new ArrayList<>();
+        for (Workload workload : workloads.values()) {
+            snapshots.add(new Snapshot(workload));
+        }
+        snapshots.sort(Comparator.comparingDouble(Snapshot::getLoad).reversed());
+        return snapshots;
+    }
+
+    /**
+     * Lists open cases that have no judge, oldest row first.
+     *
+     * @param limit The maximum number of cases to return.
+     * @return Row ids mapped to the cases, in row id order.
+     */
+    public Map<Integer, Case> unassignedCases(int limit) {
+        int[] rowIds;
+        synchronized (this) {
+            rowIds = unassigned.stream().limit(limit).toArray();
+        }
+        Map<Integer, Case> cases = new LinkedHashMap<>();
+        for (int rowId : rowIds) {
+            cases.put(rowId, caseRepository.get(rowId));
+        }
+        return cases;
+    }
+
+    public synchronized int getUnassignedCount() {
+        return unassigned.cardinality();
+    }
+
+    /**
+     * Assigns a case to a judge. The workload follows through the repository update.
+     *
+     * @param rowId The case's row id.
+     * @param judge The judge's name.
+     */
+    public void assign(int rowId, String judge) {
+        Case current;
+        synchronized (caseRepository) { // No edit can land between the read and the write and be lost
+            current = caseRepository.get(rowId);
+            caseRepository.update(rowId, current.withAssignedJudge(judge));
+        }
+        AuditLog.global().record("case.judge.assigned", current.getCaseNumber() + " -> " + judge);
+    }
+
+    /**
+     * Adds or replaces a roster judge, e.g. after booking leave, and saves the roster.
+     *
+     * @param judge The changed judge.
+     */
+    public synchronized void updateJudge(Judge judge) {
+        roster.put(judge);
+        Workload workload = workload(judge.getName());
+        unplace(workload);
+        workload.judge = judge;
+        workload.onRoster = true;
+        place(workload);
+    }
+
+    /**
+     * Plans assignments for every unassigned open case, spreading them so that judges' loads
+     * even out. Cases are read in parallel chunks; each is then given to the least-loaded
+     * eligible judge available today, counting the cases already planned. Nothing is written
+     * until the plan is applied.
+     *
+     * @return The plan.
+     */
+    public Plan planRebalance() {
+        int[] rowIds;
+        Map<String, Workload> planned = new HashMap<>(); // Judge -> copy with planned load
+        Map<String, TreeSet<Workload>> plannedSpecialists = new HashMap<>();
+        TreeSet<Workload> plannedGeneralists = new TreeSet<>(BY_LOAD);
+        synchronized (this) {
+            rowIds = unassigned.stream().toArray();
+            for (Workload workload : workloads.values()) {
+                if (workload.onRoster) {
+                    Workload copy = workload.copy();
+                    planned.put(copy.judge.getName(), copy);
+                    place(copy, plannedSpecialists, plannedGeneralists);
+                }
+            }
+        }
+        Case[] cases = new Case[rowIds.length];
+        IntStream.range(0, (rowIds.length + PLAN_CHUNK - 1) / PLAN_CHUNK).parallel().forEach(chunk -> {
+            for (int i = chunk * PLAN_CHUNK; i < Math.min(rowIds.length, (chunk + 1) * PLAN_CHUNK); i++) {
+                cases[i] = caseRepository.get(rowIds[i]);
+            }
+        });
+
+        LocalDate today = LocalDate.now();
+        String[] judges = new String[rowIds.length];
+        Map<String, Integer> perJudge = new HashMap<>();
+        int skipped = 0;
+        for (int i = 0; i < rowIds.length; i++) {
+            Workload specialist = firstAvailable(plannedSpecialists.get(typeKey(cases[i].getCaseType())), today);
+            Workload generalist = firstAvailable(plannedGeneralists, today);
+            Workload chosen = specialist == null ? generalist
+                : generalist == null || BY_LOAD.compare(specialist, generalist) <= 0 ? specialist : generalist;
+            if (chosen == null) {
+                skipped++;
+                continue;
+            }
+            double weight = weight(cases[i]);
+            adjust(chosen, w -> w.caseWeight += weight, plannedSpecialists, plannedGeneralists);
+            judges[i] = chosen.judge.getName();
+            perJudge.merge(judges[i], 1, Integer::sum);
+        }
+        return new Plan(rowIds, cases, judges, skipped, perJudge);
+    }
+
+    /**
+     * Writes a plan's assignments. A case that was assigned or changed since the plan was made
+     * is left alone.
+     *
+     * @param plan     The plan from {@link #planRebalance()}.
+     * @param progress Receives the number of cases processed so far.
+     * @return The number of cases assigned.
+     */
+    public int applyRebalance(Plan plan, IntConsumer progress) {
+        int assigned = 0;
+        for (int i = 0; i < plan.rowIds.length; i++) {
+            if (plan.judges[i] != null && applyOne(plan.rowIds[i], plan.cases[i], plan.judges[i])) {
+                assigned++;
+            }
+            if ((i + 1) % PLAN_CHUNK == 0 || i + 1 == plan.rowIds.length) {
+                progress.accept(i + 1);
+            }
+        }
+        AuditLog.global().record("case.judge.rebalanced", assigned + " cases assigned across "
+            + plan.perJudge.size() + " judges");
+        return assigned;
+    }
+
+    private boolean applyOne(int rowId, Case planned, String judge) {
+        synchronized (caseRepository) { // Repositories write under their own monitor, so no clerk's edit can slip in
+            Case current = caseRepository.get(rowId);
+            if (!current.isUnassigned() || !sameCase(current, planned)) {
+                return false;
+            }
+            caseRepository.update(rowId, current.withAssignedJudge(judge));
+            return true;
+        }
+    }
+
+    private static boolean sameCase(Case a, Case b) {
+        return a.getCaseNumber().equals(b.getCaseNumber())
+            && String.valueOf(a.getCaseType()).equals(String.valueOf(b.getCaseType()))
+            && String.valueOf(a.getCurrentStatus()).equals(String.valueOf(b.getCurrentStatus()));
+    }
+
+    private void count(int rowId, Case c, int sign) {
+        if (c.isClosed()) {
+            return;
+        }
+        if (c.isUnassigned()) {
+            unassigned.set(rowId, sign > 0);
+            return;
+        }
+        double weight = weight(c);
+        adjust(workload(c.getAssignedJudge()), w -> {
+            w.openCases += sign;
+            w.caseWeight += sign * weight;
+        });
+    }
+
+    private void countHearing(Hearing hearing) {
+        String judge = hearing.getPresidingJudge();
+        boolean active = judge != null && !judge.isBlank() && (hearing.getStatus() == null
+            || !INACTIVE_HEARINGS.contains(hearing.getStatus().toLowerCase(Locale.ROOT)));
+        if (active) {
+            adjust(workload(judge), w -> w.activeHearings++);
+            countedHearings.put(hearing, judge);
+        } else {
+            countedHearings.put(hearing, null); // Still followed, in case it becomes active again
+        }
+    }
+
+    private Workload workload(String judge) {
+        Workload workload = workloads.get(judge);
+        if (workload == null) {
+            workload = new Workload(Judge.generalist(judge), false); // Named on a case but not on the roster
+            workloads.put(judge, workload);
+        }
+        return workload;
+    }
+
+    private void adjust(Workload workload, Consumer<Workload> change) {
+        adjust(workload, change, specialists, generalists);
+    }
+
+    private static void adjust(Workload workload, Consumer<Workload> change,
+                               Map<String, TreeSet<Workload>> specialists, TreeSet<Workload> generalists) {
+        unplace(workload, specialists, generalists);
+        change.accept(workload);
+        place(workload, specialists, generalists);
+    }
+
+    private void place(Workload workload) {
+        workloads.put(workload.judge.getName(), workload);
+        place(workload, specialists, generalists);
+    }
+
+    private void unplace(Workload workload) {
+        unplace(workload, specialists, generalists);
+    }
+
+    private static void place(Workload workload, Map<String, TreeSet<Workload>> specialists, TreeSet<Workload> generalists) {
+        workload.key = workload.load();
+        if (!workload.isEligible()) {
+            return;
+        }
+        if (workload.judge.getCaseTypes().isEmpty()) {
+            generalists.add(workload);
+        } else {
+            for (String type : workload.judge.getCaseTypes()) {
+                specialists.computeIfAbsent(type, t -> new TreeSet<>(BY_LOAD)).add(workload);
+            }
+        }
+    }
+
+    private static void unplace(Workload workload, Map<String, TreeSet<Workload>> specialists, TreeSet<Workload> generalists) {
+        if (!workload.isEligible()) {
+            return;
+        }
+        if (workload.judge.getCaseTypes().isEmpty()) {
+            generalists.remove(workload);
+        } else {
+            for (String type : workload.judge.getCaseTypes()) {
+                specialists.get(type).remove(workload);
+            }
+        }
+    }
+
+    private static Workload firstAvailable(TreeSet<Workload> candidates, LocalDate day) {
+        if (candidates == null) {
+            return null;
+        }
+        for (Workload workload : candidates) {
+            if (workload.judge.isAvailableOn(day)) {
+                return workload;
+            }
+        }
+        return null;
+    }
+
+    private static double weight(Case c) {
+        return CASE_WEIGHTS.getOrDefault(typeKey(c.getCaseType()), 1.0);
+    }
+
+    private static String typeKey(String caseType) {
+        return caseType == null ? "" : caseType.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * One judge's counters. {@code key} is the load the judge is filed under in the ordered
+     * sets; it is only changed while the workload is out of them.
+     */
+    private static final class Workload {
+        Judge judge;
+        boolean onRoster;
+        int openCases;
+        double caseWeight;
+        int activeHearings;
+        double key;
+
+        Workload(Judge judge, boolean onRoster) {
+            this.judge = judge;
+            this.onRoster = onRoster;
+        }
+
+        double load() {
+            double work = caseWeight + HEARING_WEIGHT * activeHearings;
+            if (judge.getCapacity() <= 0) {
+                return work > 0 ? Double.POSITIVE_INFINITY : 0; // Not sitting; any work is an overload
+            }
+            return work / judge.getCapacity();
+        }
+
+        /**
+         * A judge with no capacity stays listed but is never suggested.
+         */
+        boolean isEligible() {
+            return onRoster && judge.getCapacity() > 0;
+        }
+
+        Workload copy() {
+            Workload copy = new Workload(judge, onRoster);
+            copy.openCases = openCases;
+            copy.caseWeight = caseWeight;
+            copy.activeHearings = activeHearings;
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.astro;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records durations in nanoseconds into fixed log-linear buckets, in the manner of an HDR
+ * histogram: values below {@value #SUB_BUCKETS} ns get a bucket each, and above that every
+ * power of two is split into {@code SUB_BUCKETS / 2} equal buckets, so any recorded value is
+ * reported within 1/64 (about 1.6%) of itself. Values up to an hour are kept apart; longer ones
+ * share the last bucket.
+ * <p>
+ * Recording is a few atomic increments with no allocation or locking, so it can sit on hot
+ * paths, including the FX thread. Readers take a {@link Snapshot}; the difference of two
+ * snapshots describes the interval between them.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS; // Linear buckets below this, then per half-octave
+    private static final int HALF = SUB_BUCKETS / 2;
+    private static final long MAX_VALUE = TimeUnit.HOURS.toNanos(1);
+    private static final int BUCKETS = index(MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong(); // Sum of recorded values, for the mean
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos The duration in nanoseconds; negative values count as zero.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(index(Math.min(value, MAX_VALUE)));
+        total.addAndGet(value);
+        for (long seen = max.get(); value > seen && !max.compareAndSet(seen, value); seen = max.get()) {
+            // Retry until the larger value is in
+        }
+    }
+
+    /**
+     * Records the time elapsed since a {@link System#nanoTime()} reading.
+     *
+     * @param startNanos The reading taken when the timed work started.
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Copies the current counts.
+     *
+     * @return Everything recorded so far.
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            count += copy[i];
+        }
+        return new Snapshot(copy, count, total.get(), max.get());
+    }
+
+    private static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS; // Keeps the top SUB_BUCKET_BITS bits
+        return SUB_BUCKETS + (shift - 1) * HALF + (int) (value >>> shift) - HALF;
+    }
+
+    private static long highestValueAt(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / HALF + 1;
+        long mantissa = (index - SUB_BUCKETS) % HALF + HALF;
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    /**
+     * The counts of a histogram at one moment.
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long total;
+        private final long max; // Exact for a full snapshot, bucket-accurate for a difference
+
+        private Snapshot(long[] counts, long count, long total, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.total = total;
+            this.max = max;
+        }
+
+        public long getCount() { return count; }
+        public long getTotalNanos() { return total; }
+        public long getMaxNanos() { return max; }
+
+        public double getMeanNanos() {
+            return count == 0 ? 0 : (double) total / count;
+        }
+
+        /**
+         * Returns the value below which a fraction of the recorded values fall.
+         *
+         * @param quantile The fraction, e.g. 0.99.
+         * @return The value in nanoseconds, the top of its bucket; 0 when nothing was recorded.
+         */
+        public long valueAt(double quantile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return i == counts.length - 1 ? max : Math.min(highestValueAt(i), max); // The last bucket has no top
+                }
+            }
+            return max;
+        }
+
+        /**
+         * Returns what was recorded between an earlier snapshot of the same histogram and this one.
+         *
+         * @param earlier The earlier snapshot.
+         * @return The difference.
+         */
+        public Snapshot since(Snapshot earlier) {
+            long[] difference = new long[counts.length];
+            long top = 0;
+            for (int i = 0; i < counts.length; i++) {
+                difference[i] = counts[i] - earlier.counts[i];
+                if (difference[i] > 0) {
+                    top = highestValueAt(i);
+                }
+            }
+            return new Snapshot(difference, count - earlier.count, total - earlier.total, Math.min(top, max));
+        }
+    }
+}
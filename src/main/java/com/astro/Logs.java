@@ -1,6 +1,217 @@
-import javax.swing.*;
-import java.awt.*;
-class Logs extends JPanel
-{
+package com.astro;
 
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.VBox;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Audit log viewer.
+ * Shows one page of {@link AuditLog} entries at a time, newest first. Pages are read from the
+ * segment indexes on a background thread when the user moves to them, so the view never loads
+ * more of the log than it displays. Entries can be filtered by user and the view can jump to
+ * the end of a given day.
+ */
+public class Logs {
+
+    private static final int PAGE_SIZE = 200; // Entries per page
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
+        .withZone(ZoneId.systemDefault());
+
+    private final AuditLog auditLog;
+    private final VBox logsPane;
+    private final ObservableList<AuditLog.Entry> entries = FXCollections.observableArrayList();
+    private final Deque<Long> newerPages = new ArrayDeque<>(); // First sequence of each page passed by "Older"
+    private final ExecutorService reader; // Reads pages off the FX thread
+    private final TextField userFilter = new TextField();
+    private final Button newerButton = new Button("Newer");
+    private final Button olderButton = new Button("Older");
+    private final Label pageLabel = new Label();
+    private long pageStart = Long.MAX_VALUE; // Newest sequence considered for the current page
+    private long nextOlder = -1; // Where the next older page starts; -1 at the start of the log
+    private long pageGeneration; // Discards pages the user has already moved past
+
+    public Logs(AuditLog auditLog) {
+        this.auditLog = auditLog;
+        reader = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "audit-log-reader");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        logsPane = new VBox(20);
+        logsPane.setPadding(new Insets(20));
+        logsPane.setStyle("-fx-background-color: #282c34;"); // Main content background
+
+        Label title = new Label("Audit Log");
+        title.setStyle("-fx-text-fill: #e0e0e0; -fx-font-size: 16px; -fx-font-weight: bold;");
+
+        TableView<AuditLog.Entry> table = createTable();
+        VBox.setVgrow(table, Priority.ALWAYS);
+
+        logsPane.getChildren().addAll(createToolbar(), title, table, createPager());
+        showLatest();
+    }
+
+    private HBox createToolbar() {
+        HBox toolbar = new HBox(10);
+        toolbar.setAlignment(Pos.CENTER_LEFT);
+
+        String fieldStyle = "-fx-background-color: #4a5059; -fx-text-fill: #e0e0e0; -fx-prompt-text-fill: #b0b0b0; -fx-border-radius: 5; -fx-background-radius: 5;";
+        userFilter.setPromptText("Filter by user...");
+        userFilter.setPrefWidth(200);
+        userFilter.setStyle(fieldStyle);
+        userFilter.setOnAction(e -> showLatest());
+
+        DatePicker dayPicker = new DatePicker();
+        dayPicker.setPromptText("Jump to day");
+        dayPicker.setOnAction(e -> {
+            if (dayPicker.getValue() != null) {
+                showDay(dayPicker.getValue());
+            }
+        });
+
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+
+        Button latestButton = new Button("Latest");
+        latestButton.setStyle("-fx-background-color: #007bff; -fx-text-fill: white; -fx-font-weight: bold; -fx-border-radius: 5; -fx-background-radius: 5;");
+        latestButton.setOnAction(e -> showLatest());
+
+        toolbar.getChildren().addAll(userFilter, dayPicker, spacer, latestButton);
+        return toolbar;
+    }
+
+    private TableView<AuditLog.Entry> createTable() {
+        TableView<AuditLog.Entry> table = new TableView<>(entries);
+        table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+
+        TableColumn<AuditLog.Entry, Long> sequenceCol = new TableColumn<>("#");
+        sequenceCol.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getSequence()));
+        sequenceCol.setPrefWidth(70);
+
+        TableColumn<AuditLog.Entry, String> timeCol = new TableColumn<>("Time");
+        timeCol.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(TIME.format(cellData.getValue().getTime())));
+        timeCol.setPrefWidth(150);
+
+        TableColumn<AuditLog.Entry, String> userCol = new TableColumn<>("User");
+        userCol.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(cellData.getValue().getUser()));
+        userCol.setPrefWidth(120);
+
+        TableColumn<AuditLog.Entry, String> actionCol = new TableColumn<>("Action");
+        actionCol.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(cellData.getValue().getAction()));
+        actionCol.setPrefWidth(160);
+
+        TableColumn<AuditLog.Entry, String> detailCol = new TableColumn<>("Detail");
+        detailCol.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(cellData.getValue().getDetail()));
+        detailCol.setPrefWidth(400);
+
+        table.getColumns().addAll(sequenceCol, timeCol, userCol, actionCol, detailCol);
+        for (TableColumn<AuditLog.Entry, ?> column : table.getColumns()) {
+            column.setSortable(false); // Order is fixed by the log
+        }
+        table.setStyle("-fx-control-inner-background: #3e4450; " +
+                       "-fx-background-color: #3e4450; " +
+                       "-fx-table-cell-border-color: #282c34; " +
+                       "-fx-text-fill: #e0e0e0;");
+        table.getStylesheets().add(getClass().getResource("/styles.css").toExternalForm());
+        return table;
+    }
+
+    private HBox createPager() {
+        HBox pager = new HBox(10);
+        pager.setAlignment(Pos.CENTER_RIGHT);
+        pageLabel.setStyle("-fx-text-fill: #b0b0b0;");
+        String buttonStyle = "-fx-background-color: #6c757d; -fx-text-fill: white; -fx-border-radius: 3; -fx-background-radius: 3;";
+        newerButton.setStyle(buttonStyle);
+        olderButton.setStyle(buttonStyle);
+        newerButton.setOnAction(e -> {
+            if (!newerPages.isEmpty()) {
+                showPage(newerPages.pop());
+            }
+        });
+        olderButton.setOnAction(e -> {
+            if (nextOlder >= 0) {
+                newerPages.push(pageStart);
+                showPage(nextOlder);
+            }
+        });
+        pager.getChildren().addAll(pageLabel, newerButton, olderButton);
+        return pager;
+    }
+
+    private void showLatest() {
+        newerPages.clear();
+        showPage(Long.MAX_VALUE);
+    }
+
+    /**
+     * Jumps to the last entries recorded on a day.
+     */
+    private void showDay(LocalDate day) {
+        newerPages.clear();
+        long generation = ++pageGeneration;
+        reader.execute(() -> {
+            long last = auditLog.sequenceAt(LocalDateTime.of(day.plusDays(1), LocalTime.MIDNIGHT)
+                .atZone(ZoneId.systemDefault()).toInstant().minusMillis(1));
+            Platform.runLater(() -> {
+                if (generation == pageGeneration) {
+                    showPage(last);
+                }
+            });
+        });
+    }
+
+    /**
+     * Reads the page whose newest entry is at or before {@code from} and swaps it into the table.
+     */
+    private void showPage(long from) {
+        long generation = ++pageGeneration;
+        String user = userFilter.getText().isBlank() ? null : userFilter.getText().trim();
+        newerButton.setDisable(true);
+        olderButton.setDisable(true);
+        reader.execute(() -> {
+            List<AuditLog.Entry> page = from < 0 ? List.of() : auditLog.readBackward(from, PAGE_SIZE, user, null);
+            Platform.runLater(() -> {
+                if (generation != pageGeneration) {
+                    return;
+                }
+                pageStart = from;
+                nextOlder = page.size() < PAGE_SIZE ? -1 : page.get(page.size() - 1).getSequence() - 1;
+                entries.setAll(page);
+                pageLabel.setText(page.isEmpty() ? "No entries"
+                    : "Entries " + page.get(page.size() - 1).getSequence() + " - " + page.get(0).getSequence());
+                newerButton.setDisable(newerPages.isEmpty());
+                olderButton.setDisable(nextOlder < 0);
+            });
+        });
+    }
+
+    public VBox getView() {
+        return logsPane;
+    }
 }
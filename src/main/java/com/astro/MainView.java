@@ -7,12 +7,27 @@ import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.stage.Stage;
 import javafx.geometry.Side;
 import javafx.scene.Node;
+import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Main application class for the Judiciary Management System, providing the primary user interface.
@@ -25,6 +40,33 @@ public class MainView extends Application {
     private static final int LARGE_ICON_SIZE = 50; // Size for prominent header icons
     private static final Color PRIMARY_COLOR = Color.rgb(73, 88, 181); // Primary color for branding
 
+    private final StartupMetrics startupMetrics = new StartupMetrics(); // Time to first frame and to each tab's data
+    private final Metrics metrics = Metrics.global(); // Load times and icon failures; see FxPerformanceMonitor for the rest
+    private final LongAdder iconFailures = metrics.counter("ui.icon.failures");
+    private FxPerformanceMonitor performanceMonitor; // FX responsiveness and the F12 overlay
+    private final ExecutorService loader = BackgroundExecutors.newLoader("startup-loader"); // Opens data stores off the FX thread
+    private AccessPolicy policy; // Permissions of the signed-in user; decides which tabs are shown
+    private UserDirectory users; // Accounts whose inboxes the notification service fills
+    private CompletableFuture<NotificationService> notifications; // Closed on exit so inboxes are kept
+    private CompletableFuture<EfilingPipeline> efilings; // Workers stopped on exit
+
+    /**
+     * Applies a restore staged by the previous session and signs the user in. Runs on the
+     * launcher thread before {@link #start}, so this disk work never holds up the FX thread and
+     * is done before any data store is opened.
+     */
+    @Override
+    public void init() {
+        applyPendingRestore();
+        users = UserDirectory.openDefault();
+        Profile profile = users.get(System.getProperty("jms.user", System.getProperty("user.name")));
+        policy = AccessPolicy.signIn(profile);
+        loader.execute(() -> { // Opens the audit log off the launcher thread
+            AuditLog.global().setCurrentUser(profile.getUserName());
+            AuditLog.global().record("session.started", String.valueOf(profile.getRoles()));
+        });
+    }
+
     /**
      * Initializes and displays the primary application window.
      *
@@ -32,14 +74,19 @@ public class MainView extends Application {
      */
     @Override
     public void start(Stage primaryStage) {
+
         // Create the root layout
         BorderPane root = new BorderPane();
         root.setTop(createMenuBar());
         root.setCenter(createMainContent());
 
-        // Configure the main scene with stylesheet
-        Scene scene = new Scene(root, 1024, 768);
+        // Configure the main scene with stylesheet; the performance overlay sits above the content
+        performanceMonitor = new FxPerformanceMonitor(metrics);
+        Scene scene = new Scene(new StackPane(root, performanceMonitor.getOverlay()), 1024, 768);
         scene.getStylesheets().add(getClass().getResource("/styles.css").toExternalForm());
+        performanceMonitor.install(scene);
+        scene.getAccelerators().put(new KeyCodeCombination(KeyCode.F12), performanceMonitor::toggleOverlay);
+        performanceMonitor.setOverlayVisible(Boolean.getBoolean("jms.metrics.overlay"));
 
         // Set up the primary stage
         primaryStage.setTitle("Judiciary Management System");
@@ -47,6 +94,37 @@ public class MainView extends Application {
         primaryStage.setMinWidth(800);
         primaryStage.setMinHeight(600);
         primaryStage.show();
+        scene.addPostLayoutPulseListener(new Runnable() {
+            @Override
+            public void run() {
+                scene.removePostLayoutPulseListener(this);
+                startupMetrics.mark("first frame");
+            }
+        });
+    }
+
+    /**
+     * Records the end of the session and writes any pending audit entries before the JVM exits.
+     *
+     * @throws Exception If the audit log cannot be closed.
+     */
+    @Override
+    public void stop() throws Exception {
+        if (performanceMonitor != null) {
+            performanceMonitor.close();
+        }
+        metrics.close();
+        NotificationService notificationService = notifications == null ? null : notifications.getNow(null);
+        if (notificationService != null) {
+            notificationService.close();
+        }
+        EfilingPipeline pipeline = efilings == null ? null : efilings.getNow(null);
+        if (pipeline != null) {
+            pipeline.shutdown();
+        }
+        AuditLog auditLog = AuditLog.global();
+        auditLog.record("session.ended", "");
+        auditLog.close();
     }
 
     /**
@@ -76,6 +154,13 @@ public class MainView extends Application {
         astroLabel.setFont(Font.font("Arial", 20));
         astroLabel.setTextFill(PRIMARY_COLOR);
         ImageView loginIcon = createIconView("/lib/account.png", ICON_SIZE);
+        Profile profile = policy.getProfile();
+        StringBuilder roles = new StringBuilder();
+        for (Role role : profile.getRoles()) {
+            roles.append(roles.length() == 0 ? "" : ", ").append(role.getLabel());
+        }
+        Label userLabel = new Label(profile.getDisplayName() + (roles.length() == 0 ? "" : " - " + roles));
+        userLabel.setTextFill(PRIMARY_COLOR);
 
         // Add spacers for layout flexibility
         Region spacer1 = new Region();
@@ -84,7 +169,7 @@ public class MainView extends Application {
         HBox.setHgrow(spacer2, Priority.ALWAYS);
 
         // Assemble the menu bar
-        panel.getChildren().addAll(homeIcon, astroLabel, spacer1, titleLabel, spacer2, loginIcon);
+        panel.getChildren().addAll(homeIcon, astroLabel, spacer1, titleLabel, spacer2, userLabel, loginIcon);
         return panel;
     }
 
@@ -101,6 +186,8 @@ public class MainView extends Application {
 
     /**
      * Creates a side tabbed menu with navigation options for different system views.
+     * The data stores are opened on the background loader and each tab's view is only built the
+     * first time the tab is selected, so the window appears before any data has been read.
      *
      * @return A TabPane configured with tabs for various system components.
      */
@@ -108,19 +195,178 @@ public class MainView extends Application {
         TabPane tabPane = new TabPane();
         tabPane.setSide(Side.LEFT);
 
-        // Initialize component views
-        Dashboard dashboard = new Dashboard();
-        CaseManagement caseManagement = new CaseManagement();
-        CourtScheduling courtScheduling = new CourtScheduling();
+        // Open the data stores in parallel; the history log starts following the cases once both are open
+        CompletableFuture<CaseRepository> caseRepository = CompletableFuture.supplyAsync(timed("load.cases", () -> {
+            CaseRepository repository = FileCaseRepository.openDefault();
+            startupMetrics.mark("cases opened");
+            return repository;
+        }), loader);
+        CompletableFuture<CaseEventLog> caseHistory = CompletableFuture
+            .supplyAsync(timed("load.case-history", CaseEventLog::openDefault), loader)
+            .thenCombine(caseRepository, (history, repository) -> {
+                history.follow(repository);
+                startupMetrics.mark("case history opened");
+                return history;
+            });
+        CompletableFuture<DocumentStore> documentStore = CompletableFuture.supplyAsync(timed("load.documents", DocumentStore::openDefault), loader);
+        CompletableFuture<CaseAggregationService> caseAggregates = caseRepository.thenApply(CaseAggregationService::attach);
+        CompletableFuture<WorkflowEngine> workflow = CompletableFuture
+            .supplyAsync(timed("load.workflow", WorkflowEngine::openDefault), loader)
+            .thenCombine(caseRepository, (engine, repository) -> {
+                engine.follow(repository);
+                return engine;
+            });
+        notifications = CompletableFuture
+            .supplyAsync(timed("load.notifications", () -> {
+                NotificationService service = NotificationService.openDefault();
+                for (Profile account : users.profiles()) {
+                    service.subscribe(account);
+                }
+                service.subscribe(policy.getProfile());
+                return service;
+            }), loader)
+            .thenCombine(caseHistory, (service, history) -> {
+                service.follow(history); // Seeded filings are already in the log, so only new events notify
+                return service;
+            })
+            .thenCombine(workflow, (service, engine) -> {
+                service.follow(engine);
+                return service;
+            });
+        CompletableFuture<BackupManager> backups = CompletableFuture.allOf(caseRepository, caseHistory, documentStore)
+            .thenApplyAsync(ready -> {
+                List<BackupManager.Source> sources = new ArrayList<>();
+                for (Object store : List.of(caseRepository.join(), caseHistory.join(), documentStore.join())) {
+                    if (store instanceof BackupManager.Source) {
+                        sources.add((BackupManager.Source) store);
+                    }
+                }
+                BackupManager manager = BackupManager.openDefault(sources);
+                manager.scheduleEvery(Settings.automaticBackupInterval()); // Runs whether or not Settings is opened
+                return manager;
+            }, loader);
+        efilings = caseRepository.thenCombineAsync(documentStore, EfilingPipeline::new, loader);
+        CompletableFuture<JudgeRoster> roster = CompletableFuture.supplyAsync(JudgeRoster::openDefault, loader);
+        CompletableFuture<JudgeWorkloadIndex> judgeWorkload = caseRepository.thenCombineAsync(roster,
+            (repository, judges) -> timed("load.judge-workload", () -> JudgeWorkloadIndex.build(repository, judges)).get(), loader);
 
-        // Add tabs with icons and content
-        addTab(tabPane, "Dashboard", "/lib/dashboard.png", dashboard.getView());
-        addTab(tabPane, "Manage Cases", "/lib/registration.png", caseManagement.getView());
-        addTab(tabPane, "Court Schedules", "/lib/workload.png", courtScheduling.getView());
+        // Add tabs with icons; content is built on first selection
+        addLazyTab(tabPane, "Dashboard", "/lib/dashboard.png", CompletableFuture.allOf(caseAggregates, caseHistory),
+            ready -> new Dashboard(caseAggregates.join(),
+                new Reports(new ReportEngine(caseRepository.join(), caseHistory.join())), judgeWorkload, notifications).getView());
+        if (policy.can(Permission.VIEW_CASES)) {
+            addLazyTab(tabPane, "Manage Cases", "/lib/registration.png", CompletableFuture.allOf(caseHistory, documentStore),
+                ready -> new CaseManagement(caseRepository.join(), caseHistory.join(), documentStore.join()).getView());
+        }
+        if (policy.canOnSome(Permission.VIEW_HEARINGS)) {
+            addLazyTab(tabPane, "Court Schedules", "/lib/workload.png", caseHistory, history -> {
+                CaseRepository repository = caseRepository.join();
+                CourtScheduling courtScheduling = new CourtScheduling();
+                courtScheduling.setEventLog(history);
+                courtScheduling.setBacklogSupplier(() ->
+                    HearingAutoScheduler.backlogFrom(repository, "Filed", "Status Conference"));
+                judgeWorkload.thenAccept(index -> Platform.runLater(() -> courtScheduling.setJudgeWorkload(index)));
+                roster.thenAccept(judges -> Platform.runLater(() -> courtScheduling.setRoster(judges)));
+                return courtScheduling.getView();
+            });
+        }
+        if (policy.can(Permission.SUBMIT_FILINGS) || policy.can(Permission.VALIDATE_FILINGS)) {
+            addLazyTab(tabPane, "E-Filings", "/lib/caseManagement.png", efilings, pipeline -> new Efillings(pipeline).getView());
+        }
+        if (policy.can(Permission.VIEW_JUDGE_AVAILABILITY)) {
+            addLazyTab(tabPane, "Staff Allocation", "/lib/judgement.png", judgeWorkload,
+                index -> new StaffAllocation(index).getView());
+        }
+        if (policy.can(Permission.VIEW_TASK_QUEUE)) {
+            addLazyTab(tabPane, "Tasks", "/lib/pendingCase.png", workflow, engine -> new Tasks(engine).getView());
+        }
+        if (policy.can(Permission.VIEW_AUDIT_LOGS)) {
+            addLazyTab(tabPane, "Logs", "/lib/logs.png", CompletableFuture.supplyAsync(AuditLog::global, loader),
+                auditLog -> new Logs(auditLog).getView());
+        }
+        if (policy.can(Permission.MANAGE_BACKUPS)) {
+            addLazyTab(tabPane, "Settings", "/lib/history.png", backups, manager -> new Settings(manager).getView());
+        }
 
         return tabPane;
     }
 
+    /**
+     * Wraps a store opener so that its duration is recorded in the named histogram.
+     *
+     * @param name The histogram name, e.g. "load.cases".
+     * @param open Opens the store.
+     * @param <T>  The store type.
+     * @return The timed opener.
+     */
+    private <T> Supplier<T> timed(String name, Supplier<T> open) {
+        LatencyHistogram histogram = metrics.histogram(name);
+        return () -> {
+            long started = System.nanoTime();
+            try {
+                return open.get();
+            } finally {
+                histogram.recordSince(started);
+            }
+        };
+    }
+
+    /**
+     * Swaps in stores restored from a backup in Settings, before any store is opened.
+     */
+    private void applyPendingRestore() {
+        try {
+            String restored = BackupManager.applyPendingRestore(DataDirectory.root());
+            if (restored != null) {
+                loader.execute(() -> AuditLog.global().record("backup.restored", restored));
+            }
+        } catch (IOException e) {
+            loader.execute(() -> AuditLog.global().record("backup.restore.failed", String.valueOf(e)));
+        }
+    }
+
+    /**
+     * Adds a tab that shows a progress indicator until it is first selected and its data has
+     * loaded, then builds its view on the FX thread.
+     *
+     * @param pane The TabPane to which the tab will be added.
+     * @param tooltip The tooltip text for the tab.
+     * @param iconPath The classpath path to the tab's icon image.
+     * @param data The data the view needs, loaded in the background.
+     * @param view Builds the view from the loaded data.
+     * @param <T> The type of data the view needs.
+     */
+    private <T> void addLazyTab(TabPane pane, String tooltip, String iconPath,
+                                CompletableFuture<T> data, Function<T, Node> view) {
+        Tab tab = addTab(pane, tooltip, iconPath, new StackPane(new ProgressIndicator()));
+        AtomicBoolean requested = new AtomicBoolean();
+        Runnable build = () -> {
+            if (requested.getAndSet(true)) {
+                return;
+            }
+            data.whenComplete((value, error) -> Platform.runLater(() -> {
+                if (error != null) {
+                    tab.setContent(new Label("Could not load " + tooltip + ": " + error.getMessage()));
+                    return;
+                }
+                tab.setContent(view.apply(value));
+                startupMetrics.mark(tooltip + " ready");
+            }));
+        };
+        tab.selectedProperty().addListener(new ChangeListener<Boolean>() {
+            @Override
+            public void changed(ObservableValue<? extends Boolean> observable, Boolean wasSelected, Boolean selected) {
+                if (selected) {
+                    tab.selectedProperty().removeListener(this);
+                    build.run();
+                }
+            }
+        });
+        if (tab.isSelected()) {
+            build.run(); // The first tab is selected as soon as it is added
+        }
+    }
+
     /**
      * Adds a tab to the specified TabPane with an icon, tooltip, and content.
      *
@@ -128,8 +374,9 @@ public class MainView extends Application {
      * @param tooltip The tooltip text for the tab.
      * @param iconPath The classpath path to the tab's icon image.
      * @param contentShow The content node to display when the tab is selected.
+     * @return The added tab.
      */
-    private void addTab(TabPane pane, String tooltip, String iconPath, Node contentShow) {
+    private Tab addTab(TabPane pane, String tooltip, String iconPath, Node contentShow) {
         Tab tab = new Tab();
         tab.setTooltip(new Tooltip(tooltip));
 
@@ -146,6 +393,7 @@ public class MainView extends Application {
 
         // Add the tab to the TabPane
         pane.getTabs().add(tab);
+        return tab;
     }
 
     /**
@@ -159,13 +407,20 @@ public class MainView extends Application {
         try {
             java.net.URL imageUrl = getClass().getResource(path);
             if (imageUrl == null) {
-                System.err.println("Error loading icon: " + path + " - URL is null.");
+                iconFailures.increment();
+                AuditLog.global().record("system", "ui.icon.missing", path);
                 return createFallbackIconView(size);
             }
             Image img = new Image(imageUrl.toExternalForm(), size, size, true, true);
+            if (img.isError()) { // Loaded synchronously, so a bad image is known here
+                iconFailures.increment();
+                AuditLog.global().record("system", "ui.icon.failed", path + ": " + img.getException());
+                return createFallbackIconView(size);
+            }
             return new ImageView(img);
         } catch (Exception e) {
-            System.err.println("Error loading icon: " + path + " - Exception: " + e.getMessage());
+            iconFailures.increment();
+            AuditLog.global().record("system", "ui.icon.failed", path + ": " + e.getMessage());
             return createFallbackIconView(size);
         }
     }
@@ -0,0 +1,318 @@
+package com.astro;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process counters, latency histograms and gauges, named like {@code cases.search}.
+ * Instruments are created on first use and live as long as the registry; callers keep the
+ * returned instrument in a field, so recording is a counter increment or a
+ * {@link LatencyHistogram#record} with no lookup.
+ * <p>
+ * The global registry is published over JMX as {@code com.astro:type=Metrics}, with a counter or
+ * gauge as one attribute and a histogram as its count and 50th/99th percentile and maximum in
+ * milliseconds. When {@code jms.metrics.port} is set it is also served in the Prometheus text
+ * format at {@code http://localhost:<port>/metrics}, on the loopback interface only.
+ */
+public class Metrics implements Closeable {
+
+    public static final String OBJECT_NAME = "com.astro:type=Metrics";
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999}; // Reported by the scrape endpoint
+    private static volatile Metrics global;
+
+    private final Map<String, LongAdder> counters = new ConcurrentSkipListMap<>();
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentSkipListMap<>();
+    private final Map<String, LongSupplier> gauges = new ConcurrentSkipListMap<>();
+    private HttpServer server;
+    private ExecutorService handler; // Serves scrapes one at a time
+
+    /**
+     * Returns the registry shared by the application, publishing it over JMX and, when
+     * {@code jms.metrics.port} is set, the scrape endpoint the first time it is asked for.
+     *
+     * @return The global registry.
+     */
+    public static Metrics global() {
+        Metrics metrics = global;
+        if (metrics == null) {
+            synchronized (Metrics.class) {
+                metrics = global;
+                if (metrics == null) {
+                    metrics = new Metrics();
+                    metrics.registerJvmGauges();
+                    try {
+                        ManagementFactory.getPlatformMBeanServer().registerMBean(metrics.new Bean(), new ObjectName(OBJECT_NAME));
+                    } catch (JMException e) {
+                        metrics.counter("metrics.jmx.failures").increment(); // E.g. registered by another class loader
+                    }
+                    Integer port = Integer.getInteger("jms.metrics.port");
+                    if (port != null) {
+                        try {
+                            metrics.start(port);
+                        } catch (IOException e) {
+                            metrics.counter("metrics.endpoint.failures").increment();
+                        }
+                    }
+                    global = metrics;
+                }
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * Returns a counter, creating it at zero.
+     *
+     * @param name The counter name.
+     * @return The counter.
+     */
+    public LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, key -> new LongAdder());
+    }
+
+    /**
+     * Returns a latency histogram, creating it empty.
+     *
+     * @param name The histogram name.
+     * @return The histogram.
+     */
+    public LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+
+    /**
+     * Registers a value read whenever the metrics are, replacing any gauge of the same name.
+     *
+     * @param name  The gauge name.
+     * @param value Reads the current value; must be cheap and thread-safe.
+     */
+    public void gauge(String name, LongSupplier value) {
+        gauges.put(name, value);
+    }
+
+    public Map<String, LongAdder> getCounters() { return counters; }
+    public Map<String, LatencyHistogram> getHistograms() { return histograms; }
+    public Map<String, LongSupplier> getGauges() { return gauges; }
+
+    private void registerJvmGauges() {
+        gauge("jvm.heap.used.bytes", () -> ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+        List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        gauge("jvm.gc.collections", () -> {
+            long total = 0;
+            for (GarbageCollectorMXBean collector : collectors) {
+                total += Math.max(0, collector.getCollectionCount());
+            }
+            return total;
+        });
+        gauge("jvm.gc.time.ms", () -> {
+            long total = 0;
+            for (GarbageCollectorMXBean collector : collectors) {
+                total += Math.max(0, collector.getCollectionTime());
+            }
+            return total;
+        });
+    }
+
+    // --- Scrape endpoint ---
+
+    /**
+     * Serves the metrics at {@code /metrics} on the loopback interface.
+     *
+     * @param port The port to listen on, or 0 for any free port.
+     * @throws IOException If the port cannot be bound.
+     */
+    public synchronized void start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 16);
+        handler = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(handler);
+        server.createContext("/metrics", this::scrape);
+        server.start();
+    }
+
+    /**
+     * Returns the port the scrape endpoint listens on.
+     *
+     * @return The bound port, or -1 if the endpoint is not running.
+     */
+    public synchronized int getPort() {
+        return server == null ? -1 : server.getAddress().getPort();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (server != null) {
+            server.stop(0);
+            handler.shutdownNow();
+            server = null;
+        }
+    }
+
+    private void scrape(HttpExchange exchange) throws IOException {
+        try {
+            byte[] body = render().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Renders every metric in the Prometheus text format. Names get a {@code jms_} prefix and
+     * underscores for dots and dashes; histograms are summaries in seconds.
+     *
+     * @return The exposition text.
+     */
+    public String render() {
+        StringBuilder out = new StringBuilder(4096);
+        for (Map.Entry<String, LongAdder> counter : counters.entrySet()) {
+            String name = exportName(counter.getKey()) + "_total";
+            out.append("# TYPE ").append(name).append(" counter\n").append(name).append(' ').append(counter.getValue().sum()).append('\n');
+        }
+        for (Map.Entry<String, LongSupplier> gauge : gauges.entrySet()) {
+            String name = exportName(gauge.getKey());
+            out.append("# TYPE ").append(name).append(" gauge\n").append(name).append(' ').append(gauge.getValue().getAsLong()).append('\n');
+        }
+        for (Map.Entry<String, LatencyHistogram> histogram : histograms.entrySet()) {
+            String name = exportName(histogram.getKey()) + "_seconds";
+            LatencyHistogram.Snapshot snapshot = histogram.getValue().snapshot();
+            out.append("# TYPE ").append(name).append(" summary\n");
+            for (double quantile : QUANTILES) {
+                out.append(name).append("{quantile=\"").append(quantile).append("\"} ").append(seconds(snapshot.valueAt(quantile))).append('\n');
+            }
+            out.append(name).append("_sum ").append(seconds(snapshot.getTotalNanos())).append('\n');
+            out.append(name).append("_count ").append(snapshot.getCount()).append('\n');
+            out.append("# TYPE ").append(name).append("_max gauge\n");
+            out.append(name).append("_max ").append(seconds(snapshot.getMaxNanos())).append('\n');
+        }
+        return out.toString();
+    }
+
+    private static String exportName(String name) {
+        return "jms_" + name.toLowerCase(Locale.ROOT).replace('.', '_').replace('-', '_');
+    }
+
+    private static String seconds(long nanos) {
+        return Double.toString(nanos / 1e9);
+    }
+
+    // --- JMX ---
+
+    /**
+     * Publishes the registry's current instruments as read-only attributes.
+     */
+    private final class Bean implements DynamicMBean {
+
+        @Override
+        public Object getAttribute(String attribute) throws AttributeNotFoundException {
+            LongAdder counter = counters.get(attribute);
+            if (counter != null) {
+                return counter.sum();
+            }
+            LongSupplier gauge = gauges.get(attribute);
+            if (gauge != null) {
+                return gauge.getAsLong();
+            }
+            int dot = attribute.lastIndexOf('.');
+            LatencyHistogram histogram = dot < 0 ? null : histograms.get(attribute.substring(0, dot));
+            if (histogram != null) {
+                LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+                switch (attribute.substring(dot + 1)) {
+                    case "count":
+                        return snapshot.getCount();
+                    case "p50Millis":
+                        return snapshot.valueAt(0.5) / 1e6;
+                    case "p99Millis":
+                        return snapshot.valueAt(0.99) / 1e6;
+                    case "maxMillis":
+                        return snapshot.getMaxNanos() / 1e6;
+                    default:
+                        break;
+                }
+            }
+            throw new AttributeNotFoundException(attribute);
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] attributes) {
+            AttributeList values = new AttributeList();
+            for (String attribute : attributes) {
+                try {
+                    values.add(new Attribute(attribute, getAttribute(attribute)));
+                } catch (AttributeNotFoundException e) {
+                    // Left out, as the interface allows
+                }
+            }
+            return values;
+        }
+
+        @Override
+        public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+            throw new AttributeNotFoundException(attribute.getName() + " is read-only");
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList attributes) {
+            return new AttributeList();
+        }
+
+        @Override
+        public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+            throw new ReflectionException(new NoSuchMethodException(actionName));
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            List<MBeanAttributeInfo> attributes = new ArrayList<>();
+            for (String name : counters.keySet()) {
+                attributes.add(new MBeanAttributeInfo(name, "long", "Counter", true, false, false));
+            }
+            for (String name : gauges.keySet()) {
+                attributes.add(new MBeanAttributeInfo(name, "long", "Gauge", true, false, false));
+            }
+            for (String name : histograms.keySet()) {
+                attributes.add(new MBeanAttributeInfo(name + ".count", "long", "Recorded durations", true, false, false));
+                for (String statistic : new String[] {"p50Millis", "p99Millis", "maxMillis"}) {
+                    attributes.add(new MBeanAttributeInfo(name + "." + statistic, "double", "Latency", true, false, false));
+                }
+            }
+            return new MBeanInfo(Metrics.class.getName(), "Judiciary Management System metrics",
+                attributes.toArray(new MBeanAttributeInfo[0]), null, new MBeanOperationInfo[0], null);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.astro;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Brings a database up to the current schema by applying the numbered scripts in
+ * {@code /db/migration} that it has not seen yet, in order.
+ * Applied versions are recorded in {@code schema_version} with a checksum of the script, and a
+ * database whose recorded checksum no longer matches its script is refused, since it was built
+ * from a script that has since been edited. A script whose first line is
+ * {@code -- dialect: <product>} runs only on that database product and is recorded as skipped
+ * elsewhere. On MySQL a named lock keeps two instances from migrating at once; there each DDL
+ * statement commits on its own, so a failed script is left partly applied and must be repaired
+ * by hand before the runner is started again.
+ */
+public class MigrationRunner {
+
+    static final String[] MIGRATIONS = { // In order; never edit or reorder a released script
+        "V1__baseline.sql",
+        "V2__query_indexes.sql",
+        "V3__time_partitions.sql",
+        "V4__update_cascade_triggers.sql",
+    };
+    private static final String DIRECTORY = "/db/migration/";
+    private static final String DIALECT_PREFIX = "-- dialect:";
+    private static final String LOCK_NAME = "jms.migrate";
+    private static final int LOCK_TIMEOUT_SECONDS = 60;
+
+    private static final String CREATE_HISTORY = "CREATE TABLE IF NOT EXISTS schema_version ("
+        + "version INT PRIMARY KEY, description VARCHAR(200) NOT NULL, checksum BIGINT NOT NULL, "
+        + "skipped BOOLEAN NOT NULL, applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)";
+    private static final String SELECT_HISTORY = "SELECT version, checksum FROM schema_version";
+    private static final String INSERT_HISTORY = "INSERT INTO schema_version (version, description, checksum, skipped) "
+        + "VALUES (?, ?, ?, ?)";
+
+    /**
+     * One script.
+     */
+    static final class Migration {
+        final int version;
+        final String description;
+        final String dialect; // Database product it is limited to, or null
+        final List<String> statements;
+        final long checksum;
+
+        Migration(String fileName, String script) {
+            int separator = fileName.indexOf("__");
+            this.version = Integer.parseInt(fileName.substring(1, separator));
+            this.description = fileName.substring(separator + 2, fileName.lastIndexOf('.')).replace('_', ' ');
+            String firstLine = script.lines().findFirst().orElse("");
+            this.dialect = firstLine.startsWith(DIALECT_PREFIX) ? firstLine.substring(DIALECT_PREFIX.length()).trim() : null;
+            this.statements = split(script);
+            CRC32 crc = new CRC32();
+            crc.update(script.getBytes(StandardCharsets.UTF_8));
+            this.checksum = crc.getValue();
+        }
+    }
+
+    private final Database database;
+
+    public MigrationRunner(Database database) {
+        this.database = database;
+    }
+
+    /**
+     * Applies every migration the database has not recorded.
+     *
+     * @return The versions applied or skipped by this call, in order.
+     * @throws SQLException If a script fails or the recorded history does not match the scripts.
+     */
+    public List<Integer> migrate() throws SQLException {
+        List<Migration> migrations = load();
+        try (Database.Session session = database.lease()) {
+            Connection connection = session.connection();
+            String product = connection.getMetaData().getDatabaseProductName();
+            boolean mysql = product.equalsIgnoreCase("MySQL");
+            if (mysql) {
+                lock(session);
+            }
+            try {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(CREATE_HISTORY);
+                }
+                session.commit();
+                Map<Integer, Long> applied = history(session);
+                List<Integer> done = new ArrayList<>();
+                for (Migration migration : migrations) {
+                    Long checksum = applied.get(migration.version);
+                    if (checksum != null) {
+                        if (checksum != migration.checksum) {
+                            throw new SQLException("Migration V" + migration.version + " (" + migration.description
+                                + ") was changed after it was applied");
+                        }
+                        continue;
+                    }
+                    boolean skip = migration.dialect != null && !migration.dialect.equalsIgnoreCase(product);
+                    if (!skip) {
+                        apply(connection, migration);
+                    }
+                    PreparedStatement record = session.prepare(INSERT_HISTORY);
+                    record.setInt(1, migration.version);
+                    record.setString(2, migration.description);
+                    record.setLong(3, migration.checksum);
+                    record.setBoolean(4, skip);
+                    record.executeUpdate();
+                    session.commit();
+                    done.add(migration.version);
+                }
+                return done;
+            } finally {
+                if (mysql) {
+                    unlock(session);
+                }
+            }
+        }
+    }
+
+    private static void apply(Connection connection, Migration migration) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : migration.statements) {
+                try {
+                    statement.execute(sql);
+                } catch (SQLException e) {
+                    connection.rollback();
+                    throw new SQLException("Migration V" + migration.version + " failed at: " + sql, e);
+                }
+            }
+        }
+    }
+
+    private static Map<Integer, Long> history(Database.Session session) throws SQLException {
+        Map<Integer, Long> applied = new HashMap<>();
+        try (ResultSet rows = session.prepare(SELECT_HISTORY).executeQuery()) {
+            while (rows.next()) {
+                applied.put(rows.getInt(1), rows.getLong(2));
+            }
+        }
+        return applied;
+    }
+
+    private static void lock(Database.Session session) throws SQLException {
+        PreparedStatement statement = session.prepare("SELECT GET_LOCK(?, ?)");
+        statement.setString(1, LOCK_NAME);
+        statement.setInt(2, LOCK_TIMEOUT_SECONDS);
+        try (ResultSet rows = statement.executeQuery()) {
+            if (!rows.next() || rows.getInt(1) != 1) {
+                throw new SQLException("Another instance is migrating the database");
+            }
+        }
+    }
+
+    private static void unlock(Database.Session session) throws SQLException {
+        PreparedStatement statement = session.prepare("SELECT RELEASE_LOCK(?)");
+        statement.setString(1, LOCK_NAME);
+        statement.executeQuery().close();
+    }
+
+    static List<Migration> load() throws SQLException {
+        List<Migration> migrations = new ArrayList<>();
+        for (String fileName : MIGRATIONS) {
+            try (InputStream in = MigrationRunner.class.getResourceAsStream(DIRECTORY + fileName)) {
+                if (in == null) {
+                    throw new SQLException("Missing migration script " + fileName);
+                }
+                migrations.add(new Migration(fileName, new String(in.readAllBytes(), StandardCharsets.UTF_8)));
+            } catch (IOException e) {
+                throw new SQLException("Cannot read migration script " + fileName, e);
+            }
+        }
+        return migrations;
+    }
+
+    /**
+     * Splits a script into statements. Comments run from {@code --} outside a string literal to
+     * the end of the line, and a statement ends at a semicolon that ends a line.
+     *
+     * @param script The script.
+     * @return The statements, without their semicolons.
+     */
+    static List<String> split(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : script.split("\n")) {
+            String code = stripComment(line).strip();
+            if (code.isEmpty()) {
+                continue;
+            }
+            if (current.length() > 0) {
+                current.append('\n');
+            }
+            if (code.endsWith(";")) {
+                current.append(code, 0, code.length() - 1);
+                statements.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(code);
+            }
+        }
+        if (current.length() > 0) {
+            statements.add(current.toString());
+        }
+        return statements;
+    }
+
+    private static String stripComment(String line) {
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (!quoted && c == '-' && i + 1 < line.length() && line.charAt(i + 1) == '-') {
+                return line.substring(0, i);
+            }
+        }
+        return line;
+    }
+}
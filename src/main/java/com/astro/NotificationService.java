@@ -0,0 +1,640 @@
+package com.astro;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publish/subscribe notifications with one inbox per user.
+ * Users subscribe to topics (their roles, and the name they appear under on cases and
+ * hearings); a notice published to a set of topics is added to the inbox of every subscriber.
+ * Inboxes are spread over lock-striped shards, so publishers only contend when they reach users
+ * in the same shard, and nothing is written to disk while a shard lock is held.
+ * Each inbox keeps its latest {@link #IN_MEMORY} notices; older ones are appended to the user's
+ * file by the delivery thread. The unread count is a counter, so reading it is O(1). An inbox is
+ * loaded from its file the first time it is used, so the latest notices survive a restart, and the
+ * id of the newest notice read is kept beside the file so the unread count can be rebuilt.
+ * Listeners are not called per notice: the delivery thread wakes every
+ * {@link #DELIVERY_MILLIS} ms and hands each changed inbox to its listeners once, so a burst of
+ * hundreds of notices reaches the UI as a single update.
+ */
+public class NotificationService implements Closeable {
+
+    static final int SHARDS = 16; // Power of two
+    static final int IN_MEMORY = 100; // Latest notices kept per inbox
+    static final long DELIVERY_MILLIS = 250;
+    private static final int DELIVERED_LATEST = 20; // Notices handed to listeners per delivery
+    private static final long MAX_SPILL_BYTES = 4L << 20; // Spill file size that triggers trimming
+    private static final int KEEP_ON_TRIM = 5_000; // Notices kept when a spill file is trimmed
+    private static final int MAX_EVICTED = KEEP_ON_TRIM; // Older unspilled notices would not survive a trim either
+
+    /**
+     * What a notice is about.
+     */
+    public enum Kind {
+        CASE, HEARING, FILING, TASK
+    }
+
+    /**
+     * One notice. Shared by every inbox it is delivered to.
+     */
+    public static final class Notification {
+        private final long id;
+        private final Instant time;
+        private final Kind kind;
+        private final String caseNumber;
+        private final String message;
+
+        Notification(long id, Instant time, Kind kind, String caseNumber, String message) {
+            this.id = id;
+            this.time = time;
+            this.kind = kind;
+            this.caseNumber = caseNumber;
+            this.message = message;
+        }
+
+        public long getId() { return id; }
+        public Instant getTime() { return time; }
+        public Kind getKind() { return kind; }
+        public String getCaseNumber() { return caseNumber; }
+        public String getMessage() { return message; }
+
+        @Override
+        public String toString() {
+            return message;
+        }
+    }
+
+    /**
+     * The state of an inbox handed to its listeners.
+     */
+    public static final class Delivery {
+        private final List<Notification> latest;
+        private final long unread;
+        private final int received;
+
+        Delivery(List<Notification> latest, long unread, int received) {
+            this.latest = latest;
+            this.unread = unread;
+            this.received = received;
+        }
+
+        /**
+         * Returns the newest notices.
+         *
+         * @return Up to {@link #DELIVERED_LATEST} notices, newest first.
+         */
+        public List<Notification> getLatest() { return latest; }
+        public long getUnread() { return unread; }
+
+        /**
+         * Returns how many notices arrived since the previous delivery.
+         *
+         * @return The count, 0 if only the unread count changed.
+         */
+        public int getReceived() { return received; }
+    }
+
+    /**
+     * Receives the coalesced changes of one inbox.
+     */
+    public interface Listener {
+        /**
+         * Called on the delivery thread at most once per delivery interval.
+         *
+         * @param delivery The inbox's latest notices and unread count.
+         */
+        void delivered(Delivery delivery);
+    }
+
+    private static final class Inbox {
+        private final ArrayDeque<Notification> recent = new ArrayDeque<>(); // Oldest first
+        private final ArrayDeque<Notification> evicted = new ArrayDeque<>(); // Waiting to be spilled, oldest first
+        private final Object fileLock = new Object(); // Held while spilling or reading the files
+        private final Path file;
+        private final Path readMarker; // Holds readUpTo
+        private int spilled; // Oldest notices of recent that were loaded from the file
+        private long unread;
+        private long readUpTo; // Id of the newest notice marked read
+        private boolean markerChanged; // readUpTo is not yet written
+        private int received; // Since the last delivery
+
+        Inbox(Path file, Path readMarker) {
+            this.file = file;
+            this.readMarker = readMarker;
+        }
+    }
+
+    private final Path directory;
+    private final Map<String, Inbox>[] shards; // Each guarded by its own monitor
+    private final Map<String, Set<String>> subscribers = new ConcurrentHashMap<>(); // Topic -> user names
+    private final Map<String, List<Listener>> listeners = new ConcurrentHashMap<>(); // User name -> listeners
+    private final Set<String> changed = ConcurrentHashMap.newKeySet(); // Users with undelivered changes
+    private final AtomicLong nextId = new AtomicLong(System.currentTimeMillis() << 10); // Ordered across restarts
+    private final ScheduledExecutorService delivery;
+
+    /**
+     * Opens the service, keeping spilled notices in the given directory.
+     *
+     * @param directory The directory for the users' spill files.
+     * @throws IOException If the directory cannot be created.
+     */
+    public NotificationService(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        @SuppressWarnings({"unchecked", "rawtypes"}) // Arrays of a generic type can only be created raw
+        Map<String, Inbox>[] created = (Map<String, Inbox>[]) new Map[SHARDS];
+        shards = created;
+        for (int i = 0; i < SHARDS; i++) {
+            shards[i] = new HashMap<>();
+        }
+        delivery = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-delivery");
+            thread.setDaemon(true);
+            return thread;
+        });
+        delivery.scheduleWithFixedDelay(this::deliver, DELIVERY_MILLIS, DELIVERY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens the service in the default data directory.
+     *
+     * @return The default service.
+     */
+    public static NotificationService openDefault() {
+        try {
+            return new NotificationService(DataDirectory.resolve("notifications"));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open notifications", e);
+        }
+    }
+
+    /**
+     * Returns the topic of everyone holding a role.
+     *
+     * @param role The role.
+     * @return The topic.
+     */
+    public static String roleTopic(Role role) {
+        return "role:" + role.name();
+    }
+
+    /**
+     * Returns the topic of whoever appears under a name on cases and hearings.
+     *
+     * @param name The name, e.g. a judge's.
+     * @return The topic.
+     */
+    public static String ownerTopic(String name) {
+        return "owner:" + name;
+    }
+
+    /**
+     * Subscribes a user to the topics of their roles and of their own cases and hearings.
+     *
+     * @param profile The user.
+     */
+    public void subscribe(Profile profile) {
+        for (Role role : profile.getRoles()) {
+            subscribe(profile.getUserName(), roleTopic(role));
+        }
+        subscribe(profile.getUserName(), ownerTopic(profile.getDisplayName()));
+    }
+
+    /**
+     * Subscribes a user to a topic.
+     *
+     * @param userName The user.
+     * @param topic    The topic.
+     */
+    public void subscribe(String userName, String topic) {
+        subscribers.computeIfAbsent(topic, t -> new CopyOnWriteArraySet<>()).add(userName);
+    }
+
+    /**
+     * Registers a listener for a user's inbox. It receives the current state straight away.
+     *
+     * @param userName The user.
+     * @param listener The listener.
+     */
+    public void addListener(String userName, Listener listener) {
+        listeners.computeIfAbsent(userName, u -> new CopyOnWriteArrayList<>()).add(listener);
+        changed.add(userName);
+    }
+
+    /**
+     * Publishes a notice to every subscriber of any of the topics. Each subscriber receives it
+     * once, however many of the topics they follow.
+     *
+     * @param kind       What the notice is about.
+     * @param caseNumber The case it concerns, or null.
+     * @param message    The text shown to users.
+     * @param topics     The topics to publish to.
+     * @return The number of inboxes it was added to.
+     */
+    public int publish(Kind kind, String caseNumber, String message, Collection<String> topics) {
+        Set<String> recipients = new LinkedHashSet<>();
+        for (String topic : topics) {
+            Set<String> users = subscribers.get(topic);
+            if (users != null) {
+                recipients.addAll(users);
+            }
+        }
+        if (recipients.isEmpty()) {
+            return 0;
+        }
+        Notification notification = new Notification(nextId.incrementAndGet(), Instant.now(), kind, caseNumber, message);
+        for (String user : recipients) {
+            Map<String, Inbox> shard = shardOf(user);
+            Inbox inbox = inboxOf(user);
+            synchronized (shard) {
+                inbox.recent.addLast(notification);
+                if (inbox.recent.size() > IN_MEMORY) {
+                    Notification oldest = inbox.recent.removeFirst();
+                    if (inbox.spilled > 0) {
+                        inbox.spilled--; // Already in the file
+                    } else {
+                        if (inbox.evicted.size() == MAX_EVICTED) {
+                            inbox.evicted.removeFirst(); // The delivery thread is not keeping up with spilling
+                        }
+                        inbox.evicted.addLast(oldest);
+                    }
+                }
+                inbox.unread++;
+                inbox.received++;
+            }
+            changed.add(user);
+        }
+        return recipients.size();
+    }
+
+    /**
+     * Publishes a notice for every case event appended to a log from now on. A case's events go to
+     * its judge; until it has one they go to the clerks, who assign it.
+     *
+     * @param eventLog The case history log.
+     */
+    public void follow(CaseEventLog eventLog) {
+        List<String> clerks = Collections.singletonList(roleTopic(Role.CLERK));
+        eventLog.addEventListener(event -> {
+            Case current = eventLog.current(event.getCaseNumber());
+            List<String> topics = current == null || current.isUnassigned()
+                ? clerks : Collections.singletonList(ownerTopic(current.getAssignedJudge()));
+            switch (event.getType()) {
+                case FILED:
+                    publish(Kind.FILING, event.getCaseNumber(), "New filing: " + event.getFiled().getCaseTitle()
+                        + " (Case #" + event.getCaseNumber() + ")", topics);
+                    break;
+                case HEARING_SCHEDULED:
+                case ADJOURNED:
+                    publish(Kind.HEARING, event.getCaseNumber(), "Case #" + event.getCaseNumber() + ": " + event, topics);
+                    break;
+                default:
+                    publish(Kind.CASE, event.getCaseNumber(), "Case #" + event.getCaseNumber() + ": " + event, topics);
+                    break;
+            }
+        });
+    }
+
+    /**
+     * Publishes the task queues' reminders and overdue alerts to the role each task is queued for.
+     *
+     * @param workflow The task queues.
+     */
+    public void follow(WorkflowEngine workflow) {
+        workflow.addListener(alerts -> {
+            for (WorkflowEngine.Alert alert : alerts) {
+                String queue = alert.getTask().getQueueRole();
+                List<String> topics = new ArrayList<>(1);
+                for (Role role : Role.values()) {
+                    if (role.getLabel().equalsIgnoreCase(queue)) {
+                        topics.add(roleTopic(role));
+                    }
+                }
+                publish(Kind.TASK, alert.getTask().getCaseNumber(), alert.getMessage(), topics);
+            }
+        });
+    }
+
+    /**
+     * Returns a user's unread count.
+     *
+     * @param userName The user.
+     * @return The number of notices since the inbox was last read.
+     */
+    public long unreadCount(String userName) {
+        Inbox inbox = inboxOf(userName);
+        synchronized (shardOf(userName)) {
+            return inbox.unread;
+        }
+    }
+
+    /**
+     * Marks every notice in a user's inbox as read.
+     *
+     * @param userName The user.
+     */
+    public void markAllRead(String userName) {
+        Inbox inbox = inboxOf(userName);
+        synchronized (shardOf(userName)) {
+            if (inbox.unread == 0) {
+                return;
+            }
+            inbox.unread = 0;
+            inbox.readUpTo = inbox.recent.getLast().id; // Written by the delivery thread
+            inbox.markerChanged = true;
+        }
+        changed.add(userName);
+    }
+
+    /**
+     * Lists a user's notices, including those spilled to disk.
+     *
+     * @param userName The user.
+     * @param limit    The maximum number of notices.
+     * @return The newest notices, newest first.
+     * @throws IOException If the spill file cannot be read.
+     */
+    public List<Notification> history(String userName, int limit) throws IOException {
+        Map<String, Inbox> shard = shardOf(userName);
+        Inbox inbox = inboxOf(userName);
+        ArrayDeque<Notification> newest = new ArrayDeque<>(); // Newest first
+        synchronized (inbox.fileLock) { // No spill can move notices between the file and memory meanwhile
+            List<Notification> inMemory;
+            synchronized (shard) {
+                inMemory = unspilled(inbox);
+            }
+            for (int i = inMemory.size() - 1; i >= 0 && newest.size() < limit; i--) {
+                newest.addLast(inMemory.get(i));
+            }
+            if (newest.size() < limit && Files.exists(inbox.file)) {
+                ArrayDeque<Notification> tail = readTail(inbox.file, limit - newest.size());
+                for (Iterator<Notification> it = tail.descendingIterator(); it.hasNext(); ) {
+                    newest.addLast(it.next());
+                }
+            }
+        }
+        return new ArrayList<>(newest);
+    }
+
+    /**
+     * Stops delivery and writes every inbox to disk, so the notices can be listed after a restart.
+     */
+    @Override
+    public void close() {
+        delivery.shutdown();
+        try {
+            delivery.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Map<String, Inbox> shard : shards) {
+            List<Inbox> inboxes;
+            synchronized (shard) {
+                inboxes = new ArrayList<>(shard.values());
+            }
+            for (Inbox inbox : inboxes) {
+                synchronized (inbox.fileLock) {
+                    List<Notification> all;
+                    long readUpTo;
+                    synchronized (shard) {
+                        all = unspilled(inbox);
+                        inbox.evicted.clear();
+                        inbox.spilled = inbox.recent.size();
+                        readUpTo = inbox.markerChanged ? inbox.readUpTo : -1;
+                        inbox.markerChanged = false;
+                    }
+                    spillQuietly(inbox, all);
+                    writeMarkerQuietly(inbox, readUpTo);
+                }
+            }
+        }
+    }
+
+    /**
+     * Spills evicted notices and hands every changed inbox to its listeners, once each.
+     */
+    private void deliver() {
+        for (Iterator<String> it = changed.iterator(); it.hasNext(); ) {
+            String user = it.next();
+            it.remove(); // Later changes add the user again and are picked up next time
+            Map<String, Inbox> shard = shardOf(user);
+            Inbox inbox = inboxOf(user);
+            synchronized (inbox.fileLock) {
+                List<Notification> spill;
+                long readUpTo;
+                synchronized (shard) {
+                    spill = new ArrayList<>(inbox.evicted);
+                    inbox.evicted.clear();
+                    readUpTo = inbox.markerChanged ? inbox.readUpTo : -1;
+                    inbox.markerChanged = false;
+                }
+                spillQuietly(inbox, spill);
+                writeMarkerQuietly(inbox, readUpTo);
+            }
+            List<Listener> userListeners = listeners.get(user);
+            if (userListeners == null || userListeners.isEmpty()) {
+                continue;
+            }
+            Delivery update;
+            synchronized (shard) {
+                List<Notification> latest = new ArrayList<>(Math.min(DELIVERED_LATEST, inbox.recent.size()));
+                for (Iterator<Notification> recent = inbox.recent.descendingIterator();
+                     recent.hasNext() && latest.size() < DELIVERED_LATEST; ) {
+                    latest.add(recent.next());
+                }
+                update = new Delivery(latest, inbox.unread, inbox.received);
+                inbox.received = 0;
+            }
+            for (Listener listener : userListeners) {
+                try {
+                    listener.delivered(update);
+                } catch (RuntimeException e) {
+                    AuditLog.global().record("notification.listener.failed", String.valueOf(e));
+                }
+            }
+        }
+    }
+
+    private void spillQuietly(Inbox inbox, List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(inbox.file,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)))) {
+                for (Notification notification : notifications) {
+                    write(out, notification);
+                }
+            }
+            if (Files.size(inbox.file) > MAX_SPILL_BYTES) {
+                trim(inbox.file);
+            }
+        } catch (IOException e) {
+            AuditLog.global().record("notification.spill.failed", String.valueOf(e));
+        }
+    }
+
+    private void writeMarkerQuietly(Inbox inbox, long readUpTo) {
+        if (readUpTo < 0) {
+            return;
+        }
+        try {
+            Path temp = inbox.readMarker.resolveSibling(inbox.readMarker.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(temp))) {
+                out.writeLong(readUpTo);
+            }
+            Files.move(temp, inbox.readMarker, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            AuditLog.global().record("notification.marker.failed", String.valueOf(e));
+        }
+    }
+
+    /**
+     * Lists the notices of an inbox that are not in its file yet, oldest first. The caller holds
+     * the shard lock.
+     */
+    private static List<Notification> unspilled(Inbox inbox) {
+        List<Notification> notices = new ArrayList<>(inbox.evicted.size() + inbox.recent.size() - inbox.spilled);
+        notices.addAll(inbox.evicted);
+        Iterator<Notification> recent = inbox.recent.iterator();
+        for (int i = 0; i < inbox.spilled; i++) {
+            recent.next();
+        }
+        recent.forEachRemaining(notices::add);
+        return notices;
+    }
+
+    /**
+     * Drops all but the newest {@link #KEEP_ON_TRIM} notices of a spill file.
+     */
+    private static void trim(Path file) throws IOException {
+        ArrayDeque<Notification> kept = readTail(file, KEEP_ON_TRIM);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            for (Notification notification : kept) {
+                write(out, notification);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads the newest notices of a spill file. A record cut short by a crash ends the file.
+     *
+     * @return Up to {@code limit} notices, oldest first.
+     */
+    private static ArrayDeque<Notification> readTail(Path file, int limit) throws IOException {
+        return readTail(file, limit, Long.MAX_VALUE, new long[1]);
+    }
+
+    /**
+     * Reads the newest notices of a spill file and counts those newer than a given id.
+     *
+     * @param after Notices with a greater id are counted in {@code newer[0]}.
+     * @return Up to {@code limit} notices, oldest first.
+     */
+    private static ArrayDeque<Notification> readTail(Path file, int limit, long after, long[] newer) throws IOException {
+        ArrayDeque<Notification> tail = new ArrayDeque<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            while (true) {
+                long id = in.readLong();
+                Instant time = Instant.ofEpochMilli(in.readLong());
+                Kind kind = Kind.values()[in.readByte()];
+                String caseNumber = in.readUTF();
+                String message = in.readUTF();
+                tail.addLast(new Notification(id, time, kind, caseNumber.isEmpty() ? null : caseNumber, message));
+                if (tail.size() > limit) {
+                    tail.removeFirst();
+                }
+                if (id > after) {
+                    newer[0]++;
+                }
+            }
+        } catch (EOFException e) {
+            return tail;
+        }
+    }
+
+    private static void write(DataOutputStream out, Notification notification) throws IOException {
+        out.writeLong(notification.id);
+        out.writeLong(notification.time.toEpochMilli());
+        out.writeByte(notification.kind.ordinal());
+        out.writeUTF(notification.caseNumber == null ? "" : notification.caseNumber);
+        out.writeUTF(notification.message);
+    }
+
+    private Map<String, Inbox> shardOf(String userName) {
+        int hash = userName.hashCode();
+        return shards[(hash ^ (hash >>> 16)) & (SHARDS - 1)];
+    }
+
+    /**
+     * Returns a user's inbox, loading it from the user's files on first use. The files are read
+     * outside the shard lock; no spill can touch them before the inbox is in its shard.
+     */
+    private Inbox inboxOf(String userName) {
+        Map<String, Inbox> shard = shardOf(userName);
+        synchronized (shard) {
+            Inbox inbox = shard.get(userName);
+            if (inbox != null) {
+                return inbox;
+            }
+        }
+        Inbox loaded = load(userName);
+        synchronized (shard) {
+            return shard.computeIfAbsent(userName, u -> loaded);
+        }
+    }
+
+    private Inbox load(String userName) {
+        StringBuilder name = new StringBuilder("inbox-");
+        for (byte b : userName.getBytes(StandardCharsets.UTF_8)) {
+            name.append(String.format("%02x", b)); // Any user name makes a safe file name
+        }
+        Inbox inbox = new Inbox(directory.resolve(name + ".dat"), directory.resolve(name + ".read"));
+        try {
+            if (Files.exists(inbox.readMarker)) {
+                try (DataInputStream in = new DataInputStream(Files.newInputStream(inbox.readMarker))) {
+                    inbox.readUpTo = in.readLong();
+                }
+            }
+            if (Files.exists(inbox.file)) {
+                long[] unread = new long[1];
+                inbox.recent.addAll(readTail(inbox.file, IN_MEMORY, inbox.readUpTo, unread));
+                inbox.spilled = inbox.recent.size();
+                inbox.unread = unread[0];
+            }
+        } catch (IOException e) {
+            AuditLog.global().record("notification.load.failed", userName + ": " + e);
+        }
+        return inbox;
+    }
+}
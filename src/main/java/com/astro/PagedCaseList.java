@@ -0,0 +1,198 @@
+package com.astro;
+
+import javafx.application.Platform;
+import javafx.collections.ObservableListBase;
+
+import java.util.AbstractList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * A read-only observable list that fetches cases page by page from a {@link CaseRepository}.
+ * A {@code TableView} only asks for the rows it is about to render, so backing it with this
+ * list keeps heap use at a few cached pages regardless of how many cases are stored.
+ * <p>
+ * On the FX thread a page that is not cached is loaded in the background: its rows read as null
+ * (blank table rows) until it arrives, and the page after it is prefetched, so scrolling never
+ * waits on the disk. Other threads load pages synchronously.
+ */
+public class PagedCaseList extends ObservableListBase<Case> {
+
+    /**
+     * Supplies page-sized slices of cases for a {@link PagedCaseList}.
+     */
+    public interface PageSource {
+        /**
+         * Returns the total number of rows available.
+         *
+         * @return The row count.
+         */
+        int size();
+
+        /**
+         * Loads the rows in {@code [offset, offset + limit)}.
+         *
+         * @param offset The first row to load.
+         * @param limit  The maximum number of rows to load.
+         * @return The loaded rows.
+         */
+        List<Case> load(int offset, int limit);
+    }
+
+    static final int PAGE_SIZE = 200; // Rows fetched per repository read
+    private static final int CACHED_PAGES = 8; // Pages kept in memory, least recently used evicted first
+
+    private final Map<Integer, List<Case>> pages = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<Case>> eldest) {
+            return size() > CACHED_PAGES;
+        }
+    };
+    private static final ExecutorService LOADER = BackgroundExecutors.newLoader("case-page-loader");
+
+    private final Set<Integer> loading = new HashSet<>(); // Pages requested from the loader
+    private long generation; // Discards pages loaded from a source that has since been replaced
+    private PageSource source;
+    private int size;
+
+    /**
+     * Creates a list over the given page source.
+     *
+     * @param source The source to page through.
+     */
+    public PagedCaseList(PageSource source) {
+        this.source = source;
+        this.size = source.size();
+    }
+
+    /**
+     * Creates a page source that walks a repository in the given sort order.
+     *
+     * @param repository The repository to read from.
+     * @param key        The sort order.
+     * @param descending True to walk the order backwards.
+     * @return A page source over the whole repository.
+     */
+    public static PageSource sorted(CaseRepository repository, CaseRepository.SortKey key, boolean descending) {
+        return new PageSource() {
+            @Override
+            public int size() {
+                return repository.size();
+            }
+
+            @Override
+            public List<Case> load(int offset, int limit) {
+                return repository.page(key, descending, offset, limit);
+            }
+        };
+    }
+
+    @Override
+    public Case get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " of " + size);
+        }
+        int pageNumber = index / PAGE_SIZE;
+        List<Case> page = pages.get(pageNumber);
+        if (!Platform.isFxApplicationThread()) {
+            if (page == null) {
+                page = source.load(pageNumber * PAGE_SIZE, PAGE_SIZE);
+                pages.put(pageNumber, page);
+            }
+        } else {
+            if (page == null) {
+                request(pageNumber);
+            }
+            request(pageNumber + 1); // The user is most likely scrolling down
+        }
+        int slot = index % PAGE_SIZE;
+        return page != null && slot < page.size() ? page.get(slot) : null;
+    }
+
+    /**
+     * Loads a page in the background unless it is cached or already on its way, then reports its
+     * rows as replaced so the table redraws them.
+     */
+    private void request(int pageNumber) {
+        if (pageNumber * PAGE_SIZE >= size || pages.containsKey(pageNumber) || !loading.add(pageNumber)) {
+            return;
+        }
+        long requested = generation;
+        PageSource from = source;
+        LOADER.execute(() -> {
+            List<Case> page;
+            try {
+                page = from.load(pageNumber * PAGE_SIZE, PAGE_SIZE);
+            } catch (RuntimeException e) {
+                Platform.runLater(() -> loading.remove(pageNumber)); // Retried when the rows are next asked for
+                return;
+            }
+            Platform.runLater(() -> {
+                if (requested != generation) {
+                    return;
+                }
+                loading.remove(pageNumber);
+                pages.put(pageNumber, page);
+                int first = pageNumber * PAGE_SIZE;
+                int end = Math.min(size, first + page.size());
+                if (first < end) {
+                    beginChange();
+                    nextReplace(first, end, placeholders(end - first));
+                    endChange();
+                }
+            });
+        });
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Switches to a different page source and tells listeners that every row changed.
+     *
+     * @param newSource The source to page through from now on.
+     */
+    public void setSource(PageSource newSource) {
+        this.source = newSource;
+        refresh();
+    }
+
+    /**
+     * Drops cached pages and re-reads the row count, e.g. after cases were added.
+     */
+    public void refresh() {
+        int oldSize = size;
+        generation++;
+        loading.clear();
+        pages.clear();
+        size = source.size();
+        beginChange();
+        if (oldSize > 0) {
+            nextRemove(0, placeholders(oldSize)); // Avoids loading rows just to report their removal
+        }
+        if (size > 0) {
+            nextAdd(0, size);
+        }
+        endChange();
+    }
+
+    private static List<Case> placeholders(int count) {
+        return new AbstractList<Case>() {
+            @Override
+            public Case get(int index) {
+                return null;
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+}
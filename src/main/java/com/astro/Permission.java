@@ -0,0 +1,80 @@
+package com.astro;
+
+/**
+ * An action a user may be allowed to take.
+ * Each permission is one bit of a {@code long}, so a session's permissions fit in one word. A
+ * permission that applies to individual rows can have an "own" counterpart that grants it only
+ * on the rows the user is named on, e.g. a judge adjourning the hearings they preside over.
+ */
+public enum Permission {
+
+    VIEW_CASES("View all cases"),
+    REGISTER_CASES("Register new cases"),
+    EDIT_OWN_CASES("Update the status of own cases"),
+    EDIT_CASES("Update the status of any case", EDIT_OWN_CASES),
+    ASSIGN_JUDGES("Assign judges to cases"),
+    VIEW_OWN_HEARINGS("View own hearings"),
+    VIEW_HEARINGS("View the court calendar", VIEW_OWN_HEARINGS),
+    SCHEDULE_HEARINGS("Assign and move hearing dates"),
+    ADJOURN_OWN_HEARINGS("Adjourn own hearings"),
+    ADJOURN_HEARINGS("Adjourn any hearing", ADJOURN_OWN_HEARINGS),
+    UPLOAD_DOCUMENTS("Upload case documents"),
+    SIGN_DOCUMENTS("Digitally sign documents"),
+    SEAL_DOCUMENTS("Seal and stamp documents"),
+    SUBMIT_FILINGS("Submit and track e-filings"),
+    VALIDATE_FILINGS("Validate incoming filings"),
+    VIEW_JUDGE_AVAILABILITY("View judge availability"),
+    VIEW_TASK_QUEUE("View task queues"),
+    DECIDE_TASKS("Approve and reject tasks"),
+    VIEW_REPORTS("Generate reports"),
+    VIEW_PERFORMANCE("View performance dashboards"),
+    VIEW_AUDIT_LOGS("View audit and session logs"),
+    MANAGE_USERS("Manage users"),
+    ASSIGN_ROLES("Assign roles"),
+    MANAGE_BACKUPS("Back up and restore"),
+    PUBLIC_SEARCH("Search public cases");
+
+    private final String description;
+    private final Permission own; // Grants this permission on own rows only; null if not row-level
+    private final long bit;
+
+    Permission(String description) {
+        this(description, null);
+    }
+
+    Permission(String description, Permission own) {
+        this.description = description;
+        this.own = own;
+        this.bit = 1L << ordinal();
+    }
+
+    public String getDescription() { return description; }
+
+    /**
+     * Returns the permission that grants this one on the user's own rows.
+     *
+     * @return The "own" permission, or null if this permission is not row-level.
+     */
+    public Permission getOwn() { return own; }
+
+    /**
+     * Returns the bit of this permission in a permission set.
+     *
+     * @return A single-bit mask.
+     */
+    public long bit() { return bit; }
+
+    /**
+     * Combines permissions into a bit set.
+     *
+     * @param permissions The permissions.
+     * @return The bit set.
+     */
+    public static long bits(Permission... permissions) {
+        long bits = 0;
+        for (Permission permission : permissions) {
+            bits |= permission.bit;
+        }
+        return bits;
+    }
+}
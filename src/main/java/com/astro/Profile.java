@@ -1,6 +1,52 @@
-import javax.swing.*;
-import java.awt.*;
-class Profile extends JPanel
-{
+package com.astro;
 
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * A user of the system: the login name, the name the user appears under on cases and hearings,
+ * and the roles the user holds.
+ * Instances are immutable; {@link #withRoles} returns a changed copy.
+ */
+public class Profile {
+
+    private final String userName;
+    private final String displayName; // As written on cases and hearings, e.g. "Judge Evans"
+    private final Set<Role> roles;
+
+    public Profile(String userName, String displayName, Set<Role> roles) {
+        this.userName = userName;
+        this.displayName = displayName;
+        this.roles = Collections.unmodifiableSet(roles.isEmpty() ? EnumSet.noneOf(Role.class) : EnumSet.copyOf(roles));
+    }
+
+    /**
+     * Creates a profile for someone with no account, who gets public access only.
+     *
+     * @param userName The name the user is known by.
+     * @return The profile.
+     */
+    public static Profile guest(String userName) {
+        return new Profile(userName, userName, EnumSet.of(Role.PUBLIC));
+    }
+
+    public String getUserName() { return userName; }
+    public String getDisplayName() { return displayName; }
+    public Set<Role> getRoles() { return roles; }
+
+    /**
+     * Returns a copy of the profile holding different roles.
+     *
+     * @param newRoles The roles.
+     * @return The changed profile.
+     */
+    public Profile withRoles(Set<Role> newRoles) {
+        return new Profile(userName, displayName, newRoles);
+    }
+
+    @Override
+    public String toString() {
+        return displayName + " (" + userName + ")";
+    }
 }
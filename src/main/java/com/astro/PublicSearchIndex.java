@@ -0,0 +1,398 @@
+package com.astro;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Read-only snapshot of the case registry for public search.
+ * Never modified once built, so queries need no locks and never wait for clerks' writes;
+ * {@link Search} swaps in a newer snapshot made with {@link #withChanges(Map)}. A snapshot is a
+ * large main segment plus a small delta segment holding the cases changed since the main one
+ * was built, with the main positions those cases replace masked out. Applying changes only
+ * rebuilds the delta, and the delta is merged into a new main segment once it passes
+ * {@link #MERGE_MIN} cases or a sixteenth of the main one. Terms are the same as
+ * {@link CaseSearchIndex}'s, stored per segment as a sorted term array with one sorted array of
+ * case positions per term. Cases are kept in case-number order, which is also the order results
+ * are returned in.
+ */
+public final class PublicSearchIndex {
+
+    private static final int BUILD_PAGE = 4096; // Cases read per repository call while building
+    static final int MERGE_MIN = 4096; // Delta cases below which the delta is never merged
+    private static final int MERGE_FRACTION = 16; // Delta merged once it is this fraction of the main segment
+
+    /**
+     * One page of search results.
+     */
+    public static final class Page {
+        private final int total;
+        private final List<Case> cases;
+
+        Page(int total, List<Case> cases) {
+            this.total = total;
+            this.cases = cases;
+        }
+
+        public int getTotal() { return total; }
+        public List<Case> getCases() { return cases; }
+    }
+
+    private final Segment main;
+    private final Segment delta; // Cases changed since main was built
+    private final BitSet masked; // Main positions replaced by the delta or removed
+    private final long builtAt; // Epoch millis
+
+    private PublicSearchIndex(Segment main, Segment delta, BitSet masked) {
+        this.main = main;
+        this.delta = delta;
+        this.masked = masked;
+        this.builtAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Builds a snapshot of every case in the repository. The repository is read one page at a
+     * time, so writers are only held up for the duration of a single page read.
+     *
+     * @param repository The case registry.
+     * @return The new snapshot.
+     */
+    public static PublicSearchIndex build(CaseRepository repository) {
+        List<Case> all = new ArrayList<>(repository.size());
+        for (int offset = 0; ; offset += BUILD_PAGE) {
+            List<Case> page = repository.page(CaseRepository.SortKey.CASE_NUMBER, false, offset, BUILD_PAGE);
+            all.addAll(page);
+            if (page.size() < BUILD_PAGE) {
+                break;
+            }
+        }
+        return of(all);
+    }
+
+    /**
+     * Builds a snapshot of the given cases. Where several share a case number, one of them is kept.
+     *
+     * @param cases The cases, in any order.
+     * @return The new snapshot.
+     */
+    public static PublicSearchIndex of(Collection<Case> cases) {
+        List<Case> all = new ArrayList<>(cases);
+        all.sort(Comparator.comparing(Case::getCaseNumber)); // Pages can shift if cases arrive mid-build
+        List<Case> distinct = new ArrayList<>(all.size());
+        for (Case c : all) {
+            if (distinct.isEmpty() || !distinct.get(distinct.size() - 1).getCaseNumber().equals(c.getCaseNumber())) {
+                distinct.add(c); // A shifted page can repeat the case at its boundary
+            }
+        }
+        return new PublicSearchIndex(Segment.of(distinct.toArray(new Case[0])), Segment.EMPTY, new BitSet());
+    }
+
+    /**
+     * Returns a snapshot with some cases added, replaced or removed. Only the delta segment is
+     * rebuilt, unless it has grown large enough to merge into the main segment.
+     *
+     * @param changes Case number -> the case's new version, or null if no case has that number any more.
+     * @return The new snapshot; this one is unchanged.
+     */
+    public PublicSearchIndex withChanges(Map<String, Case> changes) {
+        Map<String, Case> pending = new TreeMap<>();
+        for (Case c : delta.cases) {
+            pending.put(c.getCaseNumber(), c);
+        }
+        BitSet nextMasked = (BitSet) masked.clone();
+        changes.forEach((caseNumber, c) -> {
+            if (c == null) {
+                pending.remove(caseNumber);
+            } else {
+                pending.put(caseNumber, c);
+            }
+            int at = main.position(caseNumber);
+            if (at >= 0) {
+                nextMasked.set(at);
+            }
+        });
+        Case[] changed = pending.values().toArray(new Case[0]);
+        if (changed.length <= Math.max(MERGE_MIN, main.cases.length / MERGE_FRACTION)) {
+            return new PublicSearchIndex(main, Segment.of(changed), nextMasked);
+        }
+        Case[] merged = new Case[main.cases.length - nextMasked.cardinality() + changed.length];
+        int size = 0;
+        int d = 0;
+        for (int m = nextMasked.nextClearBit(0); m < main.cases.length; m = nextMasked.nextClearBit(m + 1)) {
+            while (d < changed.length && changed[d].getCaseNumber().compareTo(main.caseNumbers[m]) < 0) {
+                merged[size++] = changed[d++];
+            }
+            merged[size++] = main.cases[m];
+        }
+        while (d < changed.length) {
+            merged[size++] = changed[d++];
+        }
+        return new PublicSearchIndex(Segment.of(merged), Segment.EMPTY, new BitSet());
+    }
+
+    /**
+     * Finds the cases matching every word of the query, with the last word treated as a
+     * prefix, as in the clerks' search.
+     *
+     * @param query  The free-text query.
+     * @param offset The first result to return.
+     * @param limit  The maximum number of results to return.
+     * @return The page of matches and the total match count.
+     */
+    public Page search(String query, int offset, int limit) {
+        String[] words = CaseSearchIndex.normalize(query).trim().split("\\s+");
+        if (words.length == 0 || words[0].isEmpty()) {
+            return new Page(0, Collections.emptyList());
+        }
+        int[] fromMain = main.match(words);
+        if (!masked.isEmpty()) {
+            int kept = 0;
+            for (int position : fromMain) {
+                if (!masked.get(position)) {
+                    kept++;
+                }
+            }
+            if (kept < fromMain.length) {
+                int[] unmasked = new int[kept];
+                kept = 0;
+                for (int position : fromMain) {
+                    if (!masked.get(position)) {
+                        unmasked[kept++] = position;
+                    }
+                }
+                fromMain = unmasked;
+            }
+        }
+        int[] fromDelta = delta.match(words);
+        List<Case> page = new ArrayList<>();
+        if (fromDelta.length == 0) {
+            for (int i = Math.max(0, offset); i < fromMain.length && page.size() < limit; i++) {
+                page.add(main.cases[fromMain[i]]);
+            }
+            return new Page(fromMain.length, page);
+        }
+        int m = 0;
+        int d = 0;
+        for (int skipped = 0; (m < fromMain.length || d < fromDelta.length) && page.size() < limit; ) {
+            Case next;
+            if (d == fromDelta.length || m < fromMain.length
+                    && main.caseNumbers[fromMain[m]].compareTo(delta.caseNumbers[fromDelta[d]]) < 0) {
+                next = main.cases[fromMain[m++]];
+            } else {
+                next = delta.cases[fromDelta[d++]];
+            }
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                page.add(next);
+            }
+        }
+        return new Page(fromMain.length + fromDelta.length, page);
+    }
+
+    /**
+     * Looks up a case by its exact number.
+     *
+     * @param caseNumber The case number.
+     * @return The case, or null if it is not in this snapshot.
+     */
+    public Case find(String caseNumber) {
+        int at = delta.position(caseNumber);
+        if (at >= 0) {
+            return delta.cases[at];
+        }
+        at = main.position(caseNumber);
+        return at < 0 || masked.get(at) ? null : main.cases[at];
+    }
+
+    public int size() {
+        return main.cases.length - masked.cardinality() + delta.cases.length;
+    }
+
+    public long getBuiltAt() {
+        return builtAt;
+    }
+
+    /**
+     * An immutable inverted index over cases sorted by case number.
+     */
+    private static final class Segment {
+        static final Segment EMPTY = of(new Case[0]);
+
+        final Case[] cases; // Ascending by case number
+        final String[] caseNumbers; // Parallel to cases, for lookups by number
+        final String[] terms; // Sorted, for prefix ranges
+        final int[][] postings; // Parallel to terms; ascending case positions
+
+        private Segment(Case[] cases, String[] terms, int[][] postings) {
+            this.cases = cases;
+            this.caseNumbers = new String[cases.length];
+            for (int i = 0; i < cases.length; i++) {
+                caseNumbers[i] = cases[i].getCaseNumber();
+            }
+            this.terms = terms;
+            this.postings = postings;
+        }
+
+        /**
+         * @param cases Cases with distinct numbers, ascending by case number.
+         */
+        static Segment of(Case[] cases) {
+            Map<String, IntList> index = new HashMap<>();
+            for (int position = 0; position < cases.length; position++) {
+                for (String term : CaseSearchIndex.tokens(cases[position])) {
+                    index.computeIfAbsent(term, t -> new IntList()).add(position);
+                }
+            }
+            String[] terms = index.keySet().toArray(new String[0]);
+            Arrays.sort(terms);
+            int[][] postings = new int[terms.length][];
+            for (int i = 0; i < terms.length; i++) {
+                postings[i] = index.get(terms[i]).toArray();
+            }
+            return new Segment(cases, terms, postings);
+        }
+
+        int position(String caseNumber) {
+            return Arrays.binarySearch(caseNumbers, caseNumber);
+        }
+
+        /**
+         * Returns the ascending positions of the cases matching every word.
+         */
+        int[] match(String[] words) {
+            int[][] perWord = new int[words.length][];
+            for (int i = 0; i < words.length; i++) {
+                perWord[i] = matchWord(words[i], i == words.length - 1);
+                if (perWord[i].length == 0) {
+                    return perWord[i];
+                }
+            }
+            return intersect(perWord);
+        }
+
+        private int[] matchWord(String word, boolean prefix) {
+            List<int[]> lists = new ArrayList<>();
+            addTermMatches(lists, word, prefix); // Whole case numbers such as "c-2024/17"
+            String bare = word.replaceAll("[^\\p{L}\\p{N}]", "");
+            if (!bare.isEmpty() && !bare.equals(word)) {
+                addTermMatches(lists, bare, prefix); // Title words typed with punctuation, e.g. "vs."
+            }
+            if (word.length() >= CaseSearchIndex.GRAM) {
+                int[] fragment = matchCaseNumberFragment(word); // Substring match on case numbers
+                if (fragment.length > 0) {
+                    lists.add(fragment);
+                }
+            }
+            if (lists.size() <= 1) {
+                return lists.isEmpty() ? new int[0] : lists.get(0); // Shared posting; callers only read it
+            }
+            BitSet union = new BitSet(cases.length);
+            for (int[] list : lists) {
+                for (int position : list) {
+                    union.set(position);
+                }
+            }
+            return union.stream().toArray();
+        }
+
+        private void addTermMatches(List<int[]> lists, String term, boolean prefix) {
+            int from = Arrays.binarySearch(terms, term);
+            if (from >= 0) {
+                lists.add(postings[from]);
+                from++;
+            } else {
+                from = -from - 1;
+            }
+            if (prefix) {
+                for (int i = from; i < terms.length && terms[i].startsWith(term); i++) {
+                    lists.add(postings[i]);
+                }
+            }
+        }
+
+        private int[] matchCaseNumberFragment(String fragment) {
+            int[][] grams = new int[fragment.length() - CaseSearchIndex.GRAM + 1][];
+            for (int i = 0; i < grams.length; i++) {
+                int at = Arrays.binarySearch(terms, CaseSearchIndex.TRIGRAM_MARKER + fragment.substring(i, i + CaseSearchIndex.GRAM));
+                if (at < 0) {
+                    return new int[0];
+                }
+                grams[i] = postings[at];
+            }
+            return intersect(grams);
+        }
+    }
+
+    /**
+     * Intersects sorted arrays, driving from the shortest and galloping through the others.
+     */
+    private static int[] intersect(int[][] lists) {
+        if (lists.length == 1) {
+            return lists[0];
+        }
+        int[][] sorted = lists.clone();
+        Arrays.sort(sorted, Comparator.comparingInt(list -> list.length));
+        int[] result = new int[sorted[0].length];
+        int[] cursors = new int[sorted.length];
+        int size = 0;
+        candidates:
+        for (int candidate : sorted[0]) {
+            for (int l = 1; l < sorted.length; l++) {
+                int[] list = sorted[l];
+                int at = gallop(list, cursors[l], candidate);
+                cursors[l] = at;
+                if (at == list.length) {
+                    break candidates; // This list is exhausted; nothing further can match
+                }
+                if (list[at] != candidate) {
+                    continue candidates;
+                }
+            }
+            result[size++] = candidate;
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Returns the first index at or after {@code from} whose value is at least {@code target}.
+     */
+    private static int gallop(int[] list, int from, int target) {
+        int step = 1;
+        int high = from;
+        while (high < list.length && list[high] < target) {
+            from = high + 1;
+            high += step;
+            step <<= 1;
+        }
+        high = Math.min(high, list.length);
+        int at = Arrays.binarySearch(list, from, high, target);
+        return at >= 0 ? at : -at - 1;
+    }
+
+    /**
+     * A growable array of case positions, appended in ascending order while building.
+     */
+    private static final class IntList {
+        private int[] values = new int[2];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package com.astro;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Builds management reports over the case registry and case history: caseload per judge, age
+ * of open cases, clearance rates and hearing adjournment rates for a reporting period.
+ * <p>
+ * Aggregates are computed in parallel over fixed-size partitions of row ids; each partition
+ * produces a small tally that is merged with the others, so memory depends on the number of
+ * judges and case types rather than the number of cases. The partitions read the registry as it
+ * was when the report started: row ids are stable and only rows below the starting size are
+ * read, and a case updated during the report is counted as it was before its first update.
+ * Hearing figures come from one sequential pass over the case history, which credits each
+ * hearing to the judge assigned to the case when it was listed or adjourned. The case listing
+ * at the end of a report is paged straight from the filing-date index to the
+ * {@link ReportWriter}, one page at a time.
+ */
+public class ReportEngine {
+
+    private static final int PARTITION_SIZE = 4096; // Cases per aggregation partition
+    private static final int DETAIL_PAGE = 1000; // Cases per page of the case listing
+    private static final int[] AGE_LIMITS = {30, 90, 180, 365, 730}; // Upper bound in days of each age band
+    private static final String[] AGE_BANDS = {"0-30 days", "31-90 days", "91-180 days", "181-365 days", "1-2 years", "Over 2 years"};
+
+    /**
+     * Receives progress while a report is built. Implementations may throw an unchecked
+     * exception, e.g. {@link java.util.concurrent.CancellationException}, to abandon the report.
+     */
+    public interface Progress {
+        /**
+         * @param done  Units of work completed.
+         * @param total Units of work in the whole report.
+         */
+        void update(long done, long total);
+    }
+
+    private final CaseRepository caseRepository;
+    private final CaseEventLog eventLog; // Source of hearing outcomes; may be null
+
+    /**
+     * @param caseRepository The case registry to report on.
+     * @param eventLog       The case history holding hearing events, or null to omit hearing figures.
+     */
+    public ReportEngine(CaseRepository caseRepository, CaseEventLog eventLog) {
+        this.caseRepository = caseRepository;
+        this.eventLog = eventLog;
+    }
+
+    /**
+     * Builds the report for a period and writes it to a file.
+     *
+     * @param from     The first day of the reporting period.
+     * @param to       The last day of the reporting period; case ages are measured at this day.
+     * @param format   The export format.
+     * @param target   The file to write.
+     * @param progress Receives progress; called from several threads.
+     * @throws IOException If the report cannot be written.
+     */
+    public void export(LocalDate from, LocalDate to, ReportWriter.Format format, Path target, Progress progress) throws IOException {
+        Map<Integer, Case> before = new ConcurrentHashMap<>(); // Row id -> case before its first update since the start
+        CaseRepository.Listener recorder = new CaseRepository.Listener() {
+            @Override
+            public void caseAdded(int rowId, Case added) {
+                // Rows added after the start are not read
+            }
+
+            @Override
+            public void caseUpdated(int rowId, Case previous, Case updated) {
+                before.putIfAbsent(rowId, previous);
+            }
+        };
+        int size;
+        // The built-in repositories add rows while holding their own monitor, so the size and the
+        // first recorded update belong to the same moment
+        synchronized (caseRepository) {
+            size = caseRepository.size();
+            caseRepository.addListener(recorder);
+        }
+        try {
+            export(from, to, format, target, progress, size, before);
+        } finally {
+            caseRepository.removeListener(recorder);
+        }
+    }
+
+    private void export(LocalDate from, LocalDate to, ReportWriter.Format format, Path target, Progress progress,
+                        int size, Map<Integer, Case> before) throws IOException {
+        int firstFiled = firstFiledOnOrAfter(from);
+        int endFiled = firstFiledOnOrAfter(to.plusDays(1));
+        long total = (long) size + Math.max(0, endFiled - firstFiled);
+        AtomicLong done = new AtomicLong();
+        progress.update(0, total);
+
+        Tally tally = aggregate(from, to, size, before, done, total, progress);
+        if (eventLog != null) {
+            tallyHearings(tally, from, to);
+        }
+
+        String title = "Caseload Report " + from + " to " + to;
+        try (ReportWriter writer = ReportWriter.open(format, target, title)) {
+            writeCaseload(writer, tally);
+            writeAges(writer, tally);
+            writeClearance(writer, tally);
+            if (eventLog != null) {
+                writeAdjournments(writer, tally);
+            }
+            writer.startSection("Cases Filed", "Case Number", "Title", "Type", "Status", "Filing Date", "Judge", "Age (days)");
+            for (int offset = firstFiled; offset < endFiled; offset += DETAIL_PAGE) {
+                List<Case> page = caseRepository.page(CaseRepository.SortKey.FILING_DATE, false, offset,
+                    Math.min(DETAIL_PAGE, endFiled - offset));
+                for (Case c : page) {
+                    writer.row(c.getCaseNumber(), c.getCaseTitle(), c.getCaseType(), c.getCurrentStatus(),
+                        c.getFilingDate().toString(), judgeOf(c), ChronoUnit.DAYS.between(c.getFilingDate(), to));
+                }
+                progress.update(done.addAndGet(page.size()), total);
+            }
+        }
+    }
+
+    /**
+     * Tallies the rows below {@code size} in parallel partitions and merges the partial results.
+     * A row in {@code before} is counted as recorded there, i.e. as it was when the report started.
+     */
+    private Tally aggregate(LocalDate from, LocalDate to, int size, Map<Integer, Case> before,
+                            AtomicLong done, long total, Progress progress) {
+        int partitions = (size + PARTITION_SIZE - 1) / PARTITION_SIZE;
+        return IntStream.range(0, partitions).parallel()
+            .mapToObj(partition -> {
+                int first = partition * PARTITION_SIZE;
+                int last = Math.min(size, first + PARTITION_SIZE);
+                Tally tally = new Tally();
+                for (int rowId = first; rowId < last; rowId++) {
+                    Case current = caseRepository.get(rowId);
+                    Case original = before.get(rowId); // Checked after the read, so any update recorded by then is undone
+                    tally.add(original != null ? original : current, from, to);
+                }
+                progress.update(done.addAndGet(last - first), total);
+                return tally;
+            })
+            .reduce(Tally::merge)
+            .orElseGet(Tally::new);
+    }
+
+    /**
+     * Counts the hearings listed and adjourned in the period in one pass over the case history,
+     * following each case's judge assignments as they happened.
+     */
+    private void tallyHearings(Tally tally, LocalDate from, LocalDate to) {
+        Map<String, String> presiding = new HashMap<>(); // Case number -> judge assigned at this point of the history
+        eventLog.forEachEvent(event -> {
+            switch (event.getType()) {
+                case FILED:
+                    presiding.put(event.getCaseNumber(), judgeOf(event.getFiled()));
+                    break;
+                case JUDGE_ASSIGNED:
+                    String judge = event.getValue();
+                    presiding.put(event.getCaseNumber(), judge == null || judge.isBlank() ? Case.UNASSIGNED : judge);
+                    break;
+                case HEARING_SCHEDULED:
+                case ADJOURNED:
+                    LocalDate hearingDate = LocalDate.parse(event.getValue());
+                    if (!hearingDate.isBefore(from) && !hearingDate.isAfter(to)) {
+                        long[] counts = tally.judges.computeIfAbsent(
+                            presiding.getOrDefault(event.getCaseNumber(), Case.UNASSIGNED), k -> new long[Tally.COUNTS]);
+                        counts[event.getType() == CaseEvent.Type.ADJOURNED ? Tally.ADJOURNED : Tally.HEARINGS]++;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        });
+    }
+
+    /**
+     * Finds the position in filing-date order of the first case filed on or after a day.
+     */
+    private int firstFiledOnOrAfter(LocalDate day) {
+        int low = 0;
+        int high = caseRepository.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            List<Case> probe = caseRepository.page(CaseRepository.SortKey.FILING_DATE, false, mid, 1);
+            if (probe.isEmpty()) {
+                high = mid; // Registry shrank under us; treat as the end
+            } else if (probe.get(0).getFilingDate().isBefore(day)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static void writeCaseload(ReportWriter writer, Tally tally) throws IOException {
+        writer.startSection("Caseload per Judge", "Judge", "Open Cases", "Filed in Period", "Closed of Filed");
+        long[] totals = new long[3];
+        for (Map.Entry<String, long[]> judge : tally.judges.entrySet()) {
+            long[] counts = judge.getValue();
+            writer.row(judge.getKey(), counts[Tally.OPEN], counts[Tally.FILED], counts[Tally.CLOSED]);
+            totals[0] += counts[Tally.OPEN];
+            totals[1] += counts[Tally.FILED];
+            totals[2] += counts[Tally.CLOSED];
+        }
+        writer.row("Total", totals[0], totals[1], totals[2]);
+    }
+
+    private static void writeAges(ReportWriter writer, Tally tally) throws IOException {
+        writer.startSection("Age of Open Cases", "Age", "Cases", "Share %");
+        long open = 0;
+        for (long count : tally.ageBands) {
+            open += count;
+        }
+        for (int band = 0; band < AGE_BANDS.length; band++) {
+            writer.row(AGE_BANDS[band], tally.ageBands[band], percent(tally.ageBands[band], open));
+        }
+        writer.row("Average age (days)", open == 0 ? 0L : tally.ageDays / open, null);
+    }
+
+    private static void writeClearance(ReportWriter writer, Tally tally) throws IOException {
+        writer.startSection("Clearance by Case Type", "Case Type", "Filed", "Closed", "Clearance Rate %");
+        long filed = 0;
+        long closed = 0;
+        for (Map.Entry<String, long[]> type : tally.types.entrySet()) {
+            long[] counts = type.getValue();
+            writer.row(type.getKey(), counts[0], counts[1], percent(counts[1], counts[0]));
+            filed += counts[0];
+            closed += counts[1];
+        }
+        writer.row("Total", filed, closed, percent(closed, filed));
+    }
+
+    private static void writeAdjournments(ReportWriter writer, Tally tally) throws IOException {
+        writer.startSection("Hearing Adjournments", "Judge", "Hearings Scheduled", "Adjourned", "Adjournment Rate %");
+        long hearings = 0;
+        long adjourned = 0;
+        for (Map.Entry<String, long[]> judge : tally.judges.entrySet()) {
+            long[] counts = judge.getValue();
+            if (counts[Tally.HEARINGS] > 0 || counts[Tally.ADJOURNED] > 0) {
+                writer.row(judge.getKey(), counts[Tally.HEARINGS], counts[Tally.ADJOURNED],
+                    percent(counts[Tally.ADJOURNED], counts[Tally.HEARINGS]));
+                hearings += counts[Tally.HEARINGS];
+                adjourned += counts[Tally.ADJOURNED];
+            }
+        }
+        writer.row("Total", hearings, adjourned, percent(adjourned, hearings));
+    }
+
+    private static Double percent(long part, long whole) {
+        return whole == 0 ? null : Math.round(part * 1000.0 / whole) / 10.0;
+    }
+
+    private static String judgeOf(Case c) {
+        return c.isUnassigned() ? Case.UNASSIGNED : c.getAssignedJudge();
+    }
+
+    /**
+     * Counts for one partition of the registry. Clearance is the share of cases filed in the
+     * period that are closed now, since the registry keeps no disposition date.
+     */
+    private static final class Tally {
+        static final int OPEN = 0, FILED = 1, CLOSED = 2, HEARINGS = 3, ADJOURNED = 4, COUNTS = 5;
+
+        final Map<String, long[]> judges = new TreeMap<>(); // Judge -> counts indexed by the constants above
+        final Map<String, long[]> types = new TreeMap<>(); // Case type -> {filed, closed}
+        final long[] ageBands = new long[AGE_BANDS.length];
+        long ageDays; // Sum of open case ages, for the average
+
+        void add(Case c, LocalDate from, LocalDate to) {
+            LocalDate filed = c.getFilingDate();
+            if (filed == null || filed.isAfter(to)) {
+                return;
+            }
+            long[] judge = judges.computeIfAbsent(judgeOf(c), k -> new long[COUNTS]);
+            boolean closed = c.isClosed();
+            if (!closed) {
+                long age = ChronoUnit.DAYS.between(filed, to);
+                int band = 0;
+                while (band < AGE_LIMITS.length && age > AGE_LIMITS[band]) {
+                    band++;
+                }
+                ageBands[band]++;
+                ageDays += age;
+                judge[OPEN]++;
+            }
+            if (!filed.isBefore(from)) {
+                long[] type = types.computeIfAbsent(c.getCaseType() == null ? "Other" : c.getCaseType(), k -> new long[2]);
+                judge[FILED]++;
+                type[0]++;
+                if (closed) {
+                    judge[CLOSED]++;
+                    type[1]++;
+                }
+            }
+        }
+
+        Tally merge(Tally other) {
+            other.judges.forEach((name, counts) -> sum(judges.computeIfAbsent(name, k -> new long[counts.length]), counts));
+            other.types.forEach((name, counts) -> sum(types.computeIfAbsent(name, k -> new long[counts.length]), counts));
+            sum(ageBands, other.ageBands);
+            ageDays += other.ageDays;
+            return this;
+        }
+
+        private static void sum(long[] into, long[] from) {
+            for (int i = 0; i < into.length; i++) {
+                into[i] += from[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,416 @@
+package com.astro;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams report tables to a file one row at a time.
+ * A report is a sequence of sections, each a titled table. Writers hold at most one row (CSV,
+ * XLSX) or one page of rows (PDF) in memory, so the size of an export is bounded only by disk.
+ */
+public interface ReportWriter extends Closeable {
+
+    /**
+     * Supported export formats.
+     */
+    enum Format {
+        CSV("csv", "CSV"), XLSX("xlsx", "Excel"), PDF("pdf", "PDF");
+
+        private final String extension;
+        private final String label;
+
+        Format(String extension, String label) {
+            this.extension = extension;
+            this.label = label;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    /**
+     * Starts a new table.
+     *
+     * @param title   The section title.
+     * @param headers The column headers.
+     * @throws IOException If the output cannot be written.
+     */
+    void startSection(String title, String... headers) throws IOException;
+
+    /**
+     * Writes one row of the current table. Numbers are written as numbers where the format
+     * supports it; everything else as text.
+     *
+     * @param cells The cell values; null for an empty cell.
+     * @throws IOException If the output cannot be written.
+     */
+    void row(Object... cells) throws IOException;
+
+    /**
+     * Opens a writer for a format.
+     *
+     * @param format The export format.
+     * @param target The file to create or replace.
+     * @param title  The report title.
+     * @return The writer; close it to finish the file.
+     * @throws IOException If the file cannot be created.
+     */
+    static ReportWriter open(Format format, Path target, String title) throws IOException {
+        OutputStream out = new BufferedOutputStream(Files.newOutputStream(target), 64 * 1024);
+        switch (format) {
+            case XLSX:
+                return new Xlsx(out);
+            case PDF:
+                return new Pdf(out, title);
+            default:
+                return new Csv(out, title);
+        }
+    }
+
+    /**
+     * Comma-separated values, sections separated by a blank line and a title row.
+     */
+    final class Csv implements ReportWriter {
+        private final Writer out;
+        private boolean first = true;
+
+        Csv(OutputStream out, String title) throws IOException {
+            this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            line(title);
+        }
+
+        @Override
+        public void startSection(String title, String... headers) throws IOException {
+            out.write("\r\n");
+            line(title);
+            line((Object[]) headers);
+        }
+
+        @Override
+        public void row(Object... cells) throws IOException {
+            line(cells);
+        }
+
+        private void line(Object... cells) throws IOException {
+            for (int i = 0; i < cells.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                String text = cells[i] == null ? "" : cells[i].toString();
+                if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                    out.write('"');
+                    out.write(text.replace("\"", "\"\""));
+                    out.write('"');
+                } else {
+                    out.write(text);
+                }
+            }
+            out.write("\r\n");
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /**
+     * Office Open XML workbook with one worksheet per section. Sheets are written as zip entries
+     * in order, with inline strings so no shared-string table has to be kept in memory.
+     */
+    final class Xlsx implements ReportWriter {
+        private static final int MAX_ROWS = 1_048_576; // Excel's per-sheet limit
+
+        private final ZipOutputStream zip;
+        private final Writer out;
+        private final List<String> sheetNames = new ArrayList<>();
+        private String sectionTitle;
+        private String[] sectionHeaders;
+        private int rowNumber; // Rows written to the current sheet
+        private boolean sheetOpen;
+
+        Xlsx(OutputStream out) {
+            this.zip = new ZipOutputStream(out);
+            this.out = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void startSection(String title, String... headers) throws IOException {
+            sectionTitle = title;
+            sectionHeaders = headers;
+            openSheet(title);
+        }
+
+        @Override
+        public void row(Object... cells) throws IOException {
+            if (rowNumber >= MAX_ROWS) {
+                openSheet(sectionTitle); // Continue on a new sheet
+            }
+            writeRow(cells);
+        }
+
+        private void openSheet(String title) throws IOException {
+            closeSheet();
+            String name = title.replaceAll("[\\[\\]:*?/\\\\]", " ");
+            name = name.length() > 25 ? name.substring(0, 25) : name;
+            String unique = name;
+            for (int copy = 2; sheetNames.contains(unique); copy++) {
+                unique = name + " (" + copy + ")"; // Sheet names must be unique
+            }
+            sheetNames.add(unique);
+            zip.putNextEntry(new ZipEntry("xl/worksheets/sheet" + sheetNames.size() + ".xml"));
+            out.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                + "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>");
+            sheetOpen = true;
+            rowNumber = 0;
+            writeRow((Object[]) sectionHeaders);
+        }
+
+        private void writeRow(Object... cells) throws IOException {
+            rowNumber++;
+            out.write("<row r=\"" + rowNumber + "\">");
+            for (Object cell : cells) {
+                if (cell instanceof Number) {
+                    out.write("<c><v>" + cell + "</v></c>");
+                } else if (cell != null) {
+                    out.write("<c t=\"inlineStr\"><is><t>");
+                    out.write(escape(cell.toString()));
+                    out.write("</t></is></c>");
+                } else {
+                    out.write("<c/>");
+                }
+            }
+            out.write("</row>");
+        }
+
+        private void closeSheet() throws IOException {
+            if (sheetOpen) {
+                out.write("</sheetData></worksheet>");
+                out.flush();
+                zip.closeEntry();
+                sheetOpen = false;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            closeSheet();
+            entry("[Content_Types].xml", contentTypes());
+            entry("_rels/.rels", "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\" Target=\"xl/workbook.xml\"/>"
+                + "</Relationships>");
+            StringBuilder sheets = new StringBuilder();
+            StringBuilder relationships = new StringBuilder();
+            for (int i = 1; i <= sheetNames.size(); i++) {
+                sheets.append("<sheet name=\"").append(escape(sheetNames.get(i - 1)))
+                    .append("\" sheetId=\"").append(i).append("\" r:id=\"rId").append(i).append("\"/>");
+                relationships.append("<Relationship Id=\"rId").append(i)
+                    .append("\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet\" Target=\"worksheets/sheet")
+                    .append(i).append(".xml\"/>");
+            }
+            entry("xl/workbook.xml", "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                + "<workbook xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" "
+                + "xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\"><sheets>"
+                + sheets + "</sheets></workbook>");
+            entry("xl/_rels/workbook.xml.rels", "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                + relationships + "</Relationships>");
+            out.close();
+        }
+
+        private String contentTypes() {
+            StringBuilder types = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                + "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+                + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+                + "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+                + "<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>");
+            for (int i = 1; i <= sheetNames.size(); i++) {
+                types.append("<Override PartName=\"/xl/worksheets/sheet").append(i)
+                    .append(".xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>");
+            }
+            return types.append("</Types>").toString();
+        }
+
+        private void entry(String name, String content) throws IOException {
+            zip.putNextEntry(new ZipEntry(name));
+            out.write(content);
+            out.flush();
+            zip.closeEntry();
+        }
+
+        private static String escape(String text) {
+            StringBuilder escaped = new StringBuilder(text.length());
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                switch (c) {
+                    case '<': escaped.append("&lt;"); break;
+                    case '>': escaped.append("&gt;"); break;
+                    case '&': escaped.append("&amp;"); break;
+                    case '"': escaped.append("&quot;"); break;
+                    default:
+                        if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+                            escaped.append(c); // Other control characters are not allowed in XML
+                        }
+                }
+            }
+            return escaped.toString();
+        }
+    }
+
+    /**
+     * Plain PDF with fixed-width text columns on landscape A4 pages. Each page is written as soon
+     * as it is full; only object offsets are kept until the cross-reference table at the end.
+     */
+    final class Pdf implements ReportWriter {
+        private static final int LINES_PER_PAGE = 52;
+        private static final int COLUMN_CHARS = 22; // Characters per table column
+        private static final int FONT_SIZE = 8;
+
+        private final OutputStream out;
+        private final String title;
+        private final List<Long> offsets = new ArrayList<>(); // Byte offset of each object, by number - 1
+        private final List<Integer> pageObjects = new ArrayList<>();
+        private final StringBuilder page = new StringBuilder();
+        private String[] headers = new String[0];
+        private int lines; // Lines on the current page
+        private long position; // Bytes written so far
+
+        Pdf(OutputStream out, String title) throws IOException {
+            this.out = out;
+            this.title = title;
+            write("%PDF-1.4\n");
+            offsets.add(null); // 1: catalog, written at the end
+            offsets.add(null); // 2: page tree, written at the end
+            object(3, "<< /Type /Font /Subtype /Type1 /BaseFont /Courier /Encoding /WinAnsiEncoding >>");
+            line(title);
+            line("");
+        }
+
+        @Override
+        public void startSection(String title, String... headers) throws IOException {
+            this.headers = headers;
+            if (lines > LINES_PER_PAGE - 4) {
+                flushPage();
+            }
+            line("");
+            line(title);
+            line(columns((Object[]) headers));
+        }
+
+        @Override
+        public void row(Object... cells) throws IOException {
+            line(columns(cells));
+        }
+
+        private void line(String text) throws IOException {
+            if (lines == LINES_PER_PAGE) {
+                flushPage();
+                if (headers.length > 0) {
+                    line(columns((Object[]) headers)); // Repeat the header on every page
+                }
+            }
+            page.append("(").append(escape(text)).append(") '\n");
+            lines++;
+        }
+
+        private void flushPage() throws IOException {
+            String content = "BT /F1 " + FONT_SIZE + " Tf 10 TL 30 575 Td\n" + page + "ET";
+            byte[] bytes = content.getBytes(StandardCharsets.ISO_8859_1);
+            int contentObject = offsets.size() + 1;
+            offsets.add(position);
+            write(contentObject + " 0 obj\n<< /Length " + bytes.length + " >>\nstream\n");
+            out.write(bytes);
+            position += bytes.length;
+            write("\nendstream\nendobj\n");
+            int pageObject = offsets.size() + 1;
+            object(pageObject, "<< /Type /Page /Parent 2 0 R /MediaBox [0 0 842 595] "
+                + "/Resources << /Font << /F1 3 0 R >> >> /Contents " + contentObject + " 0 R >>");
+            pageObjects.add(pageObject);
+            page.setLength(0);
+            lines = 0;
+        }
+
+        private void object(int number, String body) throws IOException {
+            while (offsets.size() < number) {
+                offsets.add(null);
+            }
+            offsets.set(number - 1, position);
+            write(number + " 0 obj\n" + body + "\nendobj\n");
+        }
+
+        private String columns(Object... cells) {
+            StringBuilder text = new StringBuilder();
+            for (Object cell : cells) {
+                String value = cell == null ? "" : cell.toString();
+                if (value.length() >= COLUMN_CHARS) {
+                    value = value.substring(0, COLUMN_CHARS - 2) + "~";
+                }
+                text.append(value);
+                for (int i = value.length(); i < COLUMN_CHARS; i++) {
+                    text.append(' ');
+                }
+            }
+            return text.toString();
+        }
+
+        private static String escape(String text) {
+            StringBuilder escaped = new StringBuilder(text.length());
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '(' || c == ')' || c == '\\') {
+                    escaped.append('\\').append(c);
+                } else {
+                    escaped.append(c < 0x20 || c > 0xFF ? '?' : c); // Courier with WinAnsi covers Latin-1
+                }
+            }
+            return escaped.toString();
+        }
+
+        private void write(String text) throws IOException {
+            byte[] bytes = text.getBytes(StandardCharsets.ISO_8859_1);
+            out.write(bytes);
+            position += bytes.length;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (lines > 0 || pageObjects.isEmpty()) {
+                flushPage();
+            }
+            StringBuilder kids = new StringBuilder();
+            for (int pageObject : pageObjects) {
+                kids.append(pageObject).append(" 0 R ");
+            }
+            object(2, "<< /Type /Pages /Kids [" + kids + "] /Count " + pageObjects.size() + " >>");
+            object(1, "<< /Type /Catalog /Pages 2 0 R >>");
+            long xref = position;
+            StringBuilder table = new StringBuilder("xref\n0 " + (offsets.size() + 1) + "\n0000000000 65535 f \n");
+            for (Long offset : offsets) {
+                table.append(String.format("%010d 00000 n \n", offset));
+            }
+            write(table.toString());
+            write("trailer\n<< /Size " + (offsets.size() + 1) + " /Root 1 0 R /Info << /Title ("
+                + escape(title) + ") >> >>\nstartxref\n" + xref + "\n%%EOF\n");
+            out.close();
+        }
+    }
+}
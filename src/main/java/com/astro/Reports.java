@@ -1,6 +1,159 @@
-import javax.swing.*;
-import java.awt.*;
-class Reports extends JPanel
-{
+package com.astro;
 
+import javafx.concurrent.Task;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
+import javafx.stage.Window;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Report jobs.
+ * Asks for a reporting year and export format, then runs the {@link ReportEngine} on a
+ * background thread. Each job shows a progress bar in the view until it finishes and can be
+ * cancelled while it runs. Jobs run one at a time in the order they were started.
+ */
+public class Reports {
+
+    private static final int YEARS_OFFERED = 10; // How far back the year picker goes
+
+    private final ReportEngine engine;
+    private final VBox jobsBox = new VBox(6);
+    private final ExecutorService jobs; // Runs report jobs off the FX thread
+
+    public Reports(ReportEngine engine) {
+        this.engine = engine;
+        jobs = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "report-jobs");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Asks for the report parameters and a target file, then starts the job.
+     *
+     * @param owner The window that owns the dialogs.
+     */
+    public void showGenerateDialog(Window owner) {
+        ComboBox<Integer> yearBox = new ComboBox<>();
+        int currentYear = Year.now().getValue();
+        for (int year = currentYear; year > currentYear - YEARS_OFFERED; year--) {
+            yearBox.getItems().add(year);
+        }
+        yearBox.setValue(currentYear);
+        ComboBox<ReportWriter.Format> formatBox = new ComboBox<>();
+        formatBox.getItems().addAll(ReportWriter.Format.values());
+        formatBox.setValue(ReportWriter.Format.XLSX);
+
+        GridPane form = new GridPane();
+        form.setHgap(10);
+        form.setVgap(10);
+        form.setPadding(new Insets(10));
+        form.addRow(0, new Label("Year:"), yearBox);
+        form.addRow(1, new Label("Format:"), formatBox);
+
+        Dialog<ButtonType> dialog = new Dialog<>();
+        dialog.initOwner(owner);
+        dialog.setTitle("Generate Report");
+        dialog.setHeaderText("Annual caseload report");
+        dialog.getDialogPane().setContent(form);
+        dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+        if (dialog.showAndWait().orElse(ButtonType.CANCEL) != ButtonType.OK) {
+            return;
+        }
+
+        int year = yearBox.getValue();
+        ReportWriter.Format format = formatBox.getValue();
+        FileChooser chooser = new FileChooser();
+        chooser.setInitialFileName("caseload-" + year + "." + format.getExtension());
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter(format + " files", "*." + format.getExtension()));
+        File target = chooser.showSaveDialog(owner);
+        if (target == null) {
+            return;
+        }
+        LocalDate from = LocalDate.of(year, 1, 1);
+        LocalDate to = year == currentYear ? LocalDate.now() : LocalDate.of(year, 12, 31);
+        start(from, to, format, target);
+    }
+
+    /**
+     * Queues a report job and adds its progress row to the view.
+     *
+     * @param from   The first day of the reporting period.
+     * @param to     The last day of the reporting period.
+     * @param format The export format.
+     * @param target The file to write.
+     */
+    public void start(LocalDate from, LocalDate to, ReportWriter.Format format, File target) {
+        Task<Void> job = new Task<>() {
+            @Override
+            protected Void call() throws Exception {
+                try {
+                    engine.export(from, to, format, target.toPath(), (done, total) -> {
+                        if (isCancelled()) {
+                            throw new CancellationException();
+                        }
+                        updateProgress(done, total);
+                    });
+                } catch (Exception e) {
+                    Files.deleteIfExists(target.toPath()); // Drop the partial file
+                    throw e;
+                }
+                return null;
+            }
+        };
+
+        Label name = new Label(target.getName());
+        name.setStyle("-fx-text-fill: #DDDDDD;");
+        ProgressBar progress = new ProgressBar();
+        progress.progressProperty().bind(job.progressProperty());
+        progress.setPrefWidth(150);
+        Button cancel = new Button("Cancel");
+        cancel.setStyle("-fx-background-color: #6c757d; -fx-text-fill: white;");
+        HBox row = new HBox(8, name, progress, cancel);
+        row.setAlignment(Pos.CENTER_LEFT);
+        jobsBox.getChildren().add(row);
+
+        cancel.setOnAction(e -> job.cancel());
+        job.setOnSucceeded(e -> {
+            jobsBox.getChildren().remove(row);
+            AuditLog.global().record("report.generated", from + ".." + to + " " + format + " -> " + target);
+            new Alert(Alert.AlertType.INFORMATION, "Report saved to " + target).show();
+        });
+        job.setOnCancelled(e -> jobsBox.getChildren().remove(row));
+        job.setOnFailed(e -> {
+            jobsBox.getChildren().remove(row);
+            AuditLog.global().record("report.failed", target + ": " + job.getException());
+            new Alert(Alert.AlertType.ERROR, "Could not generate " + target.getName() + ": " + job.getException().getMessage()).show();
+        });
+        AuditLog.global().record("report.started", from + ".." + to + " " + format);
+        jobs.execute(job);
+    }
+
+    /**
+     * Provides the progress rows of running and queued jobs.
+     *
+     * @return The jobs container.
+     */
+    public VBox getView() {
+        return jobsBox;
+    }
 }
@@ -0,0 +1,39 @@
+package com.astro;
+
+import static com.astro.Permission.*;
+
+/**
+ * A role a user holds, granting a fixed set of permissions.
+ * The grants follow the role-gated actions of each view: clerks run the registry and the
+ * calendar, judges act on their own cases and hearings, administrators manage users, reports
+ * and backups, and lawyers and the public file documents and search public cases.
+ */
+public enum Role {
+
+    CLERK("Clerk", bits(VIEW_CASES, REGISTER_CASES, EDIT_CASES, ASSIGN_JUDGES, VIEW_HEARINGS, SCHEDULE_HEARINGS,
+        ADJOURN_HEARINGS, UPLOAD_DOCUMENTS, SEAL_DOCUMENTS, VALIDATE_FILINGS, VIEW_JUDGE_AVAILABILITY,
+        VIEW_TASK_QUEUE, DECIDE_TASKS, VIEW_REPORTS, PUBLIC_SEARCH)),
+    JUDGE("Judge", bits(VIEW_CASES, EDIT_OWN_CASES, VIEW_HEARINGS, ADJOURN_OWN_HEARINGS, UPLOAD_DOCUMENTS,
+        SIGN_DOCUMENTS, SEAL_DOCUMENTS, VIEW_TASK_QUEUE, DECIDE_TASKS, VIEW_REPORTS, PUBLIC_SEARCH)),
+    ADMIN("Administrator", bits(VIEW_CASES, ASSIGN_JUDGES, VIEW_HEARINGS, VALIDATE_FILINGS, VIEW_JUDGE_AVAILABILITY,
+        VIEW_REPORTS, VIEW_PERFORMANCE, VIEW_AUDIT_LOGS, MANAGE_USERS, ASSIGN_ROLES, MANAGE_BACKUPS, PUBLIC_SEARCH)),
+    LAWYER("Lawyer", bits(VIEW_OWN_HEARINGS, SUBMIT_FILINGS, PUBLIC_SEARCH)),
+    PUBLIC("Public", bits(SUBMIT_FILINGS, PUBLIC_SEARCH));
+
+    private final String label;
+    private final long permissions; // Bit set of granted permissions
+
+    Role(String label, long permissions) {
+        this.label = label;
+        this.permissions = permissions;
+    }
+
+    public String getLabel() { return label; }
+
+    /**
+     * Returns the permissions the role grants.
+     *
+     * @return A bit set of {@link Permission#bit()} values.
+     */
+    public long permissions() { return permissions; }
+}
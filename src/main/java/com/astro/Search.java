@@ -1,6 +1,496 @@
-import javax.swing.*;
-import java.awt.*;
-class Search extends JPanel
-{
+package com.astro;
 
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Public case search and judgment access.
+ * Queries run against a {@link PublicSearchIndex} snapshot rather than the live registry, so
+ * public traffic never takes the locks clerks write under. Changed cases are collected as the
+ * registry reports them and applied to the snapshot in the background, so results lag writes by
+ * a few seconds at most and a refresh costs in proportion to the changes rather than the
+ * registry. Rendered responses for popular queries and cases are kept in {@link TinyLfuCache}s;
+ * a refresh drops only the cached queries the changed cases match, before or after the change,
+ * and the changed cases' details. Small judgments are cached by content hash.
+ * <p>
+ * The service can be exposed over HTTP with {@link #start(int)}, or run headless with
+ * {@link #main(String[])} for local load testing:
+ * <ul>
+ *   <li>{@code GET /search?q=smith&page=0} - matching cases, 20 per page</li>
+ *   <li>{@code GET /cases/<case number>} - case details and published judgments</li>
+ *   <li>{@code GET /judgments/<case number>/<content hash>} - judgment content</li>
+ *   <li>{@code GET /stats} - snapshot and cache counters</li>
+ * </ul>
+ */
+public class Search implements CaseRepository.Listener, Closeable {
+
+    private static final int PAGE_SIZE = 20; // Results per page
+    private static final long REFRESH_MILLIS = 2_000; // How often changes are applied to the snapshot
+    private static final int INVALIDATE_LIMIT = 1_000; // Changes per refresh above which the caches are cleared outright
+    private static final long CASE_TTL_NANOS = TimeUnit.MINUTES.toNanos(1); // New judgments appear within this
+    private static final int MAX_CACHED_JUDGMENT = 1 << 20; // Larger judgments are streamed from the store
+    private static final int DEFAULT_PORT = 8085;
+    private static final Case REMOVED = new Case("", "", "", "", null, ""); // Marks a case number that was changed away from
+
+    private final CaseRepository caseRepository;
+    private final DocumentStore documentStore; // Source of judgments; may be null
+    private volatile PublicSearchIndex snapshot;
+    private final Map<String, Case> changes = new ConcurrentHashMap<>(); // Case number -> latest version, or REMOVED
+    private final TinyLfuCache<String, byte[]> queryCache = new TinyLfuCache<>(20_000); // Query -> rendered page
+    private final TinyLfuCache<String, CaseView> caseCache = new TinyLfuCache<>(20_000); // Case number -> details
+    private final TinyLfuCache<String, byte[]> judgmentCache = new TinyLfuCache<>(512); // Content hash -> bytes
+    private final ScheduledExecutorService refresher;
+    private final LongAdder requests = new LongAdder();
+    private HttpServer server;
+    private ExecutorService handlers;
+
+    /**
+     * Builds the first snapshot and starts following the registry.
+     *
+     * @param caseRepository The case registry.
+     * @param documentStore  The document store holding judgments, or null for search only.
+     */
+    public Search(CaseRepository caseRepository, DocumentStore documentStore) {
+        this.caseRepository = caseRepository;
+        this.documentStore = documentStore;
+        caseRepository.addListener(this);
+        snapshot = PublicSearchIndex.build(caseRepository);
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "public-search-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(this::refresh, REFRESH_MILLIS, REFRESH_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void caseAdded(int rowId, Case added) {
+        changes.put(added.getCaseNumber(), added);
+    }
+
+    @Override
+    public void caseUpdated(int rowId, Case previous, Case updated) {
+        if (!previous.getCaseNumber().equals(updated.getCaseNumber())) {
+            changes.put(previous.getCaseNumber(), REMOVED);
+        }
+        changes.put(updated.getCaseNumber(), updated);
+    }
+
+    private void refresh() {
+        if (changes.isEmpty()) {
+            return;
+        }
+        Map<String, Case> batch = new HashMap<>();
+        for (String caseNumber : changes.keySet()) {
+            Case latest = changes.remove(caseNumber); // A change reported after this stays for the next round
+            if (latest != null) {
+                batch.put(caseNumber, latest == REMOVED ? null : latest);
+            }
+        }
+        PublicSearchIndex previous = snapshot;
+        try {
+            snapshot = previous.withChanges(batch);
+        } catch (RuntimeException e) {
+            batch.forEach((caseNumber, latest) -> changes.putIfAbsent(caseNumber, latest == null ? REMOVED : latest)); // Try again next round
+            AuditLog.global().record("system", "search.snapshot.failed", String.valueOf(e));
+            return;
+        }
+        if (batch.size() > INVALIDATE_LIMIT) {
+            queryCache.clear(); // Cheaper than matching every cached query against this many cases
+            caseCache.clear();
+            return;
+        }
+        List<Case> versions = new ArrayList<>(batch.size() * 2); // Before and after, so pages that lose a case are dropped too
+        batch.forEach((caseNumber, latest) -> {
+            Case before = previous.find(caseNumber);
+            if (before != null) {
+                versions.add(before);
+            }
+            if (latest != null) {
+                versions.add(latest);
+            }
+            caseCache.remove(caseNumber);
+        });
+        PublicSearchIndex changed = PublicSearchIndex.of(versions);
+        queryCache.removeIf(key -> changed.search(key.substring(0, key.indexOf('\u0000')), 0, 0).getTotal() > 0);
+    }
+
+    /**
+     * Runs a public query.
+     *
+     * @param query The free-text query.
+     * @param page  The zero-based results page.
+     * @return The matching cases on that page and the total match count.
+     */
+    public PublicSearchIndex.Page search(String query, int page) {
+        return snapshot.search(query, firstResult(page), PAGE_SIZE);
+    }
+
+    private static int firstResult(int page) {
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(0L, (long) page * PAGE_SIZE)); // Deep pages clamp instead of overflowing
+    }
+
+    /**
+     * Starts serving the HTTP endpoints.
+     *
+     * @param port The port to listen on, or 0 for any free port.
+     * @throws IOException If the port cannot be bound.
+     */
+    public synchronized void start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), 1024);
+        AtomicInteger count = new AtomicInteger();
+        handlers = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2, runnable -> {
+            Thread thread = new Thread(runnable, "public-search-http-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(handlers);
+        server.createContext("/search", exchange -> handle(exchange, () -> searchResponse(exchange)));
+        server.createContext("/cases/", exchange -> handle(exchange, () -> caseResponse(exchange)));
+        server.createContext("/judgments/", exchange -> handle(exchange, () -> judgmentResponse(exchange)));
+        server.createContext("/stats", exchange -> handle(exchange, this::statsResponse));
+        server.start();
+    }
+
+    /**
+     * Returns the port the HTTP endpoints listen on.
+     *
+     * @return The bound port.
+     */
+    public synchronized int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public synchronized void close() {
+        caseRepository.removeListener(this);
+        refresher.shutdownNow();
+        if (server != null) {
+            server.stop(0);
+            handlers.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs the public search service without the desktop UI.
+     *
+     * @param args Optionally the port to listen on.
+     * @throws Exception If the data stores cannot be opened or the port bound.
+     */
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        // Headers and body go out in separate writes; without TCP_NODELAY each small response
+        // waits ~40 ms for the client's delayed ACK. The JDK server reads this once per process,
+        // so it is only set here, where the process is this service alone
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        Search search = new Search(FileCaseRepository.openDefault(), DocumentStore.openDefault());
+        search.start(port);
+        System.out.println("Public search listening on http://localhost:" + search.getPort() + "/search?q=");
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            search.close();
+            stopped.countDown();
+        }));
+        stopped.await();
+    }
+
+    /**
+     * A response: status, content type and body. A body of null is streamed by {@link #stream}.
+     */
+    private static final class Response {
+        final int status;
+        final String contentType;
+        final byte[] body;
+        final Streamer stream;
+
+        Response(int status, String contentType, byte[] body, Streamer stream) {
+            this.status = status;
+            this.contentType = contentType;
+            this.body = body;
+            this.stream = stream;
+        }
+
+        static Response json(byte[] body) {
+            return new Response(200, "application/json; charset=utf-8", body, null);
+        }
+
+        static Response error(int status, String message) {
+            return new Response(status, "application/json; charset=utf-8",
+                ("{\"error\":" + quote(message) + "}").getBytes(StandardCharsets.UTF_8), null);
+        }
+    }
+
+    private interface Streamer {
+        long length();
+
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private interface Handler {
+        Response respond() throws IOException;
+    }
+
+    private void handle(HttpExchange exchange, Handler handler) throws IOException {
+        requests.increment();
+        try (exchange) {
+            Response response;
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                response = Response.error(405, "Only GET is supported");
+            } else {
+                try {
+                    response = handler.respond();
+                } catch (RuntimeException e) {
+                    AuditLog.global().record("system", "search.request.failed", exchange.getRequestURI() + ": " + e);
+                    response = Response.error(500, "Internal error");
+                }
+            }
+            exchange.getResponseHeaders().set("Content-Type", response.contentType);
+            if (response.body != null) {
+                exchange.sendResponseHeaders(response.status, response.body.length);
+                exchange.getResponseBody().write(response.body);
+            } else {
+                exchange.sendResponseHeaders(response.status, response.stream.length());
+                response.stream.writeTo(exchange.getResponseBody());
+            }
+        }
+    }
+
+    private Response searchResponse(HttpExchange exchange) {
+        String query = "";
+        int page = 0;
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw != null) {
+            for (String parameter : raw.split("&")) {
+                int equals = parameter.indexOf('=');
+                String name = equals < 0 ? parameter : parameter.substring(0, equals);
+                String value = equals < 0 ? "" : URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8);
+                if (name.equals("q")) {
+                    query = value;
+                } else if (name.equals("page")) {
+                    try {
+                        page = Math.max(0, Integer.parseInt(value));
+                    } catch (NumberFormatException e) {
+                        return Response.error(400, "Bad page number");
+                    }
+                }
+            }
+        }
+        String key = String.join(" ", CaseSearchIndex.normalize(query).trim().split("\\s+")) + '\u0000' + page;
+        byte[] body = queryCache.get(key);
+        if (body == null) {
+            PublicSearchIndex current = snapshot;
+            PublicSearchIndex.Page results = current.search(query, firstResult(page), PAGE_SIZE);
+            StringBuilder json = new StringBuilder(256 + results.getCases().size() * 160);
+            json.append("{\"query\":").append(quote(query))
+                .append(",\"page\":").append(page)
+                .append(",\"total\":").append(results.getTotal())
+                .append(",\"results\":[");
+            List<Case> cases = results.getCases();
+            for (int i = 0; i < cases.size(); i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                appendCase(json, cases.get(i));
+            }
+            body = json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+            queryCache.put(key, body);
+            if (snapshot != current) {
+                queryCache.remove(key); // Rendered from a snapshot a refresh may already have invalidated against
+            }
+        }
+        return Response.json(body);
+    }
+
+    private Response caseResponse(HttpExchange exchange) {
+        String caseNumber = pathAfter(exchange, "/cases/");
+        CaseView view = caseView(caseNumber);
+        return view == null ? Response.error(404, "No such case") : Response.json(view.json);
+    }
+
+    private Response judgmentResponse(HttpExchange exchange) throws IOException {
+        String rest = pathAfter(exchange, "/judgments/");
+        int slash = rest.lastIndexOf('/');
+        CaseView view = slash < 0 ? null : caseView(rest.substring(0, slash));
+        String hash = slash < 0 ? "" : rest.substring(slash + 1);
+        DocumentStore.Version judgment = null;
+        if (view != null) {
+            for (DocumentStore.Version version : view.judgments) {
+                if (version.getContentHash().equals(hash)) {
+                    judgment = version; // Only published judgments of the named case are served
+                }
+            }
+        }
+        if (judgment == null) {
+            return Response.error(404, "No such judgment");
+        }
+        String contentType = contentType(judgment.getName());
+        if (judgment.getSize() > MAX_CACHED_JUDGMENT) {
+            long size = judgment.getSize();
+            return new Response(200, contentType, null, new Streamer() {
+                @Override
+                public long length() {
+                    return size;
+                }
+
+                @Override
+                public void writeTo(OutputStream out) throws IOException {
+                    documentStore.transferTo(hash, Channels.newChannel(out));
+                }
+            });
+        }
+        byte[] content = judgmentCache.get(hash);
+        if (content == null) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream((int) judgment.getSize());
+            documentStore.transferTo(hash, Channels.newChannel(buffer));
+            content = buffer.toByteArray();
+            judgmentCache.put(hash, content); // Content-addressed, so never stale
+        }
+        return new Response(200, contentType, content, null);
+    }
+
+    private Response statsResponse() {
+        PublicSearchIndex current = snapshot;
+        String json = "{\"cases\":" + current.size()
+            + ",\"snapshotBuiltAt\":" + current.getBuiltAt()
+            + ",\"requests\":" + requests.sum()
+            + ",\"queryCache\":" + cacheStats(queryCache)
+            + ",\"caseCache\":" + cacheStats(caseCache)
+            + ",\"judgmentCache\":" + cacheStats(judgmentCache) + "}";
+        return Response.json(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Case details with the published judgments, rendered once and cached.
+     */
+    private static final class CaseView {
+        final List<DocumentStore.Version> judgments;
+        final byte[] json;
+        final long loadedAt = System.nanoTime();
+
+        CaseView(List<DocumentStore.Version> judgments, byte[] json) {
+            this.judgments = judgments;
+            this.json = json;
+        }
+    }
+
+    private CaseView caseView(String caseNumber) {
+        CaseView view = caseCache.get(caseNumber);
+        if (view != null && System.nanoTime() - view.loadedAt < CASE_TTL_NANOS) {
+            return view;
+        }
+        PublicSearchIndex current = snapshot;
+        Case c = current.find(caseNumber);
+        if (c == null) {
+            return null;
+        }
+        List<DocumentStore.Version> judgments = new ArrayList<>();
+        if (documentStore != null) {
+            for (DocumentStore.Version version : documentStore.documents(caseNumber)) {
+                String name = version.getName().toLowerCase(Locale.ROOT);
+                if (name.contains("judgment") || name.contains("judgement")) {
+                    judgments.add(version);
+                }
+            }
+        }
+        StringBuilder json = new StringBuilder(512);
+        json.append("{\"case\":");
+        appendCase(json, c);
+        json.append(",\"judgments\":[");
+        for (int i = 0; i < judgments.size(); i++) {
+            DocumentStore.Version judgment = judgments.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"name\":").append(quote(judgment.getName()))
+                .append(",\"version\":").append(judgment.getNumber())
+                .append(",\"size\":").append(judgment.getSize())
+                .append(",\"uploadedAt\":").append(quote(judgment.getUploadedAt().toString()))
+                .append(",\"url\":").append(quote("/judgments/" + caseNumber + "/" + judgment.getContentHash()))
+                .append('}');
+        }
+        view = new CaseView(judgments, json.append("]}").toString().getBytes(StandardCharsets.UTF_8));
+        caseCache.put(caseNumber, view);
+        if (snapshot != current) {
+            caseCache.remove(caseNumber); // Rendered from a snapshot a refresh may already have invalidated against
+        }
+        return view;
+    }
+
+    private static void appendCase(StringBuilder json, Case c) {
+        json.append("{\"caseNumber\":").append(quote(c.getCaseNumber()))
+            .append(",\"title\":").append(quote(c.getCaseTitle()))
+            .append(",\"type\":").append(quote(c.getCaseType()))
+            .append(",\"status\":").append(quote(c.getCurrentStatus()))
+            .append(",\"filingDate\":").append(quote(c.getFilingDate() == null ? null : c.getFilingDate().toString()))
+            .append(",\"judge\":").append(quote(c.getAssignedJudge()))
+            .append('}');
+    }
+
+    private static String cacheStats(TinyLfuCache<?, ?> cache) {
+        return "{\"hits\":" + cache.getHits() + ",\"misses\":" + cache.getMisses() + ",\"rejected\":" + cache.getRejected() + "}";
+    }
+
+    private static String pathAfter(HttpExchange exchange, String prefix) {
+        String path = exchange.getRequestURI().getPath(); // Already percent-decoded
+        return path.length() > prefix.length() ? path.substring(prefix.length()) : "";
+    }
+
+    private static String contentType(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".pdf")) {
+            return "application/pdf";
+        }
+        if (lower.endsWith(".txt")) {
+            return "text/plain; charset=utf-8";
+        }
+        return "application/octet-stream";
+    }
+
+    private static String quote(String text) {
+        if (text == null) {
+            return "null";
+        }
+        StringBuilder quoted = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"': quoted.append("\\\""); break;
+                case '\\': quoted.append("\\\\"); break;
+                case '\n': quoted.append("\\n"); break;
+                case '\r': quoted.append("\\r"); break;
+                case '\t': quoted.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+            }
+        }
+        return quoted.append('"').toString();
+    }
 }
@@ -1,6 +1,256 @@
-import javax.swing.*;
-import java.awt.*;
-class Settings extends JPanel
-{
+package com.astro;
 
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.prefs.Preferences;
+
+/**
+ * Settings and administration view.
+ * Holds the backup and restore controls: the automatic backup interval, on-demand backups, and
+ * restoring the stores as of any backup, which takes effect the next time the application starts.
+ */
+public class Settings {
+
+    private static final String BACKUP_INTERVAL_KEY = "backup.interval"; // Preference holding the interval label
+    private static final Map<String, Duration> BACKUP_INTERVALS = new LinkedHashMap<>();
+    private static final DateTimeFormatter BACKUP_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    static {
+        BACKUP_INTERVALS.put("Off", null);
+        BACKUP_INTERVALS.put("Every 15 minutes", Duration.ofMinutes(15));
+        BACKUP_INTERVALS.put("Every hour", Duration.ofHours(1));
+        BACKUP_INTERVALS.put("Daily", Duration.ofDays(1));
+    }
+
+    private final BackupManager backups;
+    private final ExecutorService backupJobs = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "settings-backup");
+        thread.setDaemon(true);
+        return thread;
+    }); // Backups and restores run off the FX thread
+    private final VBox settingsPane;
+    private final ObservableList<BackupManager.BackupInfo> backupList = FXCollections.observableArrayList();
+    private final ListView<BackupManager.BackupInfo> backupView = new ListView<>(backupList);
+    private final ProgressBar progress = new ProgressBar(0);
+    private final Label status = new Label();
+    private final Button backupButton = new Button("Back Up Now");
+    private final Button restoreButton = new Button("Restore Selected");
+
+    public Settings(BackupManager backups) {
+        this.backups = backups;
+
+        settingsPane = new VBox(20);
+        settingsPane.setPadding(new Insets(20));
+        settingsPane.setStyle("-fx-background-color: #282c34;"); // Main content background
+
+        Label title = new Label("Backup & Restore");
+        title.setStyle("-fx-text-fill: #e0e0e0; -fx-font-size: 16px; -fx-font-weight: bold;");
+        Label location = new Label("Backups are kept in " + backups.getDirectory());
+        location.setStyle("-fx-text-fill: #e0e0e0;");
+        status.setStyle("-fx-text-fill: #e0e0e0;");
+
+        VBox.setVgrow(backupView, Priority.ALWAYS);
+        backupView.setCellFactory(list -> new ListCell<>() {
+            @Override
+            protected void updateItem(BackupManager.BackupInfo item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? null
+                    : BACKUP_TIME.format(item.getCreatedAt()) + "    " + formatBytes(item.getLogicalBytes()));
+            }
+        });
+        progress.setVisible(false);
+        progress.setMaxWidth(Double.MAX_VALUE);
+
+        settingsPane.getChildren().addAll(title, location, createScheduleRow(), createBackupRow(),
+            createPointInTimeRow(), backupView, progress, status);
+        refresh();
+    }
+
+    /**
+     * Returns the automatic backup interval chosen in Settings.
+     *
+     * @return The interval, or null if automatic backups are off.
+     */
+    public static Duration automaticBackupInterval() {
+        return BACKUP_INTERVALS.get(Preferences.userNodeForPackage(Settings.class).get(BACKUP_INTERVAL_KEY, "Every hour"));
+    }
+
+    private HBox createScheduleRow() {
+        Label label = new Label("Automatic backup:");
+        label.setStyle("-fx-text-fill: #e0e0e0;");
+        ComboBox<String> interval = new ComboBox<>(FXCollections.observableArrayList(BACKUP_INTERVALS.keySet()));
+        interval.setValue(Preferences.userNodeForPackage(Settings.class).get(BACKUP_INTERVAL_KEY, "Every hour"));
+        interval.setOnAction(e -> {
+            Preferences.userNodeForPackage(Settings.class).put(BACKUP_INTERVAL_KEY, interval.getValue());
+            backups.scheduleEvery(BACKUP_INTERVALS.get(interval.getValue()));
+        });
+        HBox row = new HBox(10, label, interval);
+        row.setAlignment(Pos.CENTER_LEFT);
+        return row;
+    }
+
+    private HBox createBackupRow() {
+        String primaryStyle = "-fx-background-color: #007bff; -fx-text-fill: white; -fx-font-weight: bold; -fx-border-radius: 5; -fx-background-radius: 5;";
+        backupButton.setStyle(primaryStyle);
+        backupButton.setOnAction(e -> backUp());
+        restoreButton.setStyle("-fx-background-color: #dc3545; -fx-text-fill: white; -fx-font-weight: bold; -fx-border-radius: 5; -fx-background-radius: 5;");
+        restoreButton.setOnAction(e -> restore(backupView.getSelectionModel().getSelectedItem()));
+        HBox row = new HBox(10, backupButton, restoreButton);
+        row.setAlignment(Pos.CENTER_LEFT);
+        return row;
+    }
+
+    /**
+     * Lets the administrator pick a date and time and selects the backup that restores to it.
+     */
+    private HBox createPointInTimeRow() {
+        Label label = new Label("Restore as of:");
+        label.setStyle("-fx-text-fill: #e0e0e0;");
+        DatePicker date = new DatePicker(LocalDate.now());
+        TextField time = new TextField(LocalTime.now().withSecond(0).withNano(0).toString());
+        time.setPrefColumnCount(5);
+        Button find = new Button("Find Backup");
+        find.setOnAction(e -> {
+            try {
+                Instant pointInTime = date.getValue().atTime(LocalTime.parse(time.getText().trim()))
+                    .atZone(ZoneId.systemDefault()).toInstant();
+                backupJobs.execute(() -> {
+                    try {
+                        BackupManager.BackupInfo found = backups.backupAt(pointInTime);
+                        Platform.runLater(() -> {
+                            if (found == null) {
+                                new Alert(Alert.AlertType.INFORMATION, "No backup was taken before that time.").show();
+                            } else {
+                                backupList.stream().filter(b -> b.getId().equals(found.getId())).findFirst()
+                                    .ifPresent(b -> {
+                                        backupView.getSelectionModel().select(b);
+                                        backupView.scrollTo(b);
+                                    });
+                            }
+                        });
+                    } catch (IOException ex) {
+                        Platform.runLater(() -> new Alert(Alert.AlertType.ERROR, "Cannot read backups: " + ex.getMessage()).show());
+                    }
+                });
+            } catch (DateTimeParseException | NullPointerException ex) {
+                new Alert(Alert.AlertType.ERROR, "Enter a date and a time such as 14:30.").show();
+            }
+        });
+        HBox row = new HBox(10, label, date, time, find);
+        row.setAlignment(Pos.CENTER_LEFT);
+        return row;
+    }
+
+    private void refresh() {
+        backupJobs.execute(() -> {
+            try {
+                List<BackupManager.BackupInfo> list = backups.list();
+                Platform.runLater(() -> {
+                    backupList.setAll(list);
+                    if (!list.isEmpty()) {
+                        backupView.scrollTo(list.size() - 1);
+                    }
+                });
+            } catch (IOException e) {
+                Platform.runLater(() -> status.setText("Cannot read backups: " + e.getMessage()));
+            }
+        });
+    }
+
+    private void backUp() {
+        setBusy(true, "Backing up...");
+        backupJobs.execute(() -> {
+            try {
+                BackupManager.Result result = backups.backup(this::showProgress);
+                AuditLog.global().record("backup.created", result.getBackup().getId());
+                Platform.runLater(() -> setBusy(false, String.format("Backed up %s in %d ms: read %s, wrote %d new blocks (%s).",
+                    formatBytes(result.getBackup().getLogicalBytes()), result.getMillis(), formatBytes(result.getBytesRead()),
+                    result.getBlocksWritten(), formatBytes(result.getBytesWritten()))));
+            } catch (IOException | RuntimeException e) {
+                AuditLog.global().record("backup.failed", String.valueOf(e));
+                Platform.runLater(() -> setBusy(false, "Backup failed: " + e.getMessage()));
+            }
+            refresh();
+        });
+    }
+
+    private void restore(BackupManager.BackupInfo backup) {
+        if (backup == null) {
+            new Alert(Alert.AlertType.INFORMATION, "Select a backup to restore.").show();
+            return;
+        }
+        Alert confirm = new Alert(Alert.AlertType.CONFIRMATION,
+            "The case, history and document stores will be replaced by the backup taken at "
+                + BACKUP_TIME.format(backup.getCreatedAt()) + " when the application next starts. "
+                + "The current stores are kept in the data directory.");
+        confirm.setHeaderText("Restore this backup?");
+        if (confirm.showAndWait().orElse(ButtonType.CANCEL) != ButtonType.OK) {
+            return;
+        }
+        setBusy(true, "Restoring...");
+        backupJobs.execute(() -> {
+            try {
+                backups.stageRestore(backup, this::showProgress);
+                AuditLog.global().record("backup.restore.staged", backup.getId());
+                Platform.runLater(() -> setBusy(false, "Restore is ready. Restart the application to complete it."));
+            } catch (IOException | RuntimeException e) {
+                AuditLog.global().record("backup.restore.failed", String.valueOf(e));
+                Platform.runLater(() -> setBusy(false, "Restore failed: " + e.getMessage()));
+            }
+        });
+    }
+
+    private void showProgress(long done, long total) {
+        Platform.runLater(() -> progress.setProgress(total == 0 ? 1 : (double) done / total));
+    }
+
+    private void setBusy(boolean busy, String message) {
+        backupButton.setDisable(busy);
+        restoreButton.setDisable(busy);
+        progress.setProgress(0);
+        progress.setVisible(busy);
+        status.setText(message);
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        int unit = (63 - Long.numberOfLeadingZeros(bytes)) / 10;
+        return String.format("%.1f %sB", bytes / (double) (1L << (unit * 10)), "KMGTPE".charAt(unit - 1));
+    }
+
+    public VBox getView() {
+        return settingsPane;
+    }
 }
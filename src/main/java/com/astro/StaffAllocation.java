@@ -1,6 +1,314 @@
-import javax.swing.*;
-import java.awt.*;
-class StaffAllocation extends JPanel
-{
+package com.astro;
 
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.VBox;
+import javafx.stage.Window;
+import javafx.util.Duration;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Judge and staff allocation view.
+ * Lists every judge's live workload from the {@link JudgeWorkloadIndex}, lets clerks book leave,
+ * assign a judge to an unassigned case with the least-loaded eligible judge preselected, and
+ * spread all unassigned cases across the roster in one rebalance run.
+ */
+public class StaffAllocation {
+
+    private static final int ASSIGN_DIALOG_CASES = 200; // Unassigned cases offered in the assign dialog
+    private static final ExecutorService ASSIGNER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "judge-assignment");
+        thread.setDaemon(true);
+        return thread;
+    }); // Reads and writes cases off the FX thread
+
+    private final JudgeWorkloadIndex judgeWorkload;
+    private final VBox allocationPane;
+    private final ObservableList<JudgeWorkloadIndex.Snapshot> workloads = FXCollections.observableArrayList();
+    private final TableView<JudgeWorkloadIndex.Snapshot> table;
+    private final Button rebalanceButton = new Button();
+    private final ProgressBar rebalanceProgress = new ProgressBar(0);
+
+    public StaffAllocation(JudgeWorkloadIndex judgeWorkload) {
+        this.judgeWorkload = judgeWorkload;
+
+        allocationPane = new VBox(20);
+        allocationPane.setPadding(new Insets(20));
+        allocationPane.setStyle("-fx-background-color: #282c34;"); // Main content background
+
+        Label title = new Label("Judge Workload");
+        title.setStyle("-fx-text-fill: #e0e0e0; -fx-font-size: 16px; -fx-font-weight: bold;");
+
+        table = createTable();
+        VBox.setVgrow(table, Priority.ALWAYS);
+
+        allocationPane.getChildren().addAll(createToolbar(), title, table);
+        refresh();
+
+        // Loads change with every case and hearing update; the table is cheap to redraw
+        Timeline refresher = new Timeline(new KeyFrame(Duration.seconds(2), e -> refresh()));
+        refresher.setCycleCount(Timeline.INDEFINITE);
+        refresher.play();
+    }
+
+    private HBox createToolbar() {
+        HBox toolbar = new HBox(10);
+        toolbar.setAlignment(Pos.CENTER_LEFT);
+        String primaryStyle = "-fx-background-color: #007bff; -fx-text-fill: white; -fx-font-weight: bold; -fx-border-radius: 5; -fx-background-radius: 5;";
+        String secondaryStyle = "-fx-background-color: #6c757d; -fx-text-fill: white; -fx-border-radius: 5; -fx-background-radius: 5;";
+
+        Button assignButton = new Button("Assign Judge");
+        assignButton.setStyle(primaryStyle);
+        assignButton.setOnAction(e -> showAssignDialog(judgeWorkload, allocationPane.getScene().getWindow()));
+
+        Button leaveButton = new Button("Book Leave");
+        leaveButton.setStyle(secondaryStyle);
+        leaveButton.setOnAction(e -> bookLeave());
+
+        rebalanceButton.setStyle(primaryStyle);
+        rebalanceButton.setOnAction(e -> rebalance());
+        rebalanceProgress.setVisible(false);
+
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+
+        if (AccessPolicy.current().can(Permission.ASSIGN_JUDGES)) {
+            toolbar.getChildren().addAll(assignButton, leaveButton, spacer, rebalanceProgress, rebalanceButton);
+        }
+        return toolbar;
+    }
+
+    private TableView<JudgeWorkloadIndex.Snapshot> createTable() {
+        TableView<JudgeWorkloadIndex.Snapshot> workloadTable = new TableView<>(workloads);
+        workloadTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+
+        TableColumn<JudgeWorkloadIndex.Snapshot, String> judgeCol = new TableColumn<>("Judge");
+        judgeCol.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(cellData.getValue().getJudge().getName()));
+
+        TableColumn<JudgeWorkloadIndex.Snapshot, String> typesCol = new TableColumn<>("Case Types");
+        typesCol.setCellValueFactory(cellData -> {
+            Judge judge = cellData.getValue().getJudge();
+            return new ReadOnlyStringWrapper(judge.getCaseTypes().isEmpty() ? "All" : String.join(", ", judge.getCaseTypes()));
+        });
+
+        TableColumn<JudgeWorkloadIndex.Snapshot, Integer> casesCol = new TableColumn<>("Open Cases");
+        casesCol.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getOpenCases()));
+
+        TableColumn<JudgeWorkloadIndex.Snapshot, Integer> hearingsCol = new TableColumn<>("Active Hearings");
+        hearingsCol.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getActiveHearings()));
+
+        TableColumn<JudgeWorkloadIndex.Snapshot, String> loadCol = new TableColumn<>("Load");
+        loadCol.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(String.format("%.1f", cellData.getValue().getLoad())));
+
+        TableColumn<JudgeWorkloadIndex.Snapshot, String> statusCol = new TableColumn<>("Status");
+        statusCol.setCellValueFactory(cellData -> {
+            JudgeWorkloadIndex.Snapshot snapshot = cellData.getValue();
+            String status = !snapshot.isOnRoster() ? "Not on roster"
+                : snapshot.getJudge().isAvailableOn(LocalDate.now()) ? "Sitting" : "On leave";
+            return new ReadOnlyStringWrapper(status);
+        });
+
+        workloadTable.getColumns().addAll(judgeCol, typesCol, casesCol, hearingsCol, loadCol, statusCol);
+        workloadTable.setStyle("-fx-control-inner-background: #3e4450; " +
+                               "-fx-background-color: #3e4450; " +
+                               "-fx-table-cell-border-color: #282c34; " +
+                               "-fx-text-fill: #e0e0e0;");
+        workloadTable.getStylesheets().add(getClass().getResource("/styles.css").toExternalForm());
+        return workloadTable;
+    }
+
+    private void refresh() {
+        JudgeWorkloadIndex.Snapshot selected = table.getSelectionModel().getSelectedItem();
+        workloads.setAll(judgeWorkload.workloads());
+        if (selected != null) {
+            for (JudgeWorkloadIndex.Snapshot snapshot : workloads) {
+                if (snapshot.getJudge().getName().equals(selected.getJudge().getName())) {
+                    table.getSelectionModel().select(snapshot); // Keep the selection across refreshes
+                }
+            }
+        }
+        if (!rebalanceProgress.isVisible()) {
+            rebalanceButton.setText("Rebalance Unassigned (" + judgeWorkload.getUnassignedCount() + ")");
+        }
+    }
+
+    private void bookLeave() {
+        JudgeWorkloadIndex.Snapshot selected = table.getSelectionModel().getSelectedItem();
+        if (selected == null || !selected.isOnRoster()) {
+            new Alert(Alert.AlertType.INFORMATION, "Select a roster judge to book leave for.").show();
+            return;
+        }
+        DatePicker firstDay = new DatePicker(LocalDate.now());
+        DatePicker lastDay = new DatePicker(LocalDate.now());
+        GridPane form = new GridPane();
+        form.setHgap(10);
+        form.setVgap(10);
+        form.setPadding(new Insets(10));
+        form.addRow(0, new Label("From:"), firstDay);
+        form.addRow(1, new Label("To:"), lastDay);
+
+        Dialog<ButtonType> dialog = new Dialog<>();
+        dialog.initOwner(allocationPane.getScene().getWindow());
+        dialog.setTitle("Book Leave");
+        dialog.setHeaderText("Leave for " + selected.getJudge().getName());
+        dialog.getDialogPane().setContent(form);
+        dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+        if (dialog.showAndWait().orElse(ButtonType.CANCEL) != ButtonType.OK
+                || firstDay.getValue() == null || lastDay.getValue() == null) {
+            return;
+        }
+        if (lastDay.getValue().isBefore(firstDay.getValue())) {
+            new Alert(Alert.AlertType.ERROR, "Leave must end on or after its first day.").show();
+            return;
+        }
+        Judge judge = selected.getJudge().withLeave(firstDay.getValue(), lastDay.getValue());
+        ASSIGNER.execute(() -> {
+            judgeWorkload.updateJudge(judge);
+            AuditLog.global().record("judge.leave.booked", judge.getName() + " " + firstDay.getValue() + ".." + lastDay.getValue());
+            Platform.runLater(this::refresh);
+        });
+    }
+
+    /**
+     * Plans a rebalance in the background, asks for confirmation with the per-judge totals, then
+     * writes it with progress shown in the toolbar.
+     */
+    private void rebalance() {
+        rebalanceButton.setDisable(true);
+        ASSIGNER.execute(() -> {
+            JudgeWorkloadIndex.Plan plan = judgeWorkload.planRebalance();
+            Platform.runLater(() -> {
+                rebalanceButton.setDisable(false);
+                if (plan.size() == 0) {
+                    new Alert(Alert.AlertType.INFORMATION, "There are no unassigned open cases.").show();
+                    return;
+                }
+                StringBuilder summary = new StringBuilder();
+                plan.getPerJudge().forEach((judge, count) -> summary.append(judge).append(": ").append(count).append(" cases\n"));
+                if (plan.getSkipped() > 0) {
+                    summary.append("\n").append(plan.getSkipped()).append(" cases have no eligible judge and stay unassigned.");
+                }
+                Alert confirm = new Alert(Alert.AlertType.CONFIRMATION, summary.toString());
+                confirm.setHeaderText("Assign " + (plan.size() - plan.getSkipped()) + " unassigned cases?");
+                if (confirm.showAndWait().orElse(ButtonType.CANCEL) == ButtonType.OK) {
+                    applyRebalance(plan);
+                }
+            });
+        });
+    }
+
+    private void applyRebalance(JudgeWorkloadIndex.Plan plan) {
+        rebalanceButton.setDisable(true);
+        rebalanceButton.setText("Rebalancing...");
+        rebalanceProgress.setProgress(0);
+        rebalanceProgress.setVisible(true);
+        ASSIGNER.execute(() -> {
+            int assigned = judgeWorkload.applyRebalance(plan,
+                done -> Platform.runLater(() -> rebalanceProgress.setProgress((double) done / plan.size())));
+            Platform.runLater(() -> {
+                rebalanceProgress.setVisible(false);
+                rebalanceButton.setDisable(false);
+                refresh();
+                new Alert(Alert.AlertType.INFORMATION, assigned + " cases assigned.").show();
+            });
+        });
+    }
+
+    /**
+     * Lets the user pick an unassigned case and a judge for it. The judges offered are those who
+     * hear the case's type and are sitting today, least loaded first, with the first selected.
+     *
+     * @param judgeWorkload The workload index to suggest from and assign through.
+     * @param owner         The window that owns the dialog.
+     */
+    public static void showAssignDialog(JudgeWorkloadIndex judgeWorkload, Window owner) {
+        ASSIGNER.execute(() -> {
+            Map<Integer, Case> cases = judgeWorkload.unassignedCases(ASSIGN_DIALOG_CASES);
+            Platform.runLater(() -> {
+                if (cases.isEmpty()) {
+                    new Alert(Alert.AlertType.INFORMATION, "There are no unassigned open cases.").show();
+                    return;
+                }
+                showAssignDialog(judgeWorkload, owner, new ArrayList<>(cases.entrySet()));
+            });
+        });
+    }
+
+    private static void showAssignDialog(JudgeWorkloadIndex judgeWorkload, Window owner, List<Map.Entry<Integer, Case>> cases) {
+        ListView<Map.Entry<Integer, Case>> caseList = new ListView<>(FXCollections.observableArrayList(cases));
+        caseList.setPrefHeight(240);
+        caseList.setCellFactory(list -> new ListCell<>() {
+            @Override
+            protected void updateItem(Map.Entry<Integer, Case> item, boolean empty) {
+                super.updateItem(item, empty);
+                Case c = empty || item == null ? null : item.getValue();
+                setText(c == null ? null : c.getCaseNumber() + "  " + c.getCaseTitle() + " (" + c.getCaseType() + ")");
+            }
+        });
+        ComboBox<Judge> judgeBox = new ComboBox<>();
+        judgeBox.setPrefWidth(250);
+        Label suggestion = new Label();
+        caseList.getSelectionModel().selectedItemProperty().addListener((obs, oldValue, selected) -> {
+            List<Judge> eligible = selected == null ? List.of()
+                : judgeWorkload.eligible(selected.getValue().getCaseType(), LocalDate.now());
+            judgeBox.getItems().setAll(eligible);
+            if (!eligible.isEmpty()) {
+                judgeBox.getSelectionModel().selectFirst(); // Least loaded
+            }
+            suggestion.setText(eligible.isEmpty() ? "No judge available for this case type today"
+                : "Suggested: " + eligible.get(0).getName());
+        });
+        caseList.getSelectionModel().selectFirst();
+
+        VBox content = new VBox(10, new Label("Unassigned cases:"), caseList, new Label("Judge:"), judgeBox, suggestion);
+        content.setPadding(new Insets(10));
+        Dialog<ButtonType> dialog = new Dialog<>();
+        dialog.initOwner(owner);
+        dialog.setTitle("Assign Judge");
+        dialog.setHeaderText("Assign a judge to a case");
+        dialog.getDialogPane().setContent(content);
+        dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+        if (dialog.showAndWait().orElse(ButtonType.CANCEL) != ButtonType.OK) {
+            return;
+        }
+        Map.Entry<Integer, Case> selected = caseList.getSelectionModel().getSelectedItem();
+        Judge judge = judgeBox.getValue();
+        if (selected == null || judge == null) {
+            return;
+        }
+        ASSIGNER.execute(() -> judgeWorkload.assign(selected.getKey(), judge.getName()));
+    }
+
+    public VBox getView() {
+        return allocationPane;
+    }
 }
@@ -0,0 +1,43 @@
+package com.astro;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Records how long after JVM start each startup milestone was reached, e.g. the first frame or
+ * a tab's data becoming available. Only the first occurrence of a milestone counts; each is also
+ * written to the audit log.
+ */
+public class StartupMetrics {
+
+    private final long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime(); // Epoch millis
+    private final Map<String, Long> milestones = new LinkedHashMap<>(); // Milestone -> millis since JVM start
+
+    /**
+     * Records a milestone if it has not been reached before.
+     *
+     * @param milestone The milestone name.
+     */
+    public void mark(String milestone) {
+        long elapsed = System.currentTimeMillis() - jvmStart;
+        synchronized (milestones) {
+            if (milestones.putIfAbsent(milestone, elapsed) != null) {
+                return;
+            }
+        }
+        AuditLog.global().record("system", "startup." + milestone.toLowerCase().replace(' ', '-'), elapsed + " ms after JVM start");
+    }
+
+    /**
+     * Returns the milestones reached so far, in the order they were reached.
+     *
+     * @return Milestone names mapped to milliseconds since JVM start.
+     */
+    public Map<String, Long> getMilestones() {
+        synchronized (milestones) {
+            return Collections.unmodifiableMap(new LinkedHashMap<>(milestones));
+        }
+    }
+}
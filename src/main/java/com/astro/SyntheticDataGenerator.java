@@ -0,0 +1,858 @@
+package com.astro;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+/**
+ * Generates made-up court data for load and scale testing: users, cases, hearings, documents,
+ * e-filings and audit entries shaped like the tables of {@code JMS Schema.sql}, and cases and
+ * hearings as the application's models.
+ * <p>
+ * Every value of a row is a hash of the seed, the table and the row number, so any row can be
+ * produced on its own, in any order and on any thread, and the same seed always gives the same
+ * data however many threads write it. References are computed the same way (hearing {@code n}
+ * belongs to case {@code n / HEARINGS_PER_CASE}, a case's judge is a function of the case), so
+ * every foreign key points at a row that exists, and nothing has to be remembered between rows:
+ * memory stays constant at any size. Ids are row numbers plus one, as AUTO_INCREMENT assigns
+ * them in an empty database.
+ * <p>
+ * The data is skewed the way a registry is: judges are picked from a Zipf distribution, so a few
+ * carry much of the docket, as do a few law firms among the filing lawyers; filings surge on the
+ * last business days of months and quarters, late in the day; older cases are more often closed
+ * and hearings before the as-of date are completed or adjourned.
+ * <p>
+ * Tables are written in chunks of {@link #CHUNK_ROWS} on a thread pool, each chunk streamed to
+ * its own part file, and the parts are then joined in order.
+ */
+public class SyntheticDataGenerator {
+
+    public static final int HEARINGS_PER_CASE = 3;
+    public static final int DOCUMENTS_PER_CASE = 4;
+    public static final int FILINGS_PER_CASE = 2;
+    public static final int AUDIT_ENTRIES_PER_CASE = 10;
+    public static final long DEFAULT_SEED = 20_240_601L;
+    static final int CHUNK_ROWS = 250_000;
+    static final int SQL_ROWS_PER_INSERT = 1_000;
+    private static final int WRITE_BUFFER_CHARS = 1 << 18;
+    private static final double JUDGE_SKEW = 1.1; // Zipf exponent; higher means hotter judges
+    private static final double FIRM_SKEW = 0.9; // Zipf exponent for filing lawyers
+
+    static final LocalDate FIRST_DAY = LocalDate.of(2020, 1, 1);
+    static final int DAYS = 6 * 365; // Filing dates fall in [FIRST_DAY, AS_OF)
+    static final LocalDate AS_OF = FIRST_DAY.plusDays(DAYS); // Hearings after this are still scheduled
+    private static final int DAY_PADDING = 400; // Hearings and audit entries may fall this far past AS_OF
+
+    private static final String[] SURNAMES = {"Evans", "Patel", "Chen", "Smith", "Jones", "Brown", "Green", "Garcia",
+        "Miller", "Davis", "Wilson", "Anderson", "Thomas", "Taylor", "Moore", "Jackson", "Martin", "Lee", "Thompson",
+        "White", "Harris", "Clark", "Lewis", "Robinson", "Walker", "Young", "Allen", "King", "Wright", "Scott"};
+    private static final String[] ENTITIES = {"Holdings", "Logistics", "Estates", "Bank", "Insurance", "Properties",
+        "Foods", "Motors", "Trust", "Council", "Builders", "Energy"};
+    private static final String[] TYPES = {"Civil", "Criminal", "Family", "Commercial", "Land", "Labour", "Appeal"};
+    private static final String[] TYPE_CODES = {"CIV", "CRM", "FAM", "COM", "LND", "LAB", "APP"};
+    private static final double[] TYPE_CDF = cumulative(new double[] {35, 25, 15, 10, 7, 5, 3});
+    private static final String[] HEARING_TYPES = {"Mention", "Motion", "Trial"}; // By hearing sequence in a case
+    private static final int COURTROOMS = 12;
+    private static final String[] DOCUMENT_KINDS = {"complaint", "evidence", "motion", "order"};
+    private static final String[] AUDIT_ACTIONS = {"case.view", "case.view", "case.view", "case.update",
+        "document.upload", "document.view", "hearing.schedule", "filing.validate"};
+
+    /**
+     * The tables, in an order that respects their foreign keys.
+     */
+    public enum Table {
+        USERS("Users", "user_id", "username", "password_hash", "role", "email", "created_at"),
+        CASES("Cases", "case_id", "case_number", "title", "status", "judge_id", "created_at", "updated_at"),
+        HEARINGS("Hearings", "hearing_id", "case_id", "hearing_date", "location", "status"),
+        DOCUMENTS("Documents", "document_id", "case_id", "file_path", "uploaded_by", "uploaded_at", "version_number"),
+        EFILING("Efiling", "efiling_id", "case_id", "submitted_by", "submission_date", "status"),
+        AUDIT_LOGS("AuditLogs", "log_id", "user_id", "action", "timestamp");
+
+        private final String tableName;
+        private final String[] columns;
+
+        Table(String tableName, String... columns) {
+            this.tableName = tableName;
+            this.columns = columns;
+        }
+
+        public String getTableName() { return tableName; }
+
+        String fileName(String extension) {
+            return tableName.toLowerCase(Locale.ROOT) + "." + extension;
+        }
+
+        String insertPrefix() {
+            return "INSERT INTO " + tableName + " (" + String.join(", ", columns) + ") VALUES ";
+        }
+    }
+
+    /**
+     * Receives the values of one row, column by column.
+     */
+    interface Columns {
+        void number(long value) throws IOException, SQLException;
+        void text(String value) throws IOException, SQLException;
+        void dateTime(int day, int minute) throws IOException, SQLException; // Day from FIRST_DAY, minute of day
+        void nullValue() throws IOException, SQLException;
+    }
+
+    private final long seed;
+    private final long cases;
+    private final int judges;
+    private final int clerks;
+    private final int lawyers;
+    private final long users;
+    private final double[] judgeCdf; // Zipf over judges by rank
+    private final double[] lawyerCdf; // Zipf over lawyers by rank
+    private final double[] dayCdf; // Filing weight by day from FIRST_DAY
+    private final char[][] dates; // "yyyy-MM-dd" by day from FIRST_DAY - DAY_PADDING
+
+    /**
+     * Creates a generator. Users are scaled to the number of cases: a judge per 5,000 cases, a
+     * clerk per 20,000, a lawyer per 500 and a public user per 100.
+     *
+     * @param seed  The seed; equal seeds give equal data.
+     * @param cases The number of cases. Other tables are sized from it, about 20 rows per case.
+     */
+    public SyntheticDataGenerator(long seed, long cases) {
+        this.seed = seed;
+        this.cases = cases;
+        this.judges = (int) Math.max(8, cases / 5_000);
+        this.clerks = (int) Math.max(4, cases / 20_000);
+        this.lawyers = (int) Math.max(20, cases / 500);
+        this.users = judges + clerks + lawyers + Math.max(10, cases / 100);
+        this.judgeCdf = zipf(judges, JUDGE_SKEW);
+        this.lawyerCdf = zipf(lawyers, FIRM_SKEW);
+        this.dayCdf = filingDays();
+        this.dates = new char[DAYS + 2 * DAY_PADDING][];
+        for (int i = 0; i < dates.length; i++) {
+            dates[i] = FIRST_DAY.plusDays(i - DAY_PADDING).toString().toCharArray();
+        }
+    }
+
+    /**
+     * Returns the number of rows the generator produces for a table.
+     *
+     * @param table The table.
+     * @return The row count.
+     */
+    public long rows(Table table) {
+        switch (table) {
+            case USERS:
+                return users;
+            case CASES:
+                return cases;
+            case HEARINGS:
+                return cases * HEARINGS_PER_CASE;
+            case DOCUMENTS:
+                return cases * DOCUMENTS_PER_CASE;
+            case EFILING:
+                return cases * FILINGS_PER_CASE;
+            default:
+                return cases * AUDIT_ENTRIES_PER_CASE;
+        }
+    }
+
+    public long totalRows() {
+        long total = 0;
+        for (Table table : Table.values()) {
+            total += rows(table);
+        }
+        return total;
+    }
+
+    // --- Rows as models ---
+
+    /**
+     * Returns a case as the registry holds it.
+     *
+     * @param row The case number from 0.
+     * @return The case.
+     */
+    public Case caseAt(long row) {
+        Random random = new Random(seed, Table.CASES, row);
+        int type = pick(TYPE_CDF, random.nextDouble());
+        int day = filingDay(random);
+        int judge = judgeOf(random, day);
+        return new Case(caseNumber(type, day, row), title(random), TYPES[type], caseStatus(random, day), FIRST_DAY.plusDays(day),
+            judge < 0 ? Case.UNASSIGNED : judgeName(judge));
+    }
+
+    /**
+     * Returns a hearing as the calendar holds it. Its case is {@code caseAt(row / HEARINGS_PER_CASE)}.
+     *
+     * @param row The hearing number from 0.
+     * @return The hearing.
+     */
+    public Hearing hearingAt(long row) {
+        long caseRow = row / HEARINGS_PER_CASE;
+        int sequence = (int) (row % HEARINGS_PER_CASE);
+        Random caseRandom = new Random(seed, Table.CASES, caseRow);
+        int type = pick(TYPE_CDF, caseRandom.nextDouble());
+        int filed = filingDay(caseRandom);
+        int judge = judgeOf(caseRandom, filed);
+        String title = title(caseRandom);
+        Random random = new Random(seed, Table.HEARINGS, row);
+        int day = hearingDay(random, filed, sequence);
+        LocalTime start = LocalTime.of(9, 0).plusMinutes(30L * random.nextInt(15));
+        String hearingType = HEARING_TYPES[sequence % HEARING_TYPES.length];
+        return new Hearing(caseNumber(type, filed, caseRow), title, judge < 0 ? Case.UNASSIGNED : judgeName(judge),
+            FIRST_DAY.plusDays(day), start, start.plusMinutes(sequence == 2 ? 120 : 30), courtroom(judge, random),
+            hearingType, hearingStatus(random, day), CourtScheduling.groupFor(hearingType));
+    }
+
+    // --- Rows as table columns ---
+
+    void row(Table table, long row, Columns out) throws IOException, SQLException {
+        switch (table) {
+            case USERS:
+                userRow(row, out);
+                break;
+            case CASES:
+                caseRow(row, out);
+                break;
+            case HEARINGS:
+                hearingRow(row, out);
+                break;
+            case DOCUMENTS:
+                documentRow(row, out);
+                break;
+            case EFILING:
+                filingRow(row, out);
+                break;
+            default:
+                auditRow(row, out);
+        }
+    }
+
+    private void userRow(long row, Columns out) throws IOException, SQLException {
+        String role = row < judges ? "Judge" : row < judges + clerks ? "Clerk" : row < judges + clerks + lawyers ? "Lawyer" : "PublicUser";
+        String userName = role.toLowerCase(Locale.ROOT) + (row + 1);
+        out.number(row + 1);
+        out.text(userName);
+        out.text(UserDao.LOCKED_PASSWORD);
+        out.text(role);
+        out.text(userName + "@example.test");
+        out.dateTime(0, 8 * 60);
+    }
+
+    private void caseRow(long row, Columns out) throws IOException, SQLException {
+        Case c = caseAt(row);
+        Random random = new Random(seed, Table.CASES, row); // Replays caseAt's draws, then goes on
+        random.nextDouble();
+        int day = filingDay(random);
+        int judge = judgeOf(random, day);
+        title(random);
+        caseStatus(random, day);
+        out.number(row + 1);
+        out.text(c.getCaseNumber());
+        out.text(c.getCaseTitle());
+        out.text(CaseDao.statusColumn(c));
+        if (judge < 0) {
+            out.nullValue();
+        } else {
+            out.number(judge + 1);
+        }
+        int minute = filingMinute(random, day);
+        out.dateTime(day, minute);
+        out.dateTime(Math.min(DAYS - 1, day + random.nextInt(Math.max(1, DAYS - day))), minute);
+    }
+
+    private void hearingRow(long row, Columns out) throws IOException, SQLException {
+        Hearing hearing = hearingAt(row);
+        out.number(row + 1);
+        out.number(row / HEARINGS_PER_CASE + 1);
+        out.dateTime((int) (hearing.getHearingDate().toEpochDay() - FIRST_DAY.toEpochDay()),
+            hearing.getHearingStartTime().getHour() * 60 + hearing.getHearingStartTime().getMinute());
+        out.text(hearing.getCourtRoom());
+        out.text(HearingDao.statusColumn(hearing.getStatus()));
+    }
+
+    private void documentRow(long row, Columns out) throws IOException, SQLException {
+        long caseRow = row / DOCUMENTS_PER_CASE;
+        int sequence = (int) (row % DOCUMENTS_PER_CASE);
+        Random caseRandom = new Random(seed, Table.CASES, caseRow);
+        int type = pick(TYPE_CDF, caseRandom.nextDouble());
+        int filed = filingDay(caseRandom);
+        Random random = new Random(seed, Table.DOCUMENTS, row);
+        int version = random.nextDouble() < 0.2 ? 2 : 1;
+        int day = Math.min(DAYS + DAY_PADDING - 1, filed + sequence * (7 + random.nextInt(60)));
+        out.number(row + 1);
+        out.number(caseRow + 1);
+        out.text("cases/" + caseNumber(type, filed, caseRow) + "/" + DOCUMENT_KINDS[sequence % DOCUMENT_KINDS.length]
+            + "-v" + version + ".pdf");
+        // Clerks upload court documents, lawyers the parties' documents
+        out.number(sequence == DOCUMENT_KINDS.length - 1 ? clerkId(random) : lawyerId(random));
+        out.dateTime(day, 9 * 60 + random.nextInt(8 * 60));
+        out.number(version);
+    }
+
+    private void filingRow(long row, Columns out) throws IOException, SQLException {
+        long caseRow = row / FILINGS_PER_CASE;
+        int sequence = (int) (row % FILINGS_PER_CASE);
+        Random caseRandom = new Random(seed, Table.CASES, caseRow);
+        caseRandom.nextDouble();
+        int filed = filingDay(caseRandom);
+        Random random = new Random(seed, Table.EFILING, row);
+        // The first filing opens the case; later ones follow the same deadline surges, after it
+        int day = sequence == 0 ? filed : Math.max(filed, filingDay(random));
+        out.number(row + 1);
+        out.number(caseRow + 1);
+        out.number(lawyerId(random));
+        out.dateTime(day, filingMinute(random, day));
+        double outcome = random.nextDouble();
+        out.text(day >= DAYS - 7 ? "Pending" : outcome < 0.06 ? "Rejected" : "Accepted");
+    }
+
+    private void auditRow(long row, Columns out) throws IOException, SQLException {
+        long caseRow = row / AUDIT_ENTRIES_PER_CASE;
+        Random caseRandom = new Random(seed, Table.CASES, caseRow);
+        int type = pick(TYPE_CDF, caseRandom.nextDouble());
+        int filed = filingDay(caseRandom);
+        int judge = judgeOf(caseRandom, filed);
+        Random random = new Random(seed, Table.AUDIT_LOGS, row);
+        double who = random.nextDouble();
+        long user = who < 0.2 && judge >= 0 ? judge + 1 : who < 0.3 ? lawyerId(random) : clerkId(random);
+        out.number(row + 1);
+        out.number(user);
+        out.text(AUDIT_ACTIONS[random.nextInt(AUDIT_ACTIONS.length)] + " " + caseNumber(type, filed, caseRow));
+        out.dateTime(filed + random.nextInt(Math.max(1, DAYS - filed)), 8 * 60 + random.nextInt(10 * 60));
+    }
+
+    // --- Writers ---
+
+    /**
+     * Writes every table as CSV, one file per table named after it, e.g. {@code cases.csv}, with
+     * a header line. Nulls are written as {@code \N}, as {@code LOAD DATA INFILE} reads them.
+     *
+     * @param directory The directory to write to; existing files of the same names are replaced.
+     * @param threads   The number of writing threads.
+     * @throws IOException          If a file cannot be written.
+     * @throws InterruptedException If interrupted while waiting for the writers.
+     */
+    public void writeCsv(Path directory, int threads) throws IOException, InterruptedException {
+        writeFiles(directory, "csv", threads);
+    }
+
+    /**
+     * Writes every table as a MySQL script of multi-row INSERT statements, one file per table
+     * named after it, e.g. {@code cases.sql}. Run them in {@link Table} order into an empty
+     * schema.
+     *
+     * @param directory The directory to write to; existing files of the same names are replaced.
+     * @param threads   The number of writing threads.
+     * @throws IOException          If a file cannot be written.
+     * @throws InterruptedException If interrupted while waiting for the writers.
+     */
+    public void writeSql(Path directory, int threads) throws IOException, InterruptedException {
+        writeFiles(directory, "sql", threads);
+    }
+
+    private void writeFiles(Path directory, String extension, int threads) throws IOException, InterruptedException {
+        Files.createDirectories(directory);
+        ExecutorService workers = workers(threads);
+        try {
+            // Every chunk of every table is queued at once, and each table is joined while later ones are written
+            List<List<Future<Path>>> tables = new ArrayList<>();
+            for (Table table : Table.values()) {
+                List<Future<Path>> parts = new ArrayList<>();
+                long rows = rows(table);
+                for (long from = 0; from < rows; from += CHUNK_ROWS) {
+                    long start = from;
+                    long end = Math.min(rows, from + CHUNK_ROWS);
+                    Path part = directory.resolve(table.fileName(extension) + ".part" + parts.size());
+                    parts.add(workers.submit(() -> writePart(table, "sql".equals(extension), start, end, part)));
+                }
+                tables.add(parts);
+            }
+            for (Table table : Table.values()) {
+                Path target = directory.resolve(table.fileName(extension));
+                try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                    if ("csv".equals(extension)) {
+                        out.write(StandardCharsets.UTF_8.encode(String.join(",", table.columns) + "\n"));
+                    }
+                    for (Future<Path> future : tables.get(table.ordinal())) {
+                        Path part = await(future, IOException.class);
+                        try (FileChannel in = FileChannel.open(part, StandardOpenOption.READ)) {
+                            for (long done = 0, size = in.size(); done < size; ) {
+                                done += in.transferTo(done, size - done, out);
+                            }
+                        }
+                        Files.delete(part);
+                    }
+                }
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private Path writePart(Table table, boolean sql, long from, long until, Path part) throws IOException, SQLException {
+        try (Writer out = new BufferedWriter(Files.newBufferedWriter(part, StandardCharsets.UTF_8), WRITE_BUFFER_CHARS)) {
+            TextColumns columns = new TextColumns(out, sql);
+            String prefix = table.insertPrefix();
+            for (long row = from; row < until; row++) {
+                if (sql) {
+                    boolean first = (row - from) % SQL_ROWS_PER_INSERT == 0;
+                    out.write(first ? prefix + "\n(" : ",\n(");
+                }
+                columns.first = true;
+                row(table, row, columns);
+                if (sql) {
+                    boolean last = (row - from) % SQL_ROWS_PER_INSERT == SQL_ROWS_PER_INSERT - 1 || row == until - 1;
+                    out.write(last ? ");\n" : ")");
+                } else {
+                    out.write('\n');
+                }
+            }
+        }
+        return part;
+    }
+
+    /**
+     * Inserts every table into a database through JDBC batches, a table at a time so that
+     * references are in place before the rows that need them. The chunks of a table are inserted
+     * in parallel, each in its own transaction, so a failure leaves the chunks before it
+     * committed. Intended for an empty scratch schema: rows carry their ids.
+     *
+     * @param database The database.
+     * @param threads  The number of inserting threads; more than the pool size only wait.
+     * @throws SQLException         If a chunk cannot be inserted.
+     * @throws InterruptedException If interrupted while waiting for the inserts.
+     */
+    public void load(Database database, int threads) throws SQLException, InterruptedException {
+        ExecutorService workers = workers(threads);
+        try {
+            for (Table table : Table.values()) {
+                String sql = "INSERT INTO " + table.tableName + " (" + String.join(", ", table.columns) + ") VALUES ("
+                    + String.join(", ", Collections.nCopies(table.columns.length, "?")) + ")";
+                List<Future<Integer>> chunks = new ArrayList<>();
+                long rows = rows(table);
+                for (long from = 0; from < rows; from += CHUNK_ROWS) {
+                    long start = from;
+                    long end = Math.min(rows, from + CHUNK_ROWS);
+                    chunks.add(workers.submit(() -> database.batch(sql, () -> LongStream.range(start, end).iterator(),
+                        (statement, row) -> {
+                            try {
+                                row(table, row, new StatementColumns(statement));
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e); // Statements do no I/O of their own
+                            }
+                        })));
+                }
+                for (Future<Integer> chunk : chunks) {
+                    await(chunk, SQLException.class);
+                }
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Adds the cases to a repository, in case order. Cases are made in parallel a chunk ahead of
+     * the repository, which takes them a chunk at a time through {@link CaseRepository#addAll}.
+     *
+     * @param repository The repository.
+     * @param threads    The number of generating threads.
+     * @return The number of cases added.
+     * @throws InterruptedException If interrupted while waiting for the generators.
+     */
+    public long addCasesTo(CaseRepository repository, int threads) throws InterruptedException {
+        int chunkSize = CHUNK_ROWS / 25;
+        ExecutorService workers = workers(threads);
+        ArrayDeque<Future<List<Case>>> ahead = new ArrayDeque<>(); // Bounded so memory does not grow with the total
+        long added = 0;
+        try {
+            long next = 0;
+            while (next < cases || !ahead.isEmpty()) {
+                while (next < cases && ahead.size() < 2 * threads) {
+                    long start = next;
+                    long end = Math.min(cases, start + chunkSize);
+                    ahead.add(workers.submit(() -> {
+                        List<Case> chunk = new ArrayList<>((int) (end - start));
+                        for (long row = start; row < end; row++) {
+                            chunk.add(caseAt(row));
+                        }
+                        return chunk;
+                    }));
+                    next = end;
+                }
+                added += repository.addAll(await(ahead.poll(), RuntimeException.class)).length;
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+        return added;
+    }
+
+    private static ExecutorService workers(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "data-generator-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static <T, E extends Exception> T await(Future<T> future, Class<E> failure) throws E, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (failure.isInstance(cause)) {
+                throw failure.cast(cause);
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Writes a row as a CSV line or as the values of an INSERT.
+     */
+    private final class TextColumns implements Columns {
+        private final Writer out;
+        private final boolean sql;
+        boolean first; // Set before each row
+
+        TextColumns(Writer out, boolean sql) {
+            this.out = out;
+            this.sql = sql;
+        }
+
+        private void separate() throws IOException {
+            if (!first) {
+                out.write(',');
+            }
+            first = false;
+        }
+
+        @Override
+        public void number(long value) throws IOException {
+            separate();
+            out.write(Long.toString(value));
+        }
+
+        @Override
+        public void text(String value) throws IOException {
+            separate();
+            if (sql) {
+                out.write('\'');
+                for (int i = 0; i < value.length(); i++) {
+                    char c = value.charAt(i);
+                    if (c == '\'' || c == '\\') {
+                        out.write(c == '\'' ? '\'' : '\\');
+                    }
+                    out.write(c);
+                }
+                out.write('\'');
+            } else if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0) {
+                out.write('"');
+                out.write(value.replace("\"", "\"\""));
+                out.write('"');
+            } else {
+                out.write(value);
+            }
+        }
+
+        @Override
+        public void dateTime(int day, int minute) throws IOException {
+            separate();
+            if (sql) {
+                out.write('\'');
+            }
+            out.write(dates[day + DAY_PADDING]);
+            out.write(' ');
+            twoDigits(minute / 60);
+            out.write(':');
+            twoDigits(minute % 60);
+            out.write(":00");
+            if (sql) {
+                out.write('\'');
+            }
+        }
+
+        private void twoDigits(int value) throws IOException {
+            out.write('0' + value / 10);
+            out.write('0' + value % 10);
+        }
+
+        @Override
+        public void nullValue() throws IOException {
+            separate();
+            out.write(sql ? "NULL" : "\\N");
+        }
+    }
+
+    /**
+     * Binds a row to the parameters of an INSERT.
+     */
+    private static final class StatementColumns implements Columns {
+        private final PreparedStatement statement;
+        private int index;
+
+        StatementColumns(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        @Override
+        public void number(long value) throws SQLException {
+            statement.setLong(++index, value);
+        }
+
+        @Override
+        public void text(String value) throws SQLException {
+            statement.setString(++index, value);
+        }
+
+        @Override
+        public void dateTime(int day, int minute) throws SQLException {
+            statement.setTimestamp(++index, Timestamp.valueOf(FIRST_DAY.plusDays(day).atTime(minute / 60, minute % 60)));
+        }
+
+        @Override
+        public void nullValue() throws SQLException {
+            statement.setNull(++index, Types.INTEGER); // Only keys are left null
+        }
+    }
+
+    // --- Command line ---
+
+    /**
+     * Generates a dataset.
+     * Usage: {@code SyntheticDataGenerator csv|sql|db <cases> [directory] [seed] [threads]}; the
+     * directory is ignored for {@code db}, which migrates and loads the database named by the
+     * {@code jms.db.*} system properties.
+     *
+     * @param args The arguments.
+     * @throws Exception If the data cannot be written.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: SyntheticDataGenerator csv|sql|db <cases> [directory] [seed] [threads]");
+            System.exit(2);
+        }
+        long cases = Long.parseLong(args[1].replace("_", ""));
+        Path directory = Path.of(args.length > 2 ? args[2] : "synthetic-data");
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : DEFAULT_SEED;
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(seed, cases);
+        long started = System.nanoTime();
+        switch (args[0]) {
+            case "csv":
+                generator.writeCsv(directory, threads);
+                break;
+            case "sql":
+                generator.writeSql(directory, threads);
+                break;
+            case "db":
+                try (Database database = Database.openDefault()) {
+                    new MigrationRunner(database).migrate();
+                    generator.load(database, threads);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown format " + args[0]);
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        System.out.printf("Generated %,d rows in %.1f s (%,.0f rows/s)%n", generator.totalRows(), seconds,
+            generator.totalRows() / seconds);
+    }
+
+    // --- Value distributions ---
+
+    private int filingDay(Random random) {
+        return Math.min(DAYS - 1, Math.max(0, pick(dayCdf, random.nextDouble())));
+    }
+
+    private int filingMinute(Random random, int day) {
+        // Surge days fill up towards the 17:00 deadline
+        boolean surge = dayCdf[day] - (day == 0 ? 0 : dayCdf[day - 1]) > 2.0 / DAYS;
+        return surge ? 12 * 60 + (int) (5 * 60 * Math.sqrt(random.nextDouble())) : 8 * 60 + random.nextInt(9 * 60);
+    }
+
+    private int judgeOf(Random random, int filedDay) {
+        double draw = random.nextDouble();
+        if (filedDay > DAYS - 30 && draw < 0.3) {
+            return -1; // Recently filed and not yet assigned
+        }
+        return pick(judgeCdf, random.nextDouble());
+    }
+
+    private static String caseStatus(Random random, int day) {
+        int age = DAYS - day;
+        double draw = random.nextDouble();
+        if (draw < Math.min(0.9, age / 1_500.0)) {
+            return "Closed";
+        } else if (age < 30) {
+            return "Filed";
+        }
+        return draw < 0.95 ? "In Progress" : "Adjourned";
+    }
+
+    private static int hearingDay(Random random, int filed, int sequence) {
+        int day = filed + (sequence + 1) * (14 + random.nextInt(43));
+        DayOfWeek weekday = FIRST_DAY.plusDays(day).getDayOfWeek();
+        if (weekday == DayOfWeek.SATURDAY) {
+            day += 2;
+        } else if (weekday == DayOfWeek.SUNDAY) {
+            day += 1;
+        }
+        return Math.min(day, DAYS + DAY_PADDING - 1);
+    }
+
+    private static String hearingStatus(Random random, int day) {
+        if (day >= DAYS) {
+            return "Scheduled";
+        }
+        return random.nextDouble() < 0.15 ? "Adjourned" : "Completed";
+    }
+
+    private static String courtroom(int judge, Random random) {
+        // Judges sit in their own courtroom; unassigned cases go wherever there is room
+        return "Courtroom " + (1 + (judge >= 0 ? judge % COURTROOMS : random.nextInt(COURTROOMS)));
+    }
+
+    private static String title(Random random) {
+        return SURNAMES[random.nextInt(SURNAMES.length)] + " v. " + SURNAMES[random.nextInt(SURNAMES.length)] + " "
+            + ENTITIES[random.nextInt(ENTITIES.length)];
+    }
+
+    private static String caseNumber(int type, int day, long row) {
+        StringBuilder number = new StringBuilder(20).append(TYPE_CODES[type]).append('/')
+            .append(FIRST_DAY.plusDays(day).getYear()).append('/');
+        String sequence = Long.toString(row + 1);
+        for (int i = sequence.length(); i < 8; i++) {
+            number.append('0');
+        }
+        return number.append(sequence).toString();
+    }
+
+    String judgeName(int judge) {
+        String name = "Judge " + SURNAMES[judge % SURNAMES.length];
+        return judge < SURNAMES.length ? name : name + " " + (judge / SURNAMES.length + 1);
+    }
+
+    private long clerkId(Random random) {
+        return judges + 1 + random.nextInt(clerks);
+    }
+
+    private long lawyerId(Random random) {
+        return judges + clerks + 1 + pick(lawyerCdf, random.nextDouble());
+    }
+
+    private static double[] zipf(int n, double exponent) {
+        double[] weights = new double[n];
+        for (int rank = 0; rank < n; rank++) {
+            weights[rank] = 1 / Math.pow(rank + 1, exponent);
+        }
+        return cumulative(weights);
+    }
+
+    private static double[] filingDays() {
+        double[] weights = new double[DAYS];
+        for (int day = 0; day < DAYS; day++) {
+            LocalDate date = FIRST_DAY.plusDays(day);
+            DayOfWeek weekday = date.getDayOfWeek();
+            if (weekday == DayOfWeek.SATURDAY || weekday == DayOfWeek.SUNDAY) {
+                weights[day] = 0.05; // E-filing stays open
+                continue;
+            }
+            LocalDate monthEnd = date.withDayOfMonth(date.lengthOfMonth());
+            while (monthEnd.getDayOfWeek() == DayOfWeek.SATURDAY || monthEnd.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                monthEnd = monthEnd.minusDays(1);
+            }
+            boolean quarter = date.getMonthValue() % 3 == 0;
+            if (date.equals(monthEnd)) {
+                weights[day] = quarter ? 8 : 4;
+            } else if (monthEnd.toEpochDay() - date.toEpochDay() <= 2) {
+                weights[day] = 2;
+            } else {
+                weights[day] = 1;
+            }
+        }
+        return cumulative(weights);
+    }
+
+    private static double[] cumulative(double[] weights) {
+        double total = 0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        double[] cdf = new double[weights.length];
+        double sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i];
+            cdf[i] = sum / total;
+        }
+        cdf[cdf.length - 1] = 1;
+        return cdf;
+    }
+
+    private static int pick(double[] cdf, double draw) {
+        int index = Arrays.binarySearch(cdf, draw);
+        return Math.min(cdf.length - 1, index >= 0 ? index : -index - 1);
+    }
+
+    /**
+     * Counter-based random numbers: a row's values depend only on the seed, the table and the
+     * row, never on which rows were generated before.
+     */
+    private static final class Random {
+        private long state;
+
+        Random(long seed, Table table, long row) {
+            state = mix(seed ^ mix(table.ordinal() * 0x9E3779B97F4A7C15L + row));
+        }
+
+        long nextLong() {
+            state += 0x9E3779B97F4A7C15L;
+            return mix(state);
+        }
+
+        double nextDouble() {
+            return (nextLong() >>> 11) * 0x1.0p-53;
+        }
+
+        int nextInt(int bound) {
+            return (int) (((nextLong() >>> 33) * bound) >>> 31);
+        }
+
+        private static long mix(long z) {
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
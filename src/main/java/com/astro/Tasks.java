@@ -1,6 +1,259 @@
-import javax.swing.*;
-import java.awt.*;
-class Tasks extends JPanel
-{
+package com.astro;
 
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.VBox;
+import javafx.util.Duration;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Task queue view.
+ * Shows one role's queue from the {@link WorkflowEngine}, earliest deadline first, with the
+ * actions the selected task allows, and the reminders and overdue alerts as they fire.
+ */
+public class Tasks {
+
+    private static final int QUEUE_ROWS = 1_000; // Tasks shown from the head of a queue
+    private static final int ALERT_ROWS = 200; // Alerts kept in the list
+    private static final LocalTime DUE_TIME = LocalTime.of(17, 0); // Deadlines fall at close of business
+    private static final DateTimeFormatter DUE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final WorkflowEngine workflow;
+    private final ExecutorService actions = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "task-actions");
+        thread.setDaemon(true);
+        return thread;
+    }); // Transitions wait for the log's fsync, so they run off the FX thread
+    private final VBox tasksPane;
+    private final ComboBox<String> roleBox = new ComboBox<>(FXCollections.observableArrayList(WorkflowEngine.CLERK, WorkflowEngine.JUDGE));
+    private final Label queueCount = new Label();
+    private final ObservableList<WorkflowTask> queue = FXCollections.observableArrayList();
+    private final ObservableList<String> alerts = FXCollections.observableArrayList();
+    private final Map<WorkflowTask.Action, Button> actionButtons = new EnumMap<>(WorkflowTask.Action.class);
+    private final TableView<WorkflowTask> table;
+
+    public Tasks(WorkflowEngine workflow) {
+        this.workflow = workflow;
+
+        tasksPane = new VBox(20);
+        tasksPane.setPadding(new Insets(20));
+        tasksPane.setStyle("-fx-background-color: #282c34;"); // Main content background
+
+        Label title = new Label("Task Queue");
+        title.setStyle("-fx-text-fill: #e0e0e0; -fx-font-size: 16px; -fx-font-weight: bold;");
+        queueCount.setStyle("-fx-text-fill: #e0e0e0;");
+        roleBox.getSelectionModel().selectFirst();
+        roleBox.setOnAction(e -> refresh());
+        HBox header = new HBox(10, title, roleBox, queueCount);
+        header.setAlignment(Pos.CENTER_LEFT);
+
+        table = createTable();
+        table.getSelectionModel().selectedItemProperty().addListener((obs, oldTask, task) -> updateButtons(task));
+        VBox.setVgrow(table, Priority.ALWAYS);
+
+        Label alertsTitle = new Label("Alerts");
+        alertsTitle.setStyle("-fx-text-fill: #e0e0e0; -fx-font-weight: bold;");
+        ListView<String> alertList = new ListView<>(alerts);
+        alertList.setPrefHeight(140);
+
+        tasksPane.getChildren().addAll(header, createToolbar(), table, alertsTitle, alertList);
+        updateButtons(null);
+        refresh();
+
+        workflow.addListener(fired -> {
+            List<WorkflowEngine.Alert> latest = fired.subList(Math.max(0, fired.size() - ALERT_ROWS), fired.size());
+            Platform.runLater(() -> { // One FX update per tick, however many alerts fired
+                for (WorkflowEngine.Alert alert : latest) {
+                    alerts.add(0, alert.getMessage());
+                }
+                if (alerts.size() > ALERT_ROWS) {
+                    alerts.remove(ALERT_ROWS, alerts.size());
+                }
+                refresh();
+            });
+        });
+        // New filings become review tasks in the background
+        Timeline refresher = new Timeline(new KeyFrame(Duration.seconds(5), e -> refresh()));
+        refresher.setCycleCount(Timeline.INDEFINITE);
+        refresher.play();
+    }
+
+    private HBox createToolbar() {
+        HBox toolbar = new HBox(10);
+        toolbar.setAlignment(Pos.CENTER_LEFT);
+        String primaryStyle = "-fx-background-color: #007bff; -fx-text-fill: white; -fx-font-weight: bold; -fx-border-radius: 5; -fx-background-radius: 5;";
+        String secondaryStyle = "-fx-background-color: #6c757d; -fx-text-fill: white; -fx-border-radius: 5; -fx-background-radius: 5;";
+
+        Button newTaskButton = new Button("New Task");
+        newTaskButton.setStyle(primaryStyle);
+        newTaskButton.setOnAction(e -> showNewTaskDialog());
+        toolbar.getChildren().add(newTaskButton);
+
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+        toolbar.getChildren().add(spacer);
+        for (WorkflowTask.Action action : WorkflowTask.Action.values()) {
+            Button button = new Button(action.getLabel());
+            button.setStyle(secondaryStyle);
+            button.setOnAction(e -> apply(action));
+            actionButtons.put(action, button);
+            toolbar.getChildren().add(button);
+        }
+        return toolbar;
+    }
+
+    private TableView<WorkflowTask> createTable() {
+        TableView<WorkflowTask> taskTable = new TableView<>(queue);
+        taskTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+
+        TableColumn<WorkflowTask, String> caseCol = new TableColumn<>("Case");
+        caseCol.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(cellData.getValue().getCaseNumber()));
+
+        TableColumn<WorkflowTask, String> taskCol = new TableColumn<>("Task");
+        taskCol.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(cellData.getValue().getTitle()));
+
+        TableColumn<WorkflowTask, String> dueCol = new TableColumn<>("Due");
+        dueCol.setCellValueFactory(cellData -> {
+            Instant due = cellData.getValue().getDue();
+            String text = DUE_FORMAT.format(due.atZone(ZoneId.systemDefault()));
+            return new ReadOnlyStringWrapper(due.isBefore(Instant.now()) ? text + " (overdue)" : text);
+        });
+
+        TableColumn<WorkflowTask, String> stateCol = new TableColumn<>("State");
+        stateCol.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(cellData.getValue().getState().name()));
+
+        TableColumn<WorkflowTask, String> updatedCol = new TableColumn<>("Last Update");
+        updatedCol.setCellValueFactory(cellData -> {
+            WorkflowTask task = cellData.getValue();
+            return new ReadOnlyStringWrapper(task.getUpdatedAt() == null ? ""
+                : task.getUpdatedBy() + ", " + DUE_FORMAT.format(task.getUpdatedAt().atZone(ZoneId.systemDefault())));
+        });
+
+        taskTable.getColumns().addAll(caseCol, taskCol, dueCol, stateCol, updatedCol);
+        taskTable.setStyle("-fx-control-inner-background: #3e4450; " +
+                           "-fx-background-color: #3e4450; " +
+                           "-fx-table-cell-border-color: #282c34; " +
+                           "-fx-text-fill: #e0e0e0;");
+        taskTable.getStylesheets().add(getClass().getResource("/styles.css").toExternalForm());
+        return taskTable;
+    }
+
+    private void refresh() {
+        String role = roleBox.getValue();
+        WorkflowTask selected = table.getSelectionModel().getSelectedItem();
+        queue.setAll(workflow.queue(role, QUEUE_ROWS));
+        int size = workflow.queueSize(role);
+        queueCount.setText(size > QUEUE_ROWS ? QUEUE_ROWS + " of " + size + " tasks" : size + " tasks");
+        if (selected != null) {
+            for (WorkflowTask task : queue) {
+                if (task.getId() == selected.getId()) {
+                    table.getSelectionModel().select(task);
+                }
+            }
+        }
+        updateButtons(table.getSelectionModel().getSelectedItem());
+    }
+
+    private void updateButtons(WorkflowTask task) {
+        boolean decides = AccessPolicy.current().can(Permission.DECIDE_TASKS);
+        actionButtons.forEach((action, button) -> button.setDisable(task == null || !task.allows(action)
+            || (!decides && (action == WorkflowTask.Action.APPROVE || action == WorkflowTask.Action.REJECT))));
+    }
+
+    private void apply(WorkflowTask.Action action) {
+        WorkflowTask task = table.getSelectionModel().getSelectedItem();
+        if (task == null) {
+            return;
+        }
+        String actor = AccessPolicy.current().getProfile().getUserName();
+        actions.execute(() -> {
+            try {
+                workflow.transition(task.getId(), action, actor);
+                Platform.runLater(this::refresh);
+            } catch (RuntimeException e) {
+                Platform.runLater(() -> {
+                    new Alert(Alert.AlertType.ERROR, e.getMessage()).show();
+                    refresh();
+                });
+            }
+        });
+    }
+
+    private void showNewTaskDialog() {
+        TextField caseNumberField = new TextField();
+        TextField titleField = new TextField();
+        ComboBox<String> roleField = new ComboBox<>(FXCollections.observableArrayList(WorkflowEngine.CLERK, WorkflowEngine.JUDGE));
+        roleField.setValue(roleBox.getValue());
+        ComboBox<String> approverField = new ComboBox<>(FXCollections.observableArrayList("None", WorkflowEngine.JUDGE));
+        approverField.setValue("None");
+        DatePicker dueField = new DatePicker(LocalDate.now().plusDays(7));
+
+        GridPane form = new GridPane();
+        form.setHgap(10);
+        form.setVgap(10);
+        form.setPadding(new Insets(10));
+        form.addRow(0, new Label("Case Number:"), caseNumberField);
+        form.addRow(1, new Label("Task:"), titleField);
+        form.addRow(2, new Label("Queue:"), roleField);
+        form.addRow(3, new Label("Approval By:"), approverField);
+        form.addRow(4, new Label("Due:"), dueField);
+
+        Dialog<ButtonType> dialog = new Dialog<>();
+        dialog.initOwner(tasksPane.getScene().getWindow());
+        dialog.setTitle("New Task");
+        dialog.setHeaderText("Add a task to a queue");
+        dialog.getDialogPane().setContent(form);
+        dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+        if (dialog.showAndWait().orElse(ButtonType.CANCEL) != ButtonType.OK) {
+            return;
+        }
+        if (caseNumberField.getText().isBlank() || titleField.getText().isBlank() || dueField.getValue() == null) {
+            new Alert(Alert.AlertType.ERROR, "Case number, task and due date are required.").show();
+            return;
+        }
+        Instant due = dueField.getValue().atTime(DUE_TIME).atZone(ZoneId.systemDefault()).toInstant();
+        WorkflowTask draft = WorkflowTask.draft(caseNumberField.getText().trim(), titleField.getText().trim(),
+            roleField.getValue(), "None".equals(approverField.getValue()) ? null : approverField.getValue(),
+            due, due.minus(WorkflowEngine.REMINDER_LEAD));
+        String actor = AccessPolicy.current().getProfile().getUserName();
+        actions.execute(() -> {
+            workflow.create(draft, actor);
+            Platform.runLater(this::refresh);
+        });
+    }
+
+    public VBox getView() {
+        return tasksPane;
+    }
 }
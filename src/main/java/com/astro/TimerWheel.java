@@ -0,0 +1,184 @@
+package com.astro;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel for large numbers of deadlines.
+ * Time is divided into ticks. Level 0 has one slot per tick for the next {@link #SLOTS} ticks,
+ * and each higher level has slots {@link #SLOTS} times wider than the level below. A timeout is
+ * linked into the slot of the lowest level that reaches its deadline, so scheduling and
+ * cancelling are O(1). When a higher-level slot comes due its timeouts are moved down a level,
+ * so each timeout is touched at most {@link #LEVELS} times before it fires.
+ * Not thread-safe; the owner serializes access.
+ *
+ * @param <T> The type of item a timeout carries.
+ */
+public class TimerWheel<T> {
+
+    static final int SLOT_BITS = 6;
+    static final int SLOTS = 1 << SLOT_BITS; // Slots per level
+    static final int LEVELS = 5; // With one-second ticks the top level spans about 34 years
+    private static final int MASK = SLOTS - 1;
+
+    /**
+     * A scheduled item. Returned by {@link #schedule} so it can be cancelled.
+     *
+     * @param <T> The type of item.
+     */
+    public static final class Timeout<T> {
+        private final T item;
+        private final long deadline; // Tick the timeout fires at
+        private Timeout<T> previous;
+        private Timeout<T> next;
+
+        private Timeout(T item, long deadline) {
+            this.item = item;
+            this.deadline = deadline;
+        }
+
+        public T getItem() { return item; }
+
+        /**
+         * Checks whether the timeout is still waiting to fire.
+         *
+         * @return True if neither fired nor cancelled.
+         */
+        public boolean isPending() {
+            return next != null;
+        }
+    }
+
+    private final long tickMillis;
+    private final Timeout<T>[][] wheel; // Sentinel of each slot's circular list, by level and slot
+    private final Timeout<T> overflow = sentinel(); // Deadlines beyond the top level
+    private long currentTick; // Last tick processed
+    private int size;
+
+    /**
+     * Creates an empty wheel.
+     *
+     * @param tickMillis The length of one tick in milliseconds.
+     * @param nowMillis  The current time in milliseconds.
+     */
+    public TimerWheel(long tickMillis, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = nowMillis / tickMillis;
+        @SuppressWarnings({"unchecked", "rawtypes"}) // Arrays of a generic type can only be created raw
+        Timeout<T>[][] created = (Timeout<T>[][]) new Timeout[LEVELS][SLOTS];
+        wheel = created;
+        for (Timeout<T>[] level : wheel) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                level[slot] = sentinel();
+            }
+        }
+    }
+
+    /**
+     * Schedules an item. It fires on the first tick at or after the deadline; a deadline that has
+     * already passed fires on the next tick.
+     *
+     * @param item           The item handed back when the timeout fires.
+     * @param deadlineMillis The time to fire at, in milliseconds.
+     * @return The timeout, for cancelling.
+     */
+    public Timeout<T> schedule(T item, long deadlineMillis) {
+        Timeout<T> timeout = new Timeout<>(item, Math.max(Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis), currentTick + 1));
+        insert(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Cancels a timeout.
+     *
+     * @param timeout The timeout.
+     * @return True if it was pending.
+     */
+    public boolean cancel(Timeout<T> timeout) {
+        if (!timeout.isPending()) {
+            return false;
+        }
+        unlink(timeout);
+        size--;
+        return true;
+    }
+
+    /**
+     * Processes every tick up to the given time, firing the timeouts that come due.
+     *
+     * @param nowMillis The current time in milliseconds.
+     * @param expired   Receives the item of each timeout that fires.
+     * @return The number of timeouts fired.
+     */
+    public int advance(long nowMillis, Consumer<T> expired) {
+        long target = nowMillis / tickMillis;
+        int fired = 0;
+        while (currentTick < target) {
+            if (size == 0) {
+                currentTick = target; // Nothing to cascade or fire on the way
+                break;
+            }
+            long tick = ++currentTick;
+            for (int level = 1; level < LEVELS && (tick & ((1L << (SLOT_BITS * level)) - 1)) == 0; level++) {
+                cascade(wheel[level][(int) (tick >>> (SLOT_BITS * level)) & MASK]);
+                if (level == LEVELS - 1) {
+                    cascade(overflow);
+                }
+            }
+            Timeout<T> slot = wheel[0][(int) tick & MASK];
+            while (slot.next != slot) {
+                Timeout<T> timeout = slot.next;
+                unlink(timeout);
+                size--;
+                fired++;
+                expired.accept(timeout.item);
+            }
+        }
+        return fired;
+    }
+
+    /**
+     * Returns the number of pending timeouts.
+     *
+     * @return The count.
+     */
+    public int size() {
+        return size;
+    }
+
+    private void cascade(Timeout<T> slot) {
+        Timeout<T> timeout = slot.next;
+        slot.next = slot;
+        slot.previous = slot;
+        while (timeout != slot) {
+            Timeout<T> following = timeout.next;
+            insert(timeout); // Lands in a lower level, or level 0 if due this tick
+            timeout = following;
+        }
+    }
+
+    private void insert(Timeout<T> timeout) {
+        long delta = Math.max(timeout.deadline - currentTick, 0);
+        int level = delta == 0 ? 0 : (63 - Long.numberOfLeadingZeros(delta)) / SLOT_BITS;
+        Timeout<T> slot = level >= LEVELS ? overflow
+            : wheel[level][(int) (timeout.deadline >>> (SLOT_BITS * level)) & MASK];
+        timeout.previous = slot.previous;
+        timeout.next = slot;
+        slot.previous.next = timeout;
+        slot.previous = timeout;
+    }
+
+    private static <T> void unlink(Timeout<T> timeout) {
+        timeout.previous.next = timeout.next;
+        timeout.next.previous = timeout.previous;
+        timeout.previous = null;
+        timeout.next = null;
+    }
+
+    private static <T> Timeout<T> sentinel() {
+        Timeout<T> sentinel = new Timeout<>(null, 0);
+        sentinel.previous = sentinel;
+        sentinel.next = sentinel;
+        return sentinel;
+    }
+}
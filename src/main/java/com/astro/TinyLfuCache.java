@@ -0,0 +1,191 @@
+package com.astro;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Bounded cache with LRU eviction and TinyLFU admission.
+ * Entries are spread over independently locked LRU stripes so concurrent readers rarely meet.
+ * Every lookup is counted in a shared count-min sketch of recent key frequencies; when a stripe
+ * is full, a new entry is admitted only if its key has been asked for more often than the
+ * stripe's least recently used entry. A burst of one-off queries therefore cannot flush the
+ * popular ones. The sketch halves all counters periodically so that popularity ages out.
+ *
+ * @param <K> The key type.
+ * @param <V> The value type.
+ */
+public class TinyLfuCache<K, V> {
+
+    private static final int STRIPES = 16; // Power of two
+    private static final int DEPTH = 4; // Hash functions in the sketch
+    private static final int MAX_COUNT = 15; // Counters saturate, as in a 4-bit sketch
+
+    private final Stripe<K, V>[] stripes;
+    private final byte[] counters; // DEPTH rows of sketch counters, one after another
+    private final int rowMask;
+    private final int resetAfter; // Increments between halvings
+    private int increments; // Racy by design; the sketch is an estimate
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder rejected = new LongAdder(); // Candidates refused admission
+
+    /**
+     * @param capacity The maximum number of entries.
+     */
+    public TinyLfuCache(int capacity) {
+        int perStripe = Math.max(1, capacity / STRIPES);
+        @SuppressWarnings({"unchecked", "rawtypes"}) // Arrays of a generic type can only be created raw
+        Stripe<K, V>[] created = (Stripe<K, V>[]) new Stripe[STRIPES];
+        stripes = created;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe<>(perStripe);
+        }
+        int width = Integer.highestOneBit(Math.max(16, capacity) * 2 - 1); // Next power of two
+        counters = new byte[width * DEPTH];
+        rowMask = width - 1;
+        resetAfter = Math.max(16, capacity) * 10;
+    }
+
+    /**
+     * Looks up a value and records the access for admission decisions.
+     *
+     * @param key The key.
+     * @return The cached value, or null if absent.
+     */
+    public V get(K key) {
+        int hash = spread(key.hashCode());
+        increment(hash);
+        V value = stripes[hash & (STRIPES - 1)].get(key);
+        if (value == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return value;
+    }
+
+    /**
+     * Offers a value to the cache. It may be refused if its key is less popular than the entry
+     * it would evict.
+     *
+     * @param key   The key.
+     * @param value The value.
+     */
+    public void put(K key, V value) {
+        int hash = spread(key.hashCode());
+        Stripe<K, V> stripe = stripes[hash & (STRIPES - 1)];
+        synchronized (stripe) {
+            if (stripe.size() >= stripe.capacity && !stripe.containsKey(key)) {
+                Map.Entry<K, V> eldest = stripe.entrySet().iterator().next();
+                if (frequency(hash) <= frequency(spread(eldest.getKey().hashCode()))) {
+                    rejected.increment();
+                    return;
+                }
+                stripe.remove(eldest.getKey());
+            }
+            stripe.put(key, value);
+        }
+    }
+
+    /**
+     * Drops one entry.
+     *
+     * @param key The key.
+     */
+    public void remove(K key) {
+        Stripe<K, V> stripe = stripes[spread(key.hashCode()) & (STRIPES - 1)];
+        synchronized (stripe) {
+            stripe.remove(key);
+        }
+    }
+
+    /**
+     * Drops the entries whose keys match, one stripe at a time.
+     *
+     * @param matches Selects the keys to drop.
+     */
+    public void removeIf(Predicate<? super K> matches) {
+        for (Stripe<K, V> stripe : stripes) {
+            synchronized (stripe) {
+                stripe.keySet().removeIf(matches);
+            }
+        }
+    }
+
+    /**
+     * Drops every entry. Frequencies are kept, since popular queries stay popular.
+     */
+    public void clear() {
+        for (Stripe<K, V> stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    private void increment(int hash) {
+        for (int row = 0; row < DEPTH; row++) {
+            int at = row * (rowMask + 1) + index(hash, row);
+            if (counters[at] < MAX_COUNT) {
+                counters[at]++;
+            }
+        }
+        if (++increments >= resetAfter) {
+            increments = 0;
+            for (int i = 0; i < counters.length; i++) {
+                counters[i] >>= 1; // Age out old popularity
+            }
+        }
+    }
+
+    private int frequency(int hash) {
+        int min = MAX_COUNT;
+        for (int row = 0; row < DEPTH; row++) {
+            min = Math.min(min, counters[row * (rowMask + 1) + index(hash, row)]);
+        }
+        return min;
+    }
+
+    private int index(int hash, int row) {
+        int h = hash * (0x9E3779B9 + row * 0x7F4A7C16); // Odd multiplier, different for each row
+        return (h ^ (h >>> 16)) & rowMask;
+    }
+
+    private static int spread(int hash) {
+        int h = hash * 0x85EBCA6B;
+        return h ^ (h >>> 15);
+    }
+
+    /**
+     * One access-ordered LRU map; all access goes through its monitor.
+     */
+    private static final class Stripe<K, V> extends LinkedHashMap<K, V> {
+        private static final long serialVersionUID = 1L;
+
+        final int capacity;
+
+        Stripe(int capacity) {
+            super(capacity * 2, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        public synchronized V get(Object key) {
+            return super.get(key);
+        }
+    }
+}
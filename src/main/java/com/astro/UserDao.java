@@ -0,0 +1,123 @@
+package com.astro;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reads and writes the {@code Users} table.
+ * The table holds one role per user where a {@link Profile} may hold several, so the most
+ * privileged of a profile's roles is stored and administrators are stored as clerks. The
+ * application does not keep passwords; accounts written from a profile get a locked password
+ * hash and a placeholder e-mail address until the user sets their own.
+ */
+public class UserDao {
+
+    static final String LOCKED_PASSWORD = "!"; // Matches no hash, so the account cannot sign in with a password
+    private static final String EMAIL_DOMAIN = "@users.jms.invalid";
+
+    private static final String UPSERT = "INSERT INTO Users (username, password_hash, role, email) VALUES (?, ?, ?, ?) "
+        + "ON DUPLICATE KEY UPDATE role = VALUES(role)";
+    private static final String SELECT_PAGE = "SELECT user_id, username, role FROM Users WHERE username > ? "
+        + "ORDER BY username LIMIT ?";
+    private static final String SELECT_ID = "SELECT user_id FROM Users WHERE username = ?";
+
+    private final Database database;
+
+    public UserDao(Database database) {
+        this.database = database;
+    }
+
+    /**
+     * Adds accounts, or updates the role of accounts that exist, in one transaction.
+     *
+     * @param profiles The profiles.
+     * @return The number of rows affected.
+     * @throws SQLException If the write fails; nothing is written then.
+     */
+    public int saveAll(Collection<Profile> profiles) throws SQLException {
+        return database.batch(UPSERT, profiles, (statement, profile) -> {
+            statement.setString(1, profile.getUserName());
+            statement.setString(2, LOCKED_PASSWORD);
+            statement.setString(3, columnValue(profile.getRoles()));
+            statement.setString(4, profile.getUserName() + EMAIL_DOMAIN);
+        });
+    }
+
+    /**
+     * Looks up the key of an account.
+     *
+     * @param userName The login name.
+     * @return The user id, or -1 if there is no such account.
+     * @throws SQLException If the query fails.
+     */
+    public int idOf(String userName) throws SQLException {
+        return database.inTransaction(session -> {
+            PreparedStatement statement = session.prepare(SELECT_ID);
+            statement.setString(1, userName);
+            try (ResultSet rows = statement.executeQuery()) {
+                return rows.next() ? rows.getInt(1) : -1;
+            }
+        });
+    }
+
+    /**
+     * Reads a page of accounts in user-name order. The next page starts after the last name
+     * returned, so each page is one range read of the user-name index however deep it is.
+     *
+     * @param afterUserName The last user name of the previous page, or "" for the first page.
+     * @param limit         The most accounts to return.
+     * @return The accounts, as profiles named by their user name.
+     * @throws SQLException If the query fails.
+     */
+    public List<Profile> page(String afterUserName, int limit) throws SQLException {
+        return database.inTransaction(session -> {
+            PreparedStatement statement = session.prepare(SELECT_PAGE);
+            statement.setString(1, afterUserName);
+            statement.setInt(2, limit);
+            List<Profile> page = new ArrayList<>(limit);
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    String userName = rows.getString(2);
+                    page.add(new Profile(userName, userName, EnumSet.of(role(rows.getString(3)))));
+                }
+            }
+            return page;
+        });
+    }
+
+    /**
+     * Maps a profile's roles to the value of the {@code role} column.
+     *
+     * @param roles The roles held.
+     * @return One of "Judge", "Clerk", "Lawyer" or "PublicUser".
+     */
+    static String columnValue(Set<Role> roles) {
+        if (roles.contains(Role.JUDGE)) {
+            return "Judge";
+        } else if (roles.contains(Role.CLERK) || roles.contains(Role.ADMIN)) {
+            return "Clerk";
+        } else if (roles.contains(Role.LAWYER)) {
+            return "Lawyer";
+        }
+        return "PublicUser";
+    }
+
+    static Role role(String columnValue) {
+        switch (columnValue) {
+            case "Judge":
+                return Role.JUDGE;
+            case "Clerk":
+                return Role.CLERK;
+            case "Lawyer":
+                return Role.LAWYER;
+            default:
+                return Role.PUBLIC;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.astro;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The user accounts of the court, with the roles each user holds.
+ * Kept in {@code users.dat}, which is rewritten to a temporary file and moved into place on
+ * every change, so a crash leaves either the old or the new directory.
+ */
+public class UserDirectory {
+
+    private static final int MAGIC = 0x4A555331; // "JUS1"
+    static final String BOOTSTRAP_PROPERTY = "jms.bootstrap.admin"; // User name to make the first administrator
+
+    private final Path file;
+    private final Map<String, Profile> profiles = new LinkedHashMap<>(); // User name -> profile
+
+    /**
+     * Opens a directory, seeding it the first time with an account for each judge of the court.
+     * No one is made an administrator implicitly.
+     *
+     * @param directory The directory holding the users file.
+     * @throws IOException If an existing users file cannot be read.
+     */
+    public UserDirectory(Path directory) throws IOException {
+        this(directory, null);
+    }
+
+    /**
+     * Opens a directory as {@link #UserDirectory(Path)} does, and if no account is an
+     * administrator yet, makes the named user clerk and administrator. Once an administrator
+     * exists the name is ignored, so passing it again cannot grant anyone new rights.
+     *
+     * @param directory      The directory holding the users file.
+     * @param bootstrapAdmin The user to make the first administrator, or null.
+     * @throws IOException If the users file cannot be read or written.
+     */
+    public UserDirectory(Path directory, String bootstrapAdmin) throws IOException {
+        this.file = directory.resolve("users.dat");
+        if (Files.exists(file)) {
+            load();
+        } else {
+            for (String judge : List.of("Evans", "Patel", "Chen", "Smith", "Jones", "Brown", "Green")) {
+                Profile profile = new Profile(judge.toLowerCase(Locale.ROOT), "Judge " + judge, EnumSet.of(Role.JUDGE));
+                profiles.putIfAbsent(profile.getUserName(), profile);
+            }
+            save();
+        }
+        if (bootstrapAdmin != null && !bootstrapAdmin.isBlank() && !hasAdministrator()) {
+            Profile existing = profiles.get(bootstrapAdmin);
+            Set<Role> roles = EnumSet.noneOf(Role.class);
+            if (existing != null) {
+                roles.addAll(existing.getRoles());
+            }
+            roles.add(Role.CLERK);
+            roles.add(Role.ADMIN);
+            profiles.put(bootstrapAdmin, new Profile(bootstrapAdmin,
+                existing == null ? bootstrapAdmin : existing.getDisplayName(), roles));
+            save();
+            AuditLog.global().record("user.bootstrapped", bootstrapAdmin + " " + roles);
+        }
+    }
+
+    /**
+     * Opens the directory in the default data directory. The first administrator is named with
+     * the {@code jms.bootstrap.admin} system property.
+     *
+     * @return The default directory.
+     */
+    public static UserDirectory openDefault() {
+        try {
+            return new UserDirectory(DataDirectory.resolve("users"), System.getProperty(BOOTSTRAP_PROPERTY));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open user directory", e);
+        }
+    }
+
+    /**
+     * Looks up a user.
+     *
+     * @param userName The login name.
+     * @return The profile, or a public-only guest profile if there is no such account.
+     */
+    public synchronized Profile get(String userName) {
+        Profile profile = profiles.get(userName);
+        return profile != null ? profile : Profile.guest(userName);
+    }
+
+    /**
+     * Lists every account.
+     *
+     * @return The profiles in the order they were added.
+     */
+    public synchronized List<Profile> profiles() {
+        return new ArrayList<>(profiles.values());
+    }
+
+    /**
+     * Adds an account or replaces the account with the same user name, and saves the directory.
+     * A signed-in user keeps the permissions of their session until they sign in again.
+     *
+     * @param profile The profile.
+     */
+    public synchronized void put(Profile profile) {
+        profiles.put(profile.getUserName(), profile);
+        try {
+            save();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot save user directory", e);
+        }
+    }
+
+    private boolean hasAdministrator() {
+        for (Profile profile : profiles.values()) {
+            if (profile.getRoles().contains(Role.ADMIN)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void save() throws IOException {
+        Path temp = file.resolveSibling("users.dat.tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(profiles.size());
+            for (Profile profile : profiles.values()) {
+                out.writeUTF(profile.getUserName());
+                out.writeUTF(profile.getDisplayName());
+                out.writeShort(profile.getRoles().size());
+                for (Role role : profile.getRoles()) {
+                    out.writeUTF(role.name());
+                }
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void load() throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a user directory: " + file);
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String userName = in.readUTF();
+                String displayName = in.readUTF();
+                Set<Role> roles = EnumSet.noneOf(Role.class);
+                for (int r = in.readShort(); r > 0; r--) {
+                    roles.add(Role.valueOf(in.readUTF()));
+                }
+                profiles.put(userName, new Profile(userName, displayName, roles));
+            }
+        }
+    }
+}
@@ -0,0 +1,751 @@
+package com.astro;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Durable task queues with deadline reminders.
+ * Every task creation, transition and fired alert is appended to a write-ahead log and forced
+ * to disk before it is applied in memory, so a crash loses nothing that was acknowledged. Each
+ * log record carries a sequence number and a CRC; on startup the latest snapshot is loaded and
+ * the log records after it are replayed, stopping at the first torn record. Every
+ * {@link #CHECKPOINT_RECORDS} records the log rolls over to a new segment and a snapshot of the
+ * open tasks is written in the background, after which the older segments are deleted.
+ * <p>
+ * Open tasks are kept in one queue per role, ordered by deadline. Each task's next reminder or
+ * deadline sits in a {@link TimerWheel}, so scheduling and firing cost O(1) however many tasks
+ * are pending. Alerts fired in the same tick are delivered to listeners as one batch.
+ */
+public class WorkflowEngine implements CaseRepository.Listener, Closeable {
+
+    public static final String CLERK = "Clerk";
+    public static final String JUDGE = "Judge";
+    static final long TICK_MILLIS = 1_000; // Timer resolution
+    static final int CHECKPOINT_RECORDS = 100_000; // Log records between snapshots
+    static final Duration REVIEW_DUE = Duration.ofDays(7); // Deadline for reviewing a new filing
+    static final Duration REMINDER_LEAD = Duration.ofDays(1); // Reminder before a filing review is due
+    static final String SYSTEM_ACTOR = "system";
+    private static final int SNAPSHOT_MAGIC = 0x574B4631; // "WKF1"
+    private static final int RECORD_HEADER = Integer.BYTES + Integer.BYTES + Long.BYTES; // Length, CRC, sequence
+    private static final long NO_TIME = Long.MIN_VALUE;
+    private static final byte CREATE = 1;
+    private static final byte TRANSITION = 2;
+    private static final byte FIRED = 3;
+    private static final Comparator<WorkflowTask> BY_DUE =
+        Comparator.comparing(WorkflowTask::getDue).thenComparingLong(WorkflowTask::getId);
+
+    /**
+     * Receives alerts as tasks near or pass their deadlines.
+     */
+    public interface Listener {
+        /**
+         * Called on the timer thread with every alert fired in one tick.
+         *
+         * @param alerts The alerts, at least one.
+         */
+        void alerts(List<Alert> alerts);
+    }
+
+    /**
+     * A reminder or overdue notice for a task.
+     */
+    public static final class Alert {
+        public enum Kind { REMINDER, OVERDUE }
+
+        private final WorkflowTask task;
+        private final Kind kind;
+        private final Instant time;
+
+        Alert(WorkflowTask task, Kind kind, Instant time) {
+            this.task = task;
+            this.kind = kind;
+            this.time = time;
+        }
+
+        public WorkflowTask getTask() { return task; }
+        public Kind getKind() { return kind; }
+        public Instant getTime() { return time; }
+
+        /**
+         * Returns the alert as shown to users.
+         *
+         * @return The message.
+         */
+        public String getMessage() {
+            return (kind == Kind.REMINDER ? "Deadline approaching for Case #" : "Deadline passed for Case #")
+                + task.getCaseNumber() + ": " + task.getTitle();
+        }
+    }
+
+    private final Path directory;
+    private final Map<Long, Entry> tasks = new HashMap<>(); // Id -> open task
+    private final Map<String, NavigableSet<WorkflowTask>> queues = new HashMap<>(); // Lower-case role -> tasks by deadline
+    private final TimerWheel<Entry> timers;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final ConcurrentLinkedQueue<Case> newFilings = new ConcurrentLinkedQueue<>(); // Turned into review tasks on the next tick
+    private final ScheduledExecutorService ticker;
+    private final ExecutorService checkpointWriter;
+    private final CRC32 crc = new CRC32();
+    private FileChannel log; // Active log segment
+    private long nextSequence = 1;
+    private long nextId = 1;
+    private int sinceCheckpoint; // Records appended since the last snapshot
+    private IOException failure; // Set when a failed append could not be rolled back; no more writes are taken
+
+    /**
+     * Opens (or creates) the engine in the given directory, restoring the open tasks from the
+     * latest snapshot and log, and starts the timer.
+     *
+     * @param directory The directory for the log and snapshot files.
+     * @throws IOException If the files cannot be opened, or a log segment other than the last is damaged.
+     */
+    public WorkflowEngine(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        long snapshotSequence = loadSnapshot();
+        List<Path> segments = segments();
+        for (int i = 0; i < segments.size(); i++) {
+            replay(segments.get(i), snapshotSequence, i == segments.size() - 1);
+        }
+        if (segments.isEmpty()) {
+            openSegment();
+        } else {
+            log = FileChannel.open(segments.get(segments.size() - 1), StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+
+        timers = new TimerWheel<>(TICK_MILLIS, System.currentTimeMillis());
+        for (Entry entry : tasks.values()) {
+            arm(entry);
+        }
+        checkpointWriter = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "workflow-checkpoints");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "workflow-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::tick, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens the engine in the default data directory.
+     *
+     * @return The default engine.
+     */
+    public static WorkflowEngine openDefault() {
+        try {
+            return new WorkflowEngine(DataDirectory.resolve("workflow"));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open task queues", e);
+        }
+    }
+
+    /**
+     * Creates a clerk's review task for every case filed in a repository from now on.
+     *
+     * @param repository The repository to follow.
+     */
+    public void follow(CaseRepository repository) {
+        repository.addListener(this);
+    }
+
+    @Override
+    public void caseAdded(int rowId, Case added) {
+        newFilings.add(added); // Batched into one log write per tick, so bulk imports are not fsync-bound
+    }
+
+    @Override
+    public void caseUpdated(int rowId, Case previous, Case updated) {
+        // Tasks are closed by their users, not by case changes
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Creates tasks from drafts with a single log write.
+     *
+     * @param drafts The tasks to create, from {@link WorkflowTask#draft}.
+     * @param actor  The user creating them.
+     * @return The created tasks, with their ids.
+     */
+    public synchronized List<WorkflowTask> createAll(List<WorkflowTask> drafts, String actor) {
+        Instant now = Instant.ofEpochMilli(System.currentTimeMillis());
+        List<WorkflowTask> created = new ArrayList<>(drafts.size());
+        List<byte[]> records = new ArrayList<>(drafts.size());
+        for (WorkflowTask draft : drafts) {
+            WorkflowTask task = draft.withId(nextId++, actor, now);
+            created.add(task);
+            records.add(encode(out -> {
+                out.writeByte(CREATE);
+                writeTask(out, task);
+            }));
+        }
+        append(records);
+        for (WorkflowTask task : created) {
+            arm(applyCreate(task));
+        }
+        checkpointIfDue();
+        return created;
+    }
+
+    /**
+     * Creates one task.
+     *
+     * @param draft The task to create, from {@link WorkflowTask#draft}.
+     * @param actor The user creating it.
+     * @return The created task.
+     */
+    public WorkflowTask create(WorkflowTask draft, String actor) {
+        WorkflowTask task = createAll(List.of(draft), actor).get(0);
+        AuditLog.global().record(actor, "task.created", task.toString());
+        return task;
+    }
+
+    /**
+     * Applies a user's action to an open task. The change is on disk before this returns.
+     *
+     * @param id     The task id.
+     * @param action The action.
+     * @param actor  The user taking it.
+     * @return The changed task.
+     * @throws IllegalArgumentException If no open task has the id.
+     * @throws IllegalStateException    If the action is not allowed in the task's state.
+     */
+    public WorkflowTask transition(long id, WorkflowTask.Action action, String actor) {
+        WorkflowTask changed;
+        synchronized (this) {
+            Entry entry = tasks.get(id);
+            if (entry == null) {
+                throw new IllegalArgumentException("No open task " + id);
+            }
+            Instant now = Instant.ofEpochMilli(System.currentTimeMillis());
+            changed = entry.task.apply(action, actor, now); // Checked before anything is logged
+            append(List.of(encode(out -> {
+                out.writeByte(TRANSITION);
+                out.writeLong(id);
+                out.writeByte(action.ordinal());
+                out.writeUTF(actor);
+                out.writeLong(now.toEpochMilli());
+            })));
+            applyTransition(id, action, actor, now);
+            checkpointIfDue();
+        }
+        AuditLog.global().record(actor, "task." + action.name().toLowerCase(Locale.ROOT), changed.toString());
+        return changed;
+    }
+
+    /**
+     * Lists the first tasks in a role's queue, earliest deadline first.
+     *
+     * @param role  The role.
+     * @param limit The maximum number of tasks.
+     * @return The tasks.
+     */
+    public synchronized List<WorkflowTask> queue(String role, int limit) {
+        List<WorkflowTask> result = new ArrayList<>(Math.min(limit, 256));
+        NavigableSet<WorkflowTask> queue = queues.get(roleKey(role));
+        if (queue != null) {
+            for (WorkflowTask task : queue) {
+                if (result.size() == limit) {
+                    break;
+                }
+                result.add(task);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Counts the tasks in a role's queue.
+     *
+     * @param role The role.
+     * @return The count.
+     */
+    public synchronized int queueSize(String role) {
+        NavigableSet<WorkflowTask> queue = queues.get(roleKey(role));
+        return queue == null ? 0 : queue.size();
+    }
+
+    /**
+     * Counts every open task.
+     *
+     * @return The count.
+     */
+    public synchronized int getOpenCount() {
+        return tasks.size();
+    }
+
+    /**
+     * Stops the timer, forces the log and closes it.
+     *
+     * @throws IOException If the log cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        ticker.shutdown();
+        checkpointWriter.shutdown();
+        try {
+            ticker.awaitTermination(5, TimeUnit.SECONDS);
+            checkpointWriter.awaitTermination(5, TimeUnit.SECONDS); // Let a snapshot in progress finish
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            log.close();
+        }
+    }
+
+    // --- Timer ---
+
+    /**
+     * Runs once per tick on the timer thread: turns new filings into review tasks, fires the
+     * reminders and deadlines that came due, and hands the alerts to the listeners.
+     */
+    private void tick() {
+        try {
+            List<Alert> alerts = new ArrayList<>();
+            synchronized (this) {
+                createReviewTasks();
+                List<Entry> due = new ArrayList<>();
+                timers.advance(System.currentTimeMillis(), due::add);
+                if (!due.isEmpty()) {
+                    fire(due, alerts);
+                }
+            }
+            if (!alerts.isEmpty()) {
+                for (Listener listener : listeners) {
+                    listener.alerts(alerts);
+                }
+            }
+        } catch (RuntimeException e) {
+            // A failed tick is retried on the next one; the timer must keep running
+            AuditLog.global().record(SYSTEM_ACTOR, "workflow.error", String.valueOf(e));
+        }
+    }
+
+    private void createReviewTasks() {
+        if (newFilings.isEmpty()) {
+            return;
+        }
+        Instant due = Instant.ofEpochMilli(System.currentTimeMillis()).plus(REVIEW_DUE);
+        List<WorkflowTask> drafts = new ArrayList<>();
+        for (Case filed; (filed = newFilings.poll()) != null; ) {
+            drafts.add(WorkflowTask.draft(filed.getCaseNumber(), "Review new filing", CLERK, null,
+                due, due.minus(REMINDER_LEAD)));
+        }
+        createAll(drafts, SYSTEM_ACTOR);
+    }
+
+    private void fire(List<Entry> due, List<Alert> alerts) {
+        Instant now = Instant.ofEpochMilli(System.currentTimeMillis());
+        List<byte[]> records = new ArrayList<>(due.size());
+        List<Alert.Kind> kinds = new ArrayList<>(due.size());
+        for (Entry entry : due) {
+            // A reminder that comes due after the deadline, e.g. after downtime, is reported as overdue
+            Alert.Kind kind = awaitsReminder(entry) && now.isBefore(entry.task.getDue()) ? Alert.Kind.REMINDER : Alert.Kind.OVERDUE;
+            kinds.add(kind);
+            records.add(encode(out -> {
+                out.writeByte(FIRED);
+                out.writeLong(entry.task.getId());
+                out.writeByte(kind.ordinal());
+            }));
+        }
+        append(records); // Logged first, so an alert is never repeated after a restart
+        for (int i = 0; i < due.size(); i++) {
+            Entry entry = due.get(i);
+            applyFired(entry, kinds.get(i));
+            arm(entry);
+            alerts.add(new Alert(entry.task, kinds.get(i), now));
+        }
+        checkpointIfDue();
+    }
+
+    /**
+     * Schedules an open task's next reminder or deadline, if any.
+     */
+    private void arm(Entry entry) {
+        if (entry.timeout != null) {
+            timers.cancel(entry.timeout);
+            entry.timeout = null;
+        }
+        Instant next = awaitsReminder(entry) ? entry.task.getRemindAt() : entry.overdue ? null : entry.task.getDue();
+        if (next != null) {
+            entry.timeout = timers.schedule(entry, next.toEpochMilli());
+        }
+    }
+
+    private static boolean awaitsReminder(Entry entry) {
+        WorkflowTask task = entry.task;
+        return !entry.reminded && task.getRemindAt() != null && task.getRemindAt().isBefore(task.getDue());
+    }
+
+    // --- State changes, shared by the live path and replay ---
+
+    private Entry applyCreate(WorkflowTask task) {
+        Entry entry = new Entry(task);
+        tasks.put(task.getId(), entry);
+        enqueue(task);
+        nextId = Math.max(nextId, task.getId() + 1);
+        return entry;
+    }
+
+    private void applyTransition(long id, WorkflowTask.Action action, String actor, Instant time) {
+        Entry entry = tasks.get(id);
+        if (entry == null) {
+            return; // Replayed after the task was closed in a snapshot
+        }
+        dequeue(entry.task);
+        entry.task = entry.task.apply(action, actor, time);
+        if (entry.task.getState().isFinal()) {
+            tasks.remove(id);
+            if (entry.timeout != null) {
+                timers.cancel(entry.timeout);
+                entry.timeout = null;
+            }
+        } else {
+            enqueue(entry.task);
+        }
+    }
+
+    private static void applyFired(Entry entry, Alert.Kind kind) {
+        entry.reminded = true;
+        entry.overdue |= kind == Alert.Kind.OVERDUE;
+    }
+
+    private void enqueue(WorkflowTask task) {
+        queues.computeIfAbsent(roleKey(task.getQueueRole()), r -> new TreeSet<>(BY_DUE)).add(task);
+    }
+
+    private void dequeue(WorkflowTask task) {
+        NavigableSet<WorkflowTask> queue = queues.get(roleKey(task.getQueueRole()));
+        if (queue != null) {
+            queue.remove(task);
+        }
+    }
+
+    private static String roleKey(String role) {
+        return role == null ? "" : role.toLowerCase(Locale.ROOT);
+    }
+
+    // --- Write-ahead log ---
+
+    /**
+     * Appends records with one write and one fsync. If either fails, the segment is truncated
+     * back to where the records started, so a partial write can never end up between records
+     * that replay would then discard; if even that fails, the engine refuses further writes.
+     */
+    private void append(List<byte[]> records) {
+        if (failure != null) {
+            throw new IllegalStateException("Task log is unusable after a failed write", failure);
+        }
+        long firstSequence = nextSequence;
+        int size = 0;
+        for (byte[] record : records) {
+            size += RECORD_HEADER + record.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        for (byte[] record : records) {
+            long sequence = nextSequence++;
+            buffer.putInt(record.length);
+            int crcAt = buffer.position();
+            buffer.putInt(0);
+            buffer.putLong(sequence);
+            buffer.put(record);
+            crc.reset();
+            crc.update(buffer.array(), crcAt + Integer.BYTES, Long.BYTES + record.length);
+            buffer.putInt(crcAt, (int) crc.getValue());
+        }
+        buffer.flip();
+        long start = -1;
+        try {
+            start = log.size();
+            while (buffer.hasRemaining()) {
+                log.write(buffer);
+            }
+            log.force(false);
+        } catch (IOException e) {
+            nextSequence = firstSequence; // Nothing was applied, so the next append reuses the numbers
+            if (start >= 0) {
+                try {
+                    log.truncate(start);
+                    log.force(false);
+                } catch (IOException again) {
+                    e.addSuppressed(again);
+                    failure = e;
+                }
+            }
+            throw new UncheckedIOException("Cannot write task log", e);
+        }
+        sinceCheckpoint += records.size();
+    }
+
+    /**
+     * Takes a checkpoint if enough records were appended. Called once the appended records have
+     * been applied, since the snapshot claims to cover them.
+     */
+    private void checkpointIfDue() {
+        if (sinceCheckpoint >= CHECKPOINT_RECORDS) {
+            try {
+                checkpoint();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot roll over task log", e);
+            }
+        }
+    }
+
+    private void openSegment() throws IOException {
+        log = FileChannel.open(directory.resolve(String.format("wal-%016x.log", nextSequence)),
+            StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private List<Path> segments() throws IOException {
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "wal-*.log")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                segments.put(Long.parseUnsignedLong(name.substring(4, name.length() - 4), 16), file);
+            }
+        }
+        return new ArrayList<>(segments.values());
+    }
+
+    /**
+     * Replays one segment. A record cut short or damaged by a crash ends the last segment, which
+     * is truncated there; anywhere else it means the log is corrupt.
+     */
+    private void replay(Path segment, long snapshotSequence, boolean last) throws IOException {
+        long position = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment), 1 << 16))) {
+            long size = Files.size(segment);
+            byte[] body = new byte[256];
+            while (position + RECORD_HEADER <= size) {
+                int length = in.readInt();
+                int expected = in.readInt();
+                if (length < 0 || position + RECORD_HEADER + length > size) {
+                    break;
+                }
+                if (body.length < Long.BYTES + length) {
+                    body = new byte[Long.BYTES + length];
+                }
+                in.readFully(body, 0, Long.BYTES + length);
+                crc.reset();
+                crc.update(body, 0, Long.BYTES + length);
+                if ((int) crc.getValue() != expected) {
+                    break;
+                }
+                long sequence = ByteBuffer.wrap(body, 0, Long.BYTES).getLong();
+                if (sequence > snapshotSequence) {
+                    applyRecord(new DataInputStream(new ByteArrayInputStream(body, Long.BYTES, length)));
+                }
+                nextSequence = Math.max(nextSequence, sequence + 1);
+                position += RECORD_HEADER + length;
+            }
+        }
+        if (position < Files.size(segment)) {
+            if (!last) {
+                throw new IOException("Damaged task log segment " + segment + " at " + position);
+            }
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+                channel.truncate(position); // Drop the torn tail so new records follow valid ones
+            }
+        }
+    }
+
+    private void applyRecord(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        if (type == CREATE) {
+            applyCreate(readTask(in));
+        } else if (type == TRANSITION) {
+            long id = in.readLong();
+            WorkflowTask.Action action = WorkflowTask.Action.values()[in.readByte()];
+            applyTransition(id, action, in.readUTF(), Instant.ofEpochMilli(in.readLong()));
+        } else if (type == FIRED) {
+            Entry entry = tasks.get(in.readLong());
+            Alert.Kind kind = Alert.Kind.values()[in.readByte()];
+            if (entry != null) {
+                applyFired(entry, kind);
+            }
+        } else {
+            throw new IOException("Unknown task log record type " + type);
+        }
+    }
+
+    // --- Snapshots ---
+
+    /**
+     * Starts a new log segment and writes a snapshot covering everything before it in the
+     * background. The older segments are deleted once the snapshot is safely in place.
+     */
+    private void checkpoint() throws IOException {
+        sinceCheckpoint = 0;
+        log.close();
+        long covered = nextSequence - 1;
+        openSegment();
+        WorkflowTask[] open = new WorkflowTask[tasks.size()];
+        byte[] flags = new byte[open.length];
+        int i = 0;
+        for (Entry entry : tasks.values()) {
+            open[i] = entry.task;
+            flags[i++] = (byte) ((entry.reminded ? 1 : 0) | (entry.overdue ? 2 : 0));
+        }
+        long idAfter = nextId;
+        checkpointWriter.execute(() -> {
+            try {
+                writeSnapshot(covered, idAfter, open, flags);
+                for (Path segment : segments()) {
+                    String name = segment.getFileName().toString();
+                    if (Long.parseUnsignedLong(name.substring(4, name.length() - 4), 16) <= covered) {
+                        Files.delete(segment);
+                    }
+                }
+            } catch (IOException e) {
+                // The old segments stay, so the next checkpoint or a longer replay covers a failed write
+            }
+        });
+    }
+
+    private void writeSnapshot(long covered, long idAfter, WorkflowTask[] open, byte[] flags) throws IOException {
+        Path temp = directory.resolve("tasks.snap.tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(covered);
+            out.writeLong(idAfter);
+            out.writeInt(open.length);
+            for (int i = 0; i < open.length; i++) {
+                writeTask(out, open[i]);
+                out.writeByte(flags[i]);
+            }
+            out.flush();
+            channel.force(false);
+        }
+        Files.move(temp, directory.resolve("tasks.snap"), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Loads the latest snapshot, if any.
+     *
+     * @return The sequence number of the last log record it covers, or 0.
+     */
+    private long loadSnapshot() throws IOException {
+        Path file = directory.resolve("tasks.snap");
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not a task snapshot: " + file);
+            }
+            long covered = in.readLong();
+            nextId = in.readLong();
+            for (int count = in.readInt(); count > 0; count--) {
+                Entry entry = applyCreate(readTask(in));
+                byte flags = in.readByte();
+                entry.reminded = (flags & 1) != 0;
+                entry.overdue = (flags & 2) != 0;
+            }
+            nextSequence = covered + 1;
+            return covered;
+        } catch (EOFException e) {
+            throw new IOException("Truncated task snapshot: " + file, e);
+        }
+    }
+
+    // --- Encoding ---
+
+    private interface Encoder {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private static byte[] encode(Encoder encoder) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            encoder.write(new DataOutputStream(bytes));
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Not thrown by in-memory streams
+        }
+    }
+
+    private static void writeTask(DataOutputStream out, WorkflowTask task) throws IOException {
+        out.writeLong(task.getId());
+        out.writeUTF(task.getCaseNumber());
+        out.writeUTF(task.getTitle());
+        out.writeUTF(task.getRole());
+        out.writeUTF(task.getApprover() == null ? "" : task.getApprover());
+        out.writeLong(task.getDue().toEpochMilli());
+        out.writeLong(task.getRemindAt() == null ? NO_TIME : task.getRemindAt().toEpochMilli());
+        out.writeByte(task.getState().ordinal());
+        out.writeUTF(task.getUpdatedBy() == null ? "" : task.getUpdatedBy());
+        out.writeLong(task.getUpdatedAt() == null ? NO_TIME : task.getUpdatedAt().toEpochMilli());
+    }
+
+    private static WorkflowTask readTask(DataInputStream in) throws IOException {
+        long id = in.readLong();
+        String caseNumber = in.readUTF();
+        String title = in.readUTF();
+        String role = in.readUTF();
+        String approver = in.readUTF();
+        Instant due = Instant.ofEpochMilli(in.readLong());
+        long remindAt = in.readLong();
+        WorkflowTask.State state = WorkflowTask.State.values()[in.readByte()];
+        String updatedBy = in.readUTF();
+        long updatedAt = in.readLong();
+        return new WorkflowTask(id, caseNumber, title, role, approver.isEmpty() ? null : approver, due,
+            remindAt == NO_TIME ? null : Instant.ofEpochMilli(remindAt), state,
+            updatedBy.isEmpty() ? null : updatedBy, updatedAt == NO_TIME ? null : Instant.ofEpochMilli(updatedAt));
+    }
+
+    /**
+     * An open task with its alert progress and pending timeout.
+     */
+    private static final class Entry {
+        private WorkflowTask task;
+        private boolean reminded; // Reminder fired, or skipped because the deadline passed
+        private boolean overdue; // Deadline alert fired
+        private TimerWheel.Timeout<Entry> timeout;
+
+        Entry(WorkflowTask task) {
+            this.task = task;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.astro;
+
+import java.time.Instant;
+
+/**
+ * A unit of work in a role's task queue, such as reviewing a filing or approving an order.
+ * Instances are immutable; {@link WorkflowEngine} replaces a task with the result of
+ * {@link #apply} for every transition. A task with an approver role is submitted for approval
+ * instead of being completed directly.
+ */
+public class WorkflowTask {
+
+    /**
+     * The states a task moves through.
+     */
+    public enum State {
+        OPEN, SUBMITTED, REJECTED, APPROVED, DONE, CANCELLED;
+
+        /**
+         * Checks whether no further transition is possible.
+         *
+         * @return True for approved, done and cancelled tasks.
+         */
+        public boolean isFinal() {
+            return this == APPROVED || this == DONE || this == CANCELLED;
+        }
+    }
+
+    /**
+     * The actions users take on a task.
+     */
+    public enum Action {
+        SUBMIT("Submit"), APPROVE("Approve"), REJECT("Reject"), COMPLETE("Complete"), CANCEL("Cancel");
+
+        private final String label;
+
+        Action(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() { return label; }
+    }
+
+    private final long id;
+    private final String caseNumber;
+    private final String title;
+    private final String role; // Role whose queue works the task
+    private final String approver; // Role that approves it, or null if it is completed directly
+    private final Instant due;
+    private final Instant remindAt; // When the reminder fires, or null for none
+    private final State state;
+    private final String updatedBy;
+    private final Instant updatedAt;
+
+    public WorkflowTask(long id, String caseNumber, String title, String role, String approver,
+                        Instant due, Instant remindAt, State state, String updatedBy, Instant updatedAt) {
+        this.id = id;
+        this.caseNumber = caseNumber;
+        this.title = title;
+        this.role = role;
+        this.approver = approver;
+        this.due = due;
+        this.remindAt = remindAt;
+        this.state = state;
+        this.updatedBy = updatedBy;
+        this.updatedAt = updatedAt;
+    }
+
+    /**
+     * Creates a new open task that has not been given an id yet; the engine assigns one when the
+     * task is created.
+     *
+     * @param caseNumber The case the task is for.
+     * @param title      What has to be done.
+     * @param role       The role whose queue works the task.
+     * @param approver   The role that approves it, or null.
+     * @param due        The deadline.
+     * @param remindAt   When to remind the role, or null.
+     * @return The draft.
+     */
+    public static WorkflowTask draft(String caseNumber, String title, String role, String approver,
+                                     Instant due, Instant remindAt) {
+        return new WorkflowTask(0, caseNumber, title, role, approver, due, remindAt, State.OPEN, null, null);
+    }
+
+    public long getId() { return id; }
+    public String getCaseNumber() { return caseNumber; }
+    public String getTitle() { return title; }
+    public String getRole() { return role; }
+    public String getApprover() { return approver; }
+    public Instant getDue() { return due; }
+    public Instant getRemindAt() { return remindAt; }
+    public State getState() { return state; }
+    public String getUpdatedBy() { return updatedBy; }
+    public Instant getUpdatedAt() { return updatedAt; }
+
+    /**
+     * Returns the role whose queue currently holds the task: the approver while it awaits
+     * approval, otherwise the working role.
+     *
+     * @return The role.
+     */
+    public String getQueueRole() {
+        return state == State.SUBMITTED ? approver : role;
+    }
+
+    /**
+     * Checks whether an action is allowed in the task's current state.
+     *
+     * @param action The action.
+     * @return True if {@link #apply} would accept it.
+     */
+    public boolean allows(Action action) {
+        return next(action) != null;
+    }
+
+    /**
+     * Returns the task after an action.
+     *
+     * @param action The action.
+     * @param actor  The user taking it.
+     * @param time   When it was taken.
+     * @return The changed task.
+     * @throws IllegalStateException If the action is not allowed in the current state.
+     */
+    public WorkflowTask apply(Action action, String actor, Instant time) {
+        State next = next(action);
+        if (next == null) {
+            throw new IllegalStateException("Cannot " + action.getLabel().toLowerCase() + " a task that is " + state);
+        }
+        return new WorkflowTask(id, caseNumber, title, role, approver, due, remindAt, next, actor, time);
+    }
+
+    WorkflowTask withId(long newId, String actor, Instant time) {
+        return new WorkflowTask(newId, caseNumber, title, role, approver, due, remindAt, state, actor, time);
+    }
+
+    private State next(Action action) {
+        switch (action) {
+            case SUBMIT:
+                return approver != null && (state == State.OPEN || state == State.REJECTED) ? State.SUBMITTED : null;
+            case APPROVE:
+                return state == State.SUBMITTED ? State.APPROVED : null;
+            case REJECT:
+                return state == State.SUBMITTED ? State.REJECTED : null;
+            case COMPLETE:
+                return approver == null && state == State.OPEN ? State.DONE : null;
+            case CANCEL:
+                return state.isFinal() ? null : State.CANCELLED;
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Case #" + caseNumber + ": " + title;
+    }
+}
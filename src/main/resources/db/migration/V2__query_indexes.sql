@@ -0,0 +1,22 @@
+-- Secondary indexes for the predicates the application filters and sorts on. Each leads with the
+-- equality or range column and carries the sort and selected columns after it, so the query is
+-- answered from the index without a sort or a lookup of the row.
+
+-- "Current Status Cases" and the status filters: WHERE status = ? AND case_number > ? ORDER BY case_number
+CREATE INDEX idx_cases_status ON Cases (status, case_number);
+
+-- Caseload per judge: WHERE judge_id = ? AND status <> 'Closed'
+CREATE INDEX idx_cases_judge_status ON Cases (judge_id, status);
+
+-- Calendar date range: WHERE hearing_date >= ? AND hearing_date < ? ORDER BY hearing_date
+CREATE INDEX idx_hearings_date ON Hearings (hearing_date, case_id, location, status);
+
+-- Hearings of a case: WHERE case_id = ? ORDER BY hearing_date
+CREATE INDEX idx_hearings_case_date ON Hearings (case_id, hearing_date);
+
+-- E-filing queues: WHERE status = ? ORDER BY submission_date
+CREATE INDEX idx_efiling_status ON Efiling (status, submission_date);
+
+-- Audit log by time, and by user and time
+CREATE INDEX idx_auditlogs_time ON AuditLogs (timestamp);
+CREATE INDEX idx_auditlogs_user_time ON AuditLogs (user_id, timestamp);
@@ -0,0 +1,42 @@
+-- dialect: MySQL
+-- Range partitions by year for the two tables that grow with time, so date-range reads of the
+-- calendar and the audit log touch only the years they ask for and old years can be archived
+-- by dropping a partition. New years land in pmax until it is split, e.g. at year end:
+--   ALTER TABLE Hearings REORGANIZE PARTITION pmax INTO
+--     (PARTITION p2028 VALUES LESS THAN ('2029-01-01'), PARTITION pmax VALUES LESS THAN (MAXVALUE));
+--
+-- MySQL requires the partitioning column in every unique key and does not allow foreign keys on
+-- partitioned tables, so the primary keys gain the time column and the two foreign keys are
+-- replaced by triggers that keep their delete rules. The indexes MySQL created for those keys
+-- were already superseded by idx_hearings_case_date and idx_auditlogs_user_time in V2.
+-- Other databases skip this migration.
+
+ALTER TABLE Hearings DROP FOREIGN KEY FK_Hearings_Case;
+ALTER TABLE Hearings DROP PRIMARY KEY, ADD PRIMARY KEY (hearing_id, hearing_date);
+ALTER TABLE Hearings PARTITION BY RANGE COLUMNS (hearing_date) (
+    PARTITION p2023 VALUES LESS THAN ('2024-01-01'),
+    PARTITION p2024 VALUES LESS THAN ('2025-01-01'),
+    PARTITION p2025 VALUES LESS THAN ('2026-01-01'),
+    PARTITION p2026 VALUES LESS THAN ('2027-01-01'),
+    PARTITION p2027 VALUES LESS THAN ('2028-01-01'),
+    PARTITION pmax VALUES LESS THAN (MAXVALUE)
+);
+
+-- Was ON DELETE CASCADE
+CREATE TRIGGER trg_cases_delete_hearings AFTER DELETE ON Cases
+    FOR EACH ROW DELETE FROM Hearings WHERE case_id = OLD.case_id;
+
+ALTER TABLE AuditLogs DROP FOREIGN KEY FK_AuditLogs_User;
+ALTER TABLE AuditLogs DROP PRIMARY KEY, ADD PRIMARY KEY (log_id, timestamp);
+ALTER TABLE AuditLogs PARTITION BY RANGE (UNIX_TIMESTAMP(timestamp)) (
+    PARTITION p2023 VALUES LESS THAN (UNIX_TIMESTAMP('2024-01-01 00:00:00')),
+    PARTITION p2024 VALUES LESS THAN (UNIX_TIMESTAMP('2025-01-01 00:00:00')),
+    PARTITION p2025 VALUES LESS THAN (UNIX_TIMESTAMP('2026-01-01 00:00:00')),
+    PARTITION p2026 VALUES LESS THAN (UNIX_TIMESTAMP('2027-01-01 00:00:00')),
+    PARTITION p2027 VALUES LESS THAN (UNIX_TIMESTAMP('2028-01-01 00:00:00')),
+    PARTITION pmax VALUES LESS THAN (MAXVALUE)
+);
+
+-- Was ON DELETE SET NULL
+CREATE TRIGGER trg_users_delete_auditlogs BEFORE DELETE ON Users
+    FOR EACH ROW UPDATE AuditLogs SET user_id = NULL WHERE user_id = OLD.user_id;
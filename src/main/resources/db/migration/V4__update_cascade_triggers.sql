@@ -0,0 +1,14 @@
+-- dialect: MySQL
+-- V3 replaced the foreign keys of Hearings and AuditLogs by triggers for their delete rules only,
+-- so a changed Cases.case_id or Users.user_id no longer reached the rows referring to it. These
+-- triggers restore the ON UPDATE CASCADE rules the keys had. Each is one statement, so no
+-- delimiter change is needed; rows are only touched when the key actually changes.
+-- Other databases keep the foreign keys and skip this migration.
+
+-- Was ON UPDATE CASCADE on FK_Hearings_Case
+CREATE TRIGGER trg_cases_update_hearings AFTER UPDATE ON Cases
+    FOR EACH ROW UPDATE Hearings SET case_id = NEW.case_id WHERE case_id = OLD.case_id AND NEW.case_id <> OLD.case_id;
+
+-- Was ON UPDATE CASCADE on FK_AuditLogs_User
+CREATE TRIGGER trg_users_update_auditlogs AFTER UPDATE ON Users
+    FOR EACH ROW UPDATE AuditLogs SET user_id = NEW.user_id WHERE user_id = OLD.user_id AND NEW.user_id <> OLD.user_id;
@@ -0,0 +1,263 @@
+package com.astro;
+
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Tests for {@link Database} and the DAOs on an in-memory H2 database in MySQL mode.
+ */
+public class DatabaseTest extends TestCase {
+
+    private Path directory;
+    private Database database;
+    private UserDirectory users;
+
+    @Override
+    protected void setUp() throws IOException, SQLException {
+        directory = Files.createTempDirectory("db");
+        database = new Database("jdbc:h2:mem:" + getName() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "", 2);
+        new MigrationRunner(database).migrate();
+        users = new UserDirectory(directory);
+        database.inTransaction(session -> {
+            PreparedStatement insert = session.prepare(
+                "INSERT INTO Users (username, password_hash, role, email) VALUES (?, '-', 'Judge', ?)");
+            for (Profile profile : users.profiles()) {
+                insert.setString(1, profile.getUserName());
+                insert.setString(2, profile.getUserName() + "@court.test");
+                insert.executeUpdate();
+            }
+            return null;
+        });
+    }
+
+    @Override
+    protected void tearDown() throws IOException, SQLException {
+        try (Database.Session session = database.lease();
+             Statement statement = session.connection().createStatement()) {
+            statement.execute("DROP ALL OBJECTS"); // Frees the in-memory database
+        }
+        database.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    /**
+     * A returned connection is handed out again, with anything left uncommitted rolled back, and
+     * a caller that finds the pool exhausted gets the next connection returned.
+     */
+    public void testPoolReusesReturnedConnections() throws Exception {
+        Connection first;
+        try (Database.Session session = database.lease()) {
+            first = session.connection();
+            session.prepare("INSERT INTO Cases (case_number, title, status) VALUES ('C-1', 'Left open', 'Pending')")
+                .executeUpdate();
+        }
+        try (Database.Session session = database.lease()) {
+            assertSame(first, session.connection());
+            assertEquals(0, count(session, "SELECT COUNT(*) FROM Cases"));
+        }
+
+        Database.Session a = database.lease();
+        Database.Session b = database.lease();
+        CompletableFuture<Connection> waiting = CompletableFuture.supplyAsync(() -> {
+            try (Database.Session c = database.lease()) {
+                return c.connection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(200);
+        assertFalse("the pool holds only two connections", waiting.isDone());
+        Connection returned = b.connection();
+        b.close();
+        assertSame(returned, waiting.get(5, TimeUnit.SECONDS));
+        a.close();
+    }
+
+    /**
+     * Preparing the same SQL on a connection reuses its statement, and the least recently used
+     * statement is closed once the cache is full. Cached statements outlive the lease.
+     */
+    public void testStatementCacheReusesAndEvicts() throws SQLException {
+        try (Database.Session session = database.lease()) {
+            PreparedStatement first = session.prepare("SELECT 0");
+            assertSame(first, session.prepare("SELECT 0"));
+            for (int i = 1; i <= Database.STATEMENT_CACHE_SIZE; i++) {
+                session.prepare("SELECT " + i);
+            }
+            assertTrue("least recently used statement is closed", first.isClosed());
+            assertNotSame(first, session.prepare("SELECT 0"));
+        }
+        PreparedStatement cached;
+        try (Database.Session session = database.lease()) {
+            cached = session.prepare("SELECT 2");
+        }
+        try (Database.Session session = database.lease()) { // The same connection, returned last
+            assertSame(cached, session.prepare("SELECT 2"));
+            assertFalse(cached.isClosed());
+        }
+    }
+
+    /**
+     * A bulk insert larger than one JDBC batch writes every row, and a failing row leaves none.
+     */
+    public void testBatchInsertIsAllOrNothing() throws SQLException {
+        CaseDao cases = new CaseDao(database, users);
+        int count = Database.BATCH_SIZE * 2 + 5;
+        assertEquals(count, cases.insertAll(numbered("A", count, "Judge Evans")));
+        assertEquals(count, (int) database.inTransaction(session -> count(session, "SELECT COUNT(*) FROM Cases")));
+        assertEquals("Judge Evans", cases.get("A00000").getAssignedJudge());
+
+        List<Case> withDuplicate = numbered("B", 10, Case.UNASSIGNED);
+        withDuplicate.add(withDuplicate.get(0));
+        try {
+            cases.insertAll(withDuplicate);
+            fail("duplicate case number accepted");
+        } catch (SQLException expected) {
+            // The whole batch is rolled back
+        }
+        assertNull(cases.get("B00000"));
+    }
+
+    /**
+     * Writes submitted from many threads are all committed, and a write that fails does not
+     * fail the others in its round.
+     */
+    public void testSubmitCommitsEveryWriteAndIsolatesFailures() throws Exception {
+        CaseDao cases = new CaseDao(database, users);
+        int count = 500;
+        cases.insertAll(numbered("S", count, Case.UNASSIGNED));
+        List<CompletableFuture<Integer>> writes = new ArrayList<>();
+        List<Case> updated = numbered("S", count, Case.UNASSIGNED);
+        updated.parallelStream().forEach(c -> {
+            CompletableFuture<Integer> write = cases.submitStatus(new Case(c.getCaseNumber(), c.getCaseTitle(),
+                c.getCaseType(), "Closed", c.getFilingDate(), c.getAssignedJudge()));
+            synchronized (writes) {
+                writes.add(write);
+            }
+        });
+        CompletableFuture<Integer> invalid = database.submit("UPDATE Cases SET status = ? WHERE case_number = ?",
+            "S00001", (statement, number) -> {
+                statement.setString(1, "Unknown"); // Violates CHK_CaseStatus
+                statement.setString(2, number);
+            });
+        for (CompletableFuture<Integer> write : writes) {
+            assertEquals(Integer.valueOf(1), write.get(10, TimeUnit.SECONDS));
+        }
+        try {
+            invalid.get(10, TimeUnit.SECONDS);
+            fail("invalid status accepted");
+        } catch (ExecutionException expected) {
+            assertTrue(expected.getCause() instanceof SQLException);
+        }
+        assertEquals(count, cases.pageByStatus("Closed", "", count + 1).size());
+    }
+
+    /**
+     * Paging cases by key visits every case once, in case-number order, also within one status.
+     */
+    public void testCasePagesFollowKeyOrder() throws SQLException {
+        CaseDao cases = new CaseDao(database, users);
+        List<Case> all = numbered("P", 95, Case.UNASSIGNED);
+        for (int i = 0; i < all.size(); i += 3) {
+            Case c = all.get(i);
+            all.set(i, new Case(c.getCaseNumber(), c.getCaseTitle(), c.getCaseType(), "In Progress",
+                c.getFilingDate(), "Judge Chen"));
+        }
+        cases.insertAll(all);
+
+        List<String> seen = new ArrayList<>();
+        for (List<Case> page = cases.page("", 10); !page.isEmpty();
+             page = cases.page(page.get(page.size() - 1).getCaseNumber(), 10)) {
+            assertTrue(page.size() <= 10);
+            page.forEach(c -> seen.add(c.getCaseNumber()));
+        }
+        assertEquals(95, seen.size());
+        for (int i = 0; i < seen.size(); i++) {
+            assertEquals(String.format("P%05d", i), seen.get(i));
+        }
+
+        List<Case> inProgress = new ArrayList<>();
+        for (List<Case> page = cases.pageByStatus("In Progress", "", 7); !page.isEmpty();
+             page = cases.pageByStatus("In Progress", page.get(page.size() - 1).getCaseNumber(), 7)) {
+            inProgress.addAll(page);
+        }
+        assertEquals(32, inProgress.size());
+        for (Case c : inProgress) {
+            assertEquals("In Progress", c.getCurrentStatus());
+            assertEquals("Judge Chen", c.getAssignedJudge());
+        }
+    }
+
+    /**
+     * Paging hearings by start and key neither skips nor repeats hearings that start together,
+     * and a group-committed move is read back.
+     */
+    public void testHearingPagesKeepTiesTogether() throws Exception {
+        new CaseDao(database, users).insertAll(numbered("H", 1, Case.UNASSIGNED));
+        List<Hearing> hearings = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            hearings.add(new Hearing("H00000", "A v B", "Judge Evans", LocalDate.of(2025, 3, 1 + i / 5),
+                LocalTime.of(9, 0), LocalTime.of(10, 0), "Room " + i, "Motion", "Scheduled", null));
+        }
+        HearingDao dao = new HearingDao(database);
+        assertEquals(25, dao.insertAll(hearings));
+
+        Set<Integer> ids = new HashSet<>();
+        HearingDao.Row last = null;
+        for (List<HearingDao.Row> page = dao.page(null, 3); !page.isEmpty(); page = dao.page(last, 3)) {
+            for (HearingDao.Row row : page) {
+                if (last != null) {
+                    assertFalse(row.getStart().isBefore(last.getStart()));
+                }
+                assertTrue("hearing " + row.getHearingId() + " repeated", ids.add(row.getHearingId()));
+                last = row;
+            }
+        }
+        assertEquals(25, ids.size());
+
+        HearingDao.Row first = dao.page(null, 1).get(0);
+        LocalDateTime moved = LocalDateTime.of(2025, 4, 1, 14, 0);
+        assertEquals(Integer.valueOf(1), dao.submit(first.movedTo(moved, "Room 9").withStatus("Adjourned"))
+            .get(10, TimeUnit.SECONDS));
+        HearingDao.Row read = dao.between(moved, moved.plusHours(1)).get(0);
+        assertEquals(first.getHearingId(), read.getHearingId());
+        assertEquals("Adjourned", read.getStatus());
+    }
+
+    private static List<Case> numbered(String prefix, int count, String judge) {
+        List<Case> cases = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            cases.add(new Case(String.format("%s%05d", prefix, i), "Case " + i, "Civil", "Filed",
+                LocalDate.of(2025, 1, 1).plusDays(i % 300), judge));
+        }
+        return cases;
+    }
+
+    private static int count(Database.Session session, String sql) throws SQLException {
+        try (ResultSet rows = session.prepare(sql).executeQuery()) {
+            rows.next();
+            return rows.getInt(1);
+        }
+    }
+}
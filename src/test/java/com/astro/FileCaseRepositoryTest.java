@@ -0,0 +1,63 @@
+package com.astro;
+
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Tests for {@link FileCaseRepository}'s sort indexes.
+ */
+public class FileCaseRepositoryTest extends TestCase {
+
+    private Path directory;
+
+    @Override
+    protected void setUp() throws IOException {
+        directory = Files.createTempDirectory("cases");
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    /**
+     * Changing a sort key rebuilds the index by external merge; with more rows than one run the
+     * merged order must still be the full sort order.
+     */
+    public void testRebuildAcrossRunsKeepsSortOrder() throws IOException {
+        int count = FileCaseRepository.COMPACTION_THRESHOLD * 2 + 100;
+        List<Case> cases = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int scrambled = (int) ((i * 7_919L) % count); // Not inserted in key order
+            cases.add(new Case(String.format("K%06d", scrambled), "Title " + i, "Civil", "Filed",
+                LocalDate.of(2024, 1, 1).plusDays(i % 365), "Judge Evans"));
+        }
+        try (FileCaseRepository repository = new FileCaseRepository(directory)) {
+            repository.addAll(cases);
+            Case first = repository.get(0);
+            repository.update(0, new Case("A-moved", first.getCaseTitle(), first.getCaseType(), first.getCurrentStatus(),
+                first.getFilingDate(), first.getAssignedJudge()));
+
+            List<Case> ordered = repository.page(CaseRepository.SortKey.CASE_NUMBER, false, 0, count);
+            assertEquals(count, ordered.size());
+            assertEquals("A-moved", ordered.get(0).getCaseNumber());
+            for (int i = 1; i < ordered.size(); i++) {
+                assertTrue(ordered.get(i - 1).getCaseNumber().compareTo(ordered.get(i).getCaseNumber()) < 0);
+            }
+            List<Case> last = repository.page(CaseRepository.SortKey.CASE_NUMBER, true, 0, 1);
+            assertEquals(String.format("K%06d", count - 1), last.get(0).getCaseNumber());
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            assertTrue("run files are removed", files.noneMatch(path -> path.toString().contains(".run")));
+        }
+    }
+}
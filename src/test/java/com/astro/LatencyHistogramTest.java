@@ -0,0 +1,107 @@
+package com.astro;
+
+import junit.framework.TestCase;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for {@link LatencyHistogram}'s buckets and snapshots.
+ */
+public class LatencyHistogramTest extends TestCase {
+
+    private static final long HOUR = TimeUnit.HOURS.toNanos(1);
+
+    /**
+     * Values below the linear range are reported exactly, and every other value up to an hour is
+     * reported as the top of its bucket, no more than 1/64 above it.
+     */
+    public void testReportsValuesWithinOneSixtyFourth() {
+        for (long value = 0; value < 128; value++) {
+            assertEquals(value, reported(value));
+        }
+        Random random = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            long value = 128 + (long) Math.pow(HOUR - 128, random.nextDouble()); // Spread over every magnitude
+            long reported = reported(value);
+            assertTrue(value + " reported as " + reported, reported >= value && reported - value <= value / 64);
+        }
+        for (int shift = 7; shift < 42; shift++) { // Both sides of each power of two
+            for (long value : new long[] {(1L << shift) - 1, 1L << shift, (1L << shift) + 1}) {
+                long reported = reported(value);
+                assertTrue(value + " reported as " + reported, reported >= value && reported - value <= value / 64);
+            }
+        }
+    }
+
+    /**
+     * Buckets never overlap: a larger value is never reported below a smaller one.
+     */
+    public void testBucketsAreOrdered() {
+        long previous = 0;
+        for (long value = 1; value < HOUR; value += 1 + value / 97) {
+            long reported = reported(value);
+            assertTrue(value + " reported as " + reported + " after " + previous, reported >= previous);
+            previous = reported;
+        }
+    }
+
+    public void testQuantilesAndSummary() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.snapshot().valueAt(0.99));
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+        histogram.record(-5); // Counts as zero
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(101, snapshot.getCount());
+        assertEquals(5050, snapshot.getTotalNanos());
+        assertEquals(100, snapshot.getMaxNanos());
+        assertEquals(0, snapshot.valueAt(0));
+        assertEquals(50, snapshot.valueAt(0.5));
+        assertEquals(100, snapshot.valueAt(0.999));
+        assertEquals(100, snapshot.valueAt(1));
+
+        histogram.record(2 * HOUR); // Shares the last bucket, but the maximum is exact
+        assertEquals(2 * HOUR, histogram.snapshot().getMaxNanos());
+        assertEquals(2 * HOUR, histogram.snapshot().valueAt(1));
+    }
+
+    /**
+     * The difference of two snapshots holds only what was recorded between them, with its
+     * maximum accurate to the bucket.
+     */
+    public void testSinceCoversTheInterval() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 1000; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(500));
+        }
+        LatencyHistogram.Snapshot earlier = histogram.snapshot();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(i));
+        }
+        LatencyHistogram.Snapshot interval = histogram.snapshot().since(earlier);
+        long top = TimeUnit.MICROSECONDS.toNanos(100);
+        assertEquals(100, interval.getCount());
+        assertEquals(TimeUnit.MICROSECONDS.toNanos(5050), interval.getTotalNanos());
+        assertTrue(interval.getMaxNanos() >= top && interval.getMaxNanos() - top <= top / 64);
+        long median = TimeUnit.MICROSECONDS.toNanos(50);
+        assertTrue(interval.valueAt(0.5) >= median && interval.valueAt(0.5) - median <= median / 64);
+
+        LatencyHistogram.Snapshot nothing = histogram.snapshot().since(histogram.snapshot());
+        assertEquals(0, nothing.getCount());
+        assertEquals(0, nothing.getMaxNanos());
+        assertEquals(0, nothing.valueAt(0.5));
+    }
+
+    /**
+     * Returns the value a histogram reports for a value. A larger second value keeps the maximum
+     * from capping the bucket's top.
+     */
+    private static long reported(long value) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(value);
+        histogram.record(HOUR);
+        return histogram.snapshot().valueAt(0.5);
+    }
+}
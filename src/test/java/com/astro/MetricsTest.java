@@ -0,0 +1,63 @@
+package com.astro;
+
+import junit.framework.TestCase;
+
+import javax.management.AttributeNotFoundException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for {@link Metrics}' Prometheus text and JMX attributes.
+ */
+public class MetricsTest extends TestCase {
+
+    public void testRendersPrometheusText() {
+        Metrics metrics = new Metrics();
+        metrics.counter("cases.search-hits").add(3);
+        metrics.gauge("queue.depth", () -> 7);
+        metrics.histogram("cases.search").record(TimeUnit.MILLISECONDS.toNanos(2));
+
+        assertEquals("# TYPE jms_cases_search_hits_total counter\n"
+            + "jms_cases_search_hits_total 3\n"
+            + "# TYPE jms_queue_depth gauge\n"
+            + "jms_queue_depth 7\n"
+            + "# TYPE jms_cases_search_seconds summary\n"
+            + "jms_cases_search_seconds{quantile=\"0.5\"} 0.002\n"
+            + "jms_cases_search_seconds{quantile=\"0.9\"} 0.002\n"
+            + "jms_cases_search_seconds{quantile=\"0.99\"} 0.002\n"
+            + "jms_cases_search_seconds{quantile=\"0.999\"} 0.002\n"
+            + "jms_cases_search_seconds_sum 0.002\n"
+            + "jms_cases_search_seconds_count 1\n"
+            + "# TYPE jms_cases_search_seconds_max gauge\n"
+            + "jms_cases_search_seconds_max 0.002\n", metrics.render());
+    }
+
+    public void testRendersNothingWhenEmpty() {
+        assertEquals("", new Metrics().render());
+    }
+
+    /**
+     * The global registry's instruments are attributes of its MBean, read when asked for.
+     */
+    public void testPublishesGlobalRegistryOverJmx() throws Exception {
+        Metrics metrics = Metrics.global();
+        metrics.counter("test.jmx.counter").add(2);
+        metrics.histogram("test.jmx.latency").record(TimeUnit.MILLISECONDS.toNanos(4));
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(Metrics.OBJECT_NAME);
+
+        assertEquals(2L, server.getAttribute(name, "test.jmx.counter"));
+        assertEquals(1L, server.getAttribute(name, "test.jmx.latency.count"));
+        assertEquals(4.0, (Double) server.getAttribute(name, "test.jmx.latency.maxMillis"), 1e-9);
+        metrics.counter("test.jmx.counter").increment();
+        assertEquals(3L, server.getAttribute(name, "test.jmx.counter"));
+        try {
+            server.getAttribute(name, "test.jmx.missing");
+            fail("unknown attribute read");
+        } catch (AttributeNotFoundException expected) {
+            // Not an instrument
+        }
+    }
+}
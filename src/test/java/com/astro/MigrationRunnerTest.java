@@ -0,0 +1,111 @@
+package com.astro;
+
+import junit.framework.TestCase;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for {@link MigrationRunner} on an in-memory H2 database in MySQL mode.
+ */
+public class MigrationRunnerTest extends TestCase {
+
+    private Database database;
+
+    @Override
+    protected void setUp() {
+        database = new Database("jdbc:h2:mem:" + getName() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "", 1);
+    }
+
+    @Override
+    protected void tearDown() throws SQLException {
+        execute("DROP ALL OBJECTS");
+        database.close();
+    }
+
+    /**
+     * Every script is recorded once; the MySQL-only ones are skipped on H2 and a second run has
+     * nothing to do.
+     */
+    public void testMigratesOnceAndSkipsOtherDialects() throws SQLException {
+        MigrationRunner runner = new MigrationRunner(database);
+        assertEquals(Arrays.asList(1, 2, 3, 4), runner.migrate());
+        assertEquals(List.of(), runner.migrate());
+
+        List<String> history = new ArrayList<>();
+        database.inTransaction(session -> {
+            try (ResultSet rows = session.prepare("SELECT version, skipped FROM schema_version ORDER BY version")
+                    .executeQuery()) {
+                while (rows.next()) {
+                    history.add(rows.getInt(1) + (rows.getBoolean(2) ? " skipped" : ""));
+                }
+            }
+            return null;
+        });
+        assertEquals(Arrays.asList("1", "2", "3 skipped", "4 skipped"), history);
+        execute("INSERT INTO Cases (case_number, title, status) VALUES ('M-1', 'Migrated', 'Pending')");
+    }
+
+    /**
+     * A database whose recorded checksum differs from its script is refused.
+     */
+    public void testRefusesChangedScript() throws SQLException {
+        new MigrationRunner(database).migrate();
+        execute("UPDATE schema_version SET checksum = checksum + 1 WHERE version = 2");
+        try {
+            new MigrationRunner(database).migrate();
+            fail("changed script accepted");
+        } catch (SQLException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("V2"));
+        }
+    }
+
+    /**
+     * Statements end at a semicolon ending a line; comments are dropped, but not a {@code --}
+     * inside a string literal.
+     */
+    public void testSplitsStatements() {
+        String script = "-- dialect: MySQL\n"
+            + "CREATE TABLE t (\n"
+            + "    a INT, -- the key\n"
+            + "    b VARCHAR(10) DEFAULT 'x--y'\n"
+            + ");\n"
+            + "\n"
+            + "CREATE TRIGGER g AFTER DELETE ON t\n"
+            + "    FOR EACH ROW DELETE FROM u WHERE a = OLD.a;\n"
+            + "INSERT INTO t VALUES (1, 'a;b')";
+        assertEquals(Arrays.asList(
+            "CREATE TABLE t (\na INT,\nb VARCHAR(10) DEFAULT 'x--y'\n)",
+            "CREATE TRIGGER g AFTER DELETE ON t\nFOR EACH ROW DELETE FROM u WHERE a = OLD.a",
+            "INSERT INTO t VALUES (1, 'a;b')"), MigrationRunner.split(script));
+
+        MigrationRunner.Migration migration = new MigrationRunner.Migration("V7__add_things.sql", script);
+        assertEquals(7, migration.version);
+        assertEquals("add things", migration.description);
+        assertEquals("MySQL", migration.dialect);
+    }
+
+    /**
+     * Every released script is present and splits into statements.
+     */
+    public void testLoadsReleasedScripts() throws SQLException {
+        List<MigrationRunner.Migration> migrations = MigrationRunner.load();
+        assertEquals(MigrationRunner.MIGRATIONS.length, migrations.size());
+        for (int i = 0; i < migrations.size(); i++) {
+            assertEquals(i + 1, migrations.get(i).version);
+            assertFalse(migrations.get(i).statements.isEmpty());
+        }
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Database.Session session = database.lease();
+             Statement statement = session.connection().createStatement()) {
+            statement.execute(sql);
+            session.commit();
+        }
+    }
+}